@@ -0,0 +1,302 @@
+package com.hsbc.common.collection;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Concurrent Long-to-Long Map
+ * Primitive counterpart of {@link ConcurrentLongObjectMap} for non-negative {@code long} values, e.g. row numbers or
+ * log positions, so an index holds no objects per entry at all
+ * Same design: independently locked and resized segments, lock-free reads, tombstones purged on resize
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class ConcurrentLongLongMap {
+
+    /**
+     * Value returned for absent keys
+     */
+    public static final long NO_VALUE = -1L;
+
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private static final long TOMBSTONE = Long.MIN_VALUE + 1;
+
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    private final Segment[] segments;
+
+    private final int segmentShift;
+
+    /**
+     * Constructor
+     *
+     * @param initialCapacity Expected number of entries
+     * @param concurrencyLevel Number of segments, rounded up to a power of two
+     */
+    public ConcurrentLongLongMap(int initialCapacity, int concurrencyLevel) {
+        int segmentCount = LongHashes.tableSizeFor(Math.max(1, concurrencyLevel));
+        int segmentCapacity = LongHashes.tableSizeFor(Math.max(MIN_SEGMENT_CAPACITY, (int) (initialCapacity / segmentCount / LOAD_FACTOR) + 1));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    /**
+     * Get the value of a key
+     *
+     * @param key Key
+     * @return Value, {@link #NO_VALUE} if absent
+     */
+    public long get(long key) {
+        long hash = LongHashes.mix(key);
+        Table table = segmentFor(hash).table;
+        int mask = table.keys.length - 1;
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            long value = (long) VALUES.getAcquire(table.values, i);
+            if (value == EMPTY) {
+                return NO_VALUE;
+            }
+            if (table.keys[i] == key) {
+                return value == TOMBSTONE ? NO_VALUE : value;
+            }
+        }
+    }
+
+    /**
+     * Check whether a key is present
+     *
+     * @param key Key
+     * @return Whether the key is present
+     */
+    public boolean containsKey(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    /**
+     * Associate a value with a key
+     *
+     * @param key Key
+     * @param value Non-negative value
+     * @return Previous value, {@link #NO_VALUE} if absent
+     */
+    public long put(long key, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        long hash = LongHashes.mix(key);
+        return segmentFor(hash).put(key, hash, value);
+    }
+
+    /**
+     * Remove a key
+     *
+     * @param key Key
+     * @return Removed value, {@link #NO_VALUE} if absent
+     */
+    public long remove(long key) {
+        long hash = LongHashes.mix(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * Get the number of entries
+     * Segment sizes are read without locking, so the result is approximate under concurrent writes
+     *
+     * @return Number of entries
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Get the total number of slots, for memory estimation
+     *
+     * @return Number of slots of all segments
+     */
+    public long capacity() {
+        long capacity = 0;
+        for (Segment segment : segments) {
+            capacity += segment.table.keys.length;
+        }
+        return capacity;
+    }
+
+    /**
+     * Visit all entries, each segment under its lock, so the action must not write to the map
+     *
+     * @param action Entry action
+     */
+    public void forEach(EntryConsumer action) {
+        for (Segment segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Action on a map entry, without boxing
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Accept an entry
+         *
+         * @param key Key
+         * @param value Value
+         */
+        void accept(long key, long value);
+    }
+
+    /**
+     * Slot arrays of a segment, replaced as a whole on resize
+     */
+    private static final class Table {
+
+        private final long[] keys;
+
+        private final long[] values;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+            Arrays.fill(values, EMPTY);
+        }
+    }
+
+    /**
+     * Independently locked part of the map
+     */
+    private static final class Segment {
+
+        private volatile Table table;
+
+        /**
+         * Number of live entries
+         */
+        private volatile int size;
+
+        /**
+         * Number of occupied slots, live entries plus tombstones
+         */
+        private int used;
+
+        private final int initialCapacity;
+
+        private Segment(int capacity) {
+            this.initialCapacity = capacity;
+            this.table = new Table(capacity);
+        }
+
+        private synchronized long put(long key, long hash, long value) {
+            Table current = table;
+            int mask = current.keys.length - 1;
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                long existing = current.values[i];
+                if (existing == EMPTY) {
+                    current.keys[i] = key;
+                    VALUES.setRelease(current.values, i, value);
+                    size++;
+                    if (++used > current.keys.length * LOAD_FACTOR) {
+                        resize();
+                    }
+                    return NO_VALUE;
+                }
+                if (current.keys[i] == key) {
+                    VALUES.setRelease(current.values, i, value);
+                    if (existing == TOMBSTONE) {
+                        size++;
+                        return NO_VALUE;
+                    }
+                    return existing;
+                }
+            }
+        }
+
+        private synchronized long remove(long key, long hash) {
+            Table current = table;
+            int mask = current.keys.length - 1;
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                long existing = current.values[i];
+                if (existing == EMPTY) {
+                    return NO_VALUE;
+                }
+                if (current.keys[i] == key) {
+                    if (existing == TOMBSTONE) {
+                        return NO_VALUE;
+                    }
+                    VALUES.setRelease(current.values, i, TOMBSTONE);
+                    size--;
+                    return existing;
+                }
+            }
+        }
+
+        /**
+         * Rebuild the table sized for the live entries, dropping tombstones
+         * Must be called with the segment lock held
+         */
+        private void resize() {
+            Table current = table;
+            int capacity = LongHashes.tableSizeFor(Math.max(initialCapacity, (int) (size * 2 / LOAD_FACTOR) + 1));
+            Table resized = new Table(capacity);
+            int mask = capacity - 1;
+            for (int j = 0; j < current.keys.length; j++) {
+                long value = current.values[j];
+                if (value != EMPTY && value != TOMBSTONE) {
+                    long key = current.keys[j];
+                    int i = (int) LongHashes.mix(key) & mask;
+                    while (resized.values[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    resized.keys[i] = key;
+                    resized.values[i] = value;
+                }
+            }
+            used = size;
+            table = resized;
+        }
+
+        private synchronized void forEach(EntryConsumer action) {
+            Table current = table;
+            for (int i = 0; i < current.keys.length; i++) {
+                long value = current.values[i];
+                if (value != EMPTY && value != TOMBSTONE) {
+                    action.accept(current.keys[i], value);
+                }
+            }
+        }
+
+        private synchronized void clear() {
+            table = new Table(initialCapacity);
+            size = 0;
+            used = 0;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.hsbc.common.collection;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Concurrent Long-Keyed Object Map
+ * Open-addressing hash map with primitive {@code long} keys, avoiding boxed keys and per-entry nodes
+ * Keys are spread over independently locked segments; each segment resizes on its own, so a resize only blocks
+ * writers of that segment. Reads take no lock: a slot's key is written before its value is published with release
+ * semantics, and a segment's table is replaced as a whole after a resize
+ * Removed entries leave a tombstone that is only reused by the same key and purged by the next resize
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ * @param <V> Value type
+ */
+public class ConcurrentLongObjectMap<V> {
+
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private static final Object TOMBSTONE = new Object();
+
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    private final Segment<V>[] segments;
+
+    private final int segmentShift;
+
+    /**
+     * Constructor
+     *
+     * @param initialCapacity Expected number of entries
+     * @param concurrencyLevel Number of segments, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongObjectMap(int initialCapacity, int concurrencyLevel) {
+        int segmentCount = LongHashes.tableSizeFor(Math.max(1, concurrencyLevel));
+        int segmentCapacity = LongHashes.tableSizeFor(Math.max(MIN_SEGMENT_CAPACITY, (int) (initialCapacity / segmentCount / LOAD_FACTOR) + 1));
+        this.segments = (Segment<V>[]) new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    /**
+     * Get the value of a key
+     *
+     * @param key Key
+     * @return Value, null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long hash = LongHashes.mix(key);
+        Table table = segmentFor(hash).table;
+        int mask = table.keys.length - 1;
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            Object value = VALUES.getAcquire(table.values, i);
+            if (value == null) {
+                return null;
+            }
+            if (table.keys[i] == key) {
+                return value == TOMBSTONE ? null : (V) value;
+            }
+        }
+    }
+
+    /**
+     * Check whether a key is present
+     *
+     * @param key Key
+     * @return Whether the key is present
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associate a value with a key
+     *
+     * @param key Key
+     * @param value Value, not null
+     * @return Previous value, null if absent
+     */
+    public V put(long key, V value) {
+        long hash = LongHashes.mix(key);
+        return segmentFor(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * Associate a value with a key if the key is absent
+     *
+     * @param key Key
+     * @param value Value, not null
+     * @return Current value if present, otherwise null
+     */
+    public V putIfAbsent(long key, V value) {
+        long hash = LongHashes.mix(key);
+        return segmentFor(hash).put(key, hash, value, true);
+    }
+
+    /**
+     * Remove a key
+     *
+     * @param key Key
+     * @return Removed value, null if absent
+     */
+    public V remove(long key) {
+        long hash = LongHashes.mix(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * Get the number of entries
+     * Segment sizes are read without locking, so the result is approximate under concurrent writes
+     *
+     * @return Number of entries
+     */
+    public long size() {
+        long size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Get the total number of slots, for memory estimation
+     *
+     * @return Number of slots of all segments
+     */
+    public long capacity() {
+        long capacity = 0;
+        for (Segment<V> segment : segments) {
+            capacity += segment.table.keys.length;
+        }
+        return capacity;
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Slot arrays of a segment, replaced as a whole on resize
+     */
+    private static final class Table {
+
+        private final long[] keys;
+
+        private final Object[] values;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+    }
+
+    /**
+     * Independently locked part of the map
+     */
+    private static final class Segment<V> {
+
+        private volatile Table table;
+
+        /**
+         * Number of live entries
+         */
+        private volatile int size;
+
+        /**
+         * Number of occupied slots, live entries plus tombstones
+         */
+        private int used;
+
+        private final int initialCapacity;
+
+        private Segment(int capacity) {
+            this.initialCapacity = capacity;
+            this.table = new Table(capacity);
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized V put(long key, long hash, V value, boolean onlyIfAbsent) {
+            Table current = table;
+            int mask = current.keys.length - 1;
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                Object existing = current.values[i];
+                if (existing == null) {
+                    current.keys[i] = key;
+                    VALUES.setRelease(current.values, i, value);
+                    size++;
+                    if (++used > current.keys.length * LOAD_FACTOR) {
+                        resize();
+                    }
+                    return null;
+                }
+                if (current.keys[i] == key) {
+                    if (existing == TOMBSTONE) {
+                        VALUES.setRelease(current.values, i, value);
+                        size++;
+                        return null;
+                    }
+                    if (!onlyIfAbsent) {
+                        VALUES.setRelease(current.values, i, value);
+                    }
+                    return (V) existing;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized V remove(long key, long hash) {
+            Table current = table;
+            int mask = current.keys.length - 1;
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                Object existing = current.values[i];
+                if (existing == null) {
+                    return null;
+                }
+                if (current.keys[i] == key) {
+                    if (existing == TOMBSTONE) {
+                        return null;
+                    }
+                    VALUES.setRelease(current.values, i, TOMBSTONE);
+                    size--;
+                    return (V) existing;
+                }
+            }
+        }
+
+        /**
+         * Rebuild the table sized for the live entries, dropping tombstones
+         * Must be called with the segment lock held
+         */
+        private void resize() {
+            Table current = table;
+            int capacity = LongHashes.tableSizeFor(Math.max(initialCapacity, (int) (size * 2 / LOAD_FACTOR) + 1));
+            Table resized = new Table(capacity);
+            int mask = capacity - 1;
+            for (int j = 0; j < current.keys.length; j++) {
+                Object value = current.values[j];
+                if (value != null && value != TOMBSTONE) {
+                    long key = current.keys[j];
+                    int i = (int) LongHashes.mix(key) & mask;
+                    while (resized.values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    resized.keys[i] = key;
+                    resized.values[i] = value;
+                }
+            }
+            used = size;
+            table = resized;
+        }
+
+        private synchronized void clear() {
+            table = new Table(initialCapacity);
+            size = 0;
+            used = 0;
+        }
+    }
+}
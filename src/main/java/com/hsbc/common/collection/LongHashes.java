@@ -0,0 +1,57 @@
+package com.hsbc.common.collection;
+
+/**
+ * Long Hash Helper Class
+ * Hashing and sizing helpers shared by the primitive long-keyed maps, 64-bit string hashing, and power-of-two sizing
+ * of striped structures
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public final class LongHashes {
+
+    private LongHashes() {
+    }
+
+    /**
+     * Mix the key bits (MurmurHash3 finalizer), Snowflake IDs keep their low bits constant under low load
+     *
+     * @param key Key
+     * @return Hash with all bits depending on all key bits
+     */
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Hash a string to 64 bits (FNV-1a over its UTF-16 chars), for keys whose 32-bit {@link String#hashCode()} would
+     * collide too often at the number of keys held
+     *
+     * @param value String
+     * @return 64-bit hash
+     */
+    public static long hash(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Round a capacity up to a power of two
+     *
+     * @param capacity Capacity
+     * @return Smallest power of two not below the capacity
+     */
+    public static int tableSizeFor(int capacity) {
+        return capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+}
@@ -0,0 +1,129 @@
+package com.hsbc.common.collection;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Multi-Producer Single-Consumer Ring Buffer
+ * Bounded lock-free queue: producers claim a slot by advancing the shared tail with CAS and publish the element by
+ * releasing the slot's sequence number; the single consumer reads slots in order as their sequence shows them
+ * published, so a slow producer delays only the elements after its own slot
+ * Each slot's sequence tells whose turn it is: equal to the position when free for the producer of that position,
+ * position + 1 when published for the consumer
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ * @param <E> Element type
+ */
+public class MpscRingBuffer<E> {
+
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final Object[] elements;
+
+    private final long[] sequences;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Next position to consume, only written by the consumer
+     */
+    private volatile long head;
+
+    /**
+     * Constructor
+     *
+     * @param capacity Number of slots, rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        int size = LongHashes.tableSizeFor(Math.max(2, capacity));
+        this.elements = new Object[size];
+        this.sequences = new long[size];
+        for (int i = 0; i < size; i++) {
+            sequences[i] = i;
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Add an element, from any thread
+     *
+     * @param element Element, not null
+     * @return Whether the element was added, false if the buffer is full
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = (long) SEQUENCES.getAcquire(sequences, index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    ELEMENTS.set(elements, index, element);
+                    SEQUENCES.setRelease(sequences, index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Remove published elements in order, from the consumer thread only
+     *
+     * @param consumer Receives the elements
+     * @param limit Maximum number of elements
+     * @return Number of elements removed
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<E> consumer, int limit) {
+        int count = 0;
+        while (count < limit) {
+            int index = (int) head & mask;
+            if ((long) SEQUENCES.getAcquire(sequences, index) != head + 1) {
+                break;
+            }
+            E element = (E) ELEMENTS.get(elements, index);
+            ELEMENTS.set(elements, index, null);
+            SEQUENCES.setRelease(sequences, index, head + elements.length);
+            head++;
+            count++;
+            consumer.accept(element);
+        }
+        return count;
+    }
+
+    /**
+     * Check whether no element is published, from the consumer thread only
+     *
+     * @return Whether the next slot holds no published element
+     */
+    public boolean isEmpty() {
+        return (long) SEQUENCES.getAcquire(sequences, (int) head & mask) != head + 1;
+    }
+
+    /**
+     * Get the number of claimed slots not yet consumed, approximate under concurrent use
+     *
+     * @return Number of elements
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * Get the number of slots
+     *
+     * @return Capacity
+     */
+    public int capacity() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,177 @@
+package com.hsbc.common.collection;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scalable Bloom Filter
+ * Concurrent Bloom filter over {@code long} keys that grows with the number of insertions while keeping the overall
+ * false-positive rate bounded: when a stage reaches its capacity a new stage twice as large with half the
+ * false-positive rate is added, so the rates of all stages sum to at most the configured rate
+ * Keys are mixed before use; strings are keyed by a 64-bit hash such as {@link LongHashes#hash(CharSequence)}, as
+ * colliding 32-bit hashes would add their collision rate to the false-positive rate
+ * Bits are set with atomic OR and read without locking. Elements cannot be removed, so a filter over a set with
+ * removals is rebuilt by its owner from time to time
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class ScalableBloomFilter {
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Capacity growth factor of each new stage
+     */
+    private static final int GROWTH = 2;
+
+    /**
+     * False-positive rate ratio of each new stage to the previous one
+     */
+    private static final double TIGHTENING = 0.5;
+
+    /**
+     * Stages, replaced as a whole when a stage is added so readers need no lock
+     */
+    private volatile Stage[] stages;
+
+    /**
+     * Constructor
+     *
+     * @param expectedInsertions Capacity of the first stage
+     * @param falsePositiveRate Overall false-positive rate, between 0 and 1 exclusive
+     */
+    public ScalableBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        this.stages = new Stage[]{new Stage(Math.max(64, expectedInsertions), falsePositiveRate * (1 - TIGHTENING))};
+    }
+
+    /**
+     * Add a key
+     *
+     * @param key Key
+     */
+    public void add(long key) {
+        long hash = LongHashes.mix(key);
+        Stage[] current = stages;
+        Stage last = current[current.length - 1];
+        if (last.insertions.incrementAndGet() > last.capacity) {
+            last = grow(current);
+        }
+        last.set(hash);
+    }
+
+    private synchronized Stage grow(Stage[] seen) {
+        Stage[] current = stages;
+        if (current == seen) {
+            Stage last = current[current.length - 1];
+            Stage[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = new Stage(last.capacity * GROWTH, last.falsePositiveRate * TIGHTENING);
+            stages = grown;
+            current = grown;
+        }
+        Stage last = current[current.length - 1];
+        last.insertions.incrementAndGet();
+        return last;
+    }
+
+    /**
+     * Check whether a key may have been added
+     *
+     * @param key Key
+     * @return False if the key was definitely never added, true if it probably was
+     */
+    public boolean mightContain(long key) {
+        long hash = LongHashes.mix(key);
+        for (Stage stage : stages) {
+            if (stage.test(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of stages
+     *
+     * @return Number of stages
+     */
+    public int stageCount() {
+        return stages.length;
+    }
+
+    /**
+     * Get the memory held by the bit arrays
+     *
+     * @return Bytes
+     */
+    public long approximateBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += (long) stage.words.length * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Fixed-size Bloom filter stage with a power-of-two number of bits
+     */
+    private static final class Stage {
+
+        private final long capacity;
+
+        private final double falsePositiveRate;
+
+        private final long[] words;
+
+        private final long mask;
+
+        private final int hashCount;
+
+        private final AtomicLong insertions = new AtomicLong();
+
+        private Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            double ln2 = Math.log(2);
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+            long bits = Long.highestOneBit(Math.max(64, optimalBits - 1)) << 1;
+            this.words = new long[(int) Math.min(Integer.MAX_VALUE - 8, bits / Long.SIZE)];
+            this.mask = (long) words.length * Long.SIZE - 1;
+            this.hashCount = Math.max(1, (int) Math.round((double) bits / capacity * ln2));
+        }
+
+        /**
+         * Bit positions are derived by double hashing from the two halves of the mixed key
+         */
+        private void set(long hash) {
+            long h1 = hash;
+            long h2 = (hash >>> 32) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = (h1 + i * h2) & mask;
+                int index = (int) (bit >>> 6);
+                long word = 1L << bit;
+                if (((long) WORDS.getOpaque(words, index) & word) == 0) {
+                    WORDS.getAndBitwiseOrRelease(words, index, word);
+                }
+            }
+        }
+
+        private boolean test(long hash) {
+            long h1 = hash;
+            long h2 = (hash >>> 32) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = (h1 + i * h2) & mask;
+                if (((long) WORDS.getAcquire(words, (int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
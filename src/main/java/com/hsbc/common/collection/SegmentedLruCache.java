@@ -0,0 +1,344 @@
+package com.hsbc.common.collection;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Segmented LRU Cache
+ * Bounded concurrent cache evicting by segmented LRU: new entries enter a probation segment and are promoted to a
+ * protected segment (80% of the capacity) when read again, so a scan of once-read entries only evicts other probation
+ * entries and leaves the frequently read entries alone
+ * Keys are partitioned by hash over independently locked segments. Capacity is a total weight, the number of entries
+ * with a weigher returning 1, or estimated bytes
+ * Concurrent misses of the same key run the loader once, the other callers wait for its result. An invalidation of a
+ * key while its value is loading keeps that value out of the cache, so a load racing with an update never caches the
+ * value read before the update
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class SegmentedLruCache<K, V> {
+
+    /**
+     * Share of a segment's capacity held by its protected entries
+     */
+    private static final double PROTECTED_SHARE = 0.8;
+
+    private final Segment<K, V>[] segments;
+
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+
+    /**
+     * Loads in progress, removed by invalidations to keep their values out of the cache
+     */
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor
+     *
+     * @param maxWeight Maximum total weight of the entries
+     * @param segmentCount Number of independently locked segments, rounded up to a power of two
+     * @param weigher Weight of an entry, at least 1
+     */
+    @SuppressWarnings("unchecked")
+    public SegmentedLruCache(long maxWeight, int segmentCount, ToLongBiFunction<? super K, ? super V> weigher) {
+        this.segments = new Segment[LongHashes.tableSizeFor(segmentCount)];
+        long segmentWeight = Math.max(1, maxWeight / segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment<>(segmentWeight, evictions);
+        }
+        this.weigher = weigher;
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * Get a cached value, counted as a hit or a miss
+     *
+     * @param key Key
+     * @return Cached value, null if absent
+     */
+    public V getIfPresent(K key) {
+        V value = segmentFor(key).get(key);
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    /**
+     * Get a cached value without counting it or changing its segment
+     *
+     * @param key Key
+     * @return Cached value, null if absent
+     */
+    public V peek(K key) {
+        return segmentFor(key).peek(key);
+    }
+
+    /**
+     * Get a cached value, or load and cache it on a miss; concurrent misses of the same key load it once
+     *
+     * @param key Key
+     * @param loader Loads the value of a key, null if there is none (not cached)
+     * @return Value, null if the loader found none
+     * @throws RuntimeException Thrown by the loader
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            V loaded = loader.apply(key);
+            // Cache only while the load is still registered, under the lock of its key in the loading map
+            loading.computeIfPresent(key, (k, registered) -> {
+                if (registered == load && loaded != null) {
+                    segmentFor(k).put(k, loaded, weigher.applyAsLong(k, loaded));
+                }
+                return registered == load ? null : registered;
+            });
+            load.complete(loaded);
+            return loaded;
+        } catch (RuntimeException | Error e) {
+            loading.remove(key, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Cache a value, replacing the cached value of the key
+     *
+     * @param key Key
+     * @param value Value, not null
+     */
+    public void put(K key, V value) {
+        segmentFor(key).put(key, value, weigher.applyAsLong(key, value));
+    }
+
+    /**
+     * Remove a key, and keep the value of a load of the key in progress out of the cache
+     *
+     * @param key Key
+     */
+    public void invalidate(K key) {
+        loading.remove(key);
+        segmentFor(key).remove(key);
+    }
+
+    /**
+     * Remove all keys, and keep the values of the loads in progress out of the cache
+     */
+    public void invalidateAll() {
+        loading.clear();
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Get the number of cached entries
+     *
+     * @return Number of entries
+     */
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Get the total weight of the cached entries
+     *
+     * @return Weight
+     */
+    public long weight() {
+        long weight = 0;
+        for (Segment<K, V> segment : segments) {
+            weight += segment.weight();
+        }
+        return weight;
+    }
+
+    /**
+     * Get the number of reads finding a cached value
+     *
+     * @return Number of hits
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of reads finding no cached value, including those waiting for another caller's load
+     *
+     * @return Number of misses
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of entries evicted to fit the capacity
+     *
+     * @return Number of evictions
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Cached value with its weight
+     */
+    private record Entry<V>(V value, long weight) {
+    }
+
+    /**
+     * Independently locked segment, its maps are in LRU-to-MRU order
+     */
+    private static final class Segment<K, V> {
+
+        private final Map<K, Entry<V>> probation = new LinkedHashMap<>();
+
+        private final Map<K, Entry<V>> protectedEntries = new LinkedHashMap<>();
+
+        private final long maxWeight;
+
+        private final long maxProtectedWeight;
+
+        private final LongAdder evictions;
+
+        private long probationWeight;
+
+        private long protectedWeight;
+
+        private Segment(long maxWeight, LongAdder evictions) {
+            this.maxWeight = maxWeight;
+            this.maxProtectedWeight = (long) (maxWeight * PROTECTED_SHARE);
+            this.evictions = evictions;
+        }
+
+        private synchronized V get(K key) {
+            Entry<V> entry = protectedEntries.remove(key);
+            if (entry != null) {
+                protectedEntries.put(key, entry);
+                return entry.value();
+            }
+            entry = probation.remove(key);
+            if (entry == null) {
+                return null;
+            }
+            probationWeight -= entry.weight();
+            protectedEntries.put(key, entry);
+            protectedWeight += entry.weight();
+            // Demote the least recently used protected entries back to probation
+            Iterator<Map.Entry<K, Entry<V>>> lru = protectedEntries.entrySet().iterator();
+            while (protectedWeight > maxProtectedWeight && protectedEntries.size() > 1) {
+                Map.Entry<K, Entry<V>> demoted = lru.next();
+                lru.remove();
+                protectedWeight -= demoted.getValue().weight();
+                probation.put(demoted.getKey(), demoted.getValue());
+                probationWeight += demoted.getValue().weight();
+            }
+            return entry.value();
+        }
+
+        private synchronized V peek(K key) {
+            Entry<V> entry = protectedEntries.get(key);
+            if (entry == null) {
+                entry = probation.get(key);
+            }
+            return entry == null ? null : entry.value();
+        }
+
+        private synchronized void put(K key, V value, long weight) {
+            Entry<V> entry = new Entry<>(value, Math.max(1, weight));
+            Entry<V> replaced = protectedEntries.get(key);
+            if (replaced != null && entry.weight() <= maxWeight) {
+                protectedEntries.put(key, entry);
+                protectedWeight += entry.weight() - replaced.weight();
+            } else {
+                remove(key);
+                if (entry.weight() > maxWeight) {
+                    return;
+                }
+                probation.put(key, entry);
+                probationWeight += entry.weight();
+            }
+            evict();
+        }
+
+        /**
+         * Evict the least recently used entries, probation before protected, until the segment fits its capacity
+         */
+        private void evict() {
+            while (probationWeight + protectedWeight > maxWeight) {
+                Map<K, Entry<V>> victims = probation.isEmpty() ? protectedEntries : probation;
+                Iterator<Entry<V>> lru = victims.values().iterator();
+                long weight = lru.next().weight();
+                lru.remove();
+                if (victims == probation) {
+                    probationWeight -= weight;
+                } else {
+                    protectedWeight -= weight;
+                }
+                evictions.increment();
+            }
+        }
+
+        private synchronized void remove(K key) {
+            Entry<V> entry = probation.remove(key);
+            if (entry != null) {
+                probationWeight -= entry.weight();
+            }
+            entry = protectedEntries.remove(key);
+            if (entry != null) {
+                protectedWeight -= entry.weight();
+            }
+        }
+
+        private synchronized void clear() {
+            probation.clear();
+            protectedEntries.clear();
+            probationWeight = 0;
+            protectedWeight = 0;
+        }
+
+        private synchronized int size() {
+            return probation.size() + protectedEntries.size();
+        }
+
+        private synchronized long weight() {
+            return probationWeight + protectedWeight;
+        }
+    }
+}
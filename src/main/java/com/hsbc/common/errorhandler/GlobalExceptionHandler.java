@@ -8,11 +8,14 @@ import com.hsbc.common.errorhandler.enums.ErrorLevel;
 import com.hsbc.common.errorhandler.bean.ErrorResponse;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.util.concurrent.atomic.AtomicLongArray;
+
 /**
  * Global Exception Handler
  * Used to handle various exceptions thrown in the system and provide standardized exception responses
@@ -25,29 +28,60 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 @Slf4j
 public class GlobalExceptionHandler {
 
+    /**
+     * Log the stack trace of WARN/INFO level business exceptions once every this many occurrences per error code
+     */
+    @Value("${trans.error.stack-trace-sample-interval:100}")
+    private long stackTraceSampleInterval;
+
+    /**
+     * Occurrence counters of business exceptions, indexed by error code ordinal
+     */
+    private final AtomicLongArray occurrences = new AtomicLongArray(ErrorCode.values().length);
+
     /**
      * Handle business exceptions
      * Records logs at different levels based on the exception's error level and returns a standardized error response
+     * Stack traces of expected (WARN/INFO level) business errors are only logged for sampled occurrences
      *
      * @param ex Business exception
      * @return Response entity containing error information
      */
     @ExceptionHandler(BusinessException.class)
     public ResponseEntity<CommonResponse<Object>> handleBusinessException(BusinessException ex) {
-        ErrorResponse error = new ErrorResponse(ex.getCode());
-        if (ErrorLevel.ERROR.equals(ErrorLevel.getByCode(error.getLevel()))) {
+        ErrorCode ec = ErrorCode.getByCode(ex.getCode());
+        ErrorResponse error = ErrorResponse.of(ex.getCode(), ec);
+        if (ErrorLevel.ERROR.equals(ec.getLevel())) {
             log.error("Business exception caught by global handler, error code: {}, error message: {}", ex.getCode(), ex.getMessage(), ex);
-        } else if (ErrorLevel.WARN.equals(ErrorLevel.getByCode(error.getLevel()))) {
-            log.warn("Business warning caught by global handler, error code: {}, error message: {}", ex.getCode(), ex.getMessage(), ex);
-        } else {
-            log.info("Business notification caught by global handler, error code: {}, error message: {}", ex.getCode(), ex.getMessage(), ex);
+        } else if (ErrorLevel.WARN.equals(ec.getLevel())) {
+            if (log.isWarnEnabled()) {
+                log.warn("Business warning caught by global handler, error code: {}, error message: {}", ex.getCode(), ex.getMessage(), sampledCause(ec, ex));
+            }
+        } else if (log.isInfoEnabled()) {
+            log.info("Business notification caught by global handler, error code: {}, error message: {}", ex.getCode(), ex.getMessage(), sampledCause(ec, ex));
         }
         if (ex instanceof ParamValidationException) {
-            error.setMessage(error.getMessage() + "(" + ex.getMessage() + ")");
+            error = error.withMessage(error.getMessage() + "(" + ex.getMessage() + ")");
         }
         return new ResponseEntity<>(CommonResponse.fail(error), HttpStatus.OK);
     }
 
+    /**
+     * Decide whether the stack trace of this occurrence should be logged
+     * Stackless exceptions have no trace to sample and are never logged with one
+     *
+     * @param ec Error code of the exception
+     * @param ex Business exception
+     * @return The exception for sampled occurrences with a stack trace, null otherwise
+     */
+    private Throwable sampledCause(ErrorCode ec, BusinessException ex) {
+        if (ex.getStackTrace().length == 0) {
+            return null;
+        }
+        long occurrence = occurrences.getAndIncrement(ec.ordinal());
+        return stackTraceSampleInterval > 0 && occurrence % stackTraceSampleInterval == 0 ? ex : null;
+    }
+
     /**
      * Handle parameter validation exceptions
      * Handles parameter validation exceptions thrown by the Jakarta Validation framework
@@ -57,8 +91,8 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<CommonResponse<Object>> handleGlobalException(ConstraintViolationException ex) {
-        ErrorResponse error = new ErrorResponse(ErrorCode.PARAM_ERROR.getCode());
-        error.setMessage(error.getMessage() + "(" + ex.getMessage() + ")");
+        ErrorResponse error = ErrorResponse.of(ErrorCode.PARAM_ERROR.getCode());
+        error = error.withMessage(error.getMessage() + "(" + ex.getMessage() + ")");
         log.error("Parameter validation exception caught by global handler, error code: {}, error message: {}", error.getCode(), ex.getMessage(), ex);
         return new ResponseEntity<>(CommonResponse.fail(error), HttpStatus.OK);
     }
@@ -72,7 +106,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<CommonResponse<Object>> handleGlobalException(Exception ex) {
-        ErrorResponse error = new ErrorResponse(ErrorCode.SYSTEM_ERROR.getCode());
+        ErrorResponse error = ErrorResponse.of(ErrorCode.SYSTEM_ERROR.getCode());
         log.error("System exception caught by global handler, error code: {}, error message: {}", error.getCode(), ex.getMessage(), ex);
         return new ResponseEntity<>(CommonResponse.fail(error), HttpStatus.OK);
     }
@@ -1,37 +1,53 @@
 package com.hsbc.common.errorhandler.bean;
 
 import com.hsbc.trans.enums.ErrorCode;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Error Response Object
  * Used to encapsulate system error information, including error code, message, type, and level
+ * Instances are immutable, so the payload of every known error code is built once and shared
  *
  * @author rd
  * @version 1.0
  * @since 2025/6/12
  */
-@Data
-public class ErrorResponse {
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class ErrorResponse {
+
+    /**
+     * Pre-built error responses, keyed by error code
+     */
+    private static final Map<String, ErrorResponse> PREBUILT = Arrays.stream(ErrorCode.values())
+        .collect(Collectors.toUnmodifiableMap(ErrorCode::getCode, ec -> new ErrorResponse(ec.getCode(), ec)));
+
     /**
      * Error code
      */
-    private String code;
+    private final String code;
 
     /**
      * Error message
      */
-    private String message;
+    private final String message;
 
     /**
      * Error type
      */
-    private String type;
+    private final String type;
 
     /**
      * Error level
      */
-    private int level;
+    private final int level;
 
     /**
      * Constructor
@@ -40,14 +56,50 @@ public class ErrorResponse {
      * @param code Error code
      */
     public ErrorResponse(String code) {
-        ErrorCode ec = ErrorCode.getByCode(code);
-        this.message = ec.getMsg();
-        this.type = ec.getType().name();
-        this.level = ec.getLevel().getCode();
-        if (ec.equals(ErrorCode.UNKNOWN_ERROR)) {
-            this.code = code;
-        } else {
-            this.code = code;
-        }
+        this(code, ErrorCode.getByCode(code));
+    }
+
+    private ErrorResponse(String code, ErrorCode ec) {
+        this(code, ec.getMsg(), ec.getType().name(), ec.getLevel().getCode());
+    }
+
+    private ErrorResponse(String code, String message, String type, int level) {
+        this.code = code;
+        this.message = message;
+        this.type = type;
+        this.level = level;
+    }
+
+    /**
+     * Get the error response of an error code
+     * Known codes return a shared pre-built instance, unknown codes fall back to {@link ErrorCode#UNKNOWN_ERROR} details
+     *
+     * @param code Error code
+     * @return Error response
+     */
+    public static ErrorResponse of(String code) {
+        ErrorResponse prebuilt = code == null ? null : PREBUILT.get(code);
+        return prebuilt != null ? prebuilt : new ErrorResponse(code);
+    }
+
+    /**
+     * Get the error response of an error code already resolved by the caller, without looking it up again
+     *
+     * @param code Error code
+     * @param ec Error code enumeration of the code, {@link ErrorCode#UNKNOWN_ERROR} for unknown codes
+     * @return Error response
+     */
+    public static ErrorResponse of(String code, ErrorCode ec) {
+        return ec.getCode().equals(code) ? PREBUILT.get(code) : new ErrorResponse(code, ec);
+    }
+
+    /**
+     * Copy this error response with another message
+     *
+     * @param message Error message
+     * @return New error response with the same code, type and level
+     */
+    public ErrorResponse withMessage(String message) {
+        return new ErrorResponse(code, message, type, level);
     }
-} 
\ No newline at end of file
+}
@@ -87,6 +87,30 @@ public class BusinessException extends RuntimeException {
         this.code = code;
     }
 
+    /**
+     * 使用异常消息和错误码构造异常，可选择是否填充调用栈
+     * 预期内的业务结果（如记录不存在、重复提交）不需要调用栈，跳过填充可显著降低异常路径开销
+     *
+     * @param message 异常消息
+     * @param code 错误码
+     * @param writableStackTrace 是否填充调用栈
+     */
+    protected BusinessException(String message, String code, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.code = code;
+    }
+
+    /**
+     * 创建不填充调用栈的业务异常，用于预期内的业务结果
+     *
+     * @param message 异常消息
+     * @param code 错误码
+     * @return 不带调用栈的异常实例
+     */
+    public static BusinessException stackless(String message, String code) {
+        return new BusinessException(message, code, false);
+    }
+
     /**
      * 设置错误码并返回异常实例
      *
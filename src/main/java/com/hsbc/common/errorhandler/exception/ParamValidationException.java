@@ -3,6 +3,7 @@ package com.hsbc.common.errorhandler.exception;
 /**
  * Parameter Validation Exception
  * Used to represent parameter validation failures, extends from business exception
+ * Validation failures are expected client errors, so no stack trace is filled in
  *
  * @author rd
  * @version 1.0
@@ -16,6 +17,6 @@ public class ParamValidationException extends BusinessException {
      * @param message Error message
      */
     public ParamValidationException(String message) {
-        super(message);
+        super(message, null, false);
     }
 }
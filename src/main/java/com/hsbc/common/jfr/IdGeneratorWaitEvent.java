@@ -0,0 +1,32 @@
+package com.hsbc.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+/**
+ * ID Generator Wait JFR Event
+ * Emitted when the ID generator spins until the next millisecond because the sequence is exhausted
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Name("com.hsbc.trans.IdGeneratorWait")
+@Label("ID Generator Wait")
+@Category({"Transaction", "ID Generator"})
+@Description("Spin until the next millisecond after the ID sequence is exhausted")
+@StackTrace(false)
+public class IdGeneratorWaitEvent extends Event {
+
+    @Label("Last Timestamp")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    public long lastTimestamp;
+
+    @Label("Generated ID")
+    public long transactionId;
+}
@@ -0,0 +1,84 @@
+package com.hsbc.common.jfr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.common.response.CommonResponse;
+import com.hsbc.common.timing.Stage;
+import com.hsbc.common.timing.StageTimer;
+import com.hsbc.trans.bean.Transaction;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * JFR Jackson HTTP Message Converter
+ * Replaces the default Jackson converter, emits a {@link SerializationEvent} for slow response body writes and
+ * times them as the {@link Stage#SERIALIZATION} request stage
+ * Uses the application ObjectMapper, so the JSON output is unchanged
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Component
+public class JfrJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    /**
+     * Constructor
+     *
+     * @param objectMapper Application object mapper
+     */
+    public JfrJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        Stage previousStage = StageTimer.enter(Stage.SERIALIZATION);
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            StageTimer.exit(previousStage);
+            event.end();
+            if (event.shouldCommit()) {
+                event.payloadType = payloadType(object);
+                event.transactionId = transactionId(object);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Describe the payload, using the data type for common responses
+     *
+     * @param object Response body
+     * @return Payload type name
+     */
+    private static String payloadType(Object object) {
+        if (object instanceof CommonResponse<?> response && response.getData() != null) {
+            return response.getData().getClass().getSimpleName();
+        }
+        return object == null ? null : object.getClass().getSimpleName();
+    }
+
+    /**
+     * Get the transaction record ID of a single-transaction response
+     *
+     * @param object Response body
+     * @return Transaction record ID, 0 when the body is not a single transaction
+     */
+    private static long transactionId(Object object) {
+        if (object instanceof CommonResponse<?> response
+                && response.getData() instanceof Transaction transaction
+                && transaction.getId() != null) {
+            return transaction.getId();
+        }
+        return 0L;
+    }
+}
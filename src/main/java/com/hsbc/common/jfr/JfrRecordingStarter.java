@@ -0,0 +1,92 @@
+package com.hsbc.common.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * JFR Recording Starter
+ * Starts a continuous, rolling flight recording with the JDK "default" settings plus the transaction events at startup
+ * Enabled with {@code trans.jfr.enabled=true} (set in application-prod.yml), the recording is written when the context
+ * closes (not with dumpOnExit, whose JVM hook would race the Spring shutdown hook) and can be
+ * dumped at any time with {@code jcmd <pid> JFR.dump name=trans}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "trans.jfr.enabled", havingValue = "true")
+public class JfrRecordingStarter {
+
+    /**
+     * Transaction event types
+     */
+    private static final List<Class<? extends jdk.jfr.Event>> EVENT_TYPES = List.of(
+        StoreOperationEvent.class, LockAcquireEvent.class, IdGeneratorWaitEvent.class, ValidationEvent.class, SerializationEvent.class);
+
+    @Value("${trans.jfr.max-age:6h}")
+    private Duration maxAge;
+
+    @Value("${trans.jfr.max-size-mb:256}")
+    private long maxSizeMb;
+
+    @Value("${trans.jfr.threshold:1ms}")
+    private Duration threshold;
+
+    @Value("${trans.jfr.directory:logs/jfr}")
+    private Path directory;
+
+    private Recording recording;
+
+    /**
+     * Start the rolling recording
+     *
+     * @throws IOException if the recording directory cannot be created
+     * @throws ParseException if the JDK default configuration cannot be parsed
+     */
+    @PostConstruct
+    public void start() throws IOException, ParseException {
+        Files.createDirectories(directory);
+        recording = new Recording(Configuration.getConfiguration("default"));
+        recording.setName("trans");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeMb * 1024 * 1024);
+        recording.setDestination(directory.resolve("trans-" + ProcessHandle.current().pid() + ".jfr"));
+        for (Class<? extends jdk.jfr.Event> eventType : EVENT_TYPES) {
+            recording.enable(eventType).withThreshold(eventType == IdGeneratorWaitEvent.class ? Duration.ZERO : threshold);
+        }
+        recording.start();
+        log.info("JFR recording started, max age: {}, max size: {} MB, event threshold: {}, destination: {}",
+            maxAge, maxSizeMb, threshold, recording.getDestination());
+    }
+
+    /**
+     * Stop the recording, which writes it to the destination
+     * The recording may already have been stopped, e.g. with {@code jcmd JFR.stop}
+     */
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            recording.close();
+        }
+    }
+}
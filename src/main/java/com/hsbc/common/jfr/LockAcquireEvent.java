@@ -0,0 +1,32 @@
+package com.hsbc.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Lock Acquire JFR Event
+ * Emitted when waiting for a transaction record lock takes longer than the threshold
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Name("com.hsbc.trans.LockAcquire")
+@Label("Record Lock Acquire")
+@Category({"Transaction", "Store"})
+@Description("Wait for a transaction record lock")
+@Threshold("1 ms")
+@StackTrace(false)
+public class LockAcquireEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Transaction ID")
+    public long transactionId;
+}
@@ -0,0 +1,32 @@
+package com.hsbc.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Serialization JFR Event
+ * Emitted when writing a JSON response body takes longer than the threshold
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Name("com.hsbc.trans.Serialization")
+@Label("Response Serialization")
+@Category({"Transaction", "Request"})
+@Description("JSON serialization of a response body")
+@Threshold("1 ms")
+@StackTrace(false)
+public class SerializationEvent extends Event {
+
+    @Label("Payload Type")
+    public String payloadType;
+
+    @Label("Transaction ID")
+    public long transactionId;
+}
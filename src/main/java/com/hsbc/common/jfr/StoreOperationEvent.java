@@ -0,0 +1,35 @@
+package com.hsbc.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Store Operation JFR Event
+ * Emitted for transaction store operations slower than the threshold
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Name("com.hsbc.trans.StoreOperation")
+@Label("Store Operation")
+@Category({"Transaction", "Store"})
+@Description("Transaction store operation")
+@Threshold("1 ms")
+@StackTrace(false)
+public class StoreOperationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Transaction ID")
+    public long transactionId;
+
+    @Label("Success")
+    public boolean success;
+}
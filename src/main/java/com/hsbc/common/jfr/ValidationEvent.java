@@ -0,0 +1,35 @@
+package com.hsbc.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Validation JFR Event
+ * Emitted for bean validations slower than the threshold
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Name("com.hsbc.trans.Validation")
+@Label("Validation")
+@Category({"Transaction", "Request"})
+@Description("Bean validation of a request or transaction")
+@Threshold("1 ms")
+@StackTrace(false)
+public class ValidationEvent extends Event {
+
+    @Label("Target Type")
+    public String targetType;
+
+    @Label("Transaction ID")
+    public long transactionId;
+
+    @Label("Violations")
+    public int violations;
+}
@@ -0,0 +1,59 @@
+package com.hsbc.common.logging;
+
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Request Log Sampler
+ * Decides per endpoint whether a request log event is emitted, so hot paths only pay for a sampled fraction of log events
+ * Rates are configured under {@code trans.logging.sampling}, 1.0 logs every request and 0 disables logging
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "trans.logging.sampling")
+public class LogSampler {
+
+    /**
+     * Sampling rate of endpoints without an explicit rate
+     */
+    private double defaultRate = 1.0;
+
+    /**
+     * Sampling rates keyed by endpoint name
+     */
+    private Map<String, Double> endpoints = new HashMap<>();
+
+    /**
+     * Decide whether a request of the endpoint should be logged
+     *
+     * @param endpoint Endpoint name
+     * @return Whether the request is sampled
+     */
+    public boolean sample(String endpoint) {
+        double rate = endpoints.getOrDefault(endpoint, defaultRate);
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Create an INFO level structured log event for a sampled request
+     *
+     * @param log Logger
+     * @param endpoint Endpoint name
+     * @return Event builder, a no-op builder if INFO is disabled or the request is not sampled
+     */
+    public LoggingEventBuilder atInfo(Logger log, String endpoint) {
+        return log.isInfoEnabled() && sample(endpoint) ? log.atInfo() : NOPLoggingEventBuilder.singleton();
+    }
+}
@@ -0,0 +1,35 @@
+package com.hsbc.common.timing;
+
+import lombok.Getter;
+
+/**
+ * Request Stage Enumeration
+ * Stages a request's wall time is split into, each stage excludes the time of stages nested inside it
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Getter
+public enum Stage {
+    WEB("web", "Servlet, Spring MVC and controller code outside other stages"),
+    VALIDATION("validation", "Bean validation"),
+    SERVICE("service", "Service logic, e.g. ID generation and status checks"),
+    DAO("dao", "Data access, including record copies and lock waits"),
+    SERIALIZATION("serialization", "JSON response serialization");
+
+    /**
+     * Stage name used in the Server-Timing header and as metric tag value
+     */
+    private final String tagValue;
+
+    /**
+     * Stage description
+     */
+    private final String description;
+
+    Stage(String tagValue, String description) {
+        this.tagValue = tagValue;
+        this.description = description;
+    }
+}
@@ -0,0 +1,117 @@
+package com.hsbc.common.timing;
+
+/**
+ * Request Stage Timer
+ * Accumulates exclusive nanosecond time per {@link Stage} for the request bound to the current thread
+ * Entering a stage pauses the enclosing one, so the stage times always add up to the request's wall time
+ * When no timer is bound (timing disabled or outside a request) {@link #enter} and {@link #exit} only read a thread-local
+ *
+ * <pre>{@code
+ * Stage previous = StageTimer.enter(Stage.DAO);
+ * try {
+ *     ...
+ * } finally {
+ *     StageTimer.exit(previous);
+ * }
+ * }</pre>
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public final class StageTimer {
+
+    private static final ThreadLocal<StageTimer> CURRENT = new ThreadLocal<>();
+
+    private static final Stage[] STAGES = Stage.values();
+
+    /**
+     * Accumulated nanoseconds, indexed by stage ordinal
+     */
+    private final long[] stageNanos = new long[STAGES.length];
+
+    private final long startNanos;
+
+    private Stage current = Stage.WEB;
+
+    private long currentSince;
+
+    private StageTimer(long now) {
+        this.startNanos = now;
+        this.currentSince = now;
+    }
+
+    /**
+     * Bind a new timer to the current thread, starting in the {@link Stage#WEB} stage
+     *
+     * @return Bound timer
+     */
+    static StageTimer start() {
+        StageTimer timer = new StageTimer(System.nanoTime());
+        CURRENT.set(timer);
+        return timer;
+    }
+
+    /**
+     * Unbind the timer of the current thread
+     */
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Enter a stage
+     *
+     * @param stage Stage entered
+     * @return Stage to restore with {@link #exit}, null if no timer is bound
+     */
+    public static Stage enter(Stage stage) {
+        StageTimer timer = CURRENT.get();
+        return timer == null ? null : timer.switchTo(stage);
+    }
+
+    /**
+     * Leave the current stage and resume the enclosing one
+     *
+     * @param previous Stage returned by the matching {@link #enter}
+     */
+    public static void exit(Stage previous) {
+        if (previous != null) {
+            StageTimer timer = CURRENT.get();
+            if (timer != null) {
+                timer.switchTo(previous);
+            }
+        }
+    }
+
+    private Stage switchTo(Stage stage) {
+        long now = System.nanoTime();
+        stageNanos[current.ordinal()] += now - currentSince;
+        Stage previous = current;
+        current = stage;
+        currentSince = now;
+        return previous;
+    }
+
+    /**
+     * Stop the timer, closing the current stage
+     *
+     * @return Total request time in nanoseconds
+     */
+    long stop() {
+        long now = System.nanoTime();
+        stageNanos[current.ordinal()] += now - currentSince;
+        currentSince = now;
+        return now - startNanos;
+    }
+
+    /**
+     * Get the accumulated time of a stage
+     *
+     * @param stage Stage
+     * @return Time in nanoseconds
+     */
+    long nanos(Stage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+}
@@ -0,0 +1,61 @@
+package com.hsbc.common.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Stage Timing Configuration
+ * Registers the stage timing filter, recorder and admin endpoint unless {@code trans.timing.enabled=false}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Configuration
+@EnableConfigurationProperties(StageTimingProperties.class)
+@ConditionalOnProperty(name = "trans.timing.enabled", havingValue = "true", matchIfMissing = true)
+public class StageTimingConfig {
+
+    /**
+     * Stage timing recorder
+     *
+     * @param registry Meter registry
+     * @return Recorder
+     */
+    @Bean
+    public StageTimingRecorder stageTimingRecorder(MeterRegistry registry) {
+        return new StageTimingRecorder(registry);
+    }
+
+    /**
+     * Stage timing admin endpoint
+     *
+     * @param recorder Stage timing recorder
+     * @return Endpoint
+     */
+    @Bean
+    public StageTimingEndpoint stageTimingEndpoint(StageTimingRecorder recorder) {
+        return new StageTimingEndpoint(recorder);
+    }
+
+    /**
+     * Stage timing filter, ordered first so the total covers the whole filter chain
+     *
+     * @param recorder Stage timing recorder
+     * @param properties Stage timing properties
+     * @return Filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<StageTimingFilter> stageTimingFilter(StageTimingRecorder recorder, StageTimingProperties properties) {
+        FilterRegistrationBean<StageTimingFilter> registration =
+            new FilterRegistrationBean<>(new StageTimingFilter(recorder, properties.isServerTimingHeader()));
+        registration.setUrlPatterns(properties.getUrlPatterns());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
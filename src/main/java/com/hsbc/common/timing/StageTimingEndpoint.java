@@ -0,0 +1,81 @@
+package com.hsbc.common.timing;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stage Timing Actuator Endpoint
+ * Reports the aggregated stage latency of every endpoint at {@code /actuator/stagetimings}, in microseconds
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Endpoint(id = "stagetimings")
+public class StageTimingEndpoint {
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final StageTimingRecorder recorder;
+
+    /**
+     * Constructor
+     *
+     * @param recorder Stage timing recorder
+     */
+    public StageTimingEndpoint(StageTimingRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Get the stage latency summaries
+     *
+     * @return Summaries keyed by endpoint, then by stage
+     */
+    @ReadOperation
+    public Map<String, Map<String, StageSummary>> stageTimings() {
+        Map<String, Map<String, StageSummary>> result = new TreeMap<>();
+        recorder.timers().forEach((endpoint, timers) -> {
+            Map<String, StageSummary> stages = new LinkedHashMap<>();
+            for (Stage stage : STAGES) {
+                stages.put(stage.getTagValue(), StageSummary.of(timers[stage.ordinal()]));
+            }
+            stages.put(StageTimingRecorder.TOTAL, StageSummary.of(timers[STAGES.length]));
+            result.put(endpoint, stages);
+        });
+        return result;
+    }
+
+    /**
+     * Latency summary of one stage
+     *
+     * @param count Number of requests
+     * @param meanMicros Mean time in microseconds
+     * @param maxMicros Maximum time in microseconds, over the recent window
+     * @param p50Micros Median in microseconds, over the recent window
+     * @param p99Micros 99th percentile in microseconds, over the recent window
+     * @param p999Micros 99.9th percentile in microseconds, over the recent window
+     */
+    public record StageSummary(long count, double meanMicros, double maxMicros,
+                               double p50Micros, double p99Micros, double p999Micros) {
+
+        static StageSummary of(Timer timer) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            ValueAtPercentile[] percentiles = snapshot.percentileValues();
+            return new StageSummary(snapshot.count(), snapshot.mean(TimeUnit.MICROSECONDS), snapshot.max(TimeUnit.MICROSECONDS),
+                percentile(percentiles, 0), percentile(percentiles, 1), percentile(percentiles, 2));
+        }
+
+        private static double percentile(ValueAtPercentile[] percentiles, int index) {
+            return index < percentiles.length ? percentiles[index].value(TimeUnit.MICROSECONDS) : Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.hsbc.common.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Stage Timing Filter
+ * Binds a {@link StageTimer} to each request, records the stage timings when the request completes and
+ * optionally returns them in a {@code Server-Timing} header, e.g.
+ * {@code web;dur=0.210, validation;dur=0.035, service;dur=0.012, dao;dur=0.044, serialization;dur=0.061, total;dur=0.362}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class StageTimingFilter extends OncePerRequestFilter {
+
+    private static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final String UNMATCHED_PATTERN = "UNMATCHED";
+
+    private final StageTimingRecorder recorder;
+
+    private final boolean serverTimingHeader;
+
+    /**
+     * Constructor
+     *
+     * @param recorder Stage timing recorder
+     * @param serverTimingHeader Whether to return a Server-Timing header
+     */
+    public StageTimingFilter(StageTimingRecorder recorder, boolean serverTimingHeader) {
+        this.recorder = recorder;
+        this.serverTimingHeader = serverTimingHeader;
+    }
+
+    /**
+     * Async dispatches are filtered to release the body held back for an asynchronous response
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                ContentCachingResponseWrapper bufferedResponse = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+                if (bufferedResponse != null && !request.isAsyncStarted()) {
+                    bufferedResponse.copyBodyToResponse();
+                }
+            }
+            return;
+        }
+        // The header must precede the body, so the body is held back until serialization has been timed; the
+        // response of an asynchronous request is released without the header once complete. Event streams are
+        // never held back
+        ContentCachingResponseWrapper bufferedResponse = serverTimingHeader && !acceptsEventStream(request)
+            ? new ContentCachingResponseWrapper(response) : null;
+        StageTimer timer = StageTimer.start();
+        try {
+            filterChain.doFilter(request, bufferedResponse != null ? bufferedResponse : response);
+        } finally {
+            long totalNanos = timer.stop();
+            StageTimer.clear();
+            if (!request.isAsyncStarted()) {
+                recorder.record(endpoint(request), timer, totalNanos);
+            }
+            if (bufferedResponse != null && !request.isAsyncStarted()) {
+                bufferedResponse.setHeader(SERVER_TIMING_HEADER, serverTiming(timer, totalNanos));
+                bufferedResponse.copyBodyToResponse();
+            }
+        }
+    }
+
+    private static boolean acceptsEventStream(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    /**
+     * Build the endpoint name from the HTTP method and the matched URL pattern, keeping metric cardinality bounded
+     *
+     * @param request HTTP request
+     * @return Endpoint name
+     */
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : UNMATCHED_PATTERN);
+    }
+
+    private static String serverTiming(StageTimer timer, long totalNanos) {
+        StringBuilder header = new StringBuilder(160);
+        for (Stage stage : Stage.values()) {
+            appendMetric(header, stage.getTagValue(), timer.nanos(stage));
+        }
+        appendMetric(header, StageTimingRecorder.TOTAL, totalNanos);
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+    }
+}
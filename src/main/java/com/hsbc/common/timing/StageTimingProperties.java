@@ -0,0 +1,35 @@
+package com.hsbc.common.timing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Stage Timing Properties
+ * Configures per-request stage timing under {@code trans.timing}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Data
+@ConfigurationProperties(prefix = "trans.timing")
+public class StageTimingProperties {
+
+    /**
+     * Whether stage timings are recorded
+     */
+    private boolean enabled = true;
+
+    /**
+     * Whether stage timings are returned in a Server-Timing response header
+     * The response body is buffered until serialization finishes, so this is meant for diagnosis rather than production
+     */
+    private boolean serverTimingHeader = false;
+
+    /**
+     * URL patterns of timed requests
+     */
+    private List<String> urlPatterns = List.of("/api/*", "/web/*", "/inner/*");
+}
@@ -0,0 +1,86 @@
+package com.hsbc.common.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stage Timing Recorder
+ * Aggregates request stage timings into per endpoint and stage timers ({@code trans.request.stage})
+ * Timers keep client-side p50/p99/p99.9 so the admin endpoint can report percentiles without a monitoring backend
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class StageTimingRecorder {
+
+    /**
+     * Stage tag value of the whole request
+     */
+    static final String TOTAL = "total";
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final MeterRegistry registry;
+
+    /**
+     * Timers keyed by endpoint, indexed by stage ordinal with the total timer last
+     */
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param registry Meter registry
+     */
+    public StageTimingRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Record the stage timings of a finished request
+     *
+     * @param endpoint Endpoint, HTTP method and matched URL pattern
+     * @param timer Stopped stage timer
+     * @param totalNanos Total request time in nanoseconds
+     */
+    void record(String endpoint, StageTimer timer, long totalNanos) {
+        Timer[] endpointTimers = timers.computeIfAbsent(endpoint, this::register);
+        for (Stage stage : STAGES) {
+            endpointTimers[stage.ordinal()].record(timer.nanos(stage), TimeUnit.NANOSECONDS);
+        }
+        endpointTimers[STAGES.length].record(totalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer[] register(String endpoint) {
+        Timer[] endpointTimers = new Timer[STAGES.length + 1];
+        for (Stage stage : STAGES) {
+            endpointTimers[stage.ordinal()] = timer(endpoint, stage.getTagValue(), stage.getDescription());
+        }
+        endpointTimers[STAGES.length] = timer(endpoint, TOTAL, "Whole request");
+        return endpointTimers;
+    }
+
+    private Timer timer(String endpoint, String stage, String description) {
+        return Timer.builder("trans.request.stage")
+            .description(description)
+            .tag("endpoint", endpoint)
+            .tag("stage", stage)
+            .publishPercentiles(0.5, 0.99, 0.999)
+            .register(registry);
+    }
+
+    /**
+     * Get the timers of all endpoints seen so far
+     *
+     * @return Timers keyed by endpoint, indexed by stage ordinal with the total timer last
+     */
+    Map<String, Timer[]> timers() {
+        return Collections.unmodifiableMap(timers);
+    }
+}
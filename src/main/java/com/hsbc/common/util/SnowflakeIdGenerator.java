@@ -1,9 +1,12 @@
 package com.hsbc.common.util;
 
 import com.hsbc.common.errorhandler.exception.FrameworkException;
+import com.hsbc.common.jfr.IdGeneratorWaitEvent;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Snowflake ID Generator
  * Structure:
@@ -23,7 +26,17 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class SnowflakeIdGenerator {
-    private final long startEpoch = 1680278400000L; // 2023-04-01 00:00:00.000
+    /**
+     * 时间戳起点（epoch毫秒）：2023-04-01 00:00:00.000
+     */
+    public static final long START_EPOCH = 1680278400000L;
+
+    /**
+     * ID中时间戳的左移位数（机器ID与序列号的位数）
+     */
+    public static final int TIMESTAMP_SHIFT = 22;
+
+    private final long startEpoch = START_EPOCH;
 
     private final long dataCenterIdBits = 5L;
     private final long workerIdBits = 5L;
@@ -35,13 +48,18 @@ public class SnowflakeIdGenerator {
 
     private final long workerIdShift = sequenceBits;
     private final long dataCenterIdShift = sequenceBits + workerIdBits;
-    private final long timestampShift = sequenceBits + workerIdBits + dataCenterIdBits;
+    private final long timestampShift = TIMESTAMP_SHIFT;
 
     private long dataCenterId;
     private long workerId;
     private long sequence = 0L;
     private long lastTimestamp = -1L;
 
+    // 运行统计：序列号耗尽（需等待下一毫秒）次数、累计等待时间、时钟回退次数
+    private final LongAdder sequenceExhaustedCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder clockBackwardsCount = new LongAdder();
+
     public SnowflakeIdGenerator(
             @Value("${snowflake.datacenter-id:1}") long dataCenterId,
             @Value("${snowflake.worker-id:1}") long workerId) {
@@ -64,6 +82,7 @@ public class SnowflakeIdGenerator {
 
         // 如果当前时间小于上一次ID生成的时间戳，说明系统时钟回退过，抛出异常
         if (timestamp < lastTimestamp) {
+            clockBackwardsCount.increment();
             throw new FrameworkException(String.format(
                     "Clock moved backwards. Refusing to generate id for %d milliseconds",
                     lastTimestamp - timestamp));
@@ -74,7 +93,20 @@ public class SnowflakeIdGenerator {
             sequence = (sequence + 1) & maxSequence;
             // 序列号用完了，等待下一毫秒
             if (sequence == 0) {
+                IdGeneratorWaitEvent event = new IdGeneratorWaitEvent();
+                event.begin();
+                long waitStart = System.nanoTime();
                 timestamp = tilNextMillis(lastTimestamp);
+                sequenceExhaustedCount.increment();
+                waitNanos.add(System.nanoTime() - waitStart);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.lastTimestamp = lastTimestamp;
+                    event.transactionId = ((timestamp - startEpoch) << timestampShift)
+                            | (dataCenterId << dataCenterIdShift)
+                            | (workerId << workerIdShift);
+                    event.commit();
+                }
             }
         } else {
             // 时间戳改变，序列号重置为0
@@ -101,4 +133,46 @@ public class SnowflakeIdGenerator {
     private long timeGen() {
         return System.currentTimeMillis();
     }
-} 
\ No newline at end of file
+
+    /**
+     * 序列号耗尽、需要等待下一毫秒的次数
+     */
+    public long getSequenceExhaustedCount() {
+        return sequenceExhaustedCount.sum();
+    }
+
+    /**
+     * 等待下一毫秒的累计时间（纳秒）
+     */
+    public long getWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    /**
+     * 检测到时钟回退（拒绝生成ID）的次数
+     */
+    public long getClockBackwardsCount() {
+        return clockBackwardsCount.sum();
+    }
+
+    /**
+     * ID的生成时间（epoch毫秒）
+     */
+    public static long timestampOf(long id) {
+        return (id >> TIMESTAMP_SHIFT) + START_EPOCH;
+    }
+
+    /**
+     * 在指定时间（epoch毫秒）生成的最小ID，之前生成的ID都小于该值；超出ID可表示的时间范围时取Long的最大/最小值
+     */
+    public static long minIdAt(long epochMillis) {
+        long elapsed = epochMillis - START_EPOCH;
+        if (elapsed > Long.MAX_VALUE >> TIMESTAMP_SHIFT) {
+            return Long.MAX_VALUE;
+        }
+        if (elapsed < Long.MIN_VALUE >> TIMESTAMP_SHIFT) {
+            return Long.MIN_VALUE;
+        }
+        return elapsed << TIMESTAMP_SHIFT;
+    }
+}
@@ -4,54 +4,90 @@ import com.hsbc.common.errorhandler.exception.FrameworkException;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Enum Value Validator
  * Implements validation logic for {@link EnumValue} annotation, used to validate if a field value is a valid value in the specified enum class
+ * Accepted values are resolved once per (enum class, method) pair and shared by all validator instances
  *
  * @author rd
  * @version 1.0
  * @since 2025/6/12
  */
 public class EnumValueValidator implements ConstraintValidator<EnumValue, Object> {
-    private Class<? extends Enum<?>> enumClass;
-    private String method;
+
+    /**
+     * Cache of accepted values, keyed by enum class and accessor method
+     */
+    private static final Map<LookupKey, Set<Object>> ACCEPTED_VALUES_CACHE = new ConcurrentHashMap<>();
+
+    private Set<Object> acceptedValues;
 
     /**
      * Initialize validator
+     * Builds (or reuses) the immutable lookup set for the annotated enum class and method
      *
      * @param constraintAnnotation Enum value validation annotation
+     * @throws FrameworkException When enum property cannot be accessed
      */
     @Override
     public void initialize(EnumValue constraintAnnotation) {
-        this.enumClass = constraintAnnotation.enumClass();
-        this.method = constraintAnnotation.method();
+        LookupKey key = new LookupKey(constraintAnnotation.enumClass(), constraintAnnotation.method());
+        this.acceptedValues = ACCEPTED_VALUES_CACHE.computeIfAbsent(key, EnumValueValidator::resolveAcceptedValues);
     }
 
     /**
      * Perform validation
-     * Uses reflection to call the specified method to get enum value and compare with the value to validate
+     * Matches the value itself or its string form against the precomputed accepted values
      *
      * @param value Value to validate
      * @param context Validation context
      * @return Whether validation passed
-     * @throws FrameworkException When enum property cannot be accessed
      */
     @Override
     public boolean isValid(Object value, ConstraintValidatorContext context) {
         if (value == null) {
             return true; // 允许null值，如果不允许null应该配合@NotNull使用
         }
+        return acceptedValues.contains(value.toString()) || acceptedValues.contains(value);
+    }
 
-        for (Enum<?> enumConstant : enumClass.getEnumConstants()) {
-            try {
-                Object enumValue = enumConstant.getClass().getMethod(method).invoke(enumConstant);
-                if (value.equals(enumValue) || value.toString().equals(enumValue.toString())) {
-                    return true;
+    /**
+     * Resolve accepted values by invoking the accessor method on every enum constant
+     * Both the raw accessor result and its string form are accepted, matching equals or toString comparison
+     *
+     * @param key Enum class and accessor method
+     * @return Immutable set of accepted values
+     * @throws FrameworkException When enum property cannot be accessed
+     */
+    private static Set<Object> resolveAcceptedValues(LookupKey key) {
+        Set<Object> values = new HashSet<>();
+        try {
+            Method accessor = key.enumClass().getMethod(key.method());
+            for (Enum<?> enumConstant : key.enumClass().getEnumConstants()) {
+                Object enumValue = accessor.invoke(enumConstant);
+                if (enumValue != null) {
+                    values.add(enumValue);
+                    values.add(enumValue.toString());
                 }
-            } catch (Exception e) {
-                throw new FrameworkException("Cannot access enum property", e);
             }
+        } catch (Exception e) {
+            throw new FrameworkException("Cannot access enum property", e);
         }
-        return false;
+        return Set.copyOf(values);
+    }
+
+    /**
+     * Cache key of accepted values
+     *
+     * @param enumClass Enum class to validate against
+     * @param method Method name to get enum value
+     */
+    private record LookupKey(Class<? extends Enum<?>> enumClass, String method) {
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,10 @@
 package com.hsbc.common.validation;
 
 import com.hsbc.common.errorhandler.exception.ParamValidationException;
+import com.hsbc.common.jfr.ValidationEvent;
+import com.hsbc.common.timing.Stage;
+import com.hsbc.common.timing.StageTimer;
+import com.hsbc.trans.bean.Transaction;
 import com.hsbc.trans.enums.ErrorCode;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
@@ -40,7 +44,22 @@ public class ValidationUtils {
      * @param <T> Object type
      */
     private <T> String validateObject(T obj) {
-        Set<ConstraintViolation<T>> violations = validator.validate(obj);
+        ValidationEvent event = new ValidationEvent();
+        event.begin();
+        Stage previousStage = StageTimer.enter(Stage.VALIDATION);
+        Set<ConstraintViolation<T>> violations;
+        try {
+            violations = validator.validate(obj);
+        } finally {
+            StageTimer.exit(previousStage);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.targetType = obj == null ? null : obj.getClass().getSimpleName();
+            event.transactionId = obj instanceof Transaction transaction && transaction.getId() != null ? transaction.getId() : 0L;
+            event.violations = violations.size();
+            event.commit();
+        }
         if (violations.isEmpty()) {
             return null;
         }
@@ -94,8 +94,9 @@ public class Transaction {
         this.amount = amount;
         this.description = description;
         this.type = type;
-        this.createTime = new Timestamp(System.currentTimeMillis());
-        this.updateTime = new Timestamp(System.currentTimeMillis());
+        long now = System.currentTimeMillis();
+        this.createTime = new Timestamp(now);
+        this.updateTime = new Timestamp(now);
         this.status = TransactionStatus.PENDING;
     }
 } 
\ No newline at end of file
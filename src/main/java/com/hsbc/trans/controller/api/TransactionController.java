@@ -1,24 +1,46 @@
 package com.hsbc.trans.controller.api;
 
+import com.hsbc.common.logging.LogSampler;
 import com.hsbc.common.response.CommonResponse;
 import com.hsbc.common.validation.EnumValue;
 import com.hsbc.common.validation.ValidationUtils;
 import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.change.ChangeBusProperties;
+import com.hsbc.trans.dao.change.ChangeListener;
+import com.hsbc.trans.dao.change.ChangeSubscription;
+import com.hsbc.trans.dao.watch.TransactionWatch;
+import com.hsbc.trans.dao.watch.WatchProperties;
 import com.hsbc.trans.enums.TransactionStatus;
 import com.hsbc.trans.service.TransactionService;
 import com.hsbc.trans.vo.PageRequest;
 import com.hsbc.trans.vo.PageResult;
+import com.hsbc.trans.vo.SnapshotInfo;
+import com.hsbc.trans.vo.TransactionChange;
 import com.hsbc.trans.vo.TransactionReq;
+import com.hsbc.trans.vo.TransactionStatusChange;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Transaction Controller
@@ -34,6 +56,16 @@ import java.util.List;
 @Validated
 public class TransactionController {
 
+    /**
+     * Request header carrying the client-supplied idempotency key of a create request
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Maximum number of records of a bulk create request
+     */
+    public static final int MAX_BATCH_CREATE = 1000;
+
     /**
      * Transaction service
      */
@@ -44,35 +76,90 @@ public class TransactionController {
      */
     private final ValidationUtils validationUtils;
 
+    /**
+     * Request log sampler
+     */
+    private final LogSampler logSampler;
+
+    /**
+     * Writer of exported records, of the application ObjectMapper so they are formatted as in the other responses
+     */
+    private final ObjectWriter exportWriter;
+
+    /**
+     * Time a change stream connection is kept open
+     */
+    private final Duration changeStreamTimeout;
+
+    /**
+     * Status change wait properties
+     */
+    private final WatchProperties watchProperties;
+
     /**
      * Constructor
      *
      * @param transactionService Transaction service
      * @param validationUtils Parameter validation utility
+     * @param logSampler Request log sampler
+     * @param objectMapper Application ObjectMapper
+     * @param changeBusProperties Change bus properties
+     * @param watchProperties Status change wait properties
      */
     @Autowired
-    public TransactionController(TransactionService transactionService, ValidationUtils validationUtils) {
+    public TransactionController(TransactionService transactionService, ValidationUtils validationUtils, LogSampler logSampler,
+                                 ObjectMapper objectMapper, ChangeBusProperties changeBusProperties, WatchProperties watchProperties) {
         this.transactionService = transactionService;
         this.validationUtils = validationUtils;
+        this.logSampler = logSampler;
+        this.exportWriter = objectMapper.writerFor(Transaction.class);
+        this.changeStreamTimeout = changeBusProperties.getSseTimeout();
+        this.watchProperties = watchProperties;
     }
 
     /**
      * Create a new transaction record
+     * A retry carrying the idempotency key of an earlier request receives the result of that request, without
+     * validating the request again
      *
+     * @param idempotencyKey Optional idempotency key
      * @param req Transaction creation request
      * @return Created transaction record
      */
     @PostMapping("/create")
     public ResponseEntity<CommonResponse<Transaction>> createTransaction(
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(max = 128) String idempotencyKey,
         @RequestBody TransactionReq req) {
-        log.info("Start creating transaction, request parameters: {}", req);
-        validationUtils.validateParams(req);
-        Transaction transaction = transactionService.createTransaction(
-            req.getTransId(), req.getUserId(), req.getAmount(), req.getDescription(), req.getType());
-        log.info("Transaction created successfully, ID: {}, Business ID: {}", transaction.getId(), transaction.getTransId());
+        long start = System.nanoTime();
+        Transaction transaction = transactionService.createTransaction(idempotencyKey, req);
+        logSampler.atInfo(log, "create").setMessage("Transaction created")
+            .addKeyValue("id", transaction.getId())
+            .addKeyValue("transId", transaction.getTransId())
+            .addKeyValue("type", transaction.getType())
+            .addKeyValue("elapsedMicros", elapsedMicros(start))
+            .log();
         return ResponseEntity.ok(CommonResponse.succeed(transaction));
     }
 
+    /**
+     * Create transaction records in bulk
+     *
+     * @param reqs Transaction creation requests, at most {@value #MAX_BATCH_CREATE}
+     * @return Created transaction records
+     */
+    @PostMapping("/create/batch")
+    public ResponseEntity<CommonResponse<List<Transaction>>> createTransactions(
+        @RequestBody @NotEmpty @Size(max = MAX_BATCH_CREATE) List<TransactionReq> reqs) {
+        long start = System.nanoTime();
+        reqs.forEach(validationUtils::validateParams);
+        List<Transaction> transactions = transactionService.createTransactions(reqs);
+        logSampler.atInfo(log, "createBatch").setMessage("Transactions created in bulk")
+            .addKeyValue("created", transactions.size())
+            .addKeyValue("elapsedMicros", elapsedMicros(start))
+            .log();
+        return ResponseEntity.ok(CommonResponse.succeed(transactions));
+    }
+
     /**
      * Query transaction record by ID
      *
@@ -81,29 +168,257 @@ public class TransactionController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<CommonResponse<Transaction>> getTransaction(@PathVariable @Positive String id) {
-        log.info("Start querying transaction, ID: {}", id);
+        long start = System.nanoTime();
         Transaction transaction = transactionService.getTransaction(Long.valueOf(id));
-        log.info("Transaction query successful, details: {}", transaction);
+        logSampler.atInfo(log, "get").setMessage("Transaction queried")
+            .addKeyValue("id", transaction.getId())
+            .addKeyValue("status", transaction.getStatus())
+            .addKeyValue("elapsedMicros", elapsedMicros(start))
+            .log();
         return ResponseEntity.ok(CommonResponse.succeed(transaction));
     }
 
+    /**
+     * Wait for a transaction record to leave a status (long polling)
+     *
+     * The request is parked without occupying a thread and answered with the record on its next status change, or with
+     * the unchanged record at timeout, so the client watches again. A record not in the status, or in a final status,
+     * is returned at once
+     *
+     * @param id Transaction record ID
+     * @param fromStatus Status to leave, the current status if absent
+     * @param timeout Optional time to wait, ISO-8601 duration
+     * @return Transaction record once changed or at timeout
+     */
+    @GetMapping("/{id}/watch")
+    public DeferredResult<ResponseEntity<CommonResponse<Transaction>>> watchTransaction(
+        @PathVariable @Positive Long id,
+        @RequestParam(required = false) @EnumValue(enumClass = TransactionStatus.class, message = "Invalid transaction status value") String fromStatus,
+        @RequestParam(required = false) Duration timeout) {
+        TransactionWatch watch = transactionService.watchTransaction(id, fromStatus == null ? null : TransactionStatus.valueOf(fromStatus));
+        DeferredResult<ResponseEntity<CommonResponse<Transaction>>> result = new DeferredResult<>(watchTimeout(timeout).toMillis());
+        long start = System.nanoTime();
+        result.onTimeout(() -> {
+            watch.close();
+            try {
+                result.setResult(ResponseEntity.ok(CommonResponse.succeed(transactionService.getTransaction(id))));
+            } catch (RuntimeException e) {
+                result.setErrorResult(e);
+            }
+        });
+        result.onCompletion(watch::close);
+        watch.getResult().whenComplete((transaction, error) -> {
+            if (error != null) {
+                result.setErrorResult(error);
+                return;
+            }
+            logSampler.atInfo(log, "watch").setMessage("Transaction status change observed")
+                .addKeyValue("id", transaction.getId())
+                .addKeyValue("fromStatus", watch.getFromStatus())
+                .addKeyValue("status", transaction.getStatus())
+                .addKeyValue("elapsedMicros", elapsedMicros(start))
+                .log();
+            result.setResult(ResponseEntity.ok(CommonResponse.succeed(transaction)));
+        });
+        return result;
+    }
+
+    /**
+     * Query the status history of a transaction record
+     *
+     * @param id Transaction record ID
+     * @return Status changes in the order they were made, starting with the state the record was created in
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<CommonResponse<List<TransactionStatusChange>>> getTransactionHistory(@PathVariable @Positive Long id) {
+        List<TransactionStatusChange> history = transactionService.getTransactionHistory(id);
+        return ResponseEntity.ok(CommonResponse.succeed(history));
+    }
+
+    /**
+     * Get the time a watch request waits, bounded by the configured maximum
+     *
+     * @param timeout Requested time, null for the default
+     * @return Time to wait, at least one millisecond as no timeout would wait forever
+     */
+    private Duration watchTimeout(Duration timeout) {
+        Duration wait = timeout == null ? watchProperties.getDefaultTimeout() : timeout;
+        if (wait.compareTo(watchProperties.getMaxTimeout()) > 0) {
+            return watchProperties.getMaxTimeout();
+        }
+        return wait.toMillis() < 1 ? Duration.ofMillis(1) : wait;
+    }
+
     /**
      * Query transaction records with pagination
      *
+     * Passing the ID of the last record of the previous page continues after it (keyset paging) instead of
+     * locating the page by its number, which stays cheap for deep pages and is stable under concurrent creates
+     *
      * @param page Page number, starting from 0
      * @param size Records per page
+     * @param after Optional ID of the last record of the previous page
      * @return Paginated result
      */
     @GetMapping("/page")
     public ResponseEntity<CommonResponse<PageResult<Transaction>>> getTransactionPage(
         @RequestParam(defaultValue = "0") @PositiveOrZero int page,
-        @RequestParam(defaultValue = "10") @Positive int size) {
-        log.info("Start querying transactions by page, page number: {}, page size: {}", page, size);
-        PageResult<Transaction> result = transactionService.getTransactionPage(new PageRequest(page, size));
-        log.info("Transaction page query successful, total records: {}, current page records: {}", result.getTotalElements(), result.getContent().size());
+        @RequestParam(defaultValue = "10") @Positive int size,
+        @RequestParam(required = false) Long after) {
+        long start = System.nanoTime();
+        PageResult<Transaction> result = transactionService.getTransactionPage(
+            after == null ? new PageRequest(page, size) : PageRequest.after(after, size));
+        logSampler.atInfo(log, "page").setMessage("Transaction page queried")
+            .addKeyValue("page", page)
+            .addKeyValue("size", size)
+            .addKeyValue("total", result.getTotalElements())
+            .addKeyValue("returned", result.getContent().size())
+            .addKeyValue("elapsedMicros", elapsedMicros(start))
+            .log();
         return ResponseEntity.ok(CommonResponse.succeed(result));
     }
 
+    /**
+     * Open a point-in-time snapshot of the transaction records
+     *
+     * Pages and exports read against the snapshot neither skip nor repeat records under concurrent writes, and writes
+     * are not blocked; the snapshot is released when it expires
+     *
+     * @param ttl Optional lifetime of the snapshot, ISO-8601 duration
+     * @return Snapshot information
+     */
+    @PostMapping("/snapshots")
+    public ResponseEntity<CommonResponse<SnapshotInfo>> openSnapshot(@RequestParam(required = false) Duration ttl) {
+        long start = System.nanoTime();
+        SnapshotInfo snapshot = transactionService.openSnapshot(ttl);
+        logSampler.atInfo(log, "snapshot").setMessage("Snapshot opened")
+            .addKeyValue("snapshotId", snapshot.getId())
+            .addKeyValue("total", snapshot.getTotalElements())
+            .addKeyValue("elapsedMicros", elapsedMicros(start))
+            .log();
+        return ResponseEntity.ok(CommonResponse.succeed(snapshot));
+    }
+
+    /**
+     * Query the transaction records of a snapshot with pagination
+     *
+     * @param snapshotId Snapshot ID
+     * @param page Page number, starting from 0
+     * @param size Records per page
+     * @param after Optional ID of the last record of the previous page
+     * @return Paginated result
+     */
+    @GetMapping("/snapshots/{snapshotId}/page")
+    public ResponseEntity<CommonResponse<PageResult<Transaction>>> getSnapshotPage(
+        @PathVariable long snapshotId,
+        @RequestParam(defaultValue = "0") @PositiveOrZero int page,
+        @RequestParam(defaultValue = "10") @Positive int size,
+        @RequestParam(required = false) Long after) {
+        long start = System.nanoTime();
+        PageResult<Transaction> result = transactionService.getSnapshotPage(snapshotId,
+            after == null ? new PageRequest(page, size) : PageRequest.after(after, size));
+        logSampler.atInfo(log, "snapshotPage").setMessage("Snapshot page queried")
+            .addKeyValue("snapshotId", snapshotId)
+            .addKeyValue("page", page)
+            .addKeyValue("size", size)
+            .addKeyValue("returned", result.getContent().size())
+            .addKeyValue("elapsedMicros", elapsedMicros(start))
+            .log();
+        return ResponseEntity.ok(CommonResponse.succeed(result));
+    }
+
+    /**
+     * Export the transaction records of a snapshot as newline-delimited JSON, one record per line in ascending ID order
+     *
+     * The records are streamed while read, the export must complete before the snapshot expires
+     *
+     * @param snapshotId Snapshot ID
+     * @return Streamed records
+     */
+    @GetMapping(value = "/snapshots/{snapshotId}/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportSnapshot(@PathVariable long snapshotId) {
+        Stream<Transaction> records = transactionService.exportSnapshot(snapshotId);
+        StreamingResponseBody body = output -> {
+            long start = System.nanoTime();
+            long exported = 0;
+            try (Stream<Transaction> stream = records) {
+                for (Iterator<Transaction> it = stream.iterator(); it.hasNext(); exported++) {
+                    output.write(exportWriter.writeValueAsBytes(it.next()));
+                    output.write('\n');
+                }
+            }
+            logSampler.atInfo(log, "snapshotExport").setMessage("Snapshot exported")
+                .addKeyValue("snapshotId", snapshotId)
+                .addKeyValue("returned", exported)
+                .addKeyValue("elapsedMicros", elapsedMicros(start))
+                .log();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    /**
+     * Release a snapshot before it expires
+     *
+     * @param snapshotId Snapshot ID
+     * @return Response of the release
+     */
+    @PostMapping("/snapshots/{snapshotId}/release")
+    public ResponseEntity<CommonResponse<Void>> releaseSnapshot(@PathVariable long snapshotId) {
+        transactionService.releaseSnapshot(snapshotId);
+        logSampler.atInfo(log, "snapshotRelease").setMessage("Snapshot released")
+            .addKeyValue("snapshotId", snapshotId)
+            .log();
+        return ResponseEntity.ok(CommonResponse.succeed(null));
+    }
+
+    /**
+     * Stream the changes of the transaction records as Server-Sent Events
+     * Each event carries a change as JSON data and its sequence as event ID, so a reconnecting client resumes after the
+     * last event it received (Last-Event-ID header). A client falling too far behind is disconnected and resumes the
+     * same way. An event named reset tells the changes to resume from are no longer kept: the client reads the
+     * records again, the event ID being the sequence the stream resumes after
+     *
+     * @param after Sequence of the last change already received, the changes from now if absent
+     * @param lastEventId Sent by reconnecting clients, takes precedence over after
+     * @return Event stream
+     */
+    @GetMapping("/changes")
+    public SseEmitter streamChanges(@RequestParam(required = false) @PositiveOrZero Long after,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(changeStreamTimeout.toMillis());
+        ChangeSubscription subscription = transactionService.subscribeChanges(lastEventId != null ? lastEventId : after, new ChangeListener() {
+
+            @Override
+            public void onChange(TransactionChange change) {
+                try {
+                    emitter.send(SseEmitter.event().id(Long.toString(change.getSequence())).data(change, MediaType.APPLICATION_JSON));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void onClose(ChangeSubscription closed) {
+                if (closed.getCloseReason() == ChangeSubscription.CloseReason.GAP) {
+                    try {
+                        emitter.send(SseEmitter.event().name("reset").id(Long.toString(closed.getLatestSequence())).data(""));
+                    } catch (IOException e) {
+                        // Disconnected meanwhile
+                    }
+                }
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        logSampler.atInfo(log, "changes").setMessage("Change stream opened")
+            .addKeyValue("subscriptionId", subscription.getId())
+            .addKeyValue("after", subscription.getLastSequence())
+            .log();
+        return emitter;
+    }
+
     /**
      * Query all transaction records
      *
@@ -111,9 +426,12 @@ public class TransactionController {
      */
     @GetMapping("/all")
     public ResponseEntity<CommonResponse<List<Transaction>>> getAllTransactions() {
-        log.info("Start querying all transactions");
+        long start = System.nanoTime();
         List<Transaction> transactions = transactionService.getAllTransactions();
-        log.info("Query all transactions successful, total records: {}", transactions.size());
+        logSampler.atInfo(log, "all").setMessage("All transactions queried")
+            .addKeyValue("returned", transactions.size())
+            .addKeyValue("elapsedMicros", elapsedMicros(start))
+            .log();
         return ResponseEntity.ok(CommonResponse.succeed(transactions));
     }
 
@@ -131,10 +449,14 @@ public class TransactionController {
         @RequestParam @NotNull @EnumValue(enumClass = TransactionStatus.class, message = "Invalid transaction status value") String status,
         @RequestParam String description
     ) {
-        log.info("Start updating transaction status, ID: {}, new status: {}, description: {}", id, status, description);
+        long start = System.nanoTime();
         Transaction transaction = transactionService.updateTransactionStatus(
             Long.valueOf(id), TransactionStatus.valueOf(status), description);
-        log.info("Transaction status update successful, ID: {}, new status: {}", transaction.getId(), transaction.getStatus());
+        logSampler.atInfo(log, "update").setMessage("Transaction status updated")
+            .addKeyValue("id", transaction.getId())
+            .addKeyValue("status", transaction.getStatus())
+            .addKeyValue("elapsedMicros", elapsedMicros(start))
+            .log();
         return ResponseEntity.ok(CommonResponse.succeed(transaction));
     }
 
@@ -146,9 +468,12 @@ public class TransactionController {
      */
     @PostMapping("/{id}/delete")
     public ResponseEntity<Void> deleteTransaction(@PathVariable Long id) {
-        log.info("Start deleting transaction, ID: {}", id);
+        long start = System.nanoTime();
         transactionService.deleteTransaction(id);
-        log.info("Transaction deletion successful, ID: {}", id);
+        logSampler.atInfo(log, "delete").setMessage("Transaction deleted")
+            .addKeyValue("id", id)
+            .addKeyValue("elapsedMicros", elapsedMicros(start))
+            .log();
         return ResponseEntity.ok().build();
     }
 
@@ -160,9 +485,24 @@ public class TransactionController {
      */
     @GetMapping("/trans/{transId}")
     public ResponseEntity<CommonResponse<Transaction>> getTransactionByTransId(@PathVariable String transId) {
-        log.info("Start querying transaction by business ID: {}", transId);
+        long start = System.nanoTime();
         Transaction transaction = transactionService.getTransactionByTransId(transId);
-        log.info("Query transaction by business ID successful, details: {}", transaction);
+        logSampler.atInfo(log, "trans").setMessage("Transaction queried by business ID")
+            .addKeyValue("id", transaction.getId())
+            .addKeyValue("transId", transId)
+            .addKeyValue("status", transaction.getStatus())
+            .addKeyValue("elapsedMicros", elapsedMicros(start))
+            .log();
         return ResponseEntity.ok(CommonResponse.succeed(transaction));
     }
+
+    /**
+     * Calculate elapsed time for request log events
+     *
+     * @param startNanos Start time in nanoseconds
+     * @return Elapsed time in microseconds
+     */
+    private static long elapsedMicros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000;
+    }
 } 
\ No newline at end of file
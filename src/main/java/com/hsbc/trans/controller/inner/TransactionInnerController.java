@@ -1,16 +1,16 @@
 package com.hsbc.trans.controller.inner;
 
 import com.hsbc.common.response.CommonResponse;
-import com.hsbc.trans.bean.Transaction;
 import com.hsbc.trans.service.TransactionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.time.Instant;
 
 /**
  * Transaction Internal Controller
@@ -49,16 +49,21 @@ public class TransactionInnerController {
     @PostMapping("/clear")
     public ResponseEntity<CommonResponse<Void>> clearAllTransactions() {
         log.info("Start clearing all transaction data");
-        List<Transaction> allTransactions = transactionService.getAllTransactions();
-        
-        int count = 0;
-        for (Transaction transaction : allTransactions) {
-            transactionService.deleteTransaction(transaction.getId());
-            log.info("Transaction record deleted, ID: {}, details: {}", transaction.getId(), transaction);
-            count++;
-        }
-        
+        long count = transactionService.deleteAllTransactions();
         log.info("Transaction data cleanup completed, {} records cleared", count);
         return ResponseEntity.ok(CommonResponse.succeed(null));
     }
-} 
\ No newline at end of file
+
+    /**
+     * Deletes the transactions created before a time, dropping whole partitions when the store is partitioned
+     *
+     * @param before Exclusive upper bound of the creation time, ISO-8601 instant
+     * @return ResponseEntity containing the number of deleted records
+     */
+    @PostMapping("/drop")
+    public ResponseEntity<CommonResponse<Long>> dropTransactionsCreatedBefore(@RequestParam Instant before) {
+        long count = transactionService.deleteTransactionsCreatedBefore(before);
+        log.info("{} transactions created before {} deleted", count, before);
+        return ResponseEntity.ok(CommonResponse.succeed(count));
+    }
+}
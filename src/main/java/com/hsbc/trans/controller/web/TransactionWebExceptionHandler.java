@@ -31,7 +31,7 @@ public class TransactionWebExceptionHandler {
     @ResponseBody
     public Object handleBusinessException(BusinessException e, HttpServletRequest request, HttpServletResponse response) {
         log.warn("Business exception occurred in web controller: {}", e.getMessage());
-        ErrorResponse errorResponse = new ErrorResponse(e.getCode());
+        ErrorResponse errorResponse = ErrorResponse.of(e.getCode());
         
         // 如果是 AJAX 请求，返回 JSON 响应
         if (isAjaxRequest(request)) {
@@ -50,9 +50,9 @@ public class TransactionWebExceptionHandler {
     @ResponseBody
     public Object handleValidationException(ConstraintViolationException e, HttpServletRequest request, HttpServletResponse response) {
         log.warn("Parameter validation failed in web controller: {}", e.getMessage());
-        ErrorResponse errorResponse = new ErrorResponse(ErrorCode.PARAM_ERROR.getCode());
+        ErrorResponse errorResponse = ErrorResponse.of(ErrorCode.PARAM_ERROR.getCode());
         // 添加具体的验证错误信息
-        errorResponse.setMessage(errorResponse.getMessage() + " (" + e.getMessage() + ")");
+        errorResponse = errorResponse.withMessage(errorResponse.getMessage() + " (" + e.getMessage() + ")");
         
         // 如果是 AJAX 请求，返回 JSON 响应
         if (isAjaxRequest(request)) {
@@ -71,7 +71,7 @@ public class TransactionWebExceptionHandler {
     @ResponseBody
     public Object handleException(Exception e, HttpServletRequest request, HttpServletResponse response) {
         log.error("Unexpected exception occurred in web controller", e);
-        ErrorResponse errorResponse = new ErrorResponse(ErrorCode.SYSTEM_ERROR.getCode());
+        ErrorResponse errorResponse = ErrorResponse.of(ErrorCode.SYSTEM_ERROR.getCode());
         
         // 如果是 AJAX 请求，返回 JSON 响应
         if (isAjaxRequest(request)) {
@@ -0,0 +1,128 @@
+package com.hsbc.trans.dao;
+
+import com.hsbc.common.jfr.StoreOperationEvent;
+import com.hsbc.common.timing.Stage;
+import com.hsbc.common.timing.StageTimer;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.change.TransactionChangeBus;
+import com.hsbc.trans.dao.watch.TransactionWatchRegistry;
+import com.hsbc.trans.enums.ChangeType;
+import com.hsbc.trans.metrics.TransactionMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.function.Supplier;
+
+/**
+ * Abstract Transaction Data Access Layer
+ * Instruments the operations of the {@link TransactionDao} implementations the same way: DAO request stage, latency
+ * and outcome metrics, and JFR events for slow operations
+ * Publishes the changes of the implementations to the {@link TransactionChangeBus} when one is configured, and signals
+ * them to the {@link TransactionWatchRegistry} completing the requests waiting for a status change
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public abstract class AbstractTransactionDao implements TransactionDao {
+
+    protected final TransactionMetrics metrics;
+
+    /**
+     * Change bus, null when changes are not published
+     */
+    private TransactionChangeBus changeBus;
+
+    /**
+     * Watch registry, null when no request waits for status changes
+     */
+    private TransactionWatchRegistry watchRegistry;
+
+    /**
+     * Constructor
+     *
+     * @param metrics Transaction metrics
+     */
+    protected AbstractTransactionDao(TransactionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Set the change bus the changes are published to
+     *
+     * @param changeBus Change bus, null to publish no changes
+     */
+    @Autowired(required = false)
+    public void setChangeBus(TransactionChangeBus changeBus) {
+        this.changeBus = changeBus;
+    }
+
+    /**
+     * Set the watch registry the updates and deletes are signalled to
+     *
+     * @param watchRegistry Watch registry, null to signal nothing
+     */
+    @Autowired(required = false)
+    public void setWatchRegistry(TransactionWatchRegistry watchRegistry) {
+        this.watchRegistry = watchRegistry;
+    }
+
+    /**
+     * Check whether changes are published
+     *
+     * @return Whether a change bus or a watch registry is set
+     */
+    protected boolean isPublishingChanges() {
+        return changeBus != null || watchRegistry != null;
+    }
+
+    /**
+     * Publish a change, while holding the changed record exclusively so the changes of a record are published in the
+     * order they were applied
+     *
+     * @param type Change type
+     * @param id Transaction record ID, or exclusive upper bound of the purged record IDs
+     * @param transaction Record after a create or update, before a delete, null for a purge
+     */
+    protected void publishChange(ChangeType type, long id, Transaction transaction) {
+        TransactionChangeBus bus = changeBus;
+        if (bus != null) {
+            bus.publish(type, id, transaction);
+        }
+        TransactionWatchRegistry watches = watchRegistry;
+        if (watches != null) {
+            watches.signal(type, id, transaction);
+        }
+    }
+
+    /**
+     * Run a DAO operation in the DAO request stage, record its latency and outcome, and emit a JFR event for slow operations
+     *
+     * @param operation DAO operation
+     * @param id Transaction record ID, null for operations on multiple records
+     * @param action Operation body
+     * @return Operation result
+     * @param <T> Result type
+     */
+    protected <T> T instrumented(DaoOperation operation, Long id, Supplier<T> action) {
+        StoreOperationEvent event = new StoreOperationEvent();
+        event.begin();
+        Stage previousStage = StageTimer.enter(Stage.DAO);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = action.get();
+            success = true;
+            return result;
+        } finally {
+            metrics.recordOperation(operation, System.nanoTime() - start, success);
+            StageTimer.exit(previousStage);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation.getTagValue();
+                event.transactionId = id == null ? 0L : id;
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+}
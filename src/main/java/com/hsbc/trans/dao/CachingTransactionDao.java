@@ -0,0 +1,261 @@
+package com.hsbc.trans.dao;
+
+import com.hsbc.common.collection.SegmentedLruCache;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.store.TransactionCodec;
+import com.hsbc.trans.dao.store.TransactionRecord;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.vo.PageRequest;
+import com.hsbc.trans.vo.PageResult;
+import com.hsbc.trans.vo.TransactionStatusChange;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Caching Transaction Data Access Layer
+ * Decorates any {@link TransactionDao} with read-through caches of the lookups by ID and by business transaction ID,
+ * enabled with {@code trans.dao.cache.enabled}; created records are written through into both caches, and updated or
+ * deleted records are invalidated in both after the decorated DAO applied the change; bulk deletes invalidate both
+ * caches entirely
+ * Entries hold the immutable {@link TransactionRecord} form, so every read returns its own {@link Transaction} and callers
+ * modifying it cannot change the cache. Lists, pages and snapshots are not cached
+ * Hits, misses, evictions, sizes and hit ratios are published as {@code trans.dao.cache.*}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class CachingTransactionDao implements TransactionDao, MeterBinder {
+
+    /**
+     * Estimated heap bytes of a cache entry besides its record: map node, key and LRU links
+     */
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    private final TransactionDao delegate;
+
+    private final TransactionCodec codec;
+
+    private final SegmentedLruCache<Long, TransactionRecord> byId;
+
+    private final SegmentedLruCache<String, TransactionRecord> byTransId;
+
+    /**
+     * Constructor
+     *
+     * @param delegate Decorated DAO
+     * @param properties Cache properties
+     * @param codec Codec converting cached records
+     */
+    public CachingTransactionDao(TransactionDao delegate, TransactionDaoProperties.Cache properties, TransactionCodec codec) {
+        this.delegate = delegate;
+        this.codec = codec;
+        boolean bytes = properties.getMaxBytes() > 0;
+        long maxWeight = bytes ? properties.getMaxBytes() : properties.getMaxEntries();
+        this.byId = new SegmentedLruCache<>(maxWeight, properties.getSegments(),
+            (id, record) -> bytes ? ENTRY_OVERHEAD_BYTES + record.estimatedBytes() : 1);
+        this.byTransId = new SegmentedLruCache<>(maxWeight, properties.getSegments(),
+            (transId, record) -> bytes ? ENTRY_OVERHEAD_BYTES + record.estimatedBytes() : 1);
+    }
+
+    private Optional<Transaction> decode(TransactionRecord record) {
+        return record == null ? Optional.empty() : Optional.of(codec.decode(record));
+    }
+
+    private void cache(Transaction transaction) {
+        TransactionRecord record = codec.encode(transaction);
+        byId.put(record.id(), record);
+        byTransId.put(record.transId(), record);
+    }
+
+    /**
+     * Invalidate both entries of a record
+     *
+     * @param id Transaction record ID
+     * @param transId Business transaction ID of the record if known, the one of the cached record is invalidated as well
+     */
+    private void invalidate(long id, String transId) {
+        TransactionRecord cached = byId.peek(id);
+        byId.invalidate(id);
+        if (cached != null) {
+            byTransId.invalidate(cached.transId());
+        }
+        if (transId != null) {
+            byTransId.invalidate(transId);
+        }
+    }
+
+    @Override
+    public Transaction add(Transaction transaction) {
+        Transaction added = delegate.add(transaction);
+        cache(added);
+        return added;
+    }
+
+    @Override
+    public List<Transaction> addAll(List<Transaction> transactions) {
+        List<Transaction> added = delegate.addAll(transactions);
+        added.forEach(this::cache);
+        return added;
+    }
+
+    @Override
+    public Optional<Transaction> queryById(Long id) {
+        return decode(byId.get(id, key -> delegate.queryById(key).map(codec::encode).orElse(null)));
+    }
+
+    @Override
+    public Optional<Transaction> queryByTransId(String transId) {
+        return decode(byTransId.get(transId, key -> delegate.queryByTransId(key).map(codec::encode).orElse(null)));
+    }
+
+    @Override
+    public List<Transaction> queryList() {
+        return delegate.queryList();
+    }
+
+    @Override
+    public PageResult<Transaction> queryPage(PageRequest pageRequest) {
+        return delegate.queryPage(pageRequest);
+    }
+
+    @Override
+    public Transaction updateById(Transaction transaction) {
+        try {
+            return delegate.updateById(transaction);
+        } finally {
+            invalidate(transaction.getId(), transaction.getTransId());
+        }
+    }
+
+    @Override
+    public Transaction updateById(Transaction transaction, TransactionStatus expectedStatus) {
+        try {
+            return delegate.updateById(transaction, expectedStatus);
+        } finally {
+            invalidate(transaction.getId(), transaction.getTransId());
+        }
+    }
+
+    @Override
+    public Transaction deleteById(Long id) {
+        Transaction deleted = null;
+        try {
+            deleted = delegate.deleteById(id);
+            return deleted;
+        } finally {
+            invalidate(id, deleted == null ? null : deleted.getTransId());
+        }
+    }
+
+    @Override
+    public long deleteCreatedBefore(long epochMillis) {
+        try {
+            return delegate.deleteCreatedBefore(epochMillis);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public long truncate() {
+        try {
+            return delegate.truncate();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public TransactionSnapshot openSnapshot(Duration ttl) {
+        return delegate.openSnapshot(ttl);
+    }
+
+    @Override
+    public Optional<TransactionSnapshot> querySnapshot(long snapshotId) {
+        return delegate.querySnapshot(snapshotId);
+    }
+
+    @Override
+    public boolean releaseSnapshot(long snapshotId) {
+        return delegate.releaseSnapshot(snapshotId);
+    }
+
+    @Override
+    public Optional<List<TransactionStatusChange>> queryHistory(Long id) {
+        return delegate.queryHistory(id);
+    }
+
+    /**
+     * Invalidate both caches, after deletes of records not known one by one
+     */
+    private void invalidateAll() {
+        byId.invalidateAll();
+        byTransId.invalidateAll();
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        return delegate.estimatedHeapBytes();
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return delegate.offHeapBytes();
+    }
+
+    @Override
+    public long offHeapGarbageBytes() {
+        return delegate.offHeapGarbageBytes();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCache(registry, "id", byId);
+        bindCache(registry, "transId", byTransId);
+    }
+
+    private static void bindCache(MeterRegistry registry, String name, SegmentedLruCache<?, ?> cache) {
+        FunctionCounter.builder("trans.dao.cache.requests", cache, SegmentedLruCache::hitCount)
+            .description("DAO cache lookups by result")
+            .tag("cache", name)
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("trans.dao.cache.requests", cache, SegmentedLruCache::missCount)
+            .description("DAO cache lookups by result")
+            .tag("cache", name)
+            .tag("result", "miss")
+            .register(registry);
+        FunctionCounter.builder("trans.dao.cache.evictions", cache, SegmentedLruCache::evictionCount)
+            .description("DAO cache entries evicted to fit the capacity")
+            .tag("cache", name)
+            .register(registry);
+        Gauge.builder("trans.dao.cache.size", cache, SegmentedLruCache::size)
+            .description("Number of DAO cache entries")
+            .tag("cache", name)
+            .register(registry);
+        Gauge.builder("trans.dao.cache.weight", cache, SegmentedLruCache::weight)
+            .description("Total weight of the DAO cache entries, entries or estimated bytes")
+            .tag("cache", name)
+            .register(registry);
+        Gauge.builder("trans.dao.cache.hit.ratio", cache, c -> {
+                long hits = c.hitCount();
+                long total = hits + c.missCount();
+                return total == 0 ? Double.NaN : (double) hits / total;
+            })
+            .description("Share of DAO cache lookups finding a cached value since startup")
+            .tag("cache", name)
+            .register(registry);
+    }
+}
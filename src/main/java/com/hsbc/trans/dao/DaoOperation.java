@@ -0,0 +1,36 @@
+package com.hsbc.trans.dao;
+
+import lombok.Getter;
+
+/**
+ * DAO Operation Enumeration
+ * Identifies transaction data access operations in metrics and diagnostics
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Getter
+public enum DaoOperation {
+    ADD("add"),
+    ADD_ALL("addAll"),
+    QUERY_BY_ID("queryById"),
+    QUERY_BY_TRANS_ID("queryByTransId"),
+    QUERY_LIST("queryList"),
+    QUERY_PAGE("queryPage"),
+    QUERY_SNAPSHOT("querySnapshot"),
+    QUERY_HISTORY("queryHistory"),
+    UPDATE_BY_ID("updateById"),
+    DELETE_BY_ID("deleteById"),
+    DELETE_CREATED_BEFORE("deleteCreatedBefore"),
+    TRUNCATE("truncate");
+
+    /**
+     * Operation name used as metric tag value
+     */
+    private final String tagValue;
+
+    DaoOperation(String tagValue) {
+        this.tagValue = tagValue;
+    }
+}
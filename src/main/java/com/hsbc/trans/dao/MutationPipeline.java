@@ -0,0 +1,286 @@
+package com.hsbc.trans.dao;
+
+import com.hsbc.common.collection.LongHashes;
+import com.hsbc.common.collection.MpscRingBuffer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Mutation Pipeline
+ * Runs mutations on single writer threads instead of the calling threads: a mutation is published into the bounded
+ * ring buffer of the writer owning its key, the writer applies the published mutations in batches and completes
+ * each mutation's future, so mutations of one key never run concurrently and are applied in publication order
+ * Callers block until their mutation is applied; when a ring is full they back off until the writer catches up
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Slf4j
+class MutationPipeline {
+
+    private final Writer[] writers;
+
+    private final int batchSize;
+
+    private final IntConsumer batchListener;
+
+    /**
+     * Constructor, starts the writer threads
+     *
+     * @param writerCount Number of writers, rounded up to a power of two
+     * @param ringSize Ring buffer slots per writer
+     * @param batchSize Maximum number of mutations a writer applies per batch
+     * @param batchListener Receives the size of every applied batch
+     */
+    MutationPipeline(int writerCount, int ringSize, int batchSize, IntConsumer batchListener) {
+        this.writers = new Writer[LongHashes.tableSizeFor(writerCount)];
+        this.batchSize = Math.max(1, batchSize);
+        this.batchListener = batchListener;
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Writer(ringSize);
+            Thread thread = new Thread(writers[i], "trans-writer-" + i);
+            thread.setDaemon(true);
+            writers[i].thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Apply a mutation on the writer owning its key and wait for the result
+     *
+     * @param key Key of the mutated record, mutations of equal keys are serialized
+     * @param mutation Mutation
+     * @return Mutation result
+     * @param <T> Result type
+     * @throws RuntimeException Thrown by the mutation
+     */
+    @SuppressWarnings("unchecked")
+    <T> T execute(long key, Supplier<T> mutation) {
+        Writer writer = writers[(int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (writers.length - 1)];
+        Command command = new Command((Supplier<Object>) mutation);
+        publish(writer, command);
+        try {
+            return (T) command.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Apply a mutation on the calling thread while every writer is stalled, so no other mutation runs concurrently
+     * Each writer applies the mutations published before, then parks on a barrier until the mutation is done
+     *
+     * @param mutation Mutation
+     * @return Mutation result
+     * @param <T> Result type
+     * @throws IllegalStateException If the pipeline is stopped
+     */
+    <T> T executeExclusive(Supplier<T> mutation) {
+        CountDownLatch stalled = new CountDownLatch(writers.length);
+        CountDownLatch resumed = new CountDownLatch(1);
+        try {
+            for (Writer writer : writers) {
+                publish(writer, new Command(() -> {
+                    stalled.countDown();
+                    awaitUninterruptibly(resumed);
+                    return null;
+                }));
+            }
+            awaitUninterruptibly(stalled);
+            return mutation.get();
+        } finally {
+            resumed.countDown();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Publish a command into a writer's ring, backing off while the ring is full
+     *
+     * @param writer Writer
+     * @param command Command
+     * @throws IllegalStateException If the pipeline is stopped
+     */
+    private static void publish(Writer writer, Command command) {
+        // Announced before checking the flag, so a stopping writer keeps draining until the offer is done
+        writer.producers.incrementAndGet();
+        try {
+            int attempts = 0;
+            while (!writer.running || !writer.ring.offer(command)) {
+                if (!writer.running) {
+                    throw new IllegalStateException("Mutation pipeline is stopped");
+                }
+                backOff(++attempts);
+            }
+        } finally {
+            writer.producers.decrementAndGet();
+        }
+        writer.wake();
+    }
+
+    private static void backOff(int attempts) {
+        if (attempts < 100) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+    }
+
+    /**
+     * Stop the writers after they applied the published mutations; mutations executed afterwards are rejected
+     */
+    void stop() {
+        for (Writer writer : writers) {
+            writer.running = false;
+            LockSupport.unpark(writer.thread);
+        }
+        for (Writer writer : writers) {
+            try {
+                writer.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the number of writers
+     *
+     * @return Number of writers
+     */
+    int getWriterCount() {
+        return writers.length;
+    }
+
+    /**
+     * Get the number of mutations waiting in the rings
+     *
+     * @return Number of mutations
+     */
+    int queuedMutations() {
+        int queued = 0;
+        for (Writer writer : writers) {
+            queued += writer.ring.size();
+        }
+        return queued;
+    }
+
+    /**
+     * Published mutation with its future
+     */
+    private static final class Command {
+
+        private final Supplier<Object> mutation;
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Command(Supplier<Object> mutation) {
+            this.mutation = mutation;
+        }
+    }
+
+    /**
+     * Single writer draining one ring buffer
+     */
+    private final class Writer implements Runnable {
+
+        private final MpscRingBuffer<Command> ring;
+
+        private final List<Command> batch = new ArrayList<>();
+
+        private final List<Object> results = new ArrayList<>();
+
+        private Thread thread;
+
+        private volatile boolean running = true;
+
+        /**
+         * Callers between checking {@link #running} and completing their offer
+         */
+        private final AtomicInteger producers = new AtomicInteger();
+
+        /**
+         * Set while the writer parks on an empty ring, producers unpark it after publishing
+         */
+        private volatile boolean sleeping;
+
+        private Writer(int ringSize) {
+            this.ring = new MpscRingBuffer<>(ringSize);
+        }
+
+        private void wake() {
+            // Order the publication before reading the flag, pairing with the writer's re-check after setting it
+            VarHandle.fullFence();
+            if (sleeping) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            // Producers are read before the ring: an offer completes before its producer leaves
+            while (running || producers.get() > 0 || !ring.isEmpty()) {
+                if (ring.drain(batch::add, batchSize) == 0) {
+                    sleeping = true;
+                    if (ring.isEmpty() && running) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                    }
+                    sleeping = false;
+                    continue;
+                }
+                applyBatch();
+            }
+        }
+
+        /**
+         * Apply the drained mutations in order, then complete their futures
+         */
+        private void applyBatch() {
+            for (Command command : batch) {
+                try {
+                    results.add(command.mutation.get());
+                } catch (Throwable e) {
+                    results.add(new CompletionException(e));
+                }
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                Object result = results.get(i);
+                if (result instanceof CompletionException failure) {
+                    batch.get(i).result.completeExceptionally(failure.getCause());
+                } else {
+                    batch.get(i).result.complete(result);
+                }
+            }
+            batchListener.accept(batch.size());
+            batch.clear();
+            results.clear();
+        }
+    }
+}
@@ -3,7 +3,11 @@ package com.hsbc.trans.dao;
 import com.hsbc.trans.vo.PageRequest;
 import com.hsbc.trans.vo.PageResult;
 import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.vo.TransactionStatusChange;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +30,22 @@ public interface TransactionDao {
      */
     Transaction add(Transaction transaction);
 
+    /**
+     * Create transaction records in bulk
+     * Records are created in order; implementations writing the batch atomically create none of them on failure
+     *
+     * @param transactions Transaction records to create
+     * @return Created transaction records
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException 如果交易记录已存在
+     */
+    default List<Transaction> addAll(List<Transaction> transactions) {
+        List<Transaction> added = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            added.add(add(transaction));
+        }
+        return added;
+    }
+
     /**
      * Query transaction record by ID
      *
@@ -66,6 +86,16 @@ public interface TransactionDao {
      */
     Transaction updateById(Transaction transaction);
 
+    /**
+     * Update transaction record only if its stored status is still the expected status, atomically with the check
+     *
+     * @param transaction Transaction record to update
+     * @param expectedStatus Status the stored record must have
+     * @return Updated transaction record
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException 如果交易记录不存在、状态已被并发修改或记录未变化
+     */
+    Transaction updateById(Transaction transaction, TransactionStatus expectedStatus);
+
     /**
      * Delete transaction record
      *
@@ -75,4 +105,87 @@ public interface TransactionDao {
      */
     Transaction deleteById(Long id);
 
+    /**
+     * Delete the transaction records created before a time, by the creation time encoded in their ID
+     *
+     * @param epochMillis Exclusive upper bound of the creation time, in epoch milliseconds
+     * @return Number of deleted transaction records
+     */
+    long deleteCreatedBefore(long epochMillis);
+
+    /**
+     * Delete all transaction records at once, without deleting them one by one
+     *
+     * @return Number of deleted transaction records
+     */
+    long truncate();
+
+    /**
+     * Open a point-in-time snapshot of the transaction records, read without blocking writes until released or expired
+     *
+     * @param ttl Lifetime of the snapshot, null for the configured default
+     * @return Snapshot
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException 如果不支持快照或打开的快照过多
+     */
+    TransactionSnapshot openSnapshot(Duration ttl);
+
+    /**
+     * Get an open snapshot
+     *
+     * @param snapshotId Snapshot ID
+     * @return Snapshot, empty if not open or expired
+     */
+    Optional<TransactionSnapshot> querySnapshot(long snapshotId);
+
+    /**
+     * Release a snapshot
+     *
+     * @param snapshotId Snapshot ID
+     * @return Whether the snapshot was open
+     */
+    boolean releaseSnapshot(long snapshotId);
+
+    /**
+     * Query the status history of a transaction record: the state it was created in, then every update
+     *
+     * @param id Transaction record ID
+     * @return Status changes in the order they were made, empty if the record does not exist
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException 如果未启用状态历史
+     */
+    Optional<List<TransactionStatusChange>> queryHistory(Long id);
+
+    /**
+     * Count transaction records
+     *
+     * @return Number of transaction records
+     */
+    long count();
+
+    /**
+     * Estimate heap memory held by stored transaction records
+     *
+     * @return Estimated bytes, negative if records are not held on the heap
+     */
+    default long estimatedHeapBytes() {
+        return -1;
+    }
+
+    /**
+     * Get memory held outside the heap by stored transaction records
+     *
+     * @return Bytes, negative if not applicable
+     */
+    default long offHeapBytes() {
+        return -1;
+    }
+
+    /**
+     * Get memory outside the heap freed by replaced or deleted records and not reused yet
+     *
+     * @return Bytes, negative if not applicable
+     */
+    default long offHeapGarbageBytes() {
+        return -1;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.hsbc.trans.dao;
+
+import com.hsbc.trans.dao.store.TransactionCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Transaction DAO Configuration
+ * Binds {@code trans.dao} and, with {@code trans.dao.cache.enabled}, decorates the DAO implementation selected by
+ * {@code trans.dao.impl} with {@link CachingTransactionDao}, which is then the DAO injected everywhere
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Configuration
+@EnableConfigurationProperties(TransactionDaoProperties.class)
+public class TransactionDaoConfig {
+
+    /**
+     * Caching DAO
+     *
+     * @param delegate DAO implementation, the caching DAO itself is not a candidate
+     * @param properties DAO properties
+     * @param codec Transaction codec
+     * @return Caching DAO decorating the implementation
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "trans.dao.cache", name = "enabled", havingValue = "true")
+    public CachingTransactionDao cachingTransactionDao(TransactionDao delegate, TransactionDaoProperties properties,
+                                                       TransactionCodec codec) {
+        return new CachingTransactionDao(delegate, properties.getCache(), codec);
+    }
+}
@@ -0,0 +1,516 @@
+package com.hsbc.trans.dao;
+
+import com.hsbc.common.errorhandler.exception.BusinessException;
+import com.hsbc.common.util.SnowflakeIdGenerator;
+import com.hsbc.common.validation.ValidationUtils;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.store.AmountCodec;
+import com.hsbc.trans.dao.store.TransactionCodec;
+import com.hsbc.trans.enums.ChangeType;
+import com.hsbc.trans.enums.ErrorCode;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+import com.hsbc.trans.metrics.TransactionMetrics;
+import com.hsbc.trans.vo.PageRequest;
+import com.hsbc.trans.vo.PageResult;
+import com.hsbc.trans.vo.TransactionStatusChange;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Transaction Data Access Layer JDBC Implementation
+ * Keeps transaction records in a relational table, selected with {@code trans.dao.impl=jdbc}; connections come from the
+ * pooled {@code spring.datasource} and every statement is a constant parameterized SQL string, so the driver and the
+ * database can reuse prepared statements and plans
+ * Bulk creates are sent as JDBC batches through one prepared statement in one database transaction; pages continue
+ * after a record ID (keyset paging) when the request carries one, and status updates can be made conditional on the
+ * stored status in the same statement
+ * Business transaction ID uniqueness is enforced by a unique key, so concurrent creates of the same ID need no lock
+ * Changes are published once the database transaction of the mutation committed, so rolled back changes are never
+ * seen; a record's publication stripe is taken before the commit and released after the publication, so a later
+ * mutation of the record, held back by the row locks until the commit, publishes after it
+ * Status changes are kept in a history table written in the same database transaction: the creation state with the
+ * record, as the state before an update is gone once the update statement ran, then the stored state after each update
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(prefix = "trans.dao", name = "impl", havingValue = "jdbc")
+public class TransactionDaoJdbcImpl extends AbstractTransactionDao {
+
+    private static final String SCHEMA_SCRIPT = "db/transaction-schema.sql";
+
+    private static final String COLUMNS = "id, trans_id, user_id, amount, type, status, create_time, update_time, description";
+
+    private static final String INSERT = "INSERT INTO trans_transaction (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM trans_transaction WHERE id = ?";
+
+    private static final String SELECT_BY_ID_FOR_UPDATE = SELECT_BY_ID + " FOR UPDATE";
+
+    private static final String SELECT_BY_TRANS_ID = "SELECT " + COLUMNS + " FROM trans_transaction WHERE trans_id = ?";
+
+    private static final String SELECT_ALL = "SELECT " + COLUMNS + " FROM trans_transaction ORDER BY id";
+
+    private static final String SELECT_PAGE = SELECT_ALL + " LIMIT ? OFFSET ?";
+
+    private static final String SELECT_PAGE_AFTER = "SELECT " + COLUMNS + " FROM trans_transaction WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String SELECT_STATUS = "SELECT status FROM trans_transaction WHERE id = ?";
+
+    private static final String COUNT = "SELECT COUNT(*) FROM trans_transaction";
+
+    private static final String DELETE = "DELETE FROM trans_transaction WHERE id = ?";
+
+    private static final String DELETE_BELOW = "DELETE FROM trans_transaction WHERE id < ?";
+
+    private static final String TRUNCATE = "TRUNCATE TABLE trans_transaction";
+
+    /**
+     * Updates of the status only, matching only when the status changes
+     */
+    private static final String UPDATE_STATUS =
+        "UPDATE trans_transaction SET status = ?, update_time = ? WHERE id = ? AND status <> ?";
+
+    /**
+     * Updates of the status and description, matching only when either changes
+     */
+    private static final String UPDATE_STATUS_AND_DESCRIPTION =
+        "UPDATE trans_transaction SET status = ?, description = ?, update_time = ? WHERE id = ?"
+            + " AND (status <> ? OR description IS NULL OR description <> ?)";
+
+    private static final String AND_EXPECTED_STATUS = " AND status = ?";
+
+    private static final String INSERT_HISTORY =
+        "INSERT INTO trans_transaction_history (id, seq, status, change_time, description) VALUES (?, 0, ?, ?, ?)";
+
+    /**
+     * Appends the stored state of an updated record, numbered after its latest change; the row lock taken by the
+     * update serializes the appends of a record
+     */
+    private static final String APPEND_HISTORY =
+        "INSERT INTO trans_transaction_history (id, seq, status, change_time, description)"
+            + " SELECT t.id, (SELECT COALESCE(MAX(h.seq), -1) + 1 FROM trans_transaction_history h WHERE h.id = t.id),"
+            + " t.status, t.update_time, t.description FROM trans_transaction t WHERE t.id = ?";
+
+    private static final String SELECT_HISTORY =
+        "SELECT status, change_time, description FROM trans_transaction_history WHERE id = ? ORDER BY seq";
+
+    /**
+     * Latest history rows of the records whose stored state is behind them: older, or as old with another status
+     * A record updated after its latest history row, e.g. while the history was off, is newer and kept
+     */
+    private static final String SELECT_DIVERGED_HISTORY =
+        "SELECT h.id, h.status, h.change_time, h.description FROM trans_transaction_history h"
+            + " JOIN trans_transaction t ON t.id = h.id"
+            + " WHERE h.seq = (SELECT MAX(m.seq) FROM trans_transaction_history m WHERE m.id = h.id)"
+            + " AND (t.update_time < h.change_time OR (t.update_time = h.change_time AND t.status <> h.status))";
+
+    private static final String RESET_TO_HISTORY =
+        "UPDATE trans_transaction SET status = ?, update_time = ?, description = ? WHERE id = ?";
+
+    private static final String DELETE_HISTORY = "DELETE FROM trans_transaction_history WHERE id = ?";
+
+    private static final String DELETE_HISTORY_BELOW = "DELETE FROM trans_transaction_history WHERE id < ?";
+
+    private static final String TRUNCATE_HISTORY = "TRUNCATE TABLE trans_transaction_history";
+
+    private static final int PUBLICATION_STRIPES = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AmountCodec amountCodec;
+
+    private final int batchSize;
+
+    private final ValidationUtils validationUtils;
+
+    private final boolean history;
+
+    /**
+     * Record stripes held from the commit of a change to its publication
+     */
+    private final ReentrantLock[] publicationStripes = new ReentrantLock[PUBLICATION_STRIPES];
+
+    private final RowMapper<Transaction> rowMapper = this::mapRow;
+
+    private final RowMapper<TransactionStatusChange> historyRowMapper = (rs, rowNum) ->
+        new TransactionStatusChange(TransactionStatus.valueOf(rs.getString(1)), rs.getTimestamp(2), rs.getString(3));
+
+    /**
+     * Constructor, creates the tables and resets records to their history if configured
+     *
+     * @param dataSource Data source
+     * @param properties DAO properties
+     * @param codec Transaction codec, its amount scale applies to stored amounts as in the memory engines
+     * @param validationUtils Parameter validation utility
+     * @param metrics Transaction metrics
+     */
+    @Autowired
+    public TransactionDaoJdbcImpl(DataSource dataSource, TransactionDaoProperties properties, TransactionCodec codec,
+                                  ValidationUtils validationUtils, TransactionMetrics metrics) {
+        super(metrics);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.amountCodec = codec.getAmountCodec();
+        this.batchSize = Math.max(1, properties.getJdbc().getBatchSize());
+        this.validationUtils = validationUtils;
+        this.history = properties.getJdbc().isHistory();
+        for (int i = 0; i < PUBLICATION_STRIPES; i++) {
+            publicationStripes[i] = new ReentrantLock();
+        }
+        if (properties.getJdbc().isInitializeSchema()) {
+            new ResourceDatabasePopulator(new ClassPathResource(SCHEMA_SCRIPT)).execute(dataSource);
+            log.info("Transaction table initialized from {}", SCHEMA_SCRIPT);
+        }
+        if (history && properties.getJdbc().isRebuildFromHistory()) {
+            rebuildFromHistory();
+        }
+    }
+
+    /**
+     * Reset the records whose stored state is behind their latest history row to that row
+     *
+     * @return Number of reset records
+     */
+    public int rebuildFromHistory() {
+        return transactionTemplate.execute(status -> {
+            List<Object[]> diverged = jdbcTemplate.query(SELECT_DIVERGED_HISTORY, (rs, rowNum) ->
+                new Object[]{rs.getString(2), rs.getTimestamp(3), rs.getString(4), rs.getLong(1)});
+            jdbcTemplate.batchUpdate(RESET_TO_HISTORY, diverged);
+            if (!diverged.isEmpty()) {
+                log.info("{} transactions reset to their latest status history", diverged.size());
+            }
+            return diverged.size();
+        });
+    }
+
+    private Transaction mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Transaction transaction = new Transaction();
+        transaction.setId(rs.getLong(1));
+        transaction.setTransId(rs.getString(2));
+        transaction.setUserId(rs.getString(3));
+        transaction.setAmount(rs.getBigDecimal(4).setScale(amountCodec.getScale()));
+        transaction.setType(TransactionType.valueOf(rs.getString(5)));
+        transaction.setStatus(TransactionStatus.valueOf(rs.getString(6)));
+        transaction.setCreateTime(rs.getTimestamp(7));
+        transaction.setUpdateTime(rs.getTimestamp(8));
+        transaction.setDescription(rs.getString(9));
+        return transaction;
+    }
+
+    private void bindInsert(PreparedStatement ps, Transaction transaction) throws SQLException {
+        ps.setLong(1, transaction.getId());
+        ps.setString(2, transaction.getTransId());
+        ps.setString(3, transaction.getUserId());
+        ps.setBigDecimal(4, amountCodec.fromMinorUnits(amountCodec.toMinorUnits(transaction.getAmount())));
+        ps.setString(5, transaction.getType().name());
+        ps.setString(6, transaction.getStatus().name());
+        ps.setTimestamp(7, transaction.getCreateTime());
+        ps.setTimestamp(8, transaction.getUpdateTime());
+        ps.setString(9, transaction.getDescription());
+    }
+
+    private void bindHistory(PreparedStatement ps, Transaction transaction) throws SQLException {
+        ps.setLong(1, transaction.getId());
+        ps.setString(2, transaction.getStatus().name());
+        ps.setTimestamp(3, transaction.getUpdateTime());
+        ps.setString(4, transaction.getDescription());
+    }
+
+    private BusinessException duplicate(String transId) {
+        metrics.recordDuplicateRejection();
+        return BusinessException.stackless("Transaction already exists: " + transId, ErrorCode.TRANSACTION_DUPLICATE.getCode());
+    }
+
+    @Override
+    public Transaction add(Transaction transaction) {
+        return instrumented(DaoOperation.ADD, transaction.getId(), () -> {
+            validationUtils.validate(transaction);
+            amountCodec.toMinorUnits(transaction.getAmount());
+            try {
+                return inChangeTransaction(() -> {
+                    jdbcTemplate.update(INSERT, ps -> bindInsert(ps, transaction));
+                    if (history) {
+                        jdbcTemplate.update(INSERT_HISTORY, ps -> bindHistory(ps, transaction));
+                    }
+                    publishAfterCommit(() -> publishChange(ChangeType.CREATE, transaction.getId(), transaction), transaction.getId());
+                    return transaction;
+                });
+            } catch (DuplicateKeyException e) {
+                throw duplicate(transaction.getTransId());
+            }
+        });
+    }
+
+    @Override
+    public List<Transaction> addAll(List<Transaction> transactions) {
+        return instrumented(DaoOperation.ADD_ALL, null, () -> {
+            for (Transaction transaction : transactions) {
+                validationUtils.validate(transaction);
+                amountCodec.toMinorUnits(transaction.getAmount());
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERT, transactions, batchSize, this::bindInsert);
+                    if (history) {
+                        jdbcTemplate.batchUpdate(INSERT_HISTORY, transactions, batchSize, this::bindHistory);
+                    }
+                    publishAfterCommit(() -> transactions.forEach(transaction -> publishChange(ChangeType.CREATE, transaction.getId(), transaction)),
+                        transactions.stream().mapToLong(Transaction::getId).toArray());
+                });
+            } catch (DuplicateKeyException e) {
+                throw duplicate("one of " + transactions.size() + " records of the batch");
+            }
+            return transactions;
+        });
+    }
+
+    @Override
+    public Optional<Transaction> queryById(Long id) {
+        return instrumented(DaoOperation.QUERY_BY_ID, id,
+            () -> jdbcTemplate.query(SELECT_BY_ID, rowMapper, id).stream().findFirst());
+    }
+
+    @Override
+    public Optional<Transaction> queryByTransId(String transId) {
+        return instrumented(DaoOperation.QUERY_BY_TRANS_ID, null,
+            () -> jdbcTemplate.query(SELECT_BY_TRANS_ID, rowMapper, transId).stream().findFirst());
+    }
+
+    @Override
+    public List<Transaction> queryList() {
+        return instrumented(DaoOperation.QUERY_LIST, null, () -> jdbcTemplate.query(SELECT_ALL, rowMapper));
+    }
+
+    @Override
+    public PageResult<Transaction> queryPage(PageRequest pageRequest) {
+        return instrumented(DaoOperation.QUERY_PAGE, null, () -> {
+            List<Transaction> values = pageRequest.getAfterId() == null
+                ? jdbcTemplate.query(SELECT_PAGE, rowMapper, pageRequest.getPageSize(), pageRequest.getOffset())
+                : jdbcTemplate.query(SELECT_PAGE_AFTER, rowMapper, pageRequest.getAfterId(), pageRequest.getPageSize());
+            return new PageResult<>(values, count(), pageRequest);
+        });
+    }
+
+    @Override
+    public Transaction updateById(Transaction transaction) {
+        return instrumented(DaoOperation.UPDATE_BY_ID, transaction.getId(), () -> inChangeTransaction(() -> doUpdateById(transaction, null)));
+    }
+
+    @Override
+    public Transaction updateById(Transaction transaction, TransactionStatus expectedStatus) {
+        return instrumented(DaoOperation.UPDATE_BY_ID, transaction.getId(),
+            () -> inChangeTransaction(() -> doUpdateById(transaction, expectedStatus)));
+    }
+
+    /**
+     * Run a mutation in one database transaction with its history rows and the publication of its change while
+     * either is kept, so the row lock taken by the mutation orders the changes of a record. Runs the mutation as is
+     * otherwise
+     */
+    private <T> T inChangeTransaction(Supplier<T> mutation) {
+        return history || isPublishingChanges() ? transactionTemplate.execute(status -> mutation.get()) : mutation.get();
+    }
+
+    /**
+     * Publish the changes of records once the current database transaction committed, at once outside a transaction
+     * The stripes of the records are taken in ascending order before the commit and released once the transaction
+     * completed, so publications of a record follow the order of its commits; nothing is published on rollback
+     *
+     * @param publication Publishes the changes
+     * @param ids Transaction record IDs
+     */
+    private void publishAfterCommit(Runnable publication, long... ids) {
+        if (!isPublishingChanges()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publication.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private int[] stripes = new int[0];
+
+            private int locked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                stripes = Arrays.stream(ids).mapToInt(id -> Long.hashCode(id * 0x9E3779B97F4A7C15L) & (PUBLICATION_STRIPES - 1))
+                    .distinct().sorted().toArray();
+                for (; locked < stripes.length; locked++) {
+                    publicationStripes[stripes[locked]].lock();
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                publication.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                for (int i = 0; i < locked; i++) {
+                    publicationStripes[stripes[i]].unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Update the status and description in one statement matching only rows that change (and have the expected status),
+     * then tell the reasons of an unmatched row apart; the updated row is read back for its change
+     */
+    private Transaction doUpdateById(Transaction transaction, TransactionStatus expectedStatus) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        String status = transaction.getStatus().name();
+        String description = transaction.getDescription();
+        String expected = expectedStatus == null ? null : expectedStatus.name();
+        int updated;
+        if (description == null) {
+            updated = expected == null
+                ? jdbcTemplate.update(UPDATE_STATUS, status, now, transaction.getId(), status)
+                : jdbcTemplate.update(UPDATE_STATUS + AND_EXPECTED_STATUS, status, now, transaction.getId(), status, expected);
+        } else {
+            updated = expected == null
+                ? jdbcTemplate.update(UPDATE_STATUS_AND_DESCRIPTION, status, description, now, transaction.getId(), status, description)
+                : jdbcTemplate.update(UPDATE_STATUS_AND_DESCRIPTION + AND_EXPECTED_STATUS,
+                    status, description, now, transaction.getId(), status, description, expected);
+        }
+        if (updated == 0) {
+            List<String> current = jdbcTemplate.queryForList(SELECT_STATUS, String.class, transaction.getId());
+            if (current.isEmpty()) {
+                throw BusinessException.stackless("Transaction not found, ID: " + transaction.getId(), ErrorCode.TRANSACTION_NOT_FOUND.getCode());
+            }
+            if (expected != null && !expected.equals(current.get(0))) {
+                throw BusinessException.stackless("Transaction status changed concurrently, ID: " + transaction.getId()
+                    + ", expected " + expected + " but was " + current.get(0), ErrorCode.TRANSACTION_STATUS_CONFLICT.getCode());
+            }
+            throw BusinessException.stackless("Transaction not changed, ID: " + transaction.getId(), ErrorCode.TRANSACTION_NOT_CHANGED.getCode());
+        }
+        transaction.setUpdateTime(now);
+        if (history) {
+            jdbcTemplate.update(APPEND_HISTORY, transaction.getId());
+        }
+        if (isPublishingChanges()) {
+            Transaction stored = jdbcTemplate.query(SELECT_BY_ID, rowMapper, transaction.getId()).stream().findFirst().orElse(transaction);
+            publishAfterCommit(() -> publishChange(ChangeType.UPDATE, transaction.getId(), stored), transaction.getId());
+        }
+        return transaction;
+    }
+
+    @Override
+    public Transaction deleteById(Long id) {
+        return instrumented(DaoOperation.DELETE_BY_ID, id, () -> transactionTemplate.execute(status -> {
+            Transaction transaction = jdbcTemplate.query(SELECT_BY_ID_FOR_UPDATE, rowMapper, id).stream().findFirst()
+                .orElseThrow(() -> BusinessException.stackless("Transaction not found, ID: " + id, ErrorCode.TRANSACTION_NOT_FOUND.getCode()));
+            jdbcTemplate.update(DELETE, id);
+            if (history) {
+                jdbcTemplate.update(DELETE_HISTORY, id);
+            }
+            publishAfterCommit(() -> publishChange(ChangeType.DELETE, id, transaction), id);
+            return transaction;
+        }));
+    }
+
+    /**
+     * Delete the records by ID range: IDs start with their creation time, so the range is served by the primary key
+     */
+    @Override
+    public long deleteCreatedBefore(long epochMillis) {
+        return instrumented(DaoOperation.DELETE_CREATED_BEFORE, null, () -> {
+            long boundary = SnowflakeIdGenerator.minIdAt(epochMillis);
+            long deleted = jdbcTemplate.update(DELETE_BELOW, boundary);
+            if (history) {
+                jdbcTemplate.update(DELETE_HISTORY_BELOW, boundary);
+            }
+            publishChange(ChangeType.PURGE, boundary, null);
+            return deleted;
+        });
+    }
+
+    @Override
+    public long truncate() {
+        return instrumented(DaoOperation.TRUNCATE, null, () -> {
+            long count = count();
+            jdbcTemplate.execute(TRUNCATE);
+            if (history) {
+                jdbcTemplate.execute(TRUNCATE_HISTORY);
+            }
+            publishChange(ChangeType.PURGE, Long.MAX_VALUE, null);
+            return count;
+        });
+    }
+
+    /**
+     * Records created while the history was disabled have no history rows, their stored state stands for it
+     */
+    @Override
+    public Optional<List<TransactionStatusChange>> queryHistory(Long id) {
+        if (!history) {
+            throw BusinessException.stackless("Status history is disabled", ErrorCode.HISTORY_UNAVAILABLE.getCode());
+        }
+        return instrumented(DaoOperation.QUERY_HISTORY, id, () -> {
+            List<TransactionStatusChange> changes = jdbcTemplate.query(SELECT_HISTORY, historyRowMapper, id);
+            if (!changes.isEmpty()) {
+                return Optional.of(changes);
+            }
+            return jdbcTemplate.query(SELECT_BY_ID, rowMapper, id).stream().findFirst()
+                .map(transaction -> List.of(new TransactionStatusChange(transaction.getStatus(), transaction.getUpdateTime(),
+                    transaction.getDescription())));
+        });
+    }
+
+    /**
+     * Snapshots are not supported: a consistent read would hold a database transaction open across requests
+     */
+    @Override
+    public TransactionSnapshot openSnapshot(Duration ttl) {
+        throw BusinessException.stackless("Snapshots are not supported by the JDBC DAO", ErrorCode.SNAPSHOT_UNAVAILABLE.getCode());
+    }
+
+    @Override
+    public Optional<TransactionSnapshot> querySnapshot(long snapshotId) {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean releaseSnapshot(long snapshotId) {
+        return false;
+    }
+
+    @Override
+    public long count() {
+        Long count = jdbcTemplate.queryForObject(COUNT, Long.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -1,86 +1,405 @@
 package com.hsbc.trans.dao;
 
+import com.hsbc.common.collection.LongHashes;
+import com.hsbc.common.collection.ScalableBloomFilter;
 import com.hsbc.common.errorhandler.exception.BusinessException;
-import com.hsbc.common.util.CopyBeanUtils;
+import com.hsbc.common.jfr.LockAcquireEvent;
+import com.hsbc.common.util.SnowflakeIdGenerator;
 import com.hsbc.common.validation.ValidationUtils;
 import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.store.SnapshotTransactionStore;
+import com.hsbc.trans.dao.store.StatusHistoryLog;
+import com.hsbc.trans.dao.store.StoreSnapshot;
+import com.hsbc.trans.dao.store.TransactionStore;
+import com.hsbc.trans.dao.store.TransactionStoreProperties;
+import com.hsbc.trans.dao.store.WriteMode;
+import com.hsbc.trans.enums.ChangeType;
 import com.hsbc.trans.enums.ErrorCode;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.metrics.TransactionMetrics;
 import com.hsbc.trans.vo.PageRequest;
 import com.hsbc.trans.vo.PageResult;
+import com.hsbc.trans.vo.TransactionStatusChange;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PrimitiveIterator;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 /**
  * Transaction Data Access Layer Memory Implementation
- * Provides memory-based transaction data access implementation with concurrent access support
+ * Provides memory-based transaction data access implementation with concurrent access support, the default
+ * implementation ({@code trans.dao.impl=memory})
+ * Records are kept by the {@link TransactionStore} engine configured with {@code trans.store.engine}
+ * Adds reserve the business transaction ID with an atomic put-if-absent on the ID index before storing the record
+ * Business transaction ID lookups first consult a Bloom filter, so most unknown IDs are answered without an index
+ * lookup; the filter cannot forget deleted IDs and is rebuilt from the index once enough records were deleted
+ * Mutations of one record are serialized on its lock stripe, or in {@link WriteMode#PIPELINE} mode applied by the
+ * {@link MutationPipeline} writer owning the record, in publication order; reads never lock
+ * Records created before a time are deleted by dropping the store partitions of whole periods, see
+ * {@code trans.store.partitioning}; the partitions past the retention are dropped every maintenance interval
+ * Snapshots are served by the {@link SnapshotTransactionStore} when {@code trans.store.snapshot.enabled}
+ * Changes are published under the record's lock stripe or on its pipeline writer, in the order they were applied
+ * Status changes are appended to a {@link StatusHistoryLog} when {@code trans.store.history.enabled}; a record gets
+ * entries on its first update only, its creation state being appended along with it; the entries of deleted records
+ * are compacted every maintenance interval
  *
  * @author rd
  * @version 1.0
  * @since 2025/6/12
  */
+@Slf4j
 @Repository
-public class TransactionDaoMemoryImpl implements TransactionDao {
+@ConditionalOnProperty(prefix = "trans.dao", name = "impl", havingValue = "memory", matchIfMissing = true)
+public class TransactionDaoMemoryImpl extends AbstractTransactionDao {
 
-    private final TransactionStore store = new TransactionStore();
+    /**
+     * Estimated heap bytes per business transaction ID index entry: hash map node, key String and boxed ID
+     */
+    private static final long ESTIMATED_INDEX_ENTRY_BYTES = 120;
+
+    private final TransactionStore store;
+
+    /**
+     * Record lock stripes, writes of the same record are serialized on the stripe of its ID
+     */
+    private final Object[] lockStripes;
+
+    /**
+     * Mutation pipeline, null in {@link WriteMode#DIRECT} mode
+     */
+    private final MutationPipeline pipeline;
 
     private final Map<String, Long> transIdIndexMap = new ConcurrentHashMap<>();
 
+    private final TransactionStoreProperties.TransIdFilter filterProperties;
+
+    private final TransactionStoreProperties.Partitioning partitioning;
+
+    /**
+     * Bloom filter of business transaction IDs, null when disabled; holds at least every ID in the index
+     */
+    private volatile ScalableBloomFilter transIdFilter;
+
+    /**
+     * Filter being rebuilt, receives new IDs as well until it replaces {@link #transIdFilter}
+     */
+    private volatile ScalableBloomFilter rebuildingFilter;
+
+    /**
+     * Guards adding an ID to the filters and the index against the start of a rebuild: an ID added under the read
+     * lock is either in the index before the rebuild reads it, or added to the rebuilding filter
+     */
+    private final ReadWriteLock transIdFilterLock = new ReentrantReadWriteLock();
+
+    private final AtomicLong deletesSinceFilterRebuild = new AtomicLong();
+
+    private final ValidationUtils validationUtils;
+
+    /**
+     * Status history, null when disabled
+     */
+    private final StatusHistoryLog history;
+
+    /**
+     * Constructor
+     *
+     * @param store Transaction store
+     * @param properties Store properties
+     * @param validationUtils Parameter validation utility
+     * @param metrics Transaction metrics
+     */
     @Autowired
-    private ValidationUtils validationUtils;
+    public TransactionDaoMemoryImpl(TransactionStore store, TransactionStoreProperties properties,
+                                    ValidationUtils validationUtils, TransactionMetrics metrics) {
+        super(metrics);
+        this.store = store;
+        this.validationUtils = validationUtils;
+        this.filterProperties = properties.getTransIdFilter();
+        this.partitioning = properties.getPartitioning();
+        if (filterProperties.isEnabled()) {
+            this.transIdFilter = new ScalableBloomFilter(filterProperties.getExpectedInsertions(), filterProperties.getFalsePositiveRate());
+        }
+        int stripes = LongHashes.tableSizeFor(properties.getLockStripes());
+        this.lockStripes = new Object[stripes];
+        for (int i = 0; i < stripes; i++) {
+            lockStripes[i] = new Object();
+        }
+        this.pipeline = properties.getWriteMode() == WriteMode.PIPELINE
+            ? new MutationPipeline(properties.getShards(), properties.getPipeline().getRingSize(),
+                properties.getPipeline().getBatchSize(), metrics::recordPipelineBatch)
+            : null;
+        this.history = properties.getHistory().isEnabled()
+            ? new StatusHistoryLog(properties.getInitialCapacity(), properties.getConcurrencyLevel())
+            : null;
+    }
 
+    /**
+     * Stop the mutation pipeline after it applied the published mutations
+     */
+    @PreDestroy
+    public void stopPipeline() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
 
+    /**
+     * Get the lock stripe of a record
+     *
+     * @param id Transaction record ID
+     * @return Lock object
+     */
+    private Object lockFor(long id) {
+        return lockStripes[Long.hashCode(id * 0x9E3779B97F4A7C15L) & (lockStripes.length - 1)];
+    }
+
+    /**
+     * Run a mutation of a record exclusively: under the record's lock stripe, or on the pipeline writer owning the record
+     *
+     * @param id Transaction record ID
+     * @param mutation Mutation body
+     * @return Mutation result
+     * @param <T> Result type
+     */
+    private <T> T exclusive(long id, Supplier<T> mutation) {
+        if (pipeline != null) {
+            return pipeline.execute(id, mutation);
+        }
+        synchronized (lockFor(id)) {
+            return mutation.get();
+        }
+    }
+
+    /**
+     * Run a mutation excluding the mutations of all records: under every lock stripe, or while every pipeline writer
+     * is stalled
+     *
+     * @param mutation Mutation body
+     * @return Mutation result
+     * @param <T> Result type
+     */
+    private <T> T exclusiveAll(Supplier<T> mutation) {
+        if (pipeline != null) {
+            return pipeline.executeExclusive(mutation);
+        }
+        return underStripes(0, mutation);
+    }
+
+    private <T> T underStripes(int from, Supplier<T> mutation) {
+        if (from == lockStripes.length) {
+            return mutation.get();
+        }
+        synchronized (lockStripes[from]) {
+            return underStripes(from + 1, mutation);
+        }
+    }
+
+    /**
+     * Record the wait for a record lock, or for the pipeline writer to pick up the mutation
+     *
+     * @param operation DAO operation acquiring the lock
+     * @param id Transaction record ID
+     * @param lockStart Time the wait started, in nanoseconds
+     * @param event Lock acquire event begun when the wait started
+     */
+    private void lockAcquired(DaoOperation operation, Long id, long lockStart, LockAcquireEvent event) {
+        metrics.recordLockWait(operation, System.nanoTime() - lockStart);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation.getTagValue();
+            event.transactionId = id;
+            event.commit();
+        }
+    }
 
     @Override
     public Transaction add(Transaction transaction) {
+        return instrumented(DaoOperation.ADD, transaction.getId(), () -> doAdd(transaction));
+    }
+
+    private Transaction doAdd(Transaction transaction) {
         validationUtils.validate(transaction);
-        if (existsByTransId(transaction.getTransId())) {
-            throw new BusinessException("Transaction already exists: " + transaction.getTransId()).code(ErrorCode.TRANSACTION_DUPLICATE.getCode());
+        if (reserveTransId(transaction.getTransId(), transaction.getId()) != null) {
+            metrics.recordDuplicateRejection();
+            throw BusinessException.stackless("Transaction already exists: " + transaction.getTransId(), ErrorCode.TRANSACTION_DUPLICATE.getCode());
+        }
+        boolean stored = false;
+        try {
+            exclusive(transaction.getId(), () -> {
+                store.put(transaction);
+                publishChange(ChangeType.CREATE, transaction.getId(), transaction);
+                return transaction;
+            });
+            stored = true;
+        } finally {
+            if (!stored) {
+                transIdIndexMap.remove(transaction.getTransId(), transaction.getId());
+            }
         }
-        transIdIndexMap.put(transaction.getTransId(), transaction.getId());
-        store.put(transaction.getId(), transaction);
         return transaction;
     }
 
-    private boolean existsByTransId(String transId) {
-        return transIdIndexMap.containsKey(transId) && store.exists(transIdIndexMap.get(transId));
+    /**
+     * Look up the record holding a business transaction ID, reading the index entry once as a concurrent delete may
+     * remove it at any time
+     *
+     * @param transId Business transaction ID
+     * @return ID of the stored record, null if none holds the business transaction ID
+     */
+    private Long findByTransId(String transId) {
+        ScalableBloomFilter filter = transIdFilter;
+        if (filter != null && !filter.mightContain(LongHashes.hash(transId))) {
+            metrics.recordTransIdFilter(false, false);
+            return null;
+        }
+        Long id = transIdIndexMap.get(transId);
+        boolean exists = id != null && store.exists(id);
+        if (filter != null) {
+            metrics.recordTransIdFilter(true, exists);
+        }
+        return exists ? id : null;
+    }
+
+    /**
+     * Reserve a business transaction ID for a record with an atomic put-if-absent on the index, so of concurrent adds
+     * of the same ID exactly one succeeds
+     * The ID is added to the filter before the index so a lookup never misses an indexed ID
+     *
+     * @param transId Business transaction ID
+     * @param id Transaction record ID
+     * @return ID of the record already holding the business transaction ID, null if the reservation succeeded
+     */
+    private Long reserveTransId(String transId, long id) {
+        if (transIdFilter == null) {
+            return transIdIndexMap.putIfAbsent(transId, id);
+        }
+        transIdFilterLock.readLock().lock();
+        try {
+            long hash = LongHashes.hash(transId);
+            transIdFilter.add(hash);
+            ScalableBloomFilter rebuilding = rebuildingFilter;
+            if (rebuilding != null) {
+                rebuilding.add(hash);
+            }
+            return transIdIndexMap.putIfAbsent(transId, id);
+        } finally {
+            transIdFilterLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the business transaction ID filter once deletes since the last rebuild reach the configured share of the
+     * records, dropping deleted IDs and merging the grown stages into one sized for the current records
+     */
+    @Scheduled(fixedDelayString = "${trans.store.trans-id-filter.rebuild-check-interval:PT30S}")
+    public void rebuildTransIdFilterIfStale() {
+        if (transIdFilter == null) {
+            return;
+        }
+        long deletes = deletesSinceFilterRebuild.get();
+        if (deletes > 0 && deletes >= transIdIndexMap.size() * filterProperties.getRebuildDeleteRatio()) {
+            rebuildTransIdFilter();
+        }
+    }
+
+    /**
+     * Rebuild the business transaction ID filter from the index
+     */
+    public synchronized void rebuildTransIdFilter() {
+        if (transIdFilter == null) {
+            return;
+        }
+        long deletes = deletesSinceFilterRebuild.get();
+        ScalableBloomFilter rebuilt = new ScalableBloomFilter(
+            Math.max(filterProperties.getExpectedInsertions(), transIdIndexMap.size() * 2L), filterProperties.getFalsePositiveRate());
+        transIdFilterLock.writeLock().lock();
+        try {
+            rebuildingFilter = rebuilt;
+        } finally {
+            transIdFilterLock.writeLock().unlock();
+        }
+        for (String transId : transIdIndexMap.keySet()) {
+            rebuilt.add(LongHashes.hash(transId));
+        }
+        // Swapped under the write lock, so no reservation adds its ID to the old filter only after the scan
+        transIdFilterLock.writeLock().lock();
+        try {
+            transIdFilter = rebuilt;
+            rebuildingFilter = null;
+        } finally {
+            transIdFilterLock.writeLock().unlock();
+        }
+        deletesSinceFilterRebuild.addAndGet(-deletes);
+        metrics.recordTransIdFilterRebuild();
+        log.info("Transaction ID filter rebuilt, {} IDs, {} deletes dropped", transIdIndexMap.size(), deletes);
     }
 
     @Override
     public Optional<Transaction> queryById(Long id) {
-        return Optional.ofNullable(store.get(id));
+        return instrumented(DaoOperation.QUERY_BY_ID, id, () -> Optional.ofNullable(store.get(id)));
     }
 
     @Override
     public Optional<Transaction> queryByTransId(String transId) {
-        return Optional.ofNullable(existsByTransId(transId) ? store.get(transIdIndexMap.get(transId)) : null);
+        return instrumented(DaoOperation.QUERY_BY_TRANS_ID, null,
+            () -> {
+                Long id = findByTransId(transId);
+                return Optional.ofNullable(id == null ? null : store.get(id));
+            });
     }
 
     @Override
     public List<Transaction> queryList() {
-        return store.values();
+        return instrumented(DaoOperation.QUERY_LIST, null, store::values);
     }
 
     @Override
     public PageResult<Transaction> queryPage(PageRequest pageRequest) {
-        List<Transaction> values = store.values(pageRequest.getOffset(), pageRequest.getPageSize());
-        return new PageResult<>(values, store.size(), pageRequest);
+        return instrumented(DaoOperation.QUERY_PAGE, null, () -> {
+            Long afterId = pageRequest.getAfterId();
+            List<Transaction> values = afterId == null
+                ? store.values(pageRequest.getOffset(), pageRequest.getPageSize())
+                : afterId == Long.MAX_VALUE ? List.of() : store.valuesFrom(afterId + 1, pageRequest.getPageSize());
+            return new PageResult<>(values, store.size(), pageRequest);
+        });
     }
 
 
     @Override
     public Transaction updateById(Transaction transaction) {
+        return instrumented(DaoOperation.UPDATE_BY_ID, transaction.getId(), () -> doUpdateById(transaction, null));
+    }
+
+    @Override
+    public Transaction updateById(Transaction transaction, TransactionStatus expectedStatus) {
+        return instrumented(DaoOperation.UPDATE_BY_ID, transaction.getId(), () -> doUpdateById(transaction, expectedStatus));
+    }
+
+    private Transaction doUpdateById(Transaction transaction, TransactionStatus expectedStatus) {
         if (!store.exists(transaction.getId())) {
-            throw new BusinessException("Transaction not found, ID: " + transaction.getId()).code(ErrorCode.TRANSACTION_NOT_FOUND.getCode());
+            throw BusinessException.stackless("Transaction not found, ID: " + transaction.getId(), ErrorCode.TRANSACTION_NOT_FOUND.getCode());
         }
-        synchronized (store.getLockKey(transaction.getId())) {
+        LockAcquireEvent lockEvent = new LockAcquireEvent();
+        lockEvent.begin();
+        long lockStart = System.nanoTime();
+        return exclusive(transaction.getId(), () -> {
+            lockAcquired(DaoOperation.UPDATE_BY_ID, transaction.getId(), lockStart, lockEvent);
 //            try {
 //                Thread.sleep(5000);
 //            } catch (InterruptedException e) {
@@ -88,16 +407,30 @@ public class TransactionDaoMemoryImpl implements TransactionDao {
 //            }
             if (store.exists(transaction.getId())) { // 锁记录后重新检查记录存在
                 Transaction origin = store.get(transaction.getId());
+                if (expectedStatus != null && origin.getStatus() != expectedStatus) {
+                    throw BusinessException.stackless("Transaction status changed concurrently, ID: " + transaction.getId()
+                        + ", expected " + expectedStatus + " but was " + origin.getStatus(), ErrorCode.TRANSACTION_STATUS_CONFLICT.getCode());
+                }
+                TransactionStatus fromStatus = origin.getStatus();
+                Timestamp fromTime = origin.getUpdateTime();
+                String fromDescription = origin.getDescription();
                 if (assign(origin, transaction)) {
-                    store.put(transaction.getId(), origin);
+                    store.put(origin);
+                    if (history != null) {
+                        if (!history.contains(origin.getId())) {
+                            history.append(origin.getId(), fromStatus, fromTime.getTime(), fromDescription);
+                        }
+                        history.append(origin.getId(), origin.getStatus(), origin.getUpdateTime().getTime(), origin.getDescription());
+                    }
+                    publishChange(ChangeType.UPDATE, origin.getId(), origin);
                 } else {
-                    throw new BusinessException("Transaction not changed, ID: " + transaction.getId()).code(ErrorCode.TRANSACTION_NOT_CHANGED.getCode());
+                    throw BusinessException.stackless("Transaction not changed, ID: " + transaction.getId(), ErrorCode.TRANSACTION_NOT_CHANGED.getCode());
                 }
             } else {
-                throw new BusinessException("Transaction not found during concurrent operation, ID: " + transaction.getId()).code(ErrorCode.TRANSACTION_NOT_FOUND.getCode());
+                throw BusinessException.stackless("Transaction not found during concurrent operation, ID: " + transaction.getId(), ErrorCode.TRANSACTION_NOT_FOUND.getCode());
             }
-        }
-        return transaction;
+            return transaction;
+        });
     }
 
     private boolean assign(Transaction origin, Transaction modified) {
@@ -120,10 +453,18 @@ public class TransactionDaoMemoryImpl implements TransactionDao {
 
     @Override
     public Transaction deleteById(Long id) {
+        return instrumented(DaoOperation.DELETE_BY_ID, id, () -> doDeleteById(id));
+    }
+
+    private Transaction doDeleteById(Long id) {
         if (!store.exists(id)) {
-            throw new BusinessException("Transaction not found, ID: " + id).code(ErrorCode.TRANSACTION_NOT_FOUND.getCode());
+            throw BusinessException.stackless("Transaction not found, ID: " + id, ErrorCode.TRANSACTION_NOT_FOUND.getCode());
         }
-        synchronized (store.getLockKey(id)) {
+        LockAcquireEvent lockEvent = new LockAcquireEvent();
+        lockEvent.begin();
+        long lockStart = System.nanoTime();
+        return exclusive(id, () -> {
+            lockAcquired(DaoOperation.DELETE_BY_ID, id, lockStart, lockEvent);
 //            try {
 //                Thread.sleep(5000);
 //            } catch (InterruptedException e) {
@@ -131,73 +472,244 @@ public class TransactionDaoMemoryImpl implements TransactionDao {
 //            }
             if (store.exists(id)) { // 锁记录后重新检查记录存在
                 Transaction transaction = store.delete(id);
-                transIdIndexMap.remove(transaction.getTransId());
+                transIdIndexMap.remove(transaction.getTransId(), id);
+                deletesSinceFilterRebuild.incrementAndGet();
+                if (history != null) {
+                    history.remove(id);
+                }
+                publishChange(ChangeType.DELETE, id, transaction);
                 return transaction;
             } else {
-                throw new BusinessException("Transaction not found during concurrent operation, ID: " + id).code(ErrorCode.TRANSACTION_NOT_FOUND.getCode());
+                throw BusinessException.stackless("Transaction not found during concurrent operation, ID: " + id, ErrorCode.TRANSACTION_NOT_FOUND.getCode());
+            }
+        });
+    }
+
+    @Override
+    public long deleteCreatedBefore(long epochMillis) {
+        return instrumented(DaoOperation.DELETE_CREATED_BEFORE, null, () -> deleteBelow(SnowflakeIdGenerator.minIdAt(epochMillis)));
+    }
+
+    /**
+     * Clear the store and the history at once while all record mutations are held off, instead of deleting record by
+     * record; adds waiting for their record lock meanwhile are applied, and published, after the clear
+     */
+    @Override
+    public long truncate() {
+        return instrumented(DaoOperation.TRUNCATE, null, () -> {
+            long deleted = exclusiveAll(() -> {
+                long cleared = store.clear();
+                if (history != null) {
+                    history.clear();
+                }
+                publishChange(ChangeType.PURGE, Long.MAX_VALUE, null);
+                return cleared;
+            });
+            return swept(Long.MAX_VALUE, deleted);
+        });
+    }
+
+    /**
+     * Delete the records below an ID: the partitions of whole periods below it are dropped at once while all record
+     * mutations are held off, so no update of a dropped record passes its existence check before the drop and is
+     * discarded after it; the remaining records are deleted one by one under their record lock
+     * Published as one purge of the IDs below the bound rather than a delete per record
+     *
+     * @param boundary Exclusive upper bound of the record IDs
+     * @return Number of deleted records
+     */
+    private long deleteBelow(long boundary) {
+        long deleted = partitioning.isEnabled() ? exclusiveAll(() -> store.dropPartitionsBelow(boundary)) : 0;
+        List<Long> remaining = new ArrayList<>();
+        PrimitiveIterator.OfLong ids = store.ids();
+        while (ids.hasNext()) {
+            long id = ids.nextLong();
+            if (id >= boundary) {
+                break;
+            }
+            remaining.add(id);
+        }
+        for (long id : remaining) {
+            Transaction transaction = exclusive(id, () -> store.delete(id));
+            if (transaction != null) {
+                transIdIndexMap.remove(transaction.getTransId(), id);
+                deleted++;
             }
         }
+        if (history != null) {
+            history.removeBelow(boundary);
+        }
+        publishChange(ChangeType.PURGE, boundary, null);
+        return swept(boundary, deleted);
     }
 
+    /**
+     * Sweep the index entries of the records deleted below an ID, those of dropped partitions or of a cleared store
+     * Entries of records still stored are kept; records added concurrently below the ID may lose their entry
+     *
+     * @param boundary Exclusive upper bound of the record IDs
+     * @param deleted Number of deleted records
+     * @return Number of deleted records
+     */
+    private long swept(long boundary, long deleted) {
+        transIdIndexMap.values().removeIf(id -> id < boundary && !store.exists(id));
+        deletesSinceFilterRebuild.addAndGet(deleted);
+        return deleted;
+    }
 
+    @Override
+    public Optional<List<TransactionStatusChange>> queryHistory(Long id) {
+        if (history == null) {
+            throw BusinessException.stackless("Status history is disabled", ErrorCode.HISTORY_UNAVAILABLE.getCode());
+        }
+        // Reads without the record's lock: the history read after the record is at least as recent as the record
+        return instrumented(DaoOperation.QUERY_HISTORY, id, () -> {
+            Transaction transaction = store.get(id);
+            if (transaction == null) {
+                return Optional.empty();
+            }
+            List<TransactionStatusChange> changes = history.history(id);
+            return Optional.of(changes.isEmpty()
+                ? List.of(new TransactionStatusChange(transaction.getStatus(), transaction.getUpdateTime(), transaction.getDescription()))
+                : changes);
+        });
+    }
+
+    @Override
+    public TransactionSnapshot openSnapshot(Duration ttl) {
+        if (!(store instanceof SnapshotTransactionStore snapshotStore)) {
+            throw BusinessException.stackless("Snapshots are disabled", ErrorCode.SNAPSHOT_UNAVAILABLE.getCode());
+        }
+        StoreSnapshot snapshot = snapshotStore.openSnapshot(ttl);
+        if (snapshot == null) {
+            throw BusinessException.stackless("Too many open snapshots", ErrorCode.SNAPSHOT_UNAVAILABLE.getCode());
+        }
+        return new MemorySnapshot(snapshot);
+    }
+
+    @Override
+    public Optional<TransactionSnapshot> querySnapshot(long snapshotId) {
+        return store instanceof SnapshotTransactionStore snapshotStore
+            ? Optional.ofNullable(snapshotStore.getSnapshot(snapshotId)).map(MemorySnapshot::new)
+            : Optional.empty();
+    }
+
+    @Override
+    public boolean releaseSnapshot(long snapshotId) {
+        return store instanceof SnapshotTransactionStore snapshotStore && snapshotStore.releaseSnapshot(snapshotId);
+    }
 
     /**
-     * Internal Storage Class
-     * Provides thread-safe transaction data storage implementation
+     * Snapshot of the store, checking after every read that the snapshot was still open during the read
      */
-    private static class TransactionStore {
-        private final Map<Long, Transaction> transactionStore = new ConcurrentSkipListMap<>();
+    private class MemorySnapshot implements TransactionSnapshot {
+
+        private final StoreSnapshot snapshot;
 
-        private boolean exists(Long id) {
-            return transactionStore.containsKey(id);
+        private MemorySnapshot(StoreSnapshot snapshot) {
+            this.snapshot = snapshot;
         }
 
-        private Transaction copy(Transaction from) {
-            if (from == null) {
-                return null;
+        private <T> T read(Supplier<T> action) {
+            T result = instrumented(DaoOperation.QUERY_SNAPSHOT, null, action);
+            if (snapshot.isReleased()) {
+                throw BusinessException.stackless("Snapshot released or expired, ID: " + snapshot.getId(), ErrorCode.SNAPSHOT_NOT_FOUND.getCode());
             }
-            Transaction to = new Transaction();
-            CopyBeanUtils.copyProperties(from, to);
-            return to;
+            return result;
         }
 
-        private Transaction get(Long id) {
-            return copy(transactionStore.get(id));
+        @Override
+        public long getId() {
+            return snapshot.getId();
         }
 
-        private Transaction delete(Long id) {
-            return copy(transactionStore.remove(id));
+        @Override
+        public long getEpoch() {
+            return snapshot.getEpoch();
         }
 
-        private void put(Long id, Transaction transaction) {
-            transactionStore.put(id, copy(transaction));
+        @Override
+        public long getCreateTime() {
+            return snapshot.getCreateTime();
         }
 
-        private List<Transaction> values() {
-            return transactionStore.values().stream()
-                .map(this::copy)
-                .collect(Collectors.toList());
+        @Override
+        public long getExpireTime() {
+            return snapshot.getExpireTime();
         }
 
-        private List<Transaction> values(long from, int limit) {
-            return transactionStore.entrySet().stream()
-                .skip(from)
-                .limit(limit)
-                .map(Map.Entry::getValue)
-                .map(this::copy)
-                .collect(Collectors.toList());
+        @Override
+        public long count() {
+            return read(snapshot::size);
         }
 
-        private long size() {
-            return transactionStore.size();
+        @Override
+        public PageResult<Transaction> queryPage(PageRequest pageRequest) {
+            return read(() -> {
+                Long afterId = pageRequest.getAfterId();
+                List<Transaction> values = afterId == null
+                    ? snapshot.values(pageRequest.getOffset(), pageRequest.getPageSize())
+                    : afterId == Long.MAX_VALUE ? List.of() : snapshot.valuesFrom(afterId + 1, pageRequest.getPageSize());
+                return new PageResult<>(values, snapshot.size(), pageRequest);
+            });
         }
 
-        private Long getLockKey(Long id) {
-            if (transactionStore.containsKey(id)) {
-                return transactionStore.get(id).getId();
-            }
-            throw new BusinessException("Transaction not found with id: " + id).code(ErrorCode.SYSTEM_ERROR.getCode());
+        @Override
+        public List<Transaction> queryFrom(long fromId, int limit) {
+            return read(() -> snapshot.valuesFrom(fromId, limit));
         }
+    }
 
+    /**
+     * Drop the partitions of the periods past the retention, when partitioned with a retention
+     */
+    @Scheduled(fixedDelayString = "${trans.store.maintenance-interval:PT1M}")
+    public void applyRetention() {
+        if (!partitioning.isEnabled() || partitioning.getRetention().isZero()) {
+            return;
+        }
+        long period = partitioning.getPeriod().toMillis();
+        long cutoff = Math.floorDiv(System.currentTimeMillis() - partitioning.getRetention().toMillis(), period) * period;
+        long deleted = deleteCreatedBefore(cutoff);
+        if (deleted > 0) {
+            log.info("{} transactions created before {} deleted by retention", deleted, Instant.ofEpochMilli(cutoff));
+        }
+    }
+
+    /**
+     * Compact the status history segments mostly holding entries of deleted records
+     */
+    @Scheduled(fixedDelayString = "${trans.store.maintenance-interval:PT1M}")
+    public void compactHistory() {
+        if (history == null) {
+            return;
+        }
+        long dropped = history.compact();
+        if (dropped > 0) {
+            log.info("{} status history entries of deleted transactions compacted", dropped);
+        }
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        ScalableBloomFilter filter = transIdFilter;
+        return store.estimatedHeapBytes() + store.size() * ESTIMATED_INDEX_ENTRY_BYTES
+            + (filter == null ? 0 : filter.approximateBytes()) + (history == null ? 0 : history.estimatedHeapBytes());
+    }
+
+    @Override
+    public long offHeapBytes() {
+        long storeBytes = store.offHeapBytes();
+        return history == null ? storeBytes : Math.max(0, storeBytes) + history.offHeapBytes();
+    }
+
+    @Override
+    public long offHeapGarbageBytes() {
+        return store.offHeapGarbageBytes();
     }
-}
\ No newline at end of file
+}
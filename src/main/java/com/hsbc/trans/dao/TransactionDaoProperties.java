@@ -0,0 +1,87 @@
+package com.hsbc.trans.dao;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Transaction DAO Properties
+ * Selects the DAO implementation and its cache under {@code trans.dao}; the JDBC data source itself is configured under {@code spring.datasource}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Data
+@ConfigurationProperties(prefix = "trans.dao")
+public class TransactionDaoProperties {
+
+    /**
+     * DAO implementation: memory ({@link TransactionDaoMemoryImpl}) or jdbc ({@link TransactionDaoJdbcImpl})
+     */
+    private String impl = "memory";
+
+    /**
+     * JDBC implementation
+     */
+    private Jdbc jdbc = new Jdbc();
+
+    /**
+     * Cache of lookups by ID and business transaction ID in front of the implementation
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * DAO Cache Properties
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * Whether lookups by ID and business transaction ID are cached
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of cached entries per lookup kind, used when max-bytes is 0
+         */
+        private long maxEntries = 100_000;
+
+        /**
+         * Maximum estimated heap bytes of the entries per lookup kind, 0 to bound by entry count
+         */
+        private long maxBytes = 0;
+
+        /**
+         * Number of independently locked cache segments, rounded up to a power of two
+         */
+        private int segments = 16;
+    }
+
+    /**
+     * JDBC DAO Properties
+     */
+    @Data
+    public static class Jdbc {
+
+        /**
+         * Rows sent to the database per JDBC batch of a bulk create
+         */
+        private int batchSize = 500;
+
+        /**
+         * Whether the table is created at startup if it does not exist
+         */
+        private boolean initializeSchema = true;
+
+        /**
+         * Whether status changes are kept in the history table, written in the database transaction of the mutation
+         */
+        private boolean history = true;
+
+        /**
+         * Whether records behind their latest history row are reset to it at startup, e.g. after the transaction
+         * table was restored from a backup older than the history; records updated after the row are kept
+         */
+        private boolean rebuildFromHistory = false;
+    }
+}
@@ -0,0 +1,74 @@
+package com.hsbc.trans.dao;
+
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.vo.PageRequest;
+import com.hsbc.trans.vo.PageResult;
+
+import java.util.List;
+
+/**
+ * Transaction Snapshot Interface
+ * Point-in-time view of the transaction records opened with {@link TransactionDao#openSnapshot}: pages and exports
+ * read against it neither skip nor repeat records however the records change meanwhile
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public interface TransactionSnapshot {
+
+    /**
+     * Get the snapshot ID
+     *
+     * @return Snapshot ID
+     */
+    long getId();
+
+    /**
+     * Get the write epoch the snapshot sees the records at
+     *
+     * @return Epoch
+     */
+    long getEpoch();
+
+    /**
+     * Get the time the snapshot was opened
+     *
+     * @return Epoch milliseconds
+     */
+    long getCreateTime();
+
+    /**
+     * Get the time the snapshot expires
+     *
+     * @return Epoch milliseconds
+     */
+    long getExpireTime();
+
+    /**
+     * Count the transaction records
+     *
+     * @return Number of transaction records
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException 如果快照已释放或过期
+     */
+    long count();
+
+    /**
+     * Query transaction records with pagination
+     *
+     * @param pageRequest Pagination request parameters
+     * @return Paginated result
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException 如果快照已释放或过期
+     */
+    PageResult<Transaction> queryPage(PageRequest pageRequest);
+
+    /**
+     * Query transaction records starting at an ID in ascending ID order
+     *
+     * @param fromId Smallest record ID included
+     * @param limit Maximum number of records
+     * @return Transaction records
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException 如果快照已释放或过期
+     */
+    List<Transaction> queryFrom(long fromId, int limit);
+}
@@ -0,0 +1,34 @@
+package com.hsbc.trans.dao.change;
+
+import com.hsbc.trans.dao.store.TransactionCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Change Bus Configuration
+ * Binds {@code trans.cdc} and creates the {@link TransactionChangeBus} the DAO publishes its changes to, unless
+ * {@code trans.cdc.enabled} is false
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Configuration
+@EnableConfigurationProperties(ChangeBusProperties.class)
+public class ChangeBusConfig {
+
+    /**
+     * Change bus
+     *
+     * @param properties Change bus properties
+     * @param codec Transaction codec
+     * @return Change bus, closed on shutdown
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "trans.cdc", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public TransactionChangeBus transactionChangeBus(ChangeBusProperties properties, TransactionCodec codec) {
+        return new TransactionChangeBus(properties, codec);
+    }
+}
@@ -0,0 +1,40 @@
+package com.hsbc.trans.dao.change;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Change Bus Properties
+ * Configures the change stream of the transaction records under {@code trans.cdc}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Data
+@ConfigurationProperties(prefix = "trans.cdc")
+public class ChangeBusProperties {
+
+    /**
+     * Whether the DAO publishes its changes
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of latest changes kept for subscribers resuming after a sequence, rounded up to a power of two
+     */
+    private int journalSize = 16384;
+
+    /**
+     * Number of changes a subscriber may fall behind the latest change, a subscriber falling further behind is
+     * disconnected; the journal size bounds it as well
+     */
+    private int bufferSize = 1024;
+
+    /**
+     * Time a Server-Sent Events connection is kept open, the client then reconnects and resumes
+     */
+    private Duration sseTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,31 @@
+package com.hsbc.trans.dao.change;
+
+import com.hsbc.trans.vo.TransactionChange;
+
+/**
+ * Change Listener
+ * Receives the changes of a {@link ChangeSubscription} in sequence order, one change at a time, on a delivery thread
+ * of the {@link TransactionChangeBus}; a listener may block, only its own subscription waits
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public interface ChangeListener {
+
+    /**
+     * Receive a change
+     * A runtime exception closes the subscription with {@link ChangeSubscription.CloseReason#ERROR}
+     *
+     * @param change Change, owned by the listener
+     */
+    void onChange(TransactionChange change);
+
+    /**
+     * Receive the end of the subscription, once, after the last change
+     *
+     * @param subscription Closed subscription, telling the close reason and the last sequence received
+     */
+    default void onClose(ChangeSubscription subscription) {
+    }
+}
@@ -0,0 +1,264 @@
+package com.hsbc.trans.dao.change;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Change Subscription
+ * Delivers the changes of a {@link TransactionChangeBus} to a {@link ChangeListener}, read from the bus' journal in
+ * sequence order starting after the requested sequence
+ * Delivery runs as a task of the bus' delivery executor while the journal holds the next change; at most one task per
+ * subscription runs at a time, so the listener receives one change at a time in sequence order
+ * A listener falling more than the buffer size behind the latest change is closed with {@link CloseReason#OVERFLOW}
+ * when it asks for its next change, instead of slowing the writers; it subscribes again after its last sequence and
+ * catches up from the journal
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Slf4j
+public final class ChangeSubscription implements AutoCloseable {
+
+    /**
+     * Reason a subscription was closed
+     */
+    public enum CloseReason {
+        /**
+         * Closed by the subscriber
+         */
+        CLOSED,
+        /**
+         * The buffer was full, the subscriber did not keep up with the changes
+         */
+        OVERFLOW,
+        /**
+         * Changes after the requested sequence are no longer in the journal, or the sequence was never published;
+         * the subscriber reads the records again and subscribes from the current sequence
+         */
+        GAP,
+        /**
+         * The listener threw an exception
+         */
+        ERROR,
+        /**
+         * The bus was shut down
+         */
+        SHUTDOWN
+    }
+
+    /**
+     * Changes delivered per journal drain before the other subscriptions get a turn
+     */
+    private static final int DRAIN_BATCH = 256;
+
+    private final TransactionChangeBus bus;
+
+    private final long id;
+
+    private final ChangeListener listener;
+
+    private final int bufferSize;
+
+    /**
+     * Next sequence to deliver, only used by the delivery task
+     */
+    private long next;
+
+    /**
+     * Last sequence published before subscribing, a change overwritten up to it is a gap, later an overflow
+     */
+    private final long replayTo;
+
+    private volatile long lastSequence;
+
+    /**
+     * Whether a delivery task is scheduled or running
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final AtomicReference<CloseReason> closeReason = new AtomicReference<>();
+
+    private boolean closeNotified;
+
+    ChangeSubscription(TransactionChangeBus bus, long id, ChangeListener listener, int bufferSize, long afterSequence, long replayTo) {
+        this.bus = bus;
+        this.id = id;
+        this.listener = listener;
+        this.bufferSize = bufferSize;
+        this.next = afterSequence + 1;
+        this.replayTo = replayTo;
+        this.lastSequence = afterSequence;
+        bus.subscriptionIdle(true);
+    }
+
+    /**
+     * Schedule a delivery task if none is scheduled and the journal holds the next change, called by the writers
+     */
+    void wake() {
+        if (!scheduled.get() && ready()) {
+            schedule();
+        }
+    }
+
+    /**
+     * Check whether the journal holds the next change, or a later one once the next was overwritten
+     */
+    private boolean ready() {
+        TransactionChangeBus.Change change = bus.journalSlot(next);
+        return change != null && change.sequence() >= next;
+    }
+
+    /**
+     * Schedule a delivery task unless one is scheduled
+     */
+    void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            bus.subscriptionIdle(false);
+            try {
+                bus.execute(this::deliver);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                bus.subscriptionIdle(true);
+            }
+        }
+    }
+
+    /**
+     * Deliver the changes the journal holds, then the close once closed
+     */
+    private void deliver() {
+        while (true) {
+            drain();
+            CloseReason reason = closeReason.get();
+            if (reason != null) {
+                // The task stays scheduled, no further task is started
+                if (!closeNotified) {
+                    closeNotified = true;
+                    notifyClosed();
+                }
+                return;
+            }
+            scheduled.set(false);
+            bus.subscriptionIdle(true);
+            // A writer storing the next change after the check sees this subscription idle and wakes it
+            if ((!ready() && closeReason.get() == null) || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            bus.subscriptionIdle(false);
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < DRAIN_BATCH && closeReason.get() == null; i++) {
+            TransactionChangeBus.Change change = bus.journalSlot(next);
+            if (change == null || change.sequence() < next) {
+                // Not stored by its writer yet
+                return;
+            }
+            if (change.sequence() > next) {
+                close(next <= replayTo ? CloseReason.GAP : CloseReason.OVERFLOW);
+                return;
+            }
+            if (next > replayTo && bus.getLastSequence() - next >= bufferSize) {
+                close(CloseReason.OVERFLOW);
+                return;
+            }
+            deliver(change);
+            next++;
+        }
+    }
+
+    private void deliver(TransactionChangeBus.Change change) {
+        if (closeReason.get() != null) {
+            return;
+        }
+        try {
+            listener.onChange(bus.toTransactionChange(change));
+            lastSequence = change.sequence();
+        } catch (RuntimeException e) {
+            log.warn("Change listener of subscription {} failed at sequence {}", id, change.sequence(), e);
+            close(CloseReason.ERROR);
+        }
+    }
+
+    private void notifyClosed() {
+        try {
+            listener.onClose(this);
+        } catch (RuntimeException e) {
+            log.warn("Change listener of subscription {} failed on close", id, e);
+        }
+    }
+
+    /**
+     * Close the subscription, the listener is told after the change it is receiving
+     *
+     * @param reason Close reason
+     * @return Whether the subscription was open
+     */
+    boolean close(CloseReason reason) {
+        if (!closeReason.compareAndSet(null, reason)) {
+            return false;
+        }
+        bus.closed(this, reason);
+        schedule();
+        return true;
+    }
+
+    /**
+     * Close the subscription
+     */
+    @Override
+    public void close() {
+        close(CloseReason.CLOSED);
+    }
+
+    /**
+     * Get the subscription ID
+     *
+     * @return Subscription ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Get the sequence of the last change delivered, or the sequence subscribed after before the first
+     *
+     * @return Sequence
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Get the sequence of the latest change published on the bus, after which a subscriber closed with
+     * {@link CloseReason#GAP} resumes once it read the records again
+     *
+     * @return Sequence
+     */
+    public long getLatestSequence() {
+        return bus.getLastSequence();
+    }
+
+    /**
+     * Get the number of published changes not delivered yet
+     *
+     * @return Number of changes
+     */
+    public int getBuffered() {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, bus.getLastSequence() - lastSequence));
+    }
+
+    /**
+     * Get the reason the subscription was closed
+     *
+     * @return Close reason, null while open
+     */
+    public CloseReason getCloseReason() {
+        return closeReason.get();
+    }
+}
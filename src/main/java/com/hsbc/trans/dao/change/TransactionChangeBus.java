@@ -0,0 +1,250 @@
+package com.hsbc.trans.dao.change;
+
+import com.hsbc.common.collection.LongHashes;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.store.TransactionCodec;
+import com.hsbc.trans.dao.store.TransactionRecord;
+import com.hsbc.trans.enums.ChangeType;
+import com.hsbc.trans.vo.TransactionChange;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Timestamp;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transaction Change Bus
+ * In-process change data capture: the DAO publishes every create, update and delete of a record while it holds the
+ * record exclusively, so the changes of a record are numbered in the order they were applied; sequence numbers
+ * increase by one per change since the start
+ * Publishing claims a sequence from an atomic counter and stores the change in a fixed-size journal slot, without a
+ * lock; changes of different records may land in the journal out of sequence order for a moment
+ * Subscribers read the journal themselves, each in its own delivery task on a virtual thread that waits for a missing
+ * sequence until its writer stores it, so a slow or blocked subscriber neither delays the writers nor the other
+ * subscribers; writers only touch the subscriptions to wake the ones waiting for a change
+ * A subscriber resumes after the last sequence it received as long as the journal still holds the following changes;
+ * otherwise it is told of the gap and reads the records again
+ * Changes are kept in the immutable {@link TransactionRecord} form and materialized per delivery
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Slf4j
+public class TransactionChangeBus implements MeterBinder, AutoCloseable {
+
+    /**
+     * Published change
+     *
+     * @param sequence Sequence number
+     * @param type Change type
+     * @param id Transaction record ID, or purge bound
+     * @param time Change time in epoch millis
+     * @param record Record after a create or update, before a delete, null for a purge
+     */
+    record Change(long sequence, ChangeType type, long id, long time, TransactionRecord record) {
+    }
+
+    private final TransactionCodec codec;
+
+    private final int bufferSize;
+
+    /**
+     * Latest changes by sequence modulo the journal size
+     */
+    private final AtomicReferenceArray<Change> journal;
+
+    private final int journalMask;
+
+    /**
+     * Last claimed sequence, its change may not be in the journal yet
+     */
+    private final AtomicLong lastSequence = new AtomicLong();
+
+    /**
+     * Subscriptions without a scheduled delivery task, woken by the writers
+     */
+    private final AtomicInteger idleSubscriptions = new AtomicInteger();
+
+    private final CopyOnWriteArrayList<ChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong subscriptionSequence = new AtomicLong();
+
+    private final Map<ChangeSubscription.CloseReason, LongAdder> closedSubscriptions = new EnumMap<>(ChangeSubscription.CloseReason.class);
+
+    private final ExecutorService delivery = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("trans-cdc-", 0).factory());
+
+    /**
+     * Constructor
+     *
+     * @param properties Change bus properties
+     * @param codec Transaction codec
+     */
+    public TransactionChangeBus(ChangeBusProperties properties, TransactionCodec codec) {
+        this.codec = codec;
+        this.bufferSize = properties.getBufferSize();
+        int journalSize = LongHashes.tableSizeFor(Math.max(2, properties.getJournalSize()));
+        this.journal = new AtomicReferenceArray<>(journalSize);
+        this.journalMask = journalSize - 1;
+        for (ChangeSubscription.CloseReason reason : ChangeSubscription.CloseReason.values()) {
+            closedSubscriptions.put(reason, new LongAdder());
+        }
+    }
+
+    /**
+     * Publish a change of a record, called by the DAO while it holds the record exclusively
+     *
+     * @param type Change type
+     * @param id Transaction record ID, or purge bound
+     * @param transaction Record after a create or update, before a delete, null for a purge
+     * @return Sequence number of the change
+     */
+    public long publish(ChangeType type, long id, Transaction transaction) {
+        TransactionRecord record = transaction == null ? null : codec.encode(transaction);
+        long time = System.currentTimeMillis();
+        long sequence = lastSequence.incrementAndGet();
+        // A writer delayed by a whole journal turn leaves the later change in place
+        journal.accumulateAndGet((int) sequence & journalMask, new Change(sequence, type, id, time, record),
+            (current, change) -> current == null || current.sequence() < change.sequence() ? change : current);
+        if (idleSubscriptions.get() > 0) {
+            for (ChangeSubscription subscription : subscriptions) {
+                subscription.wake();
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Subscribe to the changes after a sequence
+     *
+     * @param afterSequence Sequence of the last change already received, null to receive the changes published from now
+     * @param listener Receives the changes
+     * @return Subscription, closed with {@link ChangeSubscription.CloseReason#GAP} once the changes after the sequence
+     *     are not in the journal
+     */
+    public ChangeSubscription subscribe(Long afterSequence, ChangeListener listener) {
+        long last = lastSequence.get();
+        long after = afterSequence == null ? last : afterSequence;
+        ChangeSubscription subscription = new ChangeSubscription(this, subscriptionSequence.incrementAndGet(), listener, bufferSize, after, last);
+        if (after > last || after < 0) {
+            // A sequence of an earlier run, or invalid
+            subscription.close(ChangeSubscription.CloseReason.GAP);
+            return subscription;
+        }
+        subscriptions.add(subscription);
+        // Catches the changes published before the subscription was added
+        subscription.schedule();
+        return subscription;
+    }
+
+    /**
+     * Get the change in the journal slot of a sequence
+     *
+     * @param sequence Sequence number
+     * @return Change of the sequence, an earlier change or null if not stored yet, a later change if overwritten
+     */
+    Change journalSlot(long sequence) {
+        return journal.get((int) sequence & journalMask);
+    }
+
+    /**
+     * Count a subscription without a scheduled delivery task, writers wake such subscriptions
+     *
+     * @param idle Whether the subscription became idle, false once a task is scheduled
+     */
+    void subscriptionIdle(boolean idle) {
+        if (idle) {
+            idleSubscriptions.incrementAndGet();
+        } else {
+            idleSubscriptions.decrementAndGet();
+        }
+    }
+
+    TransactionChange toTransactionChange(Change change) {
+        TransactionChange transactionChange = new TransactionChange();
+        transactionChange.setSequence(change.sequence());
+        transactionChange.setType(change.type());
+        transactionChange.setId(change.id());
+        transactionChange.setTime(new Timestamp(change.time()));
+        transactionChange.setTransaction(change.record() == null ? null : codec.decode(change.record()));
+        return transactionChange;
+    }
+
+    void execute(Runnable task) {
+        delivery.execute(task);
+    }
+
+    void closed(ChangeSubscription subscription, ChangeSubscription.CloseReason reason) {
+        subscriptions.remove(subscription);
+        closedSubscriptions.get(reason).increment();
+        if (reason == ChangeSubscription.CloseReason.OVERFLOW) {
+            log.warn("Change subscription {} closed, {} changes behind", subscription.getId(), bufferSize);
+        }
+    }
+
+    /**
+     * Get the sequence number of the last published change, its writer may still be storing it
+     *
+     * @return Sequence, 0 before the first change
+     */
+    public long getLastSequence() {
+        return lastSequence.get();
+    }
+
+    /**
+     * Get the number of open subscriptions
+     *
+     * @return Number of subscriptions
+     */
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    private long bufferedChanges() {
+        long buffered = 0;
+        for (ChangeSubscription subscription : subscriptions) {
+            buffered += subscription.getBuffered();
+        }
+        return buffered;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("trans.cdc.changes", this, TransactionChangeBus::getLastSequence)
+            .description("Changes published on the change stream")
+            .register(registry);
+        Gauge.builder("trans.cdc.subscriptions", this, TransactionChangeBus::getSubscriptionCount)
+            .description("Open change stream subscriptions")
+            .register(registry);
+        Gauge.builder("trans.cdc.buffered", this, TransactionChangeBus::bufferedChanges)
+            .description("Changes published and not delivered to the subscribers yet")
+            .register(registry);
+        closedSubscriptions.forEach((reason, count) ->
+            FunctionCounter.builder("trans.cdc.subscriptions.closed", count, LongAdder::sum)
+                .description("Change stream subscriptions closed by reason")
+                .tag("reason", reason.name().toLowerCase())
+                .register(registry));
+    }
+
+    /**
+     * Close the subscriptions and stop the delivery once they are told
+     */
+    @Override
+    public void close() {
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.close(ChangeSubscription.CloseReason.SHUTDOWN);
+        }
+        delivery.shutdown();
+    }
+}
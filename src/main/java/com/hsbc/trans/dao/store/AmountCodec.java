@@ -0,0 +1,69 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.common.errorhandler.exception.ParamValidationException;
+import com.hsbc.trans.enums.ErrorCode;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amount Codec
+ * Converts amounts between {@link BigDecimal} and fixed-point {@code long} minor units of a configured scale,
+ * e.g. 12.34 is stored as 1234 with scale 2
+ * Amounts with more decimal places than the scale, or too large for a long, are rejected instead of rounded
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class AmountCodec {
+
+    private final int scale;
+
+    /**
+     * Constructor
+     *
+     * @param scale Number of decimal places kept
+     */
+    public AmountCodec(int scale) {
+        if (scale < 0 || scale > 18) {
+            throw new IllegalArgumentException("Amount scale must be between 0 and 18: " + scale);
+        }
+        this.scale = scale;
+    }
+
+    /**
+     * Convert an amount to minor units
+     *
+     * @param amount Amount
+     * @return Minor units
+     * @throws ParamValidationException When the amount has more decimal places than the scale or overflows a long
+     */
+    public long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ParamValidationException("Amount " + amount.toPlainString() + " cannot be stored with " + scale
+                + " decimal places").code(ErrorCode.PARAM_ERROR.getCode());
+        }
+    }
+
+    /**
+     * Convert minor units to an amount
+     *
+     * @param minorUnits Minor units
+     * @return Amount with the configured scale
+     */
+    public BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    /**
+     * Get the scale
+     *
+     * @return Number of decimal places kept
+     */
+    public int getScale() {
+        return scale;
+    }
+}
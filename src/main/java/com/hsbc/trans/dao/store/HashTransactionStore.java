@@ -0,0 +1,142 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.common.collection.ConcurrentLongObjectMap;
+import com.hsbc.common.collection.SortedLongIndex;
+import com.hsbc.trans.bean.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+/**
+ * Hash Transaction Store
+ * Keeps compact {@link TransactionRecord}s; serves point reads from a {@link ConcurrentLongObjectMap} (lock-free, O(1), no boxed keys or entry nodes) and
+ * ordered reads from a separate {@link SortedLongIndex} of IDs, where a page is located by position instead of
+ * by skipping the preceding records
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class HashTransactionStore implements TransactionStore {
+
+    private final ConcurrentLongObjectMap<TransactionRecord> records;
+
+    private final SortedLongIndex ids;
+
+    private final TransactionCodec codec;
+
+    /**
+     * Constructor
+     *
+     * @param initialCapacity Expected number of records
+     * @param concurrencyLevel Number of independently locked map segments
+     * @param codec Transaction codec
+     */
+    public HashTransactionStore(int initialCapacity, int concurrencyLevel, TransactionCodec codec) {
+        this.codec = codec;
+        this.records = new ConcurrentLongObjectMap<>(initialCapacity, concurrencyLevel);
+        this.ids = new SortedLongIndex(initialCapacity);
+    }
+
+    @Override
+    public boolean exists(long id) {
+        return records.containsKey(id);
+    }
+
+    @Override
+    public Transaction get(long id) {
+        return materialize(records.get(id));
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        long id = transaction.getId();
+        if (records.put(id, codec.encode(transaction)) == null) {
+            ids.add(id);
+        }
+    }
+
+    @Override
+    public Transaction delete(long id) {
+        TransactionRecord removed = records.remove(id);
+        if (removed != null) {
+            ids.remove(id);
+        }
+        return materialize(removed);
+    }
+
+    @Override
+    public List<Transaction> values() {
+        List<Transaction> values = new ArrayList<>(ids.size());
+        PrimitiveIterator.OfLong iterator = ids.iterator();
+        while (iterator.hasNext()) {
+            addIfPresent(values, iterator.nextLong());
+        }
+        return values;
+    }
+
+    @Override
+    public List<Transaction> values(long from, int limit) {
+        long[] page = ids.range(from, limit);
+        List<Transaction> values = new ArrayList<>(page.length);
+        for (long id : page) {
+            addIfPresent(values, id);
+        }
+        return values;
+    }
+
+    /**
+     * Add a record, skipping records deleted since their ID was read from the index
+     */
+    private void addIfPresent(List<Transaction> values, long id) {
+        TransactionRecord record = records.get(id);
+        if (record != null) {
+            values.add(materialize(record));
+        }
+    }
+
+    private Transaction materialize(TransactionRecord record) {
+        return record == null ? null : codec.decode(record);
+    }
+
+    @Override
+    public List<Transaction> valuesFrom(long fromId, int limit) {
+        long[] page = fromId == Long.MIN_VALUE ? ids.range(0, limit) : ids.rangeAfter(fromId - 1, limit);
+        List<Transaction> values = new ArrayList<>(page.length);
+        for (long id : page) {
+            addIfPresent(values, id);
+        }
+        return values;
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong ids() {
+        return ids.iterator();
+    }
+
+    @Override
+    public long countBelow(long id) {
+        return ids.countBelow(id);
+    }
+
+    @Override
+    public long size() {
+        return records.size();
+    }
+
+    @Override
+    public long clear() {
+        long cleared = records.size();
+        // Index first: a reader scanning the index skips IDs whose record is gone, never the reverse
+        ids.clear();
+        records.clear();
+        return cleared;
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        // Map slots: long key and value reference; index: one long per slot
+        return size() * TransactionRecord.ESTIMATED_BYTES + records.capacity() * (Long.BYTES + 4) + (long) ids.capacity() * Long.BYTES;
+    }
+}
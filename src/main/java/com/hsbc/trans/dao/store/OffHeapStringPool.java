@@ -0,0 +1,214 @@
+package com.hsbc.trans.dao.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Off-Heap String Pool
+ * Arena of UTF-8 strings in direct buffers, addressed by a {@code long} reference (chunk index in the high 32 bits,
+ * byte offset in the low 32 bits), each string prefixed with its byte length in a slot of its size class: multiples
+ * of {@value #SLOT_ALIGNMENT} bytes up to {@value #SMALL_SLOT_LIMIT}, powers of two above
+ * Released slots go to a free list per size class and are reused by the next string of the class, so replaced and
+ * deleted strings do not grow the pool; free slot bytes are counted as garbage until reused
+ * A released slot may be overwritten while a reader still decodes it: readers must validate the reference after
+ * decoding, as {@link OffHeapTransactionStore} does with its row versions
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class OffHeapStringPool {
+
+    /**
+     * Reference of a null string
+     */
+    static final long NULL_REF = -1L;
+
+    private static final int SLOT_ALIGNMENT = 8;
+
+    private static final int SMALL_SLOT_LIMIT = 256;
+
+    private static final int SMALL_CLASSES = SMALL_SLOT_LIMIT / SLOT_ALIGNMENT;
+
+    private final int chunkBytes;
+
+    /**
+     * Chunks, replaced as a whole when a chunk is added so readers need no lock
+     */
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+
+    private ByteBuffer current;
+
+    /**
+     * Free slot references by size class
+     */
+    private long[][] freeSlots = new long[SMALL_CLASSES + Integer.SIZE][];
+
+    private int[] freeSlotCounts = new int[SMALL_CLASSES + Integer.SIZE];
+
+    private volatile long allocatedBytes;
+
+    private volatile long garbageBytes;
+
+    /**
+     * Constructor
+     *
+     * @param chunkBytes Size of a chunk
+     */
+    OffHeapStringPool(int chunkBytes) {
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Get the size class of a string
+     *
+     * @param bytes Bytes of the string with its length prefix
+     * @return Size class
+     */
+    private static int sizeClass(int bytes) {
+        if (bytes <= SMALL_SLOT_LIMIT) {
+            return (bytes + SLOT_ALIGNMENT - 1) / SLOT_ALIGNMENT;
+        }
+        return SMALL_CLASSES + Integer.SIZE - Integer.numberOfLeadingZeros(bytes - 1) - Integer.numberOfTrailingZeros(SMALL_SLOT_LIMIT);
+    }
+
+    private static int slotBytes(int sizeClass) {
+        return sizeClass <= SMALL_CLASSES
+            ? sizeClass * SLOT_ALIGNMENT
+            : SMALL_SLOT_LIMIT << (sizeClass - SMALL_CLASSES);
+    }
+
+    /**
+     * Store a string, in a free slot of its size class if there is one
+     * The bytes are visible to readers that obtain the reference through a happens-before edge, e.g. a release write
+     *
+     * @param value String
+     * @return Reference, {@link #NULL_REF} for null
+     */
+    synchronized long add(String value) {
+        if (value == null) {
+            return NULL_REF;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int sizeClass = sizeClass(Integer.BYTES + bytes.length);
+        long ref;
+        if (freeSlotCounts[sizeClass] > 0) {
+            ref = freeSlots[sizeClass][--freeSlotCounts[sizeClass]];
+            garbageBytes -= slotBytes(sizeClass);
+        } else {
+            ref = allocate(slotBytes(sizeClass));
+        }
+        ByteBuffer chunk = chunks[(int) (ref >>> 32)];
+        int offset = (int) ref;
+        chunk.putInt(offset, bytes.length);
+        chunk.put(offset + Integer.BYTES, bytes);
+        return ref;
+    }
+
+    private long allocate(int slot) {
+        if (current == null || current.remaining() < slot) {
+            current = ByteBuffer.allocateDirect(Math.max(chunkBytes, slot));
+            ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[grown.length - 1] = current;
+            chunks = grown;
+            allocatedBytes += current.capacity();
+        }
+        int offset = current.position();
+        current.position(offset + slot);
+        return ((long) (chunks.length - 1) << 32) | offset;
+    }
+
+    /**
+     * Read a string
+     * A reference read without synchronization with its writer may be torn or reused: the decoding then fails or
+     * returns another string, and the caller detects the change afterwards
+     *
+     * @param ref Reference
+     * @return String, null for {@link #NULL_REF}
+     * @throws IndexOutOfBoundsException If the reference or its length prefix points outside the pool
+     */
+    String get(long ref) {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        ByteBuffer chunk = chunks[(int) (ref >>> 32)];
+        int offset = (int) ref;
+        int length = chunk.getInt(offset);
+        if (length < 0 || length > chunk.capacity() - offset - Integer.BYTES) {
+            throw new IndexOutOfBoundsException("String length " + length + " at " + offset);
+        }
+        byte[] bytes = new byte[length];
+        chunk.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Check whether a reference holds a string, without decoding it
+     *
+     * @param ref Reference
+     * @param value String
+     * @return Whether the stored string equals the value
+     */
+    boolean matches(long ref, String value) {
+        if (ref == NULL_REF || value == null) {
+            return ref == NULL_REF && value == null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer chunk = chunks[(int) (ref >>> 32)];
+        int offset = (int) ref;
+        return chunk.getInt(offset) == bytes.length
+            && chunk.slice(offset + Integer.BYTES, bytes.length).equals(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Release the slot of a string no longer referenced, for reuse by a later string of its size class
+     *
+     * @param ref Reference
+     */
+    synchronized void release(long ref) {
+        if (ref == NULL_REF) {
+            return;
+        }
+        int sizeClass = sizeClass(Integer.BYTES + chunks[(int) (ref >>> 32)].getInt((int) ref));
+        long[] slots = freeSlots[sizeClass];
+        if (slots == null) {
+            slots = new long[16];
+        } else if (freeSlotCounts[sizeClass] == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+        }
+        freeSlots[sizeClass] = slots;
+        slots[freeSlotCounts[sizeClass]++] = ref;
+        garbageBytes += slotBytes(sizeClass);
+    }
+
+    /**
+     * Get the direct memory allocated by the pool
+     *
+     * @return Bytes
+     */
+    long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Get the bytes of free slots not reused yet
+     *
+     * @return Bytes
+     */
+    long garbageBytes() {
+        return garbageBytes;
+    }
+
+    /**
+     * Drop all strings
+     */
+    synchronized void clear() {
+        chunks = new ByteBuffer[0];
+        current = null;
+        freeSlots = new long[SMALL_CLASSES + Integer.SIZE][];
+        freeSlotCounts = new int[SMALL_CLASSES + Integer.SIZE];
+        allocatedBytes = 0;
+        garbageBytes = 0;
+    }
+}
@@ -0,0 +1,375 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.common.collection.ConcurrentLongLongMap;
+import com.hsbc.common.collection.SortedLongIndex;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+/**
+ * Off-Heap Transaction Store
+ * Keeps records outside the Java heap in fixed-width columns of direct buffers, so stored records put no load on GC:
+ * ID, amount in minor units, epoch-millis create/update times, user ID dictionary code and string references as
+ * 8-byte columns, type and status ordinals as 1-byte columns. Strings live in an {@link OffHeapStringPool}
+ * Rows are allocated in chunks of {@value #ROWS_PER_CHUNK}; deleted rows are reused, as are the pool slots of
+ * replaced and deleted strings
+ * On the heap only primitive arrays remain: the ID to row index and the sorted ID index
+ * Records are materialized into {@link Transaction} objects only when read
+ *
+ * <p>Each row carries a version column used as a sequence lock: a writer makes it odd while changing the row and
+ * even when done, readers retry when the version changed while they read. Writers of the same record are serialized
+ * by the DAO record locks
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class OffHeapTransactionStore implements TransactionStore {
+
+    static final int ROWS_PER_CHUNK = 1 << 16;
+
+    private static final int STRING_POOL_CHUNK_BYTES = 4 << 20;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /*
+     * Column layout of a chunk: 8-byte columns first, then 1-byte columns, each column ROWS_PER_CHUNK wide
+     */
+    private static final int VERSION = 0;
+    private static final int ID = 1;
+    private static final int AMOUNT = 2;
+    private static final int CREATE_TIME = 3;
+    private static final int UPDATE_TIME = 4;
+    private static final int TRANS_ID = 5;
+    private static final int USER_ID = 6;
+    private static final int DESCRIPTION = 7;
+    private static final int LONG_COLUMNS = 8;
+
+    private static final int TYPE_OFFSET = LONG_COLUMNS * Long.BYTES * ROWS_PER_CHUNK;
+    private static final int STATUS_OFFSET = TYPE_OFFSET + ROWS_PER_CHUNK;
+    private static final int CHUNK_BYTES = STATUS_OFFSET + ROWS_PER_CHUNK;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final TransactionCodec codec;
+
+    private final AmountCodec amountCodec;
+
+    private final ConcurrentLongLongMap rows;
+
+    private final SortedLongIndex ids;
+
+    private final OffHeapStringPool strings = new OffHeapStringPool(STRING_POOL_CHUNK_BYTES);
+
+    /**
+     * Row chunks, replaced as a whole when a chunk is added so readers need no lock
+     */
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+
+    private int nextRow;
+
+    private int[] freeRows = new int[16];
+
+    private int freeRowCount;
+
+    /**
+     * Constructor
+     *
+     * @param initialCapacity Expected number of records
+     * @param concurrencyLevel Number of independently locked ID index segments
+     * @param codec Transaction codec
+     */
+    public OffHeapTransactionStore(int initialCapacity, int concurrencyLevel, TransactionCodec codec) {
+        this.codec = codec;
+        this.amountCodec = codec.getAmountCodec();
+        this.rows = new ConcurrentLongLongMap(initialCapacity, concurrencyLevel);
+        this.ids = new SortedLongIndex(initialCapacity);
+    }
+
+    private static int longOffset(int column, int rowInChunk) {
+        return (column * ROWS_PER_CHUNK + rowInChunk) * Long.BYTES;
+    }
+
+    private ByteBuffer chunkOf(int row) {
+        return chunks[row / ROWS_PER_CHUNK];
+    }
+
+    private synchronized int allocateRow() {
+        if (freeRowCount > 0) {
+            return freeRows[--freeRowCount];
+        }
+        int row = nextRow++;
+        if (row / ROWS_PER_CHUNK == chunks.length) {
+            ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[grown.length - 1] = ByteBuffer.allocateDirect(CHUNK_BYTES + Long.BYTES).alignedSlice(Long.BYTES).order(ByteOrder.nativeOrder());
+            chunks = grown;
+        }
+        return row;
+    }
+
+    private synchronized void freeRow(int row) {
+        if (freeRowCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeRowCount * 2);
+        }
+        freeRows[freeRowCount++] = row;
+    }
+
+    @Override
+    public boolean exists(long id) {
+        return rows.containsKey(id);
+    }
+
+    @Override
+    public Transaction get(long id) {
+        long row = rows.get(id);
+        return row == ConcurrentLongLongMap.NO_VALUE ? null : read((int) row, id);
+    }
+
+    /**
+     * Materialize a row, retrying while a writer changes it
+     *
+     * @param row Row number
+     * @param id Expected record ID, the row may have been freed and reused since it was looked up
+     * @return Record, null if the row no longer holds the ID
+     */
+    private Transaction read(int row, long id) {
+        ByteBuffer chunk = chunkOf(row);
+        int r = row % ROWS_PER_CHUNK;
+        while (true) {
+            long version = (long) LONGS.getAcquire(chunk, longOffset(VERSION, r));
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long storedId = (long) LONGS.get(chunk, longOffset(ID, r));
+            long amount = (long) LONGS.get(chunk, longOffset(AMOUNT, r));
+            long createTime = (long) LONGS.get(chunk, longOffset(CREATE_TIME, r));
+            long updateTime = (long) LONGS.get(chunk, longOffset(UPDATE_TIME, r));
+            long transIdRef = (long) LONGS.get(chunk, longOffset(TRANS_ID, r));
+            long userId = (long) LONGS.get(chunk, longOffset(USER_ID, r));
+            long descriptionRef = (long) LONGS.get(chunk, longOffset(DESCRIPTION, r));
+            byte type = chunk.get(TYPE_OFFSET + r);
+            byte status = chunk.get(STATUS_OFFSET + r);
+            // Strings are decoded before the version check: their slots may be reused once the row changes
+            String transId = null;
+            String description = null;
+            if (storedId == id) {
+                try {
+                    transId = strings.get(transIdRef);
+                    description = strings.get(descriptionRef);
+                } catch (IndexOutOfBoundsException e) {
+                    // Torn reference, the version check below fails
+                }
+            }
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.get(chunk, longOffset(VERSION, r)) != version) {
+                continue;
+            }
+            if (storedId != id) {
+                return null;
+            }
+            Transaction transaction = new Transaction();
+            transaction.setId(storedId);
+            transaction.setTransId(transId);
+            transaction.setUserId(codec.getUserIds().decode((int) userId));
+            transaction.setAmount(amountCodec.fromMinorUnits(amount));
+            transaction.setType(type < 0 ? null : TYPES[type]);
+            transaction.setStatus(status < 0 ? null : STATUSES[status]);
+            transaction.setCreateTime(new Timestamp(createTime));
+            transaction.setUpdateTime(new Timestamp(updateTime));
+            transaction.setDescription(description);
+            return transaction;
+        }
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        long id = transaction.getId();
+        long amount = amountCodec.toMinorUnits(transaction.getAmount());
+        long row = rows.get(id);
+        if (row == ConcurrentLongLongMap.NO_VALUE) {
+            int newRow = allocateRow();
+            write(newRow, transaction, amount, OffHeapStringPool.NULL_REF, OffHeapStringPool.NULL_REF);
+            rows.put(id, newRow);
+            ids.add(id);
+        } else {
+            ByteBuffer chunk = chunkOf((int) row);
+            int r = (int) row % ROWS_PER_CHUNK;
+            write((int) row, transaction, amount,
+                (long) LONGS.get(chunk, longOffset(TRANS_ID, r)),
+                (long) LONGS.get(chunk, longOffset(DESCRIPTION, r)));
+        }
+    }
+
+    /**
+     * Write a record into a row, reusing the current string references of unchanged strings
+     * Replaced strings are released while the row version is odd, so a reader decoding them before their slot is
+     * reused fails its version check
+     */
+    private void write(int row, Transaction transaction, long amount, long transIdRef, long descriptionRef) {
+        long newTransIdRef = stringRef(transIdRef, transaction.getTransId());
+        long userId = codec.getUserIds().encode(transaction.getUserId());
+        long newDescriptionRef = stringRef(descriptionRef, transaction.getDescription());
+        ByteBuffer chunk = chunkOf(row);
+        int r = row % ROWS_PER_CHUNK;
+        long version = (long) LONGS.get(chunk, longOffset(VERSION, r));
+        LONGS.setOpaque(chunk, longOffset(VERSION, r), version + 1);
+        VarHandle.storeStoreFence();
+        LONGS.set(chunk, longOffset(ID, r), transaction.getId());
+        LONGS.set(chunk, longOffset(AMOUNT, r), amount);
+        LONGS.set(chunk, longOffset(CREATE_TIME, r), transaction.getCreateTime().getTime());
+        LONGS.set(chunk, longOffset(UPDATE_TIME, r), transaction.getUpdateTime().getTime());
+        LONGS.set(chunk, longOffset(TRANS_ID, r), newTransIdRef);
+        LONGS.set(chunk, longOffset(USER_ID, r), userId);
+        LONGS.set(chunk, longOffset(DESCRIPTION, r), newDescriptionRef);
+        chunk.put(TYPE_OFFSET + r, transaction.getType() == null ? -1 : (byte) transaction.getType().ordinal());
+        chunk.put(STATUS_OFFSET + r, transaction.getStatus() == null ? -1 : (byte) transaction.getStatus().ordinal());
+        if (newTransIdRef != transIdRef) {
+            strings.release(transIdRef);
+        }
+        if (newDescriptionRef != descriptionRef) {
+            strings.release(descriptionRef);
+        }
+        LONGS.setRelease(chunk, longOffset(VERSION, r), version + 2);
+    }
+
+    private long stringRef(long currentRef, String value) {
+        return strings.matches(currentRef, value) ? currentRef : strings.add(value);
+    }
+
+    @Override
+    public Transaction delete(long id) {
+        long row = rows.get(id);
+        if (row == ConcurrentLongLongMap.NO_VALUE) {
+            return null;
+        }
+        Transaction removed = read((int) row, id);
+        rows.remove(id);
+        ids.remove(id);
+        erase((int) row);
+        freeRow((int) row);
+        return removed;
+    }
+
+    /**
+     * Release the strings of a row and clear its ID, so readers of the row find the record gone
+     *
+     * @param row Row number
+     */
+    private void erase(int row) {
+        ByteBuffer chunk = chunkOf(row);
+        int r = row % ROWS_PER_CHUNK;
+        long version = (long) LONGS.get(chunk, longOffset(VERSION, r));
+        LONGS.setOpaque(chunk, longOffset(VERSION, r), version + 1);
+        VarHandle.storeStoreFence();
+        strings.release((long) LONGS.get(chunk, longOffset(TRANS_ID, r)));
+        strings.release((long) LONGS.get(chunk, longOffset(DESCRIPTION, r)));
+        LONGS.set(chunk, longOffset(ID, r), 0L);
+        LONGS.setRelease(chunk, longOffset(VERSION, r), version + 2);
+    }
+
+    /**
+     * Unmap all records, then free their rows in one pass over the chunks: the chunks are kept for new records, so a
+     * reader of a freed row finds the ID gone rather than an unmapped buffer
+     */
+    @Override
+    public long clear() {
+        long cleared = rows.size();
+        ids.clear();
+        rows.clear();
+        synchronized (this) {
+            for (int row = 0; row < nextRow; row++) {
+                if ((long) LONGS.get(chunkOf(row), longOffset(ID, row % ROWS_PER_CHUNK)) != 0L) {
+                    erase(row);
+                }
+            }
+            nextRow = 0;
+            freeRowCount = 0;
+        }
+        return cleared;
+    }
+
+    @Override
+    public List<Transaction> values() {
+        List<Transaction> values = new ArrayList<>(ids.size());
+        PrimitiveIterator.OfLong iterator = ids.iterator();
+        while (iterator.hasNext()) {
+            addIfPresent(values, iterator.nextLong());
+        }
+        return values;
+    }
+
+    @Override
+    public List<Transaction> values(long from, int limit) {
+        long[] page = ids.range(from, limit);
+        List<Transaction> values = new ArrayList<>(page.length);
+        for (long id : page) {
+            addIfPresent(values, id);
+        }
+        return values;
+    }
+
+    private void addIfPresent(List<Transaction> values, long id) {
+        Transaction transaction = get(id);
+        if (transaction != null) {
+            values.add(transaction);
+        }
+    }
+
+    @Override
+    public List<Transaction> valuesFrom(long fromId, int limit) {
+        long[] page = fromId == Long.MIN_VALUE ? ids.range(0, limit) : ids.rangeAfter(fromId - 1, limit);
+        List<Transaction> values = new ArrayList<>(page.length);
+        for (long id : page) {
+            addIfPresent(values, id);
+        }
+        return values;
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong ids() {
+        return ids.iterator();
+    }
+
+    @Override
+    public long countBelow(long id) {
+        return ids.countBelow(id);
+    }
+
+    @Override
+    public long size() {
+        return rows.size();
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        // ID to row index: long key and long value per slot; sorted index: one long per slot
+        return rows.capacity() * 2 * Long.BYTES + (long) ids.capacity() * Long.BYTES;
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return (long) chunks.length * CHUNK_BYTES + strings.allocatedBytes();
+    }
+
+    /**
+     * Get the bytes of the string pool slots freed by replaced or deleted strings and not reused yet
+     *
+     * @return Bytes
+     */
+    @Override
+    public long offHeapGarbageBytes() {
+        return strings.garbageBytes();
+    }
+}
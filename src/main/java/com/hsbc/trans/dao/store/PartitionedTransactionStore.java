@@ -0,0 +1,322 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.common.util.SnowflakeIdGenerator;
+import com.hsbc.trans.bean.Transaction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Partitioned Transaction Store
+ * Partitions records by the period their Snowflake ID was generated in (e.g. one partition per UTC day), each
+ * partition an independent store created on its first record. IDs grow with time, so every partition holds a
+ * contiguous ID range: ordered reads read the partitions one after the other without merging, and a page locates its
+ * partition from the partition sizes
+ * Dropping a period detaches its partition from the partition map in constant time, whatever its number of records;
+ * writes of IDs in a dropped period are discarded, like the records of the period
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Slf4j
+public class PartitionedTransactionStore implements TransactionStore, AutoCloseable {
+
+    private final long periodMillis;
+
+    private final Supplier<TransactionStore> partitionFactory;
+
+    /**
+     * Partitions by period number, the period's start divided by the period length
+     */
+    private final ConcurrentSkipListMap<Long, TransactionStore> partitions = new ConcurrentSkipListMap<>();
+
+    /**
+     * IDs below are in dropped periods
+     */
+    private volatile long droppedBelowId = Long.MIN_VALUE;
+
+    private final LongAdder droppedPartitions = new LongAdder();
+
+    /**
+     * Constructor
+     *
+     * @param periodMillis Length of a partition's period in milliseconds
+     * @param partitionFactory Creates the store of a new partition
+     */
+    public PartitionedTransactionStore(long periodMillis, Supplier<TransactionStore> partitionFactory) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Partition period must be positive: " + periodMillis);
+        }
+        this.periodMillis = periodMillis;
+        this.partitionFactory = partitionFactory;
+    }
+
+    /**
+     * Get the period of a record
+     *
+     * @param id Transaction record ID
+     * @return Period number
+     */
+    private long periodOf(long id) {
+        return Math.floorDiv(SnowflakeIdGenerator.timestampOf(id), periodMillis);
+    }
+
+    private TransactionStore partitionOf(long id) {
+        return partitions.get(periodOf(id));
+    }
+
+    @Override
+    public boolean exists(long id) {
+        TransactionStore partition = partitionOf(id);
+        return partition != null && partition.exists(id);
+    }
+
+    @Override
+    public Transaction get(long id) {
+        TransactionStore partition = partitionOf(id);
+        return partition == null ? null : partition.get(id);
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        if (transaction.getId() < droppedBelowId) {
+            return;
+        }
+        partitions.computeIfAbsent(periodOf(transaction.getId()), period -> partitionFactory.get()).put(transaction);
+    }
+
+    @Override
+    public Transaction delete(long id) {
+        TransactionStore partition = partitionOf(id);
+        return partition == null ? null : partition.delete(id);
+    }
+
+    @Override
+    public List<Transaction> values() {
+        List<Transaction> values = new ArrayList<>();
+        for (TransactionStore partition : partitions.values()) {
+            values.addAll(partition.values());
+        }
+        return values;
+    }
+
+    @Override
+    public List<Transaction> values(long from, int limit) {
+        List<Transaction> values = new ArrayList<>();
+        if (from < 0 || limit <= 0) {
+            return values;
+        }
+        long skip = from;
+        for (TransactionStore partition : partitions.values()) {
+            if (values.size() >= limit) {
+                break;
+            }
+            if (skip > 0) {
+                long size = partition.size();
+                if (skip >= size) {
+                    skip -= size;
+                    continue;
+                }
+            }
+            values.addAll(partition.values(skip, limit - values.size()));
+            skip = 0;
+        }
+        return values;
+    }
+
+    @Override
+    public List<Transaction> valuesFrom(long fromId, int limit) {
+        List<Transaction> values = new ArrayList<>();
+        for (TransactionStore partition : partitions.tailMap(periodOf(fromId)).values()) {
+            if (values.size() >= limit) {
+                break;
+            }
+            values.addAll(partition.valuesFrom(fromId, limit - values.size()));
+        }
+        return values;
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong ids() {
+        Iterator<TransactionStore> remaining = partitions.values().iterator();
+        return new PrimitiveIterator.OfLong() {
+
+            private PrimitiveIterator.OfLong current;
+
+            @Override
+            public boolean hasNext() {
+                while (current == null || !current.hasNext()) {
+                    if (!remaining.hasNext()) {
+                        return false;
+                    }
+                    current = remaining.next().ids();
+                }
+                return true;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.nextLong();
+            }
+        };
+    }
+
+    @Override
+    public long countBelow(long id) {
+        long period = periodOf(id);
+        long count = 0;
+        for (TransactionStore partition : partitions.headMap(period).values()) {
+            count += partition.size();
+        }
+        TransactionStore partition = partitions.get(period);
+        return partition == null ? count : count + partition.countBelow(id);
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (TransactionStore partition : partitions.values()) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        long bytes = 0;
+        for (TransactionStore partition : partitions.values()) {
+            bytes += partition.estimatedHeapBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (TransactionStore partition : partitions.values()) {
+            bytes += partition.offHeapBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public long offHeapGarbageBytes() {
+        long bytes = 0;
+        for (TransactionStore partition : partitions.values()) {
+            bytes += partition.offHeapGarbageBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Detach the partitions of the periods before the period of an ID
+     * Writes to the detached periods are discarded from then on, except to the current period, which is recreated by
+     * its next write
+     *
+     * @param id Exclusive upper bound of the record IDs
+     * @return Number of records detached
+     */
+    @Override
+    public long dropPartitionsBelow(long id) {
+        long period = periodOf(id);
+        long currentPeriod = Math.floorDiv(System.currentTimeMillis(), periodMillis);
+        long firstRetainedId = SnowflakeIdGenerator.minIdAt(Math.min(period, currentPeriod) * periodMillis);
+        synchronized (this) {
+            if (firstRetainedId > droppedBelowId) {
+                droppedBelowId = firstRetainedId;
+            }
+        }
+        long dropped = 0;
+        ConcurrentNavigableMap<Long, TransactionStore> expired = partitions.headMap(period);
+        for (Map.Entry<Long, TransactionStore> entry = expired.pollFirstEntry(); entry != null; entry = expired.pollFirstEntry()) {
+            long records = entry.getValue().size();
+            dropped += records;
+            droppedPartitions.increment();
+            close(entry.getValue());
+            log.info("Partition of period starting {} dropped, {} records", Instant.ofEpochMilli(entry.getKey() * periodMillis), records);
+        }
+        return dropped;
+    }
+
+    /**
+     * Detach all partitions; unlike {@link #dropPartitionsBelow(long)}, writes of any period are accepted afterwards
+     */
+    @Override
+    public long clear() {
+        long cleared = 0;
+        for (Map.Entry<Long, TransactionStore> entry = partitions.pollFirstEntry(); entry != null; entry = partitions.pollFirstEntry()) {
+            cleared += entry.getValue().size();
+            droppedPartitions.increment();
+            close(entry.getValue());
+        }
+        return cleared;
+    }
+
+    @Override
+    public void maintain() {
+        for (TransactionStore partition : partitions.values()) {
+            partition.maintain();
+        }
+    }
+
+    /**
+     * Get the stores of the partitions
+     *
+     * @return Partition stores in period order
+     */
+    public List<TransactionStore> getPartitions() {
+        return new ArrayList<>(partitions.values());
+    }
+
+    /**
+     * Get the number of partitions
+     *
+     * @return Number of partitions
+     */
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    /**
+     * Get the number of partitions dropped since the start
+     *
+     * @return Number of partitions
+     */
+    public long getDroppedPartitionCount() {
+        return droppedPartitions.sum();
+    }
+
+    private static void close(TransactionStore partition) {
+        if (partition instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Failed to close dropped partition", e);
+            }
+        }
+    }
+
+    /**
+     * Close the partitions
+     */
+    @Override
+    public void close() {
+        for (Map.Entry<Long, TransactionStore> entry = partitions.pollFirstEntry(); entry != null; entry = partitions.pollFirstEntry()) {
+            close(entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.common.collection.LongHashes;
+import com.hsbc.trans.bean.Transaction;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+
+/**
+ * Sharded Transaction Store
+ * Partitions records by a hash of their ID over independent stores of the configured engine, each with its own maps,
+ * ID index and locks, so concurrent writers of different records rarely contend on the same structure
+ * Point operations go to one shard. Ordered reads merge the shards' ordered results (k-way merge on the ID).
+ * With engines keeping a positional ID index, a page at a position is located by searching the ID at that position
+ * through the shards' {@link #countBelow(long)}; otherwise the preceding IDs are merged and skipped, without
+ * materializing their records
+ * Reads spanning shards are not atomic across shards, like the reads of a single engine under concurrent writes
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class ShardedTransactionStore implements TransactionStore {
+
+    private final TransactionStore[] shards;
+
+    /**
+     * Whether the shards count IDs below a bound in logarithmic time
+     */
+    private final boolean positional;
+
+    /**
+     * Constructor
+     *
+     * @param shardCount Number of shards, rounded up to a power of two
+     * @param positional Whether the shards count IDs below a bound in logarithmic time, see {@link TransactionStore#countBelow(long)}
+     * @param shardFactory Creates the store of a shard by shard index
+     */
+    public ShardedTransactionStore(int shardCount, boolean positional, IntFunction<TransactionStore> shardFactory) {
+        this.positional = positional;
+        this.shards = new TransactionStore[LongHashes.tableSizeFor(shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = shardFactory.apply(i);
+        }
+    }
+
+    /**
+     * Get the shard of a record, the ID is mixed because Snowflake IDs keep their low bits constant under low load
+     *
+     * @param id Transaction record ID
+     * @return Shard store
+     */
+    private TransactionStore shardFor(long id) {
+        return shards[(int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (shards.length - 1)];
+    }
+
+    /**
+     * Get the number of shards
+     *
+     * @return Number of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public boolean exists(long id) {
+        return shardFor(id).exists(id);
+    }
+
+    @Override
+    public Transaction get(long id) {
+        return shardFor(id).get(id);
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        shardFor(transaction.getId()).put(transaction);
+    }
+
+    @Override
+    public Transaction delete(long id) {
+        return shardFor(id).delete(id);
+    }
+
+    @Override
+    public List<Transaction> values() {
+        List<List<Transaction>> parts = new ArrayList<>(shards.length);
+        for (TransactionStore shard : shards) {
+            parts.add(shard.values());
+        }
+        return merge(parts, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Transaction> values(long from, int limit) {
+        if (from < 0 || limit <= 0 || from >= size()) {
+            return new ArrayList<>();
+        }
+        return positional ? valuesFrom(idAt(from), limit) : skipAndGet(from, limit);
+    }
+
+    /**
+     * Merge the shards' ID iterators, skip the IDs before the position and get the records of the following IDs
+     */
+    private List<Transaction> skipAndGet(long from, int limit) {
+        PriorityQueue<IdCursor> heads = idHeads();
+        List<Transaction> values = new ArrayList<>(limit);
+        for (long position = 0; values.size() < limit && !heads.isEmpty(); position++) {
+            IdCursor cursor = heads.poll();
+            if (position >= from) {
+                Transaction transaction = cursor.shard.get(cursor.head);
+                if (transaction != null) {
+                    values.add(transaction);
+                }
+            }
+            if (cursor.rest.hasNext()) {
+                cursor.head = cursor.rest.nextLong();
+                heads.add(cursor);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Start merging the shards' ID iterators
+     *
+     * @return Cursors at the first ID of each non-empty shard
+     */
+    private PriorityQueue<IdCursor> idHeads() {
+        PriorityQueue<IdCursor> heads = new PriorityQueue<>(shards.length);
+        for (TransactionStore shard : shards) {
+            PrimitiveIterator.OfLong iterator = shard.ids();
+            if (iterator.hasNext()) {
+                heads.add(new IdCursor(iterator.nextLong(), iterator, shard));
+            }
+        }
+        return heads;
+    }
+
+    /**
+     * Find the ID at a position by binary search over the ID space
+     *
+     * @param position Position, below the number of records
+     * @return Record ID at the position
+     */
+    private long idAt(long position) {
+        if (position == 0) {
+            return Long.MIN_VALUE;
+        }
+        // Largest bound with at most `position` records below it is the ID at the position
+        long low = Long.MIN_VALUE;
+        long high = Long.MAX_VALUE;
+        while (low < high) {
+            long mid = (low & high) + ((low ^ high) >> 1) + 1;
+            if (countBelow(mid) <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public List<Transaction> valuesFrom(long fromId, int limit) {
+        List<List<Transaction>> parts = new ArrayList<>(shards.length);
+        for (TransactionStore shard : shards) {
+            parts.add(shard.valuesFrom(fromId, limit));
+        }
+        return merge(parts, limit);
+    }
+
+    /**
+     * Merge lists in ascending ID order into one list in ascending ID order, keeping one record of an ID found in
+     * several lists: a tiered store briefly holds a migrating record in both tiers
+     *
+     * @param parts Ordered lists
+     * @param limit Maximum number of records
+     * @return Merged records
+     */
+    static List<Transaction> merge(List<List<Transaction>> parts, int limit) {
+        int total = 0;
+        for (List<Transaction> part : parts) {
+            total += part.size();
+        }
+        List<Transaction> merged = new ArrayList<>(Math.min(total, limit));
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(parts.size());
+        for (List<Transaction> part : parts) {
+            Iterator<Transaction> iterator = part.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Cursor(iterator.next(), iterator));
+            }
+        }
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            if (merged.isEmpty() || merged.get(merged.size() - 1).getId() != cursor.head.getId()) {
+                merged.add(cursor.head);
+            }
+            if (cursor.rest.hasNext()) {
+                cursor.head = cursor.rest.next();
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong ids() {
+        PriorityQueue<IdCursor> heads = idHeads();
+        return new PrimitiveIterator.OfLong() {
+
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public long nextLong() {
+                IdCursor cursor = heads.remove();
+                long id = cursor.head;
+                if (cursor.rest.hasNext()) {
+                    cursor.head = cursor.rest.nextLong();
+                    heads.add(cursor);
+                }
+                return id;
+            }
+        };
+    }
+
+    @Override
+    public long countBelow(long id) {
+        long count = 0;
+        for (TransactionStore shard : shards) {
+            count += shard.countBelow(id);
+        }
+        return count;
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (TransactionStore shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public long clear() {
+        long cleared = 0;
+        for (TransactionStore shard : shards) {
+            cleared += shard.clear();
+        }
+        return cleared;
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        long bytes = 0;
+        for (TransactionStore shard : shards) {
+            bytes += shard.estimatedHeapBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (TransactionStore shard : shards) {
+            bytes += shard.offHeapBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public long offHeapGarbageBytes() {
+        long bytes = 0;
+        for (TransactionStore shard : shards) {
+            bytes += shard.offHeapGarbageBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public void maintain() {
+        for (TransactionStore shard : shards) {
+            shard.maintain();
+        }
+    }
+
+    /**
+     * Next ID of one shard's ID iterator in the merge
+     */
+    private static final class IdCursor implements Comparable<IdCursor> {
+
+        private long head;
+
+        private final PrimitiveIterator.OfLong rest;
+
+        private final TransactionStore shard;
+
+        private IdCursor(long head, PrimitiveIterator.OfLong rest, TransactionStore shard) {
+            this.head = head;
+            this.rest = rest;
+            this.shard = shard;
+        }
+
+        @Override
+        public int compareTo(IdCursor other) {
+            return Long.compare(head, other.head);
+        }
+    }
+
+    /**
+     * Next record of one shard's ordered list in the merge
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+
+        private Transaction head;
+
+        private final Iterator<Transaction> rest;
+
+        private Cursor(Transaction head, Iterator<Transaction> rest) {
+            this.head = head;
+            this.rest = rest;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return Long.compare(head.getId(), other.head.getId());
+        }
+    }
+}
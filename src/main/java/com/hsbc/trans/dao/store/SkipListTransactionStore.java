@@ -0,0 +1,130 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.trans.bean.Transaction;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Skip-List Transaction Store
+ * Keeps compact {@link TransactionRecord}s in a {@link ConcurrentSkipListMap}, ordered by ID
+ * Point reads are O(log n) and page reads skip over the records before the page
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class SkipListTransactionStore implements TransactionStore {
+
+    /**
+     * Estimated heap bytes per entry besides the record: skip-list node and index share, boxed key
+     */
+    private static final long ESTIMATED_ENTRY_BYTES = 64;
+
+    private final ConcurrentSkipListMap<Long, TransactionRecord> transactionStore = new ConcurrentSkipListMap<>();
+
+    private final TransactionCodec codec;
+
+    /**
+     * Constructor
+     *
+     * @param codec Transaction codec
+     */
+    public SkipListTransactionStore(TransactionCodec codec) {
+        this.codec = codec;
+    }
+
+    private Transaction materialize(TransactionRecord record) {
+        return record == null ? null : codec.decode(record);
+    }
+
+    @Override
+    public boolean exists(long id) {
+        return transactionStore.containsKey(id);
+    }
+
+    @Override
+    public Transaction get(long id) {
+        return materialize(transactionStore.get(id));
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        transactionStore.put(transaction.getId(), codec.encode(transaction));
+    }
+
+    @Override
+    public Transaction delete(long id) {
+        return materialize(transactionStore.remove(id));
+    }
+
+    @Override
+    public List<Transaction> values() {
+        return transactionStore.values().stream()
+            .map(this::materialize)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transaction> values(long from, int limit) {
+        return transactionStore.values().stream()
+            .skip(from)
+            .limit(limit)
+            .map(this::materialize)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transaction> valuesFrom(long fromId, int limit) {
+        return transactionStore.tailMap(fromId, true).values().stream()
+            .limit(limit)
+            .map(this::materialize)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong ids() {
+        Iterator<Long> keys = transactionStore.keySet().iterator();
+        return new PrimitiveIterator.OfLong() {
+
+            @Override
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return keys.next();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     * The skip list has no positions, so the records below the ID are counted one by one
+     */
+    @Override
+    public long countBelow(long id) {
+        return transactionStore.headMap(id).size();
+    }
+
+    @Override
+    public long size() {
+        return transactionStore.size();
+    }
+
+    @Override
+    public long clear() {
+        long cleared = transactionStore.size();
+        transactionStore.clear();
+        return cleared;
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        return size() * (ESTIMATED_ENTRY_BYTES + TransactionRecord.ESTIMATED_BYTES);
+    }
+}
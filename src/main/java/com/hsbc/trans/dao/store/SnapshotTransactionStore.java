@@ -0,0 +1,684 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.trans.bean.Transaction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Snapshot Transaction Store
+ * Decorates a store with point-in-time snapshots read without blocking writers (multi-version concurrency control):
+ * while snapshots are open, a write first keeps the previous version of its record, stamped with a global write
+ * epoch once the write is applied. A snapshot opened at epoch E sees, per record, the previous version kept by the
+ * first write after E, or the current record if it was not written since
+ * While no snapshot is open, writes keep no versions; opening a snapshot waits for the unversioned writes in
+ * progress, so every write is either applied before the snapshot or versioned
+ * Versions no open snapshot can see are pruned when a snapshot is released or expires. Writes of one record must be
+ * serialized by the caller, as {@link com.hsbc.trans.dao.TransactionDaoMemoryImpl} does; records of partitions dropped
+ * with {@link #dropPartitionsBelow(long)} or removed with {@link #clear()} disappear from the open snapshots as well
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Slf4j
+public class SnapshotTransactionStore implements TransactionStore, AutoCloseable {
+
+    /**
+     * Epoch of a version whose write is in progress, after the epoch of every snapshot
+     */
+    private static final long PENDING = Long.MAX_VALUE;
+
+    /**
+     * Estimated heap bytes per kept version besides its record: version node, map entry and boxed ID
+     */
+    private static final long ESTIMATED_VERSION_BYTES = 96;
+
+    /**
+     * Counts of a snapshot attempted against concurrent writes before iterating its IDs instead
+     */
+    private static final int OPTIMISTIC_COUNT_ATTEMPTS = 8;
+
+    /**
+     * Busy spins waiting for the unversioned writes before parking
+     */
+    private static final int SPIN_LIMIT = 64;
+
+    private static final long MAX_BACKOFF_NANOS = 1_000_000;
+
+    private final TransactionStore delegate;
+
+    private final TransactionStoreProperties.Snapshot properties;
+
+    private final TransactionCodec codec;
+
+    private final AtomicLong epoch = new AtomicLong();
+
+    /**
+     * Shared by writers advancing the epoch and stamping their version, exclusive to read the epoch of a new snapshot,
+     * so every write of an epoch up to a snapshot's is stamped when the snapshot is opened
+     */
+    private final ReadWriteLock stampLock = new ReentrantReadWriteLock();
+
+    /**
+     * Kept versions by record ID, newest first
+     */
+    private final ConcurrentSkipListMap<Long, Version> versions = new ConcurrentSkipListMap<>();
+
+    private final LongAdder versionCount = new LongAdder();
+
+
+    private final ConcurrentHashMap<Long, StoreSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Number of open snapshots, writes keep versions while positive
+     */
+    private final AtomicInteger openSnapshots = new AtomicInteger();
+
+    /**
+     * Writes in progress without keeping a version
+     */
+    private final LongAdder unversionedWrites = new LongAdder();
+
+    private final AtomicLong snapshotSequence = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param delegate Store holding the current records
+     * @param properties Snapshot properties
+     * @param codec Transaction codec, kept versions are held in the immutable {@link TransactionRecord} form
+     */
+    public SnapshotTransactionStore(TransactionStore delegate, TransactionStoreProperties.Snapshot properties, TransactionCodec codec) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.codec = codec;
+    }
+
+    /**
+     * Previous version of a record, replaced or deleted by the write of its epoch
+     */
+    private static final class Version {
+
+        /**
+         * Record before the write, null if it did not exist
+         */
+        private final TransactionRecord before;
+
+        /**
+         * Next older version, cut off when pruned
+         */
+        private volatile Version older;
+
+        private volatile long epoch = PENDING;
+
+        private Version(TransactionRecord before, Version older) {
+            this.before = before;
+            this.older = older;
+        }
+    }
+
+    /**
+     * Get the version a snapshot sees: the oldest version written after the snapshot
+     *
+     * @param newest Newest version of the record, null if none is kept
+     * @param snapshotEpoch Epoch of the snapshot
+     * @return Version, null if the record was not written since the snapshot
+     */
+    private static Version visible(Version newest, long snapshotEpoch) {
+        Version visible = null;
+        for (Version version = newest; version != null && version.epoch > snapshotEpoch; version = version.older) {
+            visible = version;
+        }
+        return visible;
+    }
+
+    private Transaction decode(TransactionRecord record) {
+        return record == null ? null : codec.decode(record);
+    }
+
+    /**
+     * Apply a write, keeping the previous version of the record while snapshots are open
+     *
+     * @param id Transaction record ID
+     * @param write Write applied to the delegate
+     * @return Write result
+     * @param <T> Result type
+     */
+    private <T> T write(long id, Supplier<T> write) {
+        if (openSnapshots.get() == 0) {
+            unversionedWrites.increment();
+            try {
+                if (openSnapshots.get() == 0) {
+                    return write.get();
+                }
+            } finally {
+                unversionedWrites.decrement();
+            }
+        }
+        Transaction current = delegate.get(id);
+        Version version = versions.compute(id, (key, newest) ->
+            new Version(current == null ? null : codec.encode(current), newest));
+        versionCount.increment();
+        try {
+            return write.get();
+        } finally {
+            stampLock.readLock().lock();
+            try {
+                version.epoch = epoch.incrementAndGet();
+            } finally {
+                stampLock.readLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean exists(long id) {
+        return delegate.exists(id);
+    }
+
+    @Override
+    public Transaction get(long id) {
+        return delegate.get(id);
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        write(transaction.getId(), () -> {
+            delegate.put(transaction);
+            return null;
+        });
+    }
+
+    @Override
+    public Transaction delete(long id) {
+        return write(id, () -> delegate.delete(id));
+    }
+
+    @Override
+    public List<Transaction> values() {
+        return delegate.values();
+    }
+
+    @Override
+    public List<Transaction> values(long from, int limit) {
+        return delegate.values(from, limit);
+    }
+
+    @Override
+    public List<Transaction> valuesFrom(long fromId, int limit) {
+        return delegate.valuesFrom(fromId, limit);
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong ids() {
+        return delegate.ids();
+    }
+
+    @Override
+    public long countBelow(long id) {
+        return delegate.countBelow(id);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        return delegate.estimatedHeapBytes() + versionCount.sum() * (ESTIMATED_VERSION_BYTES + TransactionRecord.ESTIMATED_BYTES);
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return delegate.offHeapBytes();
+    }
+
+    @Override
+    public long offHeapGarbageBytes() {
+        return delegate.offHeapGarbageBytes();
+    }
+
+    @Override
+    public long dropPartitionsBelow(long id) {
+        return delegate.dropPartitionsBelow(id);
+    }
+
+    @Override
+    public long clear() {
+        return delegate.clear();
+    }
+
+    /**
+     * Expire the snapshots past their lifetime, prune the versions and run the maintenance of the delegate
+     */
+    @Override
+    public void maintain() {
+        long now = System.currentTimeMillis();
+        for (StoreSnapshot snapshot : snapshots.values()) {
+            if (snapshot.isExpired(now)) {
+                releaseSnapshot(snapshot.getId());
+                log.info("Snapshot {} expired", snapshot.getId());
+            }
+        }
+        prune();
+        delegate.maintain();
+    }
+
+    /**
+     * Open a snapshot of the current records
+     *
+     * @param ttl Lifetime of the snapshot, null for the default, shortened to the maximum
+     * @return Snapshot, null if the maximum number of snapshots are open
+     */
+    public synchronized StoreSnapshot openSnapshot(Duration ttl) {
+        if (snapshots.size() >= properties.getMaxOpen()) {
+            return null;
+        }
+        openSnapshots.incrementAndGet();
+        // Unversioned writes are single store writes: spin briefly, then park with a bounded back-off
+        for (int spins = 0; unversionedWrites.sum() != 0; spins++) {
+            if (spins < SPIN_LIMIT) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(Math.min(MAX_BACKOFF_NANOS, 1000L << Math.min(spins - SPIN_LIMIT, 10)));
+            }
+        }
+        Duration lifetime = ttl == null ? properties.getDefaultTtl() : ttl;
+        if (lifetime.compareTo(properties.getMaxTtl()) > 0) {
+            lifetime = properties.getMaxTtl();
+        }
+        long snapshotEpoch;
+        stampLock.writeLock().lock();
+        try {
+            snapshotEpoch = epoch.get();
+        } finally {
+            stampLock.writeLock().unlock();
+        }
+        long now = System.currentTimeMillis();
+        StoreSnapshot snapshot = new StoreSnapshot(this, snapshotSequence.incrementAndGet(), snapshotEpoch, now, now + lifetime.toMillis());
+        snapshots.put(snapshot.getId(), snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Get an open snapshot, releasing it if expired
+     *
+     * @param snapshotId Snapshot ID
+     * @return Snapshot, null if not open
+     */
+    public StoreSnapshot getSnapshot(long snapshotId) {
+        StoreSnapshot snapshot = snapshots.get(snapshotId);
+        if (snapshot != null && snapshot.isExpired(System.currentTimeMillis())) {
+            releaseSnapshot(snapshotId);
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Release a snapshot and prune the versions no open snapshot sees
+     *
+     * @param snapshotId Snapshot ID
+     * @return Whether the snapshot was open
+     */
+    public boolean releaseSnapshot(long snapshotId) {
+        StoreSnapshot snapshot = snapshots.remove(snapshotId);
+        if (snapshot == null) {
+            return false;
+        }
+        snapshot.release();
+        openSnapshots.decrementAndGet();
+        prune();
+        return true;
+    }
+
+    /**
+     * Cut off the versions of every record written before the oldest open snapshot
+     * Synchronized with opening snapshots, so a snapshot being opened is never missed
+     */
+    private synchronized void prune() {
+        long oldest = PENDING - 1;
+        for (StoreSnapshot snapshot : snapshots.values()) {
+            oldest = Math.min(oldest, snapshot.getEpoch());
+        }
+        long prunedBefore = oldest;
+        for (Long id : versions.keySet()) {
+            versions.computeIfPresent(id, (key, newest) -> {
+                if (newest.epoch <= prunedBefore) {
+                    versionCount.add(-length(newest));
+                    return null;
+                }
+                Version kept = newest;
+                while (kept.older != null && kept.older.epoch > prunedBefore) {
+                    kept = kept.older;
+                }
+                versionCount.add(-length(kept.older));
+                kept.older = null;
+                return newest;
+            });
+        }
+    }
+
+    private static int length(Version version) {
+        int length = 0;
+        for (; version != null; version = version.older) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Get a record as of a snapshot
+     * The current record is read before the versions, so a concurrent write is either not applied yet or versioned
+     */
+    Transaction get(long id, long snapshotEpoch) {
+        Transaction current = delegate.get(id);
+        Version version = visible(versions.get(id), snapshotEpoch);
+        return version == null ? current : decode(version.before);
+    }
+
+    /**
+     * Get records starting at an ID as of a snapshot, merging chunks of current records with the versions of their
+     * ID range read after them
+     */
+    List<Transaction> valuesFrom(long fromId, int limit, long snapshotEpoch) {
+        List<Transaction> values = new ArrayList<>();
+        long next = fromId;
+        while (values.size() < limit) {
+            int requested = limit - values.size();
+            List<Transaction> chunk = delegate.valuesFrom(next, requested);
+            boolean exhausted = chunk.size() < requested;
+            long last = exhausted ? Long.MAX_VALUE : chunk.get(chunk.size() - 1).getId();
+            Iterator<Map.Entry<Long, Version>> versioned = versions.subMap(next, true, last, true).entrySet().iterator();
+            Map.Entry<Long, Version> entry = versioned.hasNext() ? versioned.next() : null;
+            int i = 0;
+            while ((i < chunk.size() || entry != null) && values.size() < limit) {
+                if (i < chunk.size() && (entry == null || chunk.get(i).getId() <= entry.getKey())) {
+                    Transaction current = chunk.get(i++);
+                    long id = current.getId();
+                    if (entry != null && entry.getKey() == id) {
+                        entry = versioned.hasNext() ? versioned.next() : null;
+                    }
+                    Version version = visible(versions.get(id), snapshotEpoch);
+                    if (version == null) {
+                        values.add(current);
+                    } else if (version.before != null) {
+                        values.add(codec.decode(version.before));
+                    }
+                } else {
+                    Version version = visible(entry.getValue(), snapshotEpoch);
+                    entry = versioned.hasNext() ? versioned.next() : null;
+                    if (version != null && version.before != null) {
+                        values.add(codec.decode(version.before));
+                    }
+                }
+            }
+            if (exhausted || last == Long.MAX_VALUE) {
+                break;
+            }
+            next = last + 1;
+        }
+        return values;
+    }
+
+    /**
+     * Differences between a snapshot and the current records, by record ID: for each record written since the
+     * snapshot, whether it existed then minus whether it exists now, summed over the lower IDs
+     * Valid while no record is written; {@link #unchanged(Corrections)} tells whether one was
+     */
+    private static final class Corrections {
+
+        private long[] ids = new long[16];
+
+        private Version[] newest = new Version[16];
+
+        /**
+         * Sum of the differences of the records before each index
+         */
+        private long[] below = new long[17];
+
+        private int length;
+
+        private boolean pending;
+
+        private void add(long id, Version version, int difference) {
+            if (length == ids.length) {
+                ids = Arrays.copyOf(ids, length * 2);
+                newest = Arrays.copyOf(newest, length * 2);
+                below = Arrays.copyOf(below, length * 2 + 1);
+            }
+            ids[length] = id;
+            newest[length] = version;
+            below[length + 1] = below[length] + difference;
+            length++;
+        }
+
+        /**
+         * Get the difference between the snapshot and the current records below an ID
+         */
+        private long below(long id) {
+            int index = Arrays.binarySearch(ids, 0, length, id);
+            return below[index < 0 ? -index - 1 : index];
+        }
+    }
+
+    /**
+     * Read the differences of a snapshot from the versions, the current existence of each record read after its
+     * newest version, so a write in progress shows as a pending version
+     */
+    private Corrections corrections(long snapshotEpoch) {
+        Corrections corrections = new Corrections();
+        for (Map.Entry<Long, Version> entry : versions.entrySet()) {
+            Version newest = entry.getValue();
+            corrections.pending |= newest.epoch == PENDING;
+            Version version = visible(newest, snapshotEpoch);
+            int difference = version == null ? 0 : (version.before != null ? 1 : 0) - (delegate.exists(entry.getKey()) ? 1 : 0);
+            corrections.add(entry.getKey(), newest, difference);
+        }
+        return corrections;
+    }
+
+    /**
+     * Check that no record was written since its differences were read: a write adds a new newest version first
+     */
+    private boolean unchanged(Corrections corrections) {
+        if (corrections.pending) {
+            return false;
+        }
+        int index = 0;
+        for (Map.Entry<Long, Version> entry : versions.entrySet()) {
+            Version newest = entry.getValue();
+            // Versions pruned meanwhile were seen by no open snapshot
+            while (index < corrections.length && corrections.ids[index] < entry.getKey()) {
+                index++;
+            }
+            if (index == corrections.length || corrections.ids[index] != entry.getKey() || corrections.newest[index] != newest) {
+                return false;
+            }
+            index++;
+        }
+        return true;
+    }
+
+    /**
+     * Count the records below an ID as of a snapshot: the current count corrected by the records written since the
+     * snapshot, retried when a record is written meanwhile; the IDs are iterated once writes keep interfering
+     */
+    long countBelow(long id, long snapshotEpoch) {
+        for (int attempt = 0; attempt < OPTIMISTIC_COUNT_ATTEMPTS; attempt++) {
+            Corrections corrections = corrections(snapshotEpoch);
+            long count = delegate.countBelow(id) + corrections.below(id);
+            if (unchanged(corrections)) {
+                return count;
+            }
+            Thread.onSpinWait();
+        }
+        long count = 0;
+        for (PrimitiveIterator.OfLong ids = ids(snapshotEpoch); ids.hasNext() && ids.nextLong() < id; ) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Find the ID at a position of a snapshot by binary search over the ID space, counting with one read of the
+     * differences of the snapshot; the IDs are iterated once writes keep interfering
+     *
+     * @param position Position, below the number of records of the snapshot
+     * @param snapshotEpoch Epoch of the snapshot
+     * @return Record ID at the position, or a lower bound of it with no record in between
+     */
+    long idAt(long position, long snapshotEpoch) {
+        if (position == 0) {
+            return Long.MIN_VALUE;
+        }
+        for (int attempt = 0; attempt < OPTIMISTIC_COUNT_ATTEMPTS; attempt++) {
+            Corrections corrections = corrections(snapshotEpoch);
+            // Largest bound with at most `position` records below it is the ID at the position
+            long low = Long.MIN_VALUE;
+            long high = Long.MAX_VALUE;
+            while (low < high) {
+                long mid = (low & high) + ((low ^ high) >> 1) + 1;
+                if (delegate.countBelow(mid) + corrections.below(mid) <= position) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (unchanged(corrections)) {
+                return low;
+            }
+            Thread.onSpinWait();
+        }
+        PrimitiveIterator.OfLong ids = ids(snapshotEpoch);
+        for (long skipped = 0; skipped < position && ids.hasNext(); skipped++) {
+            ids.nextLong();
+        }
+        return ids.hasNext() ? ids.nextLong() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Iterate the record IDs of a snapshot in ascending order, merging the current IDs with the versioned IDs
+     * The versioned IDs before each current ID are looked up after reading it, so a record removed before the current
+     * IDs are iterated past it is found by its version, which was kept before the removal
+     */
+    PrimitiveIterator.OfLong ids(long snapshotEpoch) {
+        PrimitiveIterator.OfLong current = delegate.ids();
+        return new PrimitiveIterator.OfLong() {
+
+            /**
+             * Last ID decided, the versioned IDs up to it are iterated
+             */
+            private long position = Long.MIN_VALUE;
+
+            private boolean started;
+
+            private long currentId;
+
+            private boolean hasCurrent;
+
+            private long next;
+
+            private boolean hasNext;
+
+            @Override
+            public boolean hasNext() {
+                while (!hasNext) {
+                    if (!hasCurrent && current.hasNext()) {
+                        currentId = current.nextLong();
+                        hasCurrent = true;
+                    }
+                    Long versionedId = started ? versions.higherKey(position) : versions.ceilingKey(position);
+                    if (!hasCurrent && versionedId == null) {
+                        return false;
+                    }
+                    long id;
+                    boolean inCurrent = hasCurrent && (versionedId == null || currentId <= versionedId);
+                    if (inCurrent) {
+                        id = currentId;
+                        hasCurrent = false;
+                    } else {
+                        id = versionedId;
+                    }
+                    position = id;
+                    started = true;
+                    Version version = visible(versions.get(id), snapshotEpoch);
+                    if (version == null ? inCurrent : version.before != null) {
+                        next = id;
+                        hasNext = true;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                hasNext = false;
+                return next;
+            }
+        };
+    }
+
+    /**
+     * Get the store holding the current records
+     *
+     * @return Delegate store
+     */
+    public TransactionStore getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Get the number of open snapshots
+     *
+     * @return Number of snapshots
+     */
+    public int getOpenSnapshotCount() {
+        return snapshots.size();
+    }
+
+    /**
+     * Get the number of kept record versions
+     *
+     * @return Number of versions
+     */
+    public long getVersionCount() {
+        return versionCount.sum();
+    }
+
+    /**
+     * Release the snapshots and close the delegate
+     *
+     * @throws Exception Thrown by the delegate
+     */
+    @Override
+    public void close() throws Exception {
+        for (Long snapshotId : snapshots.keySet()) {
+            releaseSnapshot(snapshotId);
+        }
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.common.collection.ConcurrentLongLongMap;
+import com.hsbc.common.collection.LongHashes;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.vo.TransactionStatusChange;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Status History Log
+ * Append-only log of the status changes of transaction records shared by all records: an entry is a packed
+ * {@code long} of the change time and status ordinal, the reference of its description in an off-heap string pool and
+ * the index of the previous entry of the same record, 20 bytes of chunked primitive arrays and no object per entry
+ * The latest entry of each record is indexed by record ID; a description equal to the previous one is not stored again
+ * The log is striped by record ID into segments locked independently, so appends and reads of different records
+ * rarely contend
+ * Entries of removed records are left in place as garbage; {@link #compact()}, run periodically, rewrites a segment
+ * with its live entries only once garbage outnumbers them, holding off the records of that segment meanwhile
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class StatusHistoryLog {
+
+    static final int CHUNK_SHIFT = 12;
+
+    static final int CHUNK_ENTRIES = 1 << CHUNK_SHIFT;
+
+    private static final int CHUNK_MASK = CHUNK_ENTRIES - 1;
+
+    private static final int NO_ENTRY = -1;
+
+    private static final int STATUS_BITS = 4;
+
+    private static final long STATUS_MASK = (1 << STATUS_BITS) - 1;
+
+    private static final int DESCRIPTION_CHUNK_BYTES = 64 << 10;
+
+    private static final long ENTRY_BYTES = Long.BYTES * 2 + Integer.BYTES;
+
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final Segment[] segments;
+
+    /**
+     * Constructor
+     *
+     * @param initialCapacity Expected number of updated records
+     * @param concurrencyLevel Number of segments, rounded up to a power of two
+     */
+    public StatusHistoryLog(int initialCapacity, int concurrencyLevel) {
+        int segmentCount = LongHashes.tableSizeFor(Math.max(1, concurrencyLevel));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(initialCapacity / segmentCount);
+        }
+    }
+
+    private Segment segmentFor(long id) {
+        return segments[Long.hashCode(id * 0x9E3779B97F4A7C15L) & (segments.length - 1)];
+    }
+
+    /**
+     * Check whether a record has entries, without locking
+     *
+     * @param id Transaction record ID
+     * @return Whether the record has entries
+     */
+    public boolean contains(long id) {
+        return segmentFor(id).heads.containsKey(id);
+    }
+
+    /**
+     * Append a status change of a record
+     *
+     * @param id Transaction record ID
+     * @param status Status
+     * @param timeMillis Change time, in epoch milliseconds
+     * @param description Description, may be null
+     */
+    public void append(long id, TransactionStatus status, long timeMillis, String description) {
+        Segment segment = segmentFor(id);
+        synchronized (segment) {
+            segment.append(id, status, timeMillis, description);
+        }
+    }
+
+    /**
+     * Get the status changes of a record
+     *
+     * @param id Transaction record ID
+     * @return Status changes in the order they were appended, empty if the record has none
+     */
+    public List<TransactionStatusChange> history(long id) {
+        Segment segment = segmentFor(id);
+        synchronized (segment) {
+            return segment.history(id);
+        }
+    }
+
+    /**
+     * Remove the status changes of a record, leaving its entries as garbage for {@link #compact()}
+     *
+     * @param id Transaction record ID
+     */
+    public void remove(long id) {
+        Segment segment = segmentFor(id);
+        synchronized (segment) {
+            segment.drop(id);
+        }
+    }
+
+    /**
+     * Remove the status changes of the records below an ID, leaving their entries as garbage for {@link #compact()}
+     *
+     * @param boundary Exclusive upper bound of the record IDs
+     */
+    public void removeBelow(long boundary) {
+        if (boundary == Long.MAX_VALUE) {
+            clear();
+            return;
+        }
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (long id : segment.liveIds()) {
+                    if (id < boundary) {
+                        segment.drop(id);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Rewrite the segments whose garbage outnumbers their live entries, one segment at a time
+     *
+     * @return Number of entries dropped
+     */
+    public long compact() {
+        long dropped = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                dropped += segment.compactIfSparse();
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Remove all status changes
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Get the number of records with status changes
+     *
+     * @return Number of records
+     */
+    public long recordCount() {
+        long records = 0;
+        for (Segment segment : segments) {
+            records += segment.heads.size();
+        }
+        return records;
+    }
+
+    /**
+     * Get the number of entries, including the garbage of removed records
+     *
+     * @return Number of entries
+     */
+    public long entryCount() {
+        long entries = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                entries += segment.size;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Estimate the heap memory of the entries and the record index
+     *
+     * @return Estimated bytes
+     */
+    public long estimatedHeapBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                bytes += segment.changes.length * CHUNK_ENTRIES * ENTRY_BYTES + segment.heads.capacity() * Long.BYTES * 2;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Get the direct memory of the descriptions
+     *
+     * @return Bytes
+     */
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                bytes += segment.descriptions.allocatedBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Segment of the log, accessed under its own lock
+     */
+    private static final class Segment {
+
+        /**
+         * Latest entry index by record ID
+         */
+        private final ConcurrentLongLongMap heads;
+
+        /**
+         * Change time in epoch milliseconds shifted left by {@link #STATUS_BITS}, ORed with the status ordinal
+         */
+        private long[][] changes = new long[0][];
+
+        private long[][] descriptionRefs = new long[0][];
+
+        private int[][] previous = new int[0][];
+
+        private OffHeapStringPool descriptions = new OffHeapStringPool(DESCRIPTION_CHUNK_BYTES);
+
+        private int size;
+
+        private int garbage;
+
+        Segment(int initialCapacity) {
+            this.heads = new ConcurrentLongLongMap(initialCapacity, 1);
+        }
+
+        void append(long id, TransactionStatus status, long timeMillis, String description) {
+            heads.put(id, appendEntry((int) heads.get(id), status, timeMillis, description));
+        }
+
+        /**
+         * Append an entry after the latest entry of its record, without indexing it
+         *
+         * @return Entry index
+         */
+        private int appendEntry(int head, TransactionStatus status, long timeMillis, String description) {
+            int entry = size;
+            int chunk = entry >>> CHUNK_SHIFT;
+            if (chunk == changes.length) {
+                grow();
+            }
+            int offset = entry & CHUNK_MASK;
+            changes[chunk][offset] = timeMillis << STATUS_BITS | status.ordinal();
+            long headRef = head == NO_ENTRY ? OffHeapStringPool.NULL_REF : descriptionRef(head);
+            descriptionRefs[chunk][offset] = head != NO_ENTRY && descriptions.matches(headRef, description)
+                ? headRef : descriptions.add(description);
+            previous[chunk][offset] = head;
+            size++;
+            return entry;
+        }
+
+        private void grow() {
+            int chunks = changes.length + 1;
+            changes = Arrays.copyOf(changes, chunks);
+            descriptionRefs = Arrays.copyOf(descriptionRefs, chunks);
+            previous = Arrays.copyOf(previous, chunks);
+            changes[chunks - 1] = new long[CHUNK_ENTRIES];
+            descriptionRefs[chunks - 1] = new long[CHUNK_ENTRIES];
+            previous[chunks - 1] = new int[CHUNK_ENTRIES];
+        }
+
+        private long descriptionRef(int entry) {
+            return descriptionRefs[entry >>> CHUNK_SHIFT][entry & CHUNK_MASK];
+        }
+
+        private int previousEntry(int entry) {
+            return previous[entry >>> CHUNK_SHIFT][entry & CHUNK_MASK];
+        }
+
+        List<TransactionStatusChange> history(long id) {
+            int entry = (int) heads.get(id);
+            if (entry == NO_ENTRY) {
+                return List.of();
+            }
+            List<TransactionStatusChange> history = new ArrayList<>();
+            for (; entry != NO_ENTRY; entry = previousEntry(entry)) {
+                long change = changes[entry >>> CHUNK_SHIFT][entry & CHUNK_MASK];
+                history.add(new TransactionStatusChange(STATUSES[(int) (change & STATUS_MASK)],
+                    new Timestamp(change >>> STATUS_BITS), descriptions.get(descriptionRef(entry))));
+            }
+            Collections.reverse(history);
+            return history;
+        }
+
+        void drop(long id) {
+            for (int entry = (int) heads.remove(id); entry != NO_ENTRY; entry = previousEntry(entry)) {
+                garbage++;
+            }
+        }
+
+        /**
+         * Collect the IDs of the records with entries, exact as the index is only written under the segment's lock
+         *
+         * @return Record IDs
+         */
+        long[] liveIds() {
+            long[] ids = new long[(int) heads.size()];
+            int[] count = {0};
+            heads.forEach((id, entry) -> ids[count[0]++] = id);
+            return ids;
+        }
+
+        /**
+         * Rewrite the segment with the entries of the remaining records once garbage outnumbers them
+         *
+         * @return Number of entries dropped
+         */
+        int compactIfSparse() {
+            if (garbage < CHUNK_ENTRIES || garbage <= size - garbage) {
+                return 0;
+            }
+            int dropped = garbage;
+            long[][] oldChanges = changes;
+            long[][] oldRefs = descriptionRefs;
+            int[][] oldPrevious = previous;
+            OffHeapStringPool oldDescriptions = descriptions;
+            changes = new long[0][];
+            descriptionRefs = new long[0][];
+            previous = new int[0][];
+            descriptions = new OffHeapStringPool(DESCRIPTION_CHUNK_BYTES);
+            size = 0;
+            garbage = 0;
+            int[] chain = new int[16];
+            // The index keeps every record while it is rewritten, as contains() reads it without the lock
+            for (long id : liveIds()) {
+                int length = 0;
+                for (int entry = (int) heads.get(id); entry != NO_ENTRY;
+                     entry = oldPrevious[entry >>> CHUNK_SHIFT][entry & CHUNK_MASK]) {
+                    if (length == chain.length) {
+                        chain = Arrays.copyOf(chain, length * 2);
+                    }
+                    chain[length++] = entry;
+                }
+                int head = NO_ENTRY;
+                for (int i = length - 1; i >= 0; i--) {
+                    int entry = chain[i];
+                    long change = oldChanges[entry >>> CHUNK_SHIFT][entry & CHUNK_MASK];
+                    head = appendEntry(head, STATUSES[(int) (change & STATUS_MASK)], change >>> STATUS_BITS,
+                        oldDescriptions.get(oldRefs[entry >>> CHUNK_SHIFT][entry & CHUNK_MASK]));
+                }
+                heads.put(id, head);
+            }
+            oldDescriptions.clear();
+            return dropped;
+        }
+
+        void clear() {
+            heads.clear();
+            changes = new long[0][];
+            descriptionRefs = new long[0][];
+            previous = new int[0][];
+            descriptions.clear();
+            size = 0;
+            garbage = 0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.hsbc.trans.dao.store;
+
+/**
+ * Transaction Store Engine Enumeration
+ * Selected with {@code trans.store.engine}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public enum StoreEngine {
+    /**
+     * {@link SkipListTransactionStore}: ordered skip-list map, the original engine
+     */
+    SKIPLIST,
+    /**
+     * {@link HashTransactionStore}: primitive long-keyed hash map for point reads plus a sorted ID index for paging;
+     * out-of-order adds and deletes shift one block of the index under its write lock
+     */
+    HASH,
+    /**
+     * {@link OffHeapTransactionStore}: fixed-width columns in direct buffers, records materialized only when read
+     */
+    OFFHEAP
+}
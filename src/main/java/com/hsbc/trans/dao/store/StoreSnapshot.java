@@ -0,0 +1,156 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.trans.bean.Transaction;
+
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+/**
+ * Store Snapshot
+ * Immutable view of the records of a {@link SnapshotTransactionStore} as of the write epoch it was opened at, read
+ * concurrently with writes; opened, released and expired by the store
+ * Reads of a released snapshot may mix in later writes, callers check {@link #isReleased()} after reading
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public final class StoreSnapshot {
+
+    private final SnapshotTransactionStore store;
+
+    private final long id;
+
+    private final long epoch;
+
+    private final long createTime;
+
+    private final long expireTime;
+
+    private volatile boolean released;
+
+    /**
+     * Number of records, counted on first use, -1 before
+     */
+    private volatile long size = -1;
+
+    StoreSnapshot(SnapshotTransactionStore store, long id, long epoch, long createTime, long expireTime) {
+        this.store = store;
+        this.id = id;
+        this.epoch = epoch;
+        this.createTime = createTime;
+        this.expireTime = expireTime;
+    }
+
+    /**
+     * Get a record
+     *
+     * @param recordId Transaction record ID
+     * @return Copy of the record, null if not found
+     */
+    public Transaction get(long recordId) {
+        return store.get(recordId, epoch);
+    }
+
+    /**
+     * Get a range of records in ascending ID order
+     * The first ID of the range is located by a binary search over the counts below IDs, not by iterating
+     *
+     * @param from Position of the first record
+     * @param limit Maximum number of records
+     * @return Copies of the records
+     */
+    public List<Transaction> values(long from, int limit) {
+        if (from < 0 || limit <= 0 || from >= size()) {
+            return List.of();
+        }
+        return store.valuesFrom(store.idAt(from, epoch), limit, epoch);
+    }
+
+    /**
+     * Get records starting at an ID in ascending ID order
+     *
+     * @param fromId Smallest record ID included
+     * @param limit Maximum number of records
+     * @return Copies of the records
+     */
+    public List<Transaction> valuesFrom(long fromId, int limit) {
+        return limit <= 0 ? List.of() : store.valuesFrom(fromId, limit, epoch);
+    }
+
+    /**
+     * Iterate the record IDs in ascending order
+     *
+     * @return Ascending ID iterator
+     */
+    public PrimitiveIterator.OfLong ids() {
+        return store.ids(epoch);
+    }
+
+    /**
+     * Count the records, once
+     *
+     * @return Number of records
+     */
+    public long size() {
+        long counted = size;
+        if (counted < 0) {
+            counted = store.countBelow(Long.MAX_VALUE, epoch) + (store.get(Long.MAX_VALUE, epoch) == null ? 0 : 1);
+            size = counted;
+        }
+        return counted;
+    }
+
+    void release() {
+        released = true;
+    }
+
+    /**
+     * Check whether the snapshot was released or expired, its reads are no longer consistent
+     *
+     * @return Whether released
+     */
+    public boolean isReleased() {
+        return released || isExpired(System.currentTimeMillis());
+    }
+
+    boolean isExpired(long now) {
+        return now >= expireTime;
+    }
+
+    /**
+     * Get the snapshot ID
+     *
+     * @return Snapshot ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Get the write epoch the snapshot sees the records at
+     *
+     * @return Epoch
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Get the time the snapshot was opened
+     *
+     * @return Epoch milliseconds
+     */
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    /**
+     * Get the time the snapshot expires
+     *
+     * @return Epoch milliseconds
+     */
+    public long getExpireTime() {
+        return expireTime;
+    }
+}
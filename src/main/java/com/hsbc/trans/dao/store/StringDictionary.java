@@ -0,0 +1,108 @@
+package com.hsbc.trans.dao.store;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * String Dictionary
+ * Concurrent dictionary assigning dense {@code int} codes to strings, so records of a bounded set of repeated values
+ * (e.g. user IDs) hold a 4-byte code instead of their own String, and all decoded values share one instance
+ * Codes are assigned in insertion order and never reused; entries are never removed
+ * Lookups take no lock, only assigning a new code is synchronized
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class StringDictionary {
+
+    /**
+     * Code of null, and of new values once the dictionary is full
+     */
+    public static final int NO_CODE = -1;
+
+    private final int maxEntries;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+
+    /**
+     * Values by code, replaced as a whole when grown
+     */
+    private volatile String[] values = new String[16];
+
+    private int size;
+
+    /**
+     * Constructor
+     *
+     * @param maxEntries Maximum number of entries, further values are not encoded
+     */
+    public StringDictionary(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Dictionary size must not be negative: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Get the code of a value, assigning a new code to an unknown value
+     *
+     * @param value Value
+     * @return Code, {@link #NO_CODE} for null or when the dictionary is full
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    private synchronized int add(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (size >= maxEntries) {
+            return NO_CODE;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        // The value is stored before its code is published through the map
+        values[size] = value;
+        codes.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Get the value of a code
+     *
+     * @param code Code returned by {@link #encode(String)}
+     * @return Value, null for {@link #NO_CODE}
+     */
+    public String decode(int code) {
+        return code == NO_CODE ? null : values[code];
+    }
+
+    /**
+     * Get the shared instance of a value, adding the value while the dictionary is not full
+     *
+     * @param value Value
+     * @return Shared instance equal to the value, or the value itself when it is not in the dictionary
+     */
+    public String intern(String value) {
+        int code = encode(value);
+        return code == NO_CODE ? value : decode(code);
+    }
+
+    /**
+     * Get the number of entries
+     *
+     * @return Number of entries
+     */
+    public int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,688 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.common.collection.LongHashes;
+import com.hsbc.common.collection.SortedLongIndex;
+import com.hsbc.trans.bean.Transaction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Tiered Transaction Store
+ * Keeps the working set in a hot store of the configured engine and spills records in a terminal status that were not
+ * updated for a while into immutable {@link TransactionSegment} files, so the heap holds the active records plus a
+ * small sparse index and Bloom filter per segment instead of the whole history
+ * Reads fall through transparently: point reads try the hot store, then the segments newest first; ordered reads merge
+ * the hot store with the segments. A cold record that is updated moves back to the hot store, and its copy in the
+ * segment is marked removed, as is the copy of a deleted record; at most one copy of a record is ever live
+ * Migration copies candidates into a new segment with all its copies marked removed, publishes it, then for each
+ * record still unchanged in the hot store clears the mark and deletes the hot copy, under the record's lock stripe, so
+ * a record changed meanwhile stays hot. Counts are validated against a sequence bumped around each such move, and
+ * ordered reads keep one copy of an ID, since the record is live in both tiers for that moment. Once there are more than the configured number of segments, their live records
+ * are merged into one
+ * Segments are not durable: they extend the heap of a store that is itself lost on restart, and are deleted on close
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Slf4j
+public class TieredTransactionStore implements TransactionStore, AutoCloseable {
+
+    /**
+     * Hot records read per step while looking for migration candidates
+     */
+    private static final int SCAN_CHUNK = 1024;
+
+    /**
+     * Counts attempted against concurrent migration moves before holding them off
+     */
+    private static final int OPTIMISTIC_COUNT_ATTEMPTS = 8;
+
+    private final TransactionStore hot;
+
+    private final TransactionCodec codec;
+
+    private final TransactionStoreProperties.Tiering properties;
+
+    private final Path directory;
+
+    /**
+     * Record lock stripes, serializing writes of a record with its migration
+     */
+    private final Object[] lockStripes;
+
+    /**
+     * Held shared while marking copies removed, exclusively while replacing the segments
+     */
+    private final ReadWriteLock segmentsLock = new ReentrantReadWriteLock();
+
+    /**
+     * Segments, oldest first, replaced as a whole so readers need no lock
+     */
+    private volatile TransactionSegment[] segments = new TransactionSegment[0];
+
+    /**
+     * Held while a migrated record is live in both tiers, between revealing its cold copy and dropping its hot copy
+     */
+    private final Object moveLock = new Object();
+
+    /**
+     * Incremented before and after each move under the move lock, odd while a record is live in both tiers
+     */
+    private final AtomicLong moveSequence = new AtomicLong();
+
+    /**
+     * IDs marked removed while a merge is running, marked again in the merged segment
+     */
+    private SortedLongIndex removedDuringMerge;
+
+    /**
+     * Segments replaced by a merge, deleted by the next maintenance run so that reads still using them can finish
+     */
+    private final List<TransactionSegment> retired = new ArrayList<>();
+
+    /**
+     * Records migrated to segments, shared by the tiered stores of all partitions
+     */
+    private final LongAdder migratedRecords;
+
+    private long segmentSequence;
+
+    /**
+     * Constructor
+     *
+     * @param hot Hot store
+     * @param properties Tiering properties
+     * @param lockStripes Number of record lock stripes, rounded up to a power of two
+     * @param codec Transaction codec
+     * @param migratedRecords Counter of the migrated records
+     * @throws UncheckedIOException When the segment directory cannot be created
+     */
+    public TieredTransactionStore(TransactionStore hot, TransactionStoreProperties.Tiering properties, int lockStripes,
+                                  TransactionCodec codec, LongAdder migratedRecords) {
+        this.hot = hot;
+        this.migratedRecords = migratedRecords;
+        this.properties = properties;
+        this.codec = codec;
+        int stripes = LongHashes.tableSizeFor(lockStripes);
+        this.lockStripes = new Object[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.lockStripes[i] = new Object();
+        }
+        try {
+            Path base = Path.of(properties.getDirectory().isBlank() ? System.getProperty("java.io.tmpdir") : properties.getDirectory());
+            Files.createDirectories(base);
+            this.directory = Files.createTempDirectory(base, "trans-segments-");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create segment directory", e);
+        }
+    }
+
+    private Object lockFor(long id) {
+        return lockStripes[Long.hashCode(id * 0x9E3779B97F4A7C15L) & (lockStripes.length - 1)];
+    }
+
+    /**
+     * A put of a cold record writes it to the hot store before removing the cold copy, so a cold miss re-reads the
+     * hot store: the record may have moved there after the first read
+     */
+    @Override
+    public boolean exists(long id) {
+        return hot.exists(id) || coldGet(id) != null || hot.exists(id);
+    }
+
+    @Override
+    public Transaction get(long id) {
+        Transaction transaction = hot.get(id);
+        if (transaction != null) {
+            return transaction;
+        }
+        transaction = coldGet(id);
+        return transaction != null ? transaction : hot.get(id);
+    }
+
+    /**
+     * Get the live copy of a record in the segments
+     *
+     * @param id Transaction record ID
+     * @return Record, null if no segment holds a live copy
+     */
+    private Transaction coldGet(long id) {
+        TransactionSegment[] current = segments;
+        for (int i = current.length - 1; i >= 0; i--) {
+            if (!current[i].mightContain(id)) {
+                continue;
+            }
+            // The newest copy decides, older copies are always removed
+            if (current[i].isRemoved(id)) {
+                return null;
+            }
+            Transaction transaction = current[i].read(id);
+            if (transaction != null) {
+                return transaction;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        long id = transaction.getId();
+        synchronized (lockFor(id)) {
+            // A record in the hot store has no live copy in the segments
+            boolean inHot = hot.exists(id);
+            hot.put(transaction);
+            if (!inHot && segments.length > 0) {
+                removeCold(id);
+            }
+        }
+    }
+
+    @Override
+    public Transaction delete(long id) {
+        synchronized (lockFor(id)) {
+            Transaction deleted = hot.delete(id);
+            if (deleted != null || segments.length == 0) {
+                return deleted;
+            }
+            return removeCold(id);
+        }
+    }
+
+    /**
+     * Mark the live copy of a record in the segments removed, under the record's lock stripe
+     *
+     * @param id Transaction record ID
+     * @return Removed copy, null if no segment holds a live copy
+     */
+    private Transaction removeCold(long id) {
+        segmentsLock.readLock().lock();
+        try {
+            TransactionSegment[] current = segments;
+            for (int i = current.length - 1; i >= 0; i--) {
+                if (!current[i].mightContain(id)) {
+                    continue;
+                }
+                if (current[i].isRemoved(id)) {
+                    return null;
+                }
+                Transaction transaction = current[i].read(id);
+                if (transaction != null) {
+                    current[i].markRemoved(id);
+                    SortedLongIndex mergeLog = removedDuringMerge;
+                    if (mergeLog != null) {
+                        mergeLog.add(id);
+                    }
+                    return transaction;
+                }
+            }
+            return null;
+        } finally {
+            segmentsLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Transaction> values() {
+        return valuesFrom(Long.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Transaction> values(long from, int limit) {
+        if (segments.length == 0) {
+            List<Transaction> values = hot.values(from, limit);
+            // A first segment published meanwhile may have taken records out of the hot store
+            if (segments.length == 0) {
+                return values;
+            }
+        }
+        if (from < 0 || limit <= 0 || from >= size()) {
+            return new ArrayList<>();
+        }
+        return valuesFrom(idAt(from), limit);
+    }
+
+    /**
+     * Find the ID at a position by binary search over the ID space, counting through the segments' sparse indexes
+     *
+     * @param position Position, below the number of records
+     * @return Record ID at the position
+     */
+    private long idAt(long position) {
+        if (position == 0) {
+            return Long.MIN_VALUE;
+        }
+        // Largest bound with at most `position` records below it is the ID at the position
+        long low = Long.MIN_VALUE;
+        long high = Long.MAX_VALUE;
+        while (low < high) {
+            long mid = (low & high) + ((low ^ high) >> 1) + 1;
+            if (countBelow(mid) <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public List<Transaction> valuesFrom(long fromId, int limit) {
+        // Segments are published before records leave the hot store, so reading them after it misses no record
+        List<Transaction> hotPart = hot.valuesFrom(fromId, limit);
+        TransactionSegment[] current = segments;
+        if (current.length == 0) {
+            return hotPart;
+        }
+        List<List<Transaction>> parts = new ArrayList<>(current.length + 1);
+        parts.add(hotPart);
+        for (TransactionSegment segment : current) {
+            List<Transaction> part = new ArrayList<>();
+            Iterator<Transaction> records = segment.records(fromId);
+            while (part.size() < limit && records.hasNext()) {
+                part.add(records.next());
+            }
+            parts.add(part);
+        }
+        return ShardedTransactionStore.merge(parts, limit);
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong ids() {
+        TransactionSegment[] current = segments;
+        List<PrimitiveIterator.OfLong> sources = new ArrayList<>(current.length + 1);
+        sources.add(hot.ids());
+        for (TransactionSegment segment : current) {
+            sources.add(segment.ids(Long.MIN_VALUE));
+        }
+        return mergeIds(sources);
+    }
+
+    /**
+     * Merge ascending ID iterators into one ascending iterator, returning an ID found in several iterators once
+     *
+     * @param sources Ascending iterators, disjoint but for a record being migrated
+     * @return Merged iterator
+     */
+    private static PrimitiveIterator.OfLong mergeIds(List<PrimitiveIterator.OfLong> sources) {
+        PriorityQueue<long[]> heads = new PriorityQueue<>(Comparator.comparingLong(head -> head[0]));
+        for (int i = 0; i < sources.size(); i++) {
+            if (sources.get(i).hasNext()) {
+                heads.add(new long[]{sources.get(i).nextLong(), i});
+            }
+        }
+        return new PrimitiveIterator.OfLong() {
+
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public long nextLong() {
+                long id = advance(heads.remove());
+                while (!heads.isEmpty() && heads.peek()[0] == id) {
+                    advance(heads.remove());
+                }
+                return id;
+            }
+
+            private long advance(long[] head) {
+                long id = head[0];
+                PrimitiveIterator.OfLong source = sources.get((int) head[1]);
+                if (source.hasNext()) {
+                    head[0] = source.nextLong();
+                    heads.add(head);
+                }
+                return id;
+            }
+        };
+    }
+
+    /**
+     * Merge the live records of segments in ascending ID order
+     *
+     * @param sources Segments
+     * @return Merged records
+     */
+    private static Iterator<Transaction> mergeRecords(TransactionSegment[] sources) {
+        List<Iterator<Transaction>> iterators = new ArrayList<>(sources.length);
+        PriorityQueue<Object[]> heads = new PriorityQueue<>(Comparator.comparingLong(head -> ((Transaction) head[0]).getId()));
+        for (int i = 0; i < sources.length; i++) {
+            iterators.add(sources[i].records(Long.MIN_VALUE));
+            if (iterators.get(i).hasNext()) {
+                heads.add(new Object[]{iterators.get(i).next(), i});
+            }
+        }
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Transaction next() {
+                if (heads.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Object[] head = heads.remove();
+                Transaction transaction = (Transaction) head[0];
+                Iterator<Transaction> source = iterators.get((int) head[1]);
+                if (source.hasNext()) {
+                    head[0] = source.next();
+                    heads.add(head);
+                }
+                return transaction;
+            }
+        };
+    }
+
+    @Override
+    public long countBelow(long id) {
+        return stableCount(() -> {
+            long count = hot.countBelow(id);
+            for (TransactionSegment segment : segments) {
+                count += segment.liveCountBelow(id);
+            }
+            return count;
+        });
+    }
+
+    @Override
+    public long size() {
+        return stableCount(() -> hot.size() + coldSize());
+    }
+
+    /**
+     * Count across both tiers while no record is live in both, retried when a migration move overlaps the count and
+     * taken under the move lock once moves keep interfering
+     *
+     * @param count Count of the hot store plus the segments
+     * @return Count with each record counted once
+     */
+    private long stableCount(LongSupplier count) {
+        for (int attempt = 0; attempt < OPTIMISTIC_COUNT_ATTEMPTS; attempt++) {
+            long sequence = moveSequence.get();
+            if ((sequence & 1) == 0) {
+                long counted = count.getAsLong();
+                if (moveSequence.get() == sequence) {
+                    return counted;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        synchronized (moveLock) {
+            return count.getAsLong();
+        }
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        long bytes = hot.estimatedHeapBytes();
+        for (TransactionSegment segment : segments) {
+            bytes += segment.estimatedHeapBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return hot.offHeapBytes();
+    }
+
+    @Override
+    public long offHeapGarbageBytes() {
+        return hot.offHeapGarbageBytes();
+    }
+
+    /**
+     * Count the records kept in the segments
+     *
+     * @return Number of live records in the segments
+     */
+    public long coldSize() {
+        long size = 0;
+        for (TransactionSegment segment : segments) {
+            size += segment.liveCount();
+        }
+        return size;
+    }
+
+    /**
+     * Get the number of segments
+     *
+     * @return Number of segments
+     */
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * Get the total size of the segment files
+     *
+     * @return Bytes
+     */
+    public long diskBytes() {
+        long bytes = 0;
+        for (TransactionSegment segment : segments) {
+            bytes += segment.fileBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Get the number of records migrated to segments since the start, by all stores sharing the counter
+     *
+     * @return Number of records
+     */
+    public long getMigratedCount() {
+        return migratedRecords.sum();
+    }
+
+    /**
+     * Clear the hot store and retire all segments, their files deleted by the next maintenance run as readers may
+     * still be reading them
+     */
+    @Override
+    public synchronized long clear() {
+        long cleared = size();
+        hot.clear();
+        segmentsLock.writeLock().lock();
+        try {
+            retired.addAll(Arrays.asList(segments));
+            segments = new TransactionSegment[0];
+        } finally {
+            segmentsLock.writeLock().unlock();
+        }
+        return cleared;
+    }
+
+    /**
+     * Run the maintenance: delete the segments retired by the previous run, migrate the cold records and merge the
+     * segments once there are too many
+     */
+    @Override
+    public synchronized void maintain() {
+        for (TransactionSegment segment : retired) {
+            segment.delete();
+        }
+        retired.clear();
+        long migrated = migrate(System.currentTimeMillis());
+        if (segments.length > properties.getMaxSegments()) {
+            merge();
+        }
+        if (migrated > 0) {
+            log.info("Migrated {} transaction records to disk segments, {} segments, {} bytes", migrated, segments.length, diskBytes());
+        }
+    }
+
+    /**
+     * Migrate the records in a terminal status not updated within {@code coldAfter} to new segments
+     *
+     * @param now Current time in epoch millis
+     * @return Number of records migrated
+     */
+    public synchronized long migrate(long now) {
+        long threshold = now - properties.getColdAfter().toMillis();
+        int maxRecords = Math.max(1, properties.getMaxSegmentRecords());
+        List<Transaction> candidates = new ArrayList<>();
+        long migrated = 0;
+        long fromId = Long.MIN_VALUE;
+        while (true) {
+            List<Transaction> chunk = hot.valuesFrom(fromId, SCAN_CHUNK);
+            for (Transaction transaction : chunk) {
+                if (transaction.getStatus().isTerminal() && transaction.getUpdateTime().getTime() < threshold) {
+                    candidates.add(transaction);
+                    if (candidates.size() == maxRecords) {
+                        migrated += spill(candidates);
+                        candidates.clear();
+                    }
+                }
+            }
+            if (chunk.size() < SCAN_CHUNK || chunk.get(chunk.size() - 1).getId() == Long.MAX_VALUE) {
+                break;
+            }
+            fromId = chunk.get(chunk.size() - 1).getId() + 1;
+        }
+        if (!candidates.isEmpty()) {
+            migrated += spill(candidates);
+        }
+        migratedRecords.add(migrated);
+        return migrated;
+    }
+
+    /**
+     * Write candidates into a new segment and move the unchanged ones out of the hot store
+     *
+     * @param candidates Records in ascending ID order
+     * @return Number of records moved
+     */
+    private long spill(List<Transaction> candidates) {
+        TransactionSegment segment = TransactionSegment.write(nextFile(), candidates.iterator(), candidates.size(),
+            properties.getBlockRecords(), properties.getFalsePositiveRate(), codec);
+        // Hidden until each copy is confirmed, the hot copy stays authoritative meanwhile
+        for (Transaction candidate : candidates) {
+            segment.markRemoved(candidate.getId());
+        }
+        segmentsLock.writeLock().lock();
+        try {
+            TransactionSegment[] current = segments;
+            TransactionSegment[] published = Arrays.copyOf(current, current.length + 1);
+            published[current.length] = segment;
+            segments = published;
+        } finally {
+            segmentsLock.writeLock().unlock();
+        }
+        long moved = 0;
+        for (Transaction candidate : candidates) {
+            long id = candidate.getId();
+            synchronized (lockFor(id)) {
+                if (candidate.equals(hot.get(id))) {
+                    // Reveal the cold copy before dropping the hot one, so readers always find one of them
+                    synchronized (moveLock) {
+                        moveSequence.incrementAndGet();
+                        segment.unmarkRemoved(id);
+                        hot.delete(id);
+                        moveSequence.incrementAndGet();
+                    }
+                    moved++;
+                }
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Merge the live records of all segments into one segment
+     */
+    public synchronized void merge() {
+        TransactionSegment[] sources;
+        segmentsLock.writeLock().lock();
+        try {
+            sources = segments;
+            removedDuringMerge = new SortedLongIndex(16);
+        } finally {
+            segmentsLock.writeLock().unlock();
+        }
+        TransactionSegment merged = null;
+        try {
+            long liveRecords = 0;
+            for (TransactionSegment source : sources) {
+                liveRecords += source.liveCount();
+            }
+            merged = TransactionSegment.write(nextFile(), mergeRecords(sources), liveRecords,
+                properties.getBlockRecords(), properties.getFalsePositiveRate(), codec);
+        } finally {
+            segmentsLock.writeLock().lock();
+            try {
+                if (merged != null) {
+                    // Copies removed after the merge read them
+                    for (PrimitiveIterator.OfLong ids = removedDuringMerge.iterator(); ids.hasNext(); ) {
+                        long id = ids.nextLong();
+                        if (merged.contains(id)) {
+                            merged.markRemoved(id);
+                        }
+                    }
+                    segments = new TransactionSegment[]{merged};
+                    retired.addAll(Arrays.asList(sources));
+                } else if (segments == sources && coldSize() == 0) {
+                    segments = new TransactionSegment[0];
+                    retired.addAll(Arrays.asList(sources));
+                }
+                removedDuringMerge = null;
+            } finally {
+                segmentsLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Path nextFile() {
+        return directory.resolve(String.format("segment-%08d.seg", ++segmentSequence));
+    }
+
+    /**
+     * Delete the segments and their directory
+     */
+    @Override
+    public synchronized void close() {
+        TransactionSegment[] current = segments;
+        segments = new TransactionSegment[0];
+        for (TransactionSegment segment : current) {
+            segment.delete();
+        }
+        for (TransactionSegment segment : retired) {
+            segment.delete();
+        }
+        retired.clear();
+        if (Files.notExists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            log.warn("Failed to delete segment directory {}", directory, e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.trans.bean.Transaction;
+
+import java.sql.Timestamp;
+
+/**
+ * Transaction Codec
+ * Converts between {@link Transaction} objects and the compact internal forms of the store engines:
+ * amounts as fixed-point minor units ({@link AmountCodec}), user IDs as codes of a shared {@link StringDictionary},
+ * and optionally descriptions interned in a bounded dictionary so records with a common description share one String
+ * One codec is shared by all engines of an application, so codes are consistent across them
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class TransactionCodec {
+
+    private final AmountCodec amountCodec;
+
+    private final StringDictionary userIds = new StringDictionary(Integer.MAX_VALUE - 8);
+
+    private final StringDictionary descriptions;
+
+    /**
+     * Constructor
+     *
+     * @param amountScale Decimal places of stored amounts
+     * @param descriptionInternLimit Maximum number of distinct descriptions interned, 0 to disable interning
+     */
+    public TransactionCodec(int amountScale, int descriptionInternLimit) {
+        this.amountCodec = new AmountCodec(amountScale);
+        this.descriptions = new StringDictionary(descriptionInternLimit);
+    }
+
+    /**
+     * Convert a transaction into a record
+     *
+     * @param transaction Transaction
+     * @return Record
+     * @throws com.hsbc.common.errorhandler.exception.ParamValidationException When the amount cannot be stored with the configured scale
+     */
+    public TransactionRecord encode(Transaction transaction) {
+        return new TransactionRecord(transaction.getId(), transaction.getTransId(), userIds.encode(transaction.getUserId()),
+            amountCodec.toMinorUnits(transaction.getAmount()), transaction.getType(), transaction.getStatus(),
+            transaction.getCreateTime().getTime(), transaction.getUpdateTime().getTime(),
+            descriptions.intern(transaction.getDescription()));
+    }
+
+    /**
+     * Materialize a record as a new transaction
+     *
+     * @param record Record
+     * @return Transaction
+     */
+    public Transaction decode(TransactionRecord record) {
+        Transaction transaction = new Transaction();
+        transaction.setId(record.id());
+        transaction.setTransId(record.transId());
+        transaction.setUserId(userIds.decode(record.userId()));
+        transaction.setAmount(amountCodec.fromMinorUnits(record.amount()));
+        transaction.setType(record.type());
+        transaction.setStatus(record.status());
+        transaction.setCreateTime(new Timestamp(record.createTime()));
+        transaction.setUpdateTime(new Timestamp(record.updateTime()));
+        transaction.setDescription(record.description());
+        return transaction;
+    }
+
+    /**
+     * Get the amount codec
+     *
+     * @return Amount codec
+     */
+    public AmountCodec getAmountCodec() {
+        return amountCodec;
+    }
+
+    /**
+     * Get the user ID dictionary
+     *
+     * @return User ID dictionary
+     */
+    public StringDictionary getUserIds() {
+        return userIds;
+    }
+
+    /**
+     * Get the description dictionary
+     *
+     * @return Description dictionary
+     */
+    public StringDictionary getDescriptions() {
+        return descriptions;
+    }
+}
@@ -0,0 +1,47 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+
+/**
+ * Compact Transaction Record
+ * Immutable internal form of a {@link com.hsbc.trans.bean.Transaction} kept by the heap store engines: the amount
+ * as fixed-point minor units, the user ID as a dictionary code and both times as epoch millis, instead of a BigDecimal,
+ * a String and two Timestamp objects
+ * Being immutable, a record is shared between readers without copying; an update stores a new record
+ * Records are created and materialized only at the store boundary, by {@link TransactionCodec}
+ *
+ * @param id Transaction record ID
+ * @param transId Business transaction ID
+ * @param userId User ID code, see {@link StringDictionary}
+ * @param amount Amount in minor units, see {@link AmountCodec}
+ * @param type Transaction type
+ * @param status Transaction status
+ * @param createTime Creation time in epoch millis
+ * @param updateTime Last update time in epoch millis
+ * @param description Description, shared instance when interned
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public record TransactionRecord(long id, String transId, int userId, long amount, TransactionType type,
+                                TransactionStatus status, long createTime, long updateTime, String description) {
+
+    /**
+     * Estimated heap bytes of a record with its transaction ID and description Strings of typical length
+     */
+    static final long ESTIMATED_BYTES = 160;
+
+    /**
+     * Estimate the heap bytes of this record with its transaction ID and description Strings
+     *
+     * @return Estimated bytes
+     */
+    public long estimatedBytes() {
+        return 64 + stringBytes(transId) + stringBytes(description);
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+}
@@ -0,0 +1,594 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.common.collection.ScalableBloomFilter;
+import com.hsbc.common.collection.SortedLongIndex;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Transaction Segment
+ * Immutable file of records in ascending ID order, written once by {@link TieredTransactionStore} and read with
+ * positional reads. Records are grouped into Deflate-compressed blocks, each starting with the IDs of its records
+ * followed by the records, so ID scans inflate only the front of a block; a block is inflated with one call
+ * The heap keeps a sparse index (first ID, file offset, lengths and position of every block) and a Bloom filter of the
+ * IDs, so a lookup of an absent ID usually reads nothing and a lookup of a present ID reads one block
+ * Records of the file are removed by marking their IDs, the file itself never changes
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+final class TransactionSegment {
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    private final TransactionCodec codec;
+
+    private final long[] blockFirstIds;
+
+    private final long[] blockOffsets;
+
+    private final int[] blockLengths;
+
+    /**
+     * Inflated length of each block
+     */
+    private final int[] blockRawLengths;
+
+    /**
+     * Position of the first record of each block, plus the number of records at the end
+     */
+    private final int[] blockStarts;
+
+    private final long maxId;
+
+    private final ScalableBloomFilter filter;
+
+    /**
+     * IDs of the file's records that are deleted or replaced by a newer copy
+     */
+    private final SortedLongIndex removed = new SortedLongIndex(16);
+
+    private TransactionSegment(Path file, FileChannel channel, TransactionCodec codec, long[] blockFirstIds,
+                               long[] blockOffsets, int[] blockLengths, int[] blockRawLengths, int[] blockStarts, long maxId,
+                               ScalableBloomFilter filter) {
+        this.file = file;
+        this.channel = channel;
+        this.codec = codec;
+        this.blockFirstIds = blockFirstIds;
+        this.blockOffsets = blockOffsets;
+        this.blockLengths = blockLengths;
+        this.blockRawLengths = blockRawLengths;
+        this.blockStarts = blockStarts;
+        this.maxId = maxId;
+        this.filter = filter;
+    }
+
+    /**
+     * Write records into a new segment file
+     *
+     * @param file New file
+     * @param records Records in ascending ID order
+     * @param expectedRecords Expected number of records, sizes the Bloom filter
+     * @param blockRecords Records per compressed block
+     * @param falsePositiveRate False-positive rate of the Bloom filter
+     * @param codec Transaction codec
+     * @return Segment, null if there were no records (no file is left)
+     * @throws UncheckedIOException When the file cannot be written
+     */
+    static TransactionSegment write(Path file, Iterator<Transaction> records, long expectedRecords, int blockRecords,
+                                    double falsePositiveRate, TransactionCodec codec) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ScalableBloomFilter filter = new ScalableBloomFilter(Math.max(1, expectedRecords), falsePositiveRate);
+            List<long[]> index = new ArrayList<>();
+            List<Transaction> block = new ArrayList<>(blockRecords);
+            long offset = 0;
+            int count = 0;
+            long maxId = Long.MIN_VALUE;
+            while (records.hasNext() || !block.isEmpty()) {
+                if (records.hasNext() && block.size() < blockRecords) {
+                    Transaction transaction = records.next();
+                    block.add(transaction);
+                    filter.add(transaction.getId());
+                    maxId = transaction.getId();
+                    continue;
+                }
+                byte[] raw = encodeBlock(block, codec);
+                byte[] bytes = deflate(raw);
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, offset + buffer.position());
+                }
+                index.add(new long[]{block.get(0).getId(), offset, bytes.length, raw.length, count});
+                offset += bytes.length;
+                count += block.size();
+                block.clear();
+            }
+            if (count == 0) {
+                channel.close();
+                Files.deleteIfExists(file);
+                return null;
+            }
+            long[] firstIds = new long[index.size()];
+            long[] offsets = new long[index.size()];
+            int[] lengths = new int[index.size()];
+            int[] rawLengths = new int[index.size()];
+            int[] starts = new int[index.size() + 1];
+            for (int i = 0; i < index.size(); i++) {
+                firstIds[i] = index.get(i)[0];
+                offsets[i] = index.get(i)[1];
+                lengths[i] = (int) index.get(i)[2];
+                rawLengths[i] = (int) index.get(i)[3];
+                starts[i] = (int) index.get(i)[4];
+            }
+            starts[index.size()] = count;
+            return new TransactionSegment(file, channel, codec, firstIds, offsets, lengths, rawLengths, starts, maxId, filter);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // The directory is removed with the store
+            }
+            throw new UncheckedIOException("Failed to write segment " + file, e);
+        }
+    }
+
+    private static byte[] encodeBlock(List<Transaction> block, TransactionCodec codec) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (Transaction transaction : block) {
+                out.writeLong(transaction.getId());
+            }
+            for (Transaction transaction : block) {
+                writeString(out, transaction.getTransId());
+                writeString(out, transaction.getUserId());
+                out.writeLong(codec.getAmountCodec().toMinorUnits(transaction.getAmount()));
+                out.writeByte(transaction.getType().ordinal());
+                out.writeByte(transaction.getStatus().ordinal());
+                out.writeLong(transaction.getCreateTime().getTime());
+                out.writeLong(transaction.getUpdateTime().getTime());
+                out.writeBoolean(transaction.getDescription() != null);
+                if (transaction.getDescription() != null) {
+                    writeString(out, transaction.getDescription());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                bytes.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return bytes.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read and inflate the front of a block
+     *
+     * @param block Block index
+     * @param rawBytes Number of inflated bytes needed, at most the inflated length of the block
+     * @return Inflated bytes
+     */
+    private byte[] inflate(int block, int rawBytes) {
+        ByteBuffer buffer = ByteBuffer.allocate(blockLengths[block]);
+        Inflater inflater = new Inflater();
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, blockOffsets[block] + buffer.position()) < 0) {
+                    throw new EOFException("Segment truncated: " + file);
+                }
+            }
+            inflater.setInput(buffer.array());
+            byte[] raw = new byte[rawBytes];
+            int inflated = 0;
+            while (inflated < rawBytes) {
+                int count = inflater.inflate(raw, inflated, rawBytes - inflated);
+                if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new EOFException("Segment block truncated: " + file);
+                }
+                inflated += count;
+            }
+            return raw;
+        } catch (IOException | DataFormatException e) {
+            throw new UncheckedIOException("Failed to read segment " + file, e instanceof IOException io ? io : new IOException(e));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private int blockSize(int block) {
+        return blockStarts[block + 1] - blockStarts[block];
+    }
+
+    /**
+     * Read the IDs of a block
+     *
+     * @param block Block index
+     * @return IDs in ascending order
+     */
+    private long[] readIds(int block) {
+        return readIds(inflate(block, blockSize(block) * Long.BYTES), blockSize(block));
+    }
+
+    private static long[] readIds(byte[] raw, int count) {
+        long[] ids = new long[count];
+        ByteBuffer.wrap(raw).asLongBuffer().get(ids);
+        return ids;
+    }
+
+    /**
+     * Open the records of an inflated block, following its IDs
+     *
+     * @param raw Inflated block
+     * @param count Number of records
+     * @return Record stream
+     */
+    private static DataInputStream records(byte[] raw, int count) {
+        int start = count * Long.BYTES;
+        return new DataInputStream(new ByteArrayInputStream(raw, start, raw.length - start));
+    }
+
+    /**
+     * Read the records of a block
+     *
+     * @param block Block index
+     * @return Records in ascending ID order
+     */
+    private Transaction[] readBlock(int block) {
+        byte[] raw = inflate(block, blockRawLengths[block]);
+        long[] ids = readIds(raw, blockSize(block));
+        try (DataInputStream in = records(raw, ids.length)) {
+            Transaction[] transactions = new Transaction[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                transactions[i] = readRecord(in, ids[i]);
+            }
+            return transactions;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read segment " + file, e);
+        }
+    }
+
+    private static void skipRecord(DataInputStream in) throws IOException {
+        in.skipBytes(in.readInt());
+        in.skipBytes(in.readInt());
+        in.skipBytes(Long.BYTES + 2 + Long.BYTES * 2);
+        if (in.readBoolean()) {
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    private Transaction readRecord(DataInputStream in, long id) throws IOException {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setTransId(readString(in));
+        transaction.setUserId(readString(in));
+        transaction.setAmount(codec.getAmountCodec().fromMinorUnits(in.readLong()));
+        transaction.setType(TYPES[in.readByte()]);
+        transaction.setStatus(STATUSES[in.readByte()]);
+        transaction.setCreateTime(new Timestamp(in.readLong()));
+        transaction.setUpdateTime(new Timestamp(in.readLong()));
+        transaction.setDescription(in.readBoolean() ? readString(in) : null);
+        return transaction;
+    }
+
+    /**
+     * Get the block that holds an ID if the segment has it
+     *
+     * @param id Transaction record ID
+     * @return Block index, -1 if the ID is below the first ID
+     */
+    private int blockOf(long id) {
+        int position = Arrays.binarySearch(blockFirstIds, id);
+        return position >= 0 ? position : -position - 2;
+    }
+
+    /**
+     * Check whether the file may hold a record, without reading it
+     *
+     * @param id Transaction record ID
+     * @return False if the file does not hold the record
+     */
+    boolean mightContain(long id) {
+        return id >= blockFirstIds[0] && id <= maxId && filter.mightContain(id);
+    }
+
+    /**
+     * Get a record of the file, whether removed or not
+     *
+     * @param id Transaction record ID
+     * @return Record, null if the file does not hold it
+     */
+    Transaction read(long id) {
+        if (!mightContain(id)) {
+            return null;
+        }
+        int block = blockOf(id);
+        byte[] raw = inflate(block, blockRawLengths[block]);
+        long[] ids = readIds(raw, blockSize(block));
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return null;
+        }
+        try (DataInputStream in = records(raw, ids.length)) {
+            for (int i = 0; i < position; i++) {
+                skipRecord(in);
+            }
+            return readRecord(in, id);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read segment " + file, e);
+        }
+    }
+
+    /**
+     * Check whether the file holds a record, whether removed or not
+     *
+     * @param id Transaction record ID
+     * @return Whether the file holds the record
+     */
+    boolean contains(long id) {
+        return mightContain(id) && Arrays.binarySearch(readIds(blockOf(id)), id) >= 0;
+    }
+
+    /**
+     * Check whether a record of the file is removed
+     *
+     * @param id Transaction record ID
+     * @return Whether the record is marked removed
+     */
+    boolean isRemoved(long id) {
+        return removed.contains(id);
+    }
+
+    /**
+     * Mark a record of the file removed
+     *
+     * @param id Transaction record ID held by the file
+     * @return Whether the mark was added, false if already removed
+     */
+    boolean markRemoved(long id) {
+        return removed.add(id);
+    }
+
+    /**
+     * Clear the removed mark of a record
+     *
+     * @param id Transaction record ID held by the file
+     */
+    void unmarkRemoved(long id) {
+        removed.remove(id);
+    }
+
+    /**
+     * Count the records that are not removed
+     *
+     * @return Number of records
+     */
+    long liveCount() {
+        return blockStarts[blockStarts.length - 1] - removed.size();
+    }
+
+    /**
+     * Count the records that are not removed with an ID below a value
+     *
+     * @param id Exclusive upper bound of the record IDs
+     * @return Number of records
+     */
+    long liveCountBelow(long id) {
+        long below;
+        if (id <= blockFirstIds[0]) {
+            return 0;
+        } else if (id > maxId) {
+            below = blockStarts[blockStarts.length - 1];
+        } else {
+            int block = blockOf(id);
+            int position = Arrays.binarySearch(readIds(block), id);
+            below = blockStarts[block] + (position >= 0 ? position : -position - 1);
+        }
+        return below - removed.countBelow(id);
+    }
+
+    /**
+     * Iterate the IDs of the records that are not removed, inflating only the ID part of each block
+     *
+     * @param fromId Smallest ID included
+     * @return Ascending ID iterator
+     */
+    PrimitiveIterator.OfLong ids(long fromId) {
+        return new PrimitiveIterator.OfLong() {
+
+            private int block = Math.max(0, blockOf(fromId));
+
+            private long[] ids = new long[0];
+
+            private int position;
+
+            private boolean ready;
+
+            private long next;
+
+            @Override
+            public boolean hasNext() {
+                while (!ready) {
+                    if (position == ids.length) {
+                        if (block == blockFirstIds.length) {
+                            return false;
+                        }
+                        ids = readIds(block++);
+                        position = 0;
+                        continue;
+                    }
+                    long id = ids[position++];
+                    if (id >= fromId && !removed.contains(id)) {
+                        next = id;
+                        ready = true;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ready = false;
+                return next;
+            }
+        };
+    }
+
+    /**
+     * Iterate the records that are not removed, one block in memory at a time
+     *
+     * @param fromId Smallest ID included
+     * @return Records in ascending ID order
+     */
+    Iterator<Transaction> records(long fromId) {
+        return new Iterator<>() {
+
+            private int block = Math.max(0, blockOf(fromId));
+
+            private Transaction[] transactions = new Transaction[0];
+
+            private int position;
+
+            private Transaction next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    if (position == transactions.length) {
+                        if (block == blockFirstIds.length) {
+                            return false;
+                        }
+                        transactions = readBlock(block++);
+                        position = 0;
+                        continue;
+                    }
+                    Transaction transaction = transactions[position++];
+                    if (transaction.getId() >= fromId && !removed.contains(transaction.getId())) {
+                        next = transaction;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Transaction transaction = next;
+                next = null;
+                return transaction;
+            }
+        };
+    }
+
+    /**
+     * Estimate heap memory held by the sparse index, the Bloom filter and the removed marks
+     *
+     * @return Estimated bytes
+     */
+    long estimatedHeapBytes() {
+        return blockFirstIds.length * 32L + filter.approximateBytes() + removed.capacity() * 8L;
+    }
+
+    /**
+     * Get the size of the file
+     *
+     * @return Bytes
+     */
+    long fileBytes() {
+        int last = blockOffsets.length - 1;
+        return blockOffsets[last] + blockLengths[last];
+    }
+
+    /**
+     * Get the file
+     *
+     * @return File path
+     */
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Close and delete the file
+     */
+    void delete() {
+        closeQuietly(channel);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete segment " + file, e);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to release
+        }
+    }
+}
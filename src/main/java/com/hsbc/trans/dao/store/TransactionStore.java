@@ -0,0 +1,152 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.trans.bean.Transaction;
+
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+/**
+ * Transaction Store Interface
+ * Storage engine behind {@link com.hsbc.trans.dao.TransactionDaoMemoryImpl}, keyed by transaction record ID
+ * Implementations are thread-safe and isolate callers from stored state: a {@link Transaction} is converted into the
+ * engine's internal form on the way in (fixed-point amount, user ID code, epoch-millis times, see {@link TransactionCodec}) and
+ * materialized as a new object on the way out
+ * Engines are selected with {@code trans.store.engine}, see {@link StoreEngine}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public interface TransactionStore {
+
+    /**
+     * Check whether a record exists
+     *
+     * @param id Transaction record ID
+     * @return Whether the record exists
+     */
+    boolean exists(long id);
+
+    /**
+     * Get a record
+     *
+     * @param id Transaction record ID
+     * @return Copy of the record, null if not found
+     */
+    Transaction get(long id);
+
+    /**
+     * Insert or replace a record
+     *
+     * @param transaction Transaction record, copied into the store
+     */
+    void put(Transaction transaction);
+
+    /**
+     * Delete a record
+     *
+     * @param id Transaction record ID
+     * @return Copy of the deleted record, null if not found
+     */
+    Transaction delete(long id);
+
+    /**
+     * Get all records in ascending ID order
+     *
+     * @return Copies of the records
+     */
+    List<Transaction> values();
+
+    /**
+     * Get a range of records in ascending ID order
+     *
+     * @param from Position of the first record
+     * @param limit Maximum number of records
+     * @return Copies of the records
+     */
+    List<Transaction> values(long from, int limit);
+
+    /**
+     * Get records starting at an ID in ascending ID order
+     *
+     * @param fromId Smallest record ID included
+     * @param limit Maximum number of records
+     * @return Copies of the records
+     */
+    List<Transaction> valuesFrom(long fromId, int limit);
+
+    /**
+     * Iterate the record IDs in ascending order
+     * The iterator is weakly consistent: it never fails under concurrent modification
+     *
+     * @return Ascending ID iterator
+     */
+    PrimitiveIterator.OfLong ids();
+
+    /**
+     * Count the records with an ID below a value, i.e. the position the ID has or would have
+     *
+     * @param id Exclusive upper bound of the record IDs
+     * @return Number of records
+     */
+    long countBelow(long id);
+
+    /**
+     * Count records
+     *
+     * @return Number of records
+     */
+    long size();
+
+    /**
+     * Estimate heap memory held by the stored records and their indexes
+     *
+     * @return Estimated bytes
+     */
+    long estimatedHeapBytes();
+
+    /**
+     * Get memory held outside the heap
+     *
+     * @return Bytes, 0 for heap-only engines
+     */
+    default long offHeapBytes() {
+        return 0;
+    }
+
+    /**
+     * Get memory outside the heap freed by replaced or deleted records and not reused yet
+     *
+     * @return Bytes, 0 for heap-only engines
+     */
+    default long offHeapGarbageBytes() {
+        return 0;
+    }
+
+    /**
+     * Detach whole partitions holding only records with an ID below a bound, in constant time per partition
+     * Records below the bound in other partitions are kept, the caller deletes them one by one
+     * Later writes of a detached record are discarded, so the caller must keep writers out until it returns
+     *
+     * @param id Exclusive upper bound of the record IDs
+     * @return Number of records detached, 0 for stores without partitions
+     */
+    default long dropPartitionsBelow(long id) {
+        return 0;
+    }
+
+    /**
+     * Remove all records at once, releasing the store's memory in bulk instead of deleting record by record
+     * The caller must keep writers out until it returns; concurrent readers see each record either present or gone
+     *
+     * @return Number of records removed
+     */
+    long clear();
+
+    /**
+     * Run the periodic maintenance of the store, such as migrating cold records to disk
+     * Stores wrapping other stores run the maintenance of those as well
+     */
+    default void maintain() {
+    }
+}
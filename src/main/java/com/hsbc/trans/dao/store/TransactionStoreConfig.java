@@ -0,0 +1,105 @@
+package com.hsbc.trans.dao.store;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transaction Store Configuration
+ * Creates the storage engine selected by {@code trans.store.engine}, sharded by {@code trans.store.shards}, tiered
+ * to disk segments with {@code trans.store.tiering.enabled} and partitioned by period with
+ * {@code trans.store.partitioning.enabled}, with snapshots when {@code trans.store.snapshot.enabled}, and enables the
+ * scheduled store maintenance
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(TransactionStoreProperties.class)
+public class TransactionStoreConfig {
+
+    /**
+     * Transaction codec, shared by the store engines
+     *
+     * @param properties Store properties
+     * @return Codec
+     */
+    @Bean
+    public TransactionCodec transactionCodec(TransactionStoreProperties properties) {
+        return new TransactionCodec(properties.getAmountScale(), properties.getDescriptionInternLimit());
+    }
+
+    /**
+     * Transaction store
+     *
+     * @param properties Store properties
+     * @param codec Transaction codec
+     * @return Store of the configured engine, its segments are deleted on shutdown when tiered or partitioned
+     */
+    @Bean
+    public TransactionStore transactionStore(TransactionStoreProperties properties, TransactionCodec codec) {
+        return create(properties, codec);
+    }
+
+    /**
+     * Create a store of the configured engine with its own codec
+     *
+     * @param properties Store properties
+     * @return New store
+     */
+    public static TransactionStore create(TransactionStoreProperties properties) {
+        return create(properties, new TransactionCodec(properties.getAmountScale(), properties.getDescriptionInternLimit()));
+    }
+
+    /**
+     * Create a store of the configured engine
+     *
+     * @param properties Store properties
+     * @param codec Transaction codec
+     * @return New store
+     */
+    public static TransactionStore create(TransactionStoreProperties properties, TransactionCodec codec) {
+        LongAdder migratedRecords = new LongAdder();
+        TransactionStore store = properties.getPartitioning().isEnabled()
+            ? new PartitionedTransactionStore(properties.getPartitioning().getPeriod().toMillis(),
+                () -> createPartition(properties, codec, migratedRecords))
+            : createPartition(properties, codec, migratedRecords);
+        if (properties.getSnapshot().isEnabled()) {
+            return new SnapshotTransactionStore(store, properties.getSnapshot(), codec);
+        }
+        return store;
+    }
+
+    private static TransactionStore createPartition(TransactionStoreProperties properties, TransactionCodec codec,
+                                                    LongAdder migratedRecords) {
+        TransactionStore store = createSharded(properties, codec);
+        if (properties.getTiering().isEnabled()) {
+            return new TieredTransactionStore(store, properties.getTiering(), properties.getLockStripes(), codec, migratedRecords);
+        }
+        return store;
+    }
+
+    private static TransactionStore createSharded(TransactionStoreProperties properties, TransactionCodec codec) {
+        int shards = properties.getShards();
+        if (shards <= 1) {
+            return createEngine(properties.getEngine(), properties.getInitialCapacity(), properties.getConcurrencyLevel(), codec);
+        }
+        int shardCapacity = Math.max(1, properties.getInitialCapacity() / shards);
+        int shardConcurrency = Math.max(1, properties.getConcurrencyLevel() / shards);
+        return new ShardedTransactionStore(shards, properties.getEngine() != StoreEngine.SKIPLIST,
+            shard -> createEngine(properties.getEngine(), shardCapacity, shardConcurrency, codec));
+    }
+
+    private static TransactionStore createEngine(StoreEngine engine, int initialCapacity, int concurrencyLevel, TransactionCodec codec) {
+        return switch (engine) {
+            case SKIPLIST -> new SkipListTransactionStore(codec);
+            case HASH -> new HashTransactionStore(initialCapacity, concurrencyLevel, codec);
+            case OFFHEAP -> new OffHeapTransactionStore(initialCapacity, concurrencyLevel, codec);
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.hsbc.trans.dao.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transaction Store Maintenance
+ * Periodically runs the maintenance of the transaction store every {@code trans.store.maintenance-interval}: migration
+ * of cold records to disk segments and merge of the segments when tiered, in every partition when partitioned
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Slf4j
+@Component
+public class TransactionStoreMaintenance {
+
+    private final ObjectProvider<TransactionStore> store;
+
+    /**
+     * Constructor
+     *
+     * @param store Transaction store, absent when the memory DAO is not used
+     */
+    @Autowired
+    public TransactionStoreMaintenance(ObjectProvider<TransactionStore> store) {
+        this.store = store;
+    }
+
+    /**
+     * Run the store maintenance
+     */
+    @Scheduled(fixedDelayString = "${trans.store.maintenance-interval:PT1M}")
+    public void maintain() {
+        store.ifAvailable(transactionStore -> {
+            try {
+                transactionStore.maintain();
+            } catch (RuntimeException e) {
+                log.error("Transaction store maintenance failed", e);
+            }
+        });
+    }
+}
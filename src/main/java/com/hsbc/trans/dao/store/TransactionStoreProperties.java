@@ -0,0 +1,249 @@
+package com.hsbc.trans.dao.store;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Transaction Store Properties
+ * Configures the memory DAO storage engine under {@code trans.store}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Data
+@ConfigurationProperties(prefix = "trans.store")
+public class TransactionStoreProperties {
+
+    /**
+     * Storage engine
+     */
+    private StoreEngine engine = StoreEngine.SKIPLIST;
+
+    /**
+     * Number of shards the records are partitioned into by ID hash, each an independent store of the engine,
+     * rounded up to a power of two; 1 for a single store
+     */
+    private int shards = 1;
+
+    /**
+     * Expected number of records, used to pre-size hash tables and indexes, divided between the shards
+     */
+    private int initialCapacity = 1024;
+
+    /**
+     * Number of independently locked hash map segments, divided between the shards; also the number of status
+     * history segments
+     */
+    private int concurrencyLevel = 64;
+
+    /**
+     * Number of record lock stripes serializing writes of the same record, rounded up to a power of two
+     */
+    private int lockStripes = 1024;
+
+    /**
+     * Threads applying mutations: the request threads or the writer threads of the mutation pipeline
+     */
+    private WriteMode writeMode = WriteMode.DIRECT;
+
+    /**
+     * Mutation pipeline, used in {@link WriteMode#PIPELINE} mode
+     */
+    private Pipeline pipeline = new Pipeline();
+
+    /**
+     * Decimal places of amounts stored as fixed-point minor units
+     */
+    private int amountScale = 2;
+
+    /**
+     * Maximum number of distinct descriptions interned so records with a common description share one String, 0 to disable
+     */
+    private int descriptionInternLimit = 0;
+
+    /**
+     * Bloom filter in front of the business transaction ID index
+     */
+    private TransIdFilter transIdFilter = new TransIdFilter();
+
+    /**
+     * Spilling of terminal-state records to disk segments
+     */
+    private Tiering tiering = new Tiering();
+
+    /**
+     * Partitioning of the records by the period their ID was generated in
+     */
+    private Partitioning partitioning = new Partitioning();
+
+    /**
+     * Point-in-time snapshots of the store for consistent paging and exports
+     */
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * Status changes of updated records, kept in a compact append-only log
+     */
+    private History history = new History();
+
+    /**
+     * Interval of the store maintenance: migration of cold records, merge of segments and retention of partitions
+     */
+    private Duration maintenanceInterval = Duration.ofMinutes(1);
+
+    /**
+     * Mutation Pipeline Properties
+     */
+    @Data
+    public static class Pipeline {
+
+        /**
+         * Ring buffer slots per writer, rounded up to a power of two; publishers wait while the ring is full
+         */
+        private int ringSize = 1024;
+
+        /**
+         * Maximum number of mutations a writer applies before completing their futures
+         */
+        private int batchSize = 64;
+    }
+
+    /**
+     * Business Transaction ID Filter Properties
+     */
+    @Data
+    public static class TransIdFilter {
+
+        /**
+         * Whether duplicate checks consult the filter before the index
+         */
+        private boolean enabled = true;
+
+        /**
+         * Capacity of the first filter stage, the filter grows beyond it
+         */
+        private long expectedInsertions = 1024;
+
+        /**
+         * Overall false-positive rate
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * Interval of the check whether the filter is rebuilt
+         */
+        private Duration rebuildCheckInterval = Duration.ofSeconds(30);
+
+        /**
+         * Deletes since the last rebuild, as a fraction of the stored records, that trigger a rebuild
+         */
+        private double rebuildDeleteRatio = 0.1;
+    }
+
+    /**
+     * Tiering Properties
+     */
+    @Data
+    public static class Tiering {
+
+        /**
+         * Whether records are spilled to disk segments, see {@link TieredTransactionStore}
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory of the segment files, blank for the system temporary directory; each store creates its own
+         * subdirectory and deletes it on shutdown
+         */
+        private String directory = "";
+
+        /**
+         * Time since the last update after which a record in a terminal status is spilled
+         */
+        private Duration coldAfter = Duration.ofHours(1);
+
+        /**
+         * Records per compressed block, the unit read from disk
+         */
+        private int blockRecords = 32;
+
+        /**
+         * False-positive rate of the Bloom filter of each segment
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * Maximum number of records written into one segment by a migration
+         */
+        private int maxSegmentRecords = 1_000_000;
+
+        /**
+         * Number of segments above which all segments are merged into one
+         */
+        private int maxSegments = 8;
+    }
+
+    /**
+     * Partitioning Properties
+     */
+    @Data
+    public static class Partitioning {
+
+        /**
+         * Whether records are partitioned by period, see {@link PartitionedTransactionStore}
+         */
+        private boolean enabled = false;
+
+        /**
+         * Length of a partition's period, periods are aligned to the UTC epoch
+         */
+        private Duration period = Duration.ofDays(1);
+
+        /**
+         * Age after which a period's partition is dropped, 0 to keep all partitions
+         */
+        private Duration retention = Duration.ZERO;
+    }
+
+    /**
+     * Snapshot Properties
+     */
+    @Data
+    public static class Snapshot {
+
+        /**
+         * Whether snapshots can be opened, see {@link SnapshotTransactionStore}
+         */
+        private boolean enabled = true;
+
+        /**
+         * Lifetime of a snapshot opened without one
+         */
+        private Duration defaultTtl = Duration.ofMinutes(5);
+
+        /**
+         * Longest lifetime of a snapshot, longer requested lifetimes are shortened
+         */
+        private Duration maxTtl = Duration.ofHours(1);
+
+        /**
+         * Maximum number of open snapshots
+         */
+        private int maxOpen = 16;
+    }
+
+    /**
+     * Status History Properties
+     */
+    @Data
+    public static class History {
+
+        /**
+         * Whether the status changes of updated records are kept, see {@link StatusHistoryLog}
+         */
+        private boolean enabled = true;
+    }
+}
@@ -0,0 +1,20 @@
+package com.hsbc.trans.dao.store;
+
+/**
+ * Write Mode Enumeration
+ * Selected with {@code trans.store.write-mode}, decides which threads apply the memory DAO's mutations
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public enum WriteMode {
+    /**
+     * Request threads apply their own mutations under the record lock stripes
+     */
+    DIRECT,
+    /**
+     * Request threads publish mutations to ring buffers, one writer thread per shard applies them in batches
+     */
+    PIPELINE
+}
@@ -0,0 +1,93 @@
+package com.hsbc.trans.dao.watch;
+
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.TransactionStatus;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transaction Watch
+ * Waits for a transaction record to leave a status: the result completes with the record once it is updated to another
+ * status, or exceptionally once it is deleted. Nothing blocks while waiting, the registry completes the result on the
+ * thread applying the change
+ * Closing the watch, e.g. on timeout, removes it from the registry
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public final class TransactionWatch implements AutoCloseable {
+
+    private final TransactionWatchRegistry registry;
+
+    private final long id;
+
+    /**
+     * Status to leave, null until known: any update completes the watch meanwhile
+     */
+    private volatile TransactionStatus fromStatus;
+
+    private final CompletableFuture<Transaction> result = new CompletableFuture<>();
+
+    TransactionWatch(TransactionWatchRegistry registry, long id, TransactionStatus fromStatus) {
+        this.registry = registry;
+        this.id = id;
+        this.fromStatus = fromStatus;
+    }
+
+    /**
+     * Check whether an update completes the watch
+     *
+     * @param transaction Record after the update
+     * @return Whether the record left the status
+     */
+    boolean isLeft(Transaction transaction) {
+        TransactionStatus status = fromStatus;
+        return status == null || transaction.getStatus() != status;
+    }
+
+    /**
+     * Set the status to leave once the record was read after registering; an update in between already completed the
+     * watch
+     *
+     * @param status Status read after registering
+     */
+    public void setFromStatus(TransactionStatus status) {
+        this.fromStatus = status;
+    }
+
+    /**
+     * Get the transaction record ID
+     *
+     * @return Transaction record ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Get the status the record is waited to leave
+     *
+     * @return Status, null before the record was read
+     */
+    public TransactionStatus getFromStatus() {
+        return fromStatus;
+    }
+
+    /**
+     * Get the result
+     *
+     * @return Record after the status change, completed exceptionally if the record is deleted
+     */
+    public CompletableFuture<Transaction> getResult() {
+        return result;
+    }
+
+    /**
+     * Stop waiting
+     */
+    @Override
+    public void close() {
+        registry.remove(this);
+    }
+}
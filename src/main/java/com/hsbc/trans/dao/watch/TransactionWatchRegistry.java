@@ -0,0 +1,176 @@
+package com.hsbc.trans.dao.watch;
+
+import com.hsbc.common.errorhandler.exception.BusinessException;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.ChangeType;
+import com.hsbc.trans.enums.ErrorCode;
+import com.hsbc.trans.enums.TransactionStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transaction Watch Registry
+ * Keeps the requests waiting for a status change by transaction record ID; the DAO signals each update and delete
+ * while it holds the record exclusively, completing the watches of the record without any thread waiting
+ * An ID has few watches, kept in a small array replaced on each change; IDs without watches take no memory
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class TransactionWatchRegistry implements MeterBinder {
+
+    private final int maxWatches;
+
+    private final Map<Long, TransactionWatch[]> watches = new ConcurrentHashMap<>();
+
+    private final AtomicInteger watchCount = new AtomicInteger();
+
+    private final LongAdder completed = new LongAdder();
+
+    /**
+     * Constructor
+     *
+     * @param properties Watch properties
+     */
+    public TransactionWatchRegistry(WatchProperties properties) {
+        this.maxWatches = properties.getMaxWatches();
+    }
+
+    /**
+     * Register a watch of a record, registered before reading the record so no change after the read is missed
+     *
+     * @param id Transaction record ID
+     * @param fromStatus Status to leave, null to complete on the next update until set
+     * @return Watch, to close when no longer waiting
+     * @throws BusinessException if too many requests are waiting
+     */
+    public TransactionWatch watch(long id, TransactionStatus fromStatus) {
+        if (watchCount.incrementAndGet() > maxWatches) {
+            watchCount.decrementAndGet();
+            throw BusinessException.stackless("Too many requests waiting for transaction changes, limit: " + maxWatches,
+                ErrorCode.WATCH_LIMIT_EXCEEDED.getCode());
+        }
+        TransactionWatch watch = new TransactionWatch(this, id, fromStatus);
+        watches.merge(id, new TransactionWatch[]{watch}, (current, added) -> {
+            TransactionWatch[] merged = Arrays.copyOf(current, current.length + 1);
+            merged[current.length] = watch;
+            return merged;
+        });
+        return watch;
+    }
+
+    /**
+     * Signal a change applied to the records, called by the DAO while it holds the record exclusively
+     *
+     * @param type Change type
+     * @param id Transaction record ID, or exclusive upper bound of the purged record IDs
+     * @param transaction Record after an update, before a delete
+     */
+    public void signal(ChangeType type, long id, Transaction transaction) {
+        if (watchCount.get() == 0) {
+            return;
+        }
+        switch (type) {
+            case UPDATE -> {
+                List<TransactionWatch> left = new ArrayList<>(1);
+                watches.computeIfPresent(id, (key, current) -> remaining(current, transaction, left));
+                // Completed outside the map so completion callbacks may close watches
+                for (TransactionWatch watch : left) {
+                    watch.getResult().complete(transaction);
+                }
+            }
+            case DELETE -> deleted(id);
+            case PURGE -> {
+                for (Long watchedId : watches.keySet()) {
+                    if (watchedId < id) {
+                        deleted(watchedId);
+                    }
+                }
+            }
+            default -> {
+                // A created record has no watches
+            }
+        }
+    }
+
+    private TransactionWatch[] remaining(TransactionWatch[] current, Transaction transaction, List<TransactionWatch> left) {
+        TransactionWatch[] kept = new TransactionWatch[current.length];
+        int keptCount = 0;
+        for (TransactionWatch watch : current) {
+            if (watch.isLeft(transaction)) {
+                left.add(watch);
+            } else {
+                kept[keptCount++] = watch;
+            }
+        }
+        watchCount.addAndGet(-left.size());
+        completed.add(left.size());
+        return keptCount == 0 ? null : keptCount == current.length ? current : Arrays.copyOf(kept, keptCount);
+    }
+
+    private void deleted(long id) {
+        TransactionWatch[] removed = watches.remove(id);
+        if (removed == null) {
+            return;
+        }
+        watchCount.addAndGet(-removed.length);
+        completed.add(removed.length);
+        BusinessException notFound = BusinessException.stackless("Transaction deleted while waiting, ID: " + id,
+            ErrorCode.TRANSACTION_NOT_FOUND.getCode());
+        for (TransactionWatch watch : removed) {
+            watch.getResult().completeExceptionally(notFound);
+        }
+    }
+
+    /**
+     * Remove a watch no longer waited for
+     *
+     * @param watch Watch
+     */
+    void remove(TransactionWatch watch) {
+        watches.computeIfPresent(watch.getId(), (key, current) -> {
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == watch) {
+                    watchCount.decrementAndGet();
+                    if (current.length == 1) {
+                        return null;
+                    }
+                    TransactionWatch[] kept = Arrays.copyOf(current, current.length - 1);
+                    System.arraycopy(current, i + 1, kept, i, current.length - i - 1);
+                    return kept;
+                }
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Get the number of registered watches
+     *
+     * @return Number of watches
+     */
+    public int getWatchCount() {
+        return watchCount.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("trans.watch.waiting", this, TransactionWatchRegistry::getWatchCount)
+            .description("Requests waiting for a transaction status change")
+            .register(registry);
+        FunctionCounter.builder("trans.watch.signalled", completed, LongAdder::sum)
+            .description("Waiting requests completed by a status change or delete")
+            .register(registry);
+    }
+}
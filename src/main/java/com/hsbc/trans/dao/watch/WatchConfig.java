@@ -0,0 +1,29 @@
+package com.hsbc.trans.dao.watch;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Watch Configuration
+ * Binds {@code trans.watch} and creates the {@link TransactionWatchRegistry} the DAO signals its updates and deletes to
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Configuration
+@EnableConfigurationProperties(WatchProperties.class)
+public class WatchConfig {
+
+    /**
+     * Transaction watch registry
+     *
+     * @param properties Watch properties
+     * @return Watch registry
+     */
+    @Bean
+    public TransactionWatchRegistry transactionWatchRegistry(WatchProperties properties) {
+        return new TransactionWatchRegistry(properties);
+    }
+}
@@ -0,0 +1,34 @@
+package com.hsbc.trans.dao.watch;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Watch Properties
+ * Configures waiting for the status change of a transaction record under {@code trans.watch}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Data
+@ConfigurationProperties(prefix = "trans.watch")
+public class WatchProperties {
+
+    /**
+     * Time a request waits for a status change when it does not specify one
+     */
+    private Duration defaultTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Longest time a request waits for a status change
+     */
+    private Duration maxTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Maximum number of requests waiting at a time, further requests are rejected
+     */
+    private int maxWatches = 10000;
+}
@@ -0,0 +1,28 @@
+package com.hsbc.trans.enums;
+
+import lombok.Getter;
+
+/**
+ * Change Type Enumeration
+ * Kinds of transaction record changes published on the change stream
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Getter
+public enum ChangeType {
+    CREATE("Created"),
+    UPDATE("Updated"),
+    DELETE("Deleted"),
+    /**
+     * Records below an ID deleted at once, by a delete of the records created before a time or a clear
+     */
+    PURGE("Purged");
+
+    private final String description;
+
+    ChangeType(String description) {
+        this.description = description;
+    }
+}
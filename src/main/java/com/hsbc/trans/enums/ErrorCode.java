@@ -6,6 +6,11 @@ import com.hsbc.common.util.JsonUtils;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * Error Code Enumeration
  * Defines all error codes in the system, including system errors and business errors
@@ -36,7 +41,7 @@ public enum ErrorCode {
     /**
      * Transaction order not found error
      */
-    TRANSACTION_NOT_FOUND("100001", "Transaction not found"),
+    TRANSACTION_NOT_FOUND("100001", "Transaction not found", ErrorType.BUSINESS_ERROR, ErrorLevel.WARN),
 
     /**
      * Duplicate transaction order error
@@ -51,7 +56,48 @@ public enum ErrorCode {
     /**
      * Invalid transaction status change error
      */
-    TRANSACTION_UPDATE_STATUS_INVALID("100004", "Invalid transaction status transition");
+    TRANSACTION_UPDATE_STATUS_INVALID("100004", "Invalid transaction status transition"),
+
+    /**
+     * Idempotency key reused for a different request error
+     */
+    IDEMPOTENCY_KEY_CONFLICT("100005", "Idempotency key already used for a different request", ErrorType.BUSINESS_ERROR, ErrorLevel.WARN),
+
+    /**
+     * Transaction status changed by a concurrent update error
+     */
+    TRANSACTION_STATUS_CONFLICT("100006", "Transaction status was changed by a concurrent update", ErrorType.BUSINESS_ERROR, ErrorLevel.WARN),
+
+    /**
+     * Snapshot not open, released or expired error
+     */
+    SNAPSHOT_NOT_FOUND("100007", "Snapshot not found or expired"),
+
+    /**
+     * Snapshot cannot be opened error
+     */
+    SNAPSHOT_UNAVAILABLE("100008", "Snapshots are not available", ErrorType.BUSINESS_ERROR, ErrorLevel.WARN),
+
+    /**
+     * Change stream disabled error
+     */
+    CHANGES_UNAVAILABLE("100009", "Change stream is not available", ErrorType.BUSINESS_ERROR, ErrorLevel.WARN),
+
+    /**
+     * Too many requests waiting for status changes error
+     */
+    WATCH_LIMIT_EXCEEDED("100010", "Too many requests are waiting for transaction changes", ErrorType.BUSINESS_ERROR, ErrorLevel.WARN),
+
+    /**
+     * Status history disabled error
+     */
+    HISTORY_UNAVAILABLE("100011", "Status history is not available", ErrorType.BUSINESS_ERROR, ErrorLevel.WARN);
+
+    /**
+     * Error code lookup table, keyed by error code
+     */
+    private static final Map<String, ErrorCode> CODE_MAP = Arrays.stream(values())
+        .collect(Collectors.toUnmodifiableMap(ErrorCode::getCode, Function.identity()));
 
     /**
      * Error code
@@ -108,14 +154,12 @@ public enum ErrorCode {
      * @return Error code enumeration instance, returns UNKNOWN_ERROR if not found
      */
     public static ErrorCode getByCode(String code) {
-        ErrorCode[] errors = ErrorCode.values();
-        for (ErrorCode ec : errors) {
-            if (ec.getCode().equals(code)) {
-                return ec;
-            }
+        ErrorCode ec = code == null ? null : CODE_MAP.get(code);
+        if (ec == null) {
+            log.warn("code not found while invoking getByCode: {}", code);
+            return UNKNOWN_ERROR;
         }
-        log.warn("code not found while invoking getByCode: {}", code);
-        return UNKNOWN_ERROR;
+        return ec;
     }
 
     /**
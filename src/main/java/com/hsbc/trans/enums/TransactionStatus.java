@@ -27,4 +27,13 @@ public enum TransactionStatus {
         return statusTransitionMap.get(from).contains(to);
     }
 
+    /**
+     * Check whether the status is final, i.e. the transaction is no longer processed
+     *
+     * @return Whether the status is COMPLETED, FAILED or CANCELLED
+     */
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+
 } 
\ No newline at end of file
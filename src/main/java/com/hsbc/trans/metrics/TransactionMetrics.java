@@ -0,0 +1,208 @@
+package com.hsbc.trans.metrics;
+
+import com.hsbc.trans.dao.DaoOperation;
+import com.hsbc.trans.enums.TransactionStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction Metrics
+ * Holds pre-registered meters of the DAO and service hot paths, so recording is a plain array or map lookup
+ * Meters are published through Spring Boot Actuator, e.g. /actuator/prometheus
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Component
+public class TransactionMetrics {
+
+    /**
+     * Successful DAO operation timers
+     */
+    private final Map<DaoOperation, Timer> successTimers = new EnumMap<>(DaoOperation.class);
+
+    /**
+     * Failed DAO operation timers
+     */
+    private final Map<DaoOperation, Timer> failureTimers = new EnumMap<>(DaoOperation.class);
+
+    /**
+     * Record lock wait timers
+     */
+    private final Map<DaoOperation, Timer> lockWaitTimers = new EnumMap<>(DaoOperation.class);
+
+    /**
+     * Status transition counters, indexed by [from][to][accepted ? 1 : 0]
+     */
+    private final Counter[][][] transitionCounters;
+
+    private final Counter duplicateRejections;
+
+    private final Counter transIdFilterNegatives;
+
+    private final Counter transIdFilterPositives;
+
+    private final Counter transIdFilterFalsePositives;
+
+    private final Counter transIdFilterRebuilds;
+
+    /**
+     * Idempotent request counters by result: miss, replay, conflict
+     */
+    private final Map<String, Counter> idempotencyCounters = new HashMap<>();
+
+    private final DistributionSummary pipelineBatchSizes;
+
+    /**
+     * Constructor, registers all meters
+     *
+     * @param registry Meter registry
+     */
+    @Autowired
+    public TransactionMetrics(MeterRegistry registry) {
+        for (DaoOperation operation : DaoOperation.values()) {
+            successTimers.put(operation, operationTimer(registry, operation, "success"));
+            failureTimers.put(operation, operationTimer(registry, operation, "failure"));
+        }
+        for (DaoOperation operation : new DaoOperation[]{DaoOperation.UPDATE_BY_ID, DaoOperation.DELETE_BY_ID}) {
+            lockWaitTimers.put(operation, Timer.builder("trans.dao.lock.wait")
+                .description("Time spent waiting for the record lock, or for the writer thread in pipeline write mode")
+                .tag("operation", operation.getTagValue())
+                .publishPercentileHistogram()
+                .register(registry));
+        }
+        TransactionStatus[] statuses = TransactionStatus.values();
+        transitionCounters = new Counter[statuses.length][statuses.length][2];
+        for (TransactionStatus from : statuses) {
+            for (TransactionStatus to : statuses) {
+                for (int accepted = 0; accepted < 2; accepted++) {
+                    transitionCounters[from.ordinal()][to.ordinal()][accepted] = Counter.builder("trans.status.transition")
+                        .description("Requested transaction status transitions")
+                        .tag("from", from.name())
+                        .tag("to", to.name())
+                        .tag("outcome", accepted == 1 ? "accepted" : "rejected")
+                        .register(registry);
+                }
+            }
+        }
+        duplicateRejections = Counter.builder("trans.dao.duplicate.rejected")
+            .description("Transactions rejected because the business transaction ID already exists")
+            .register(registry);
+        transIdFilterNegatives = transIdFilterCounter(registry, "negative");
+        transIdFilterPositives = transIdFilterCounter(registry, "positive");
+        transIdFilterFalsePositives = transIdFilterCounter(registry, "false_positive");
+        transIdFilterRebuilds = Counter.builder("trans.dao.transid.filter.rebuilds")
+            .description("Rebuilds of the business transaction ID Bloom filter")
+            .register(registry);
+        for (String result : new String[]{"miss", "replay", "conflict"}) {
+            idempotencyCounters.put(result, Counter.builder("trans.idempotency.requests")
+                .description("Requests with an idempotency key, by whether they were executed, replayed or rejected")
+                .tag("result", result)
+                .register(registry));
+        }
+        pipelineBatchSizes = DistributionSummary.builder("trans.dao.pipeline.batch.size")
+            .description("Mutations applied per batch by the mutation pipeline writers")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static Counter transIdFilterCounter(MeterRegistry registry, String result) {
+        return Counter.builder("trans.dao.transid.filter")
+            .description("Business transaction ID lookups checked against the Bloom filter; negatives skip the index")
+            .tag("result", result)
+            .register(registry);
+    }
+
+    private static Timer operationTimer(MeterRegistry registry, DaoOperation operation, String outcome) {
+        return Timer.builder("trans.dao.operation")
+            .description("Transaction DAO operation latency")
+            .tag("operation", operation.getTagValue())
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    /**
+     * Record a DAO operation
+     *
+     * @param operation DAO operation
+     * @param elapsedNanos Elapsed time in nanoseconds
+     * @param success Whether the operation succeeded
+     */
+    public void recordOperation(DaoOperation operation, long elapsedNanos, boolean success) {
+        (success ? successTimers : failureTimers).get(operation).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record time spent waiting for a record lock
+     *
+     * @param operation DAO operation holding the lock
+     * @param waitNanos Wait time in nanoseconds
+     */
+    public void recordLockWait(DaoOperation operation, long waitNanos) {
+        lockWaitTimers.get(operation).record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a transaction rejected as duplicate
+     */
+    public void recordDuplicateRejection() {
+        duplicateRejections.increment();
+    }
+
+    /**
+     * Record a business transaction ID lookup checked against the Bloom filter
+     *
+     * @param mightContain Whether the filter reported the ID as possibly present
+     * @param exists Whether the ID exists, only meaningful when the filter reported it as possibly present
+     */
+    public void recordTransIdFilter(boolean mightContain, boolean exists) {
+        (!mightContain ? transIdFilterNegatives : exists ? transIdFilterPositives : transIdFilterFalsePositives).increment();
+    }
+
+    /**
+     * Record a rebuild of the business transaction ID Bloom filter
+     */
+    public void recordTransIdFilterRebuild() {
+        transIdFilterRebuilds.increment();
+    }
+
+    /**
+     * Record a request with an idempotency key
+     *
+     * @param result miss (executed), replay (first result returned) or conflict (key reused for a different request)
+     */
+    public void recordIdempotency(String result) {
+        idempotencyCounters.get(result).increment();
+    }
+
+    /**
+     * Record a batch applied by a mutation pipeline writer
+     *
+     * @param size Number of mutations in the batch
+     */
+    public void recordPipelineBatch(int size) {
+        pipelineBatchSizes.record(size);
+    }
+
+    /**
+     * Record a requested status transition
+     *
+     * @param from Current status
+     * @param to Requested status
+     * @param accepted Whether the transition is allowed
+     */
+    public void recordStatusTransition(TransactionStatus from, TransactionStatus to, boolean accepted) {
+        transitionCounters[from.ordinal()][to.ordinal()][accepted ? 1 : 0].increment();
+    }
+}
@@ -0,0 +1,186 @@
+package com.hsbc.trans.metrics;
+
+import com.hsbc.common.util.SnowflakeIdGenerator;
+import com.hsbc.trans.dao.TransactionDao;
+import com.hsbc.trans.dao.store.PartitionedTransactionStore;
+import com.hsbc.trans.dao.store.SnapshotTransactionStore;
+import com.hsbc.trans.dao.store.TieredTransactionStore;
+import com.hsbc.trans.dao.store.TransactionCodec;
+import com.hsbc.trans.dao.store.TransactionStore;
+import com.hsbc.trans.dao.store.TransactionStoreProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Transaction Store Metrics
+ * Publishes store size, estimated heap footprint, off-heap memory, string dictionary sizes, disk segments of the
+ * tiered store, partitions, snapshots and ID generator statistics, all sampled when metrics are scraped
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Component
+public class TransactionStoreMetrics implements MeterBinder {
+
+    private final TransactionDao transactionDao;
+
+    private final SnowflakeIdGenerator idGenerator;
+
+    private final TransactionCodec codec;
+
+    /**
+     * Transaction store below the snapshots
+     */
+    private final TransactionStore store;
+
+    private final SnapshotTransactionStore snapshotStore;
+
+    private final TransactionStoreProperties properties;
+
+    private final AtomicLong lastMigratedCount = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param transactionDao Transaction data access object
+     * @param idGenerator ID generator
+     * @param codec Transaction codec of the store engines, absent when the DAO does not use them
+     * @param store Transaction store of the memory DAO, absent when the DAO does not use it
+     * @param properties Store properties
+     */
+    @Autowired
+    public TransactionStoreMetrics(TransactionDao transactionDao, SnowflakeIdGenerator idGenerator,
+                                   ObjectProvider<TransactionCodec> codec, ObjectProvider<TransactionStore> store,
+                                   TransactionStoreProperties properties) {
+        this.transactionDao = transactionDao;
+        this.idGenerator = idGenerator;
+        this.codec = codec.getIfAvailable();
+        TransactionStore transactionStore = store.getIfAvailable();
+        this.snapshotStore = transactionStore instanceof SnapshotTransactionStore snapshots ? snapshots : null;
+        this.store = snapshotStore != null ? snapshotStore.getDelegate() : transactionStore;
+        this.properties = properties;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("trans.store.size", transactionDao, TransactionDao::count)
+            .description("Number of stored transaction records")
+            .register(registry);
+        if (transactionDao.estimatedHeapBytes() >= 0) {
+            Gauge.builder("trans.store.heap.estimated", transactionDao, TransactionDao::estimatedHeapBytes)
+                .description("Estimated heap memory held by stored transaction records")
+                .baseUnit("bytes")
+                .register(registry);
+        }
+        if (transactionDao.offHeapBytes() >= 0) {
+            Gauge.builder("trans.store.offheap", transactionDao, TransactionDao::offHeapBytes)
+                .description("Memory held outside the heap by stored transaction records")
+                .baseUnit("bytes")
+                .register(registry);
+        }
+        if (transactionDao.offHeapGarbageBytes() >= 0) {
+            Gauge.builder("trans.store.offheap.garbage", transactionDao, TransactionDao::offHeapGarbageBytes)
+                .description("Memory outside the heap freed by replaced or deleted records and not reused yet")
+                .baseUnit("bytes")
+                .register(registry);
+        }
+        if (codec != null) {
+            Gauge.builder("trans.store.dictionary.size", codec, c -> c.getUserIds().size())
+                .description("Number of distinct strings in a store dictionary")
+                .tag("dictionary", "userId")
+                .register(registry);
+            Gauge.builder("trans.store.dictionary.size", codec, c -> c.getDescriptions().size())
+                .description("Number of distinct strings in a store dictionary")
+                .tag("dictionary", "description")
+                .register(registry);
+        }
+        if (store != null && properties.getTiering().isEnabled()) {
+            Gauge.builder("trans.store.tiered.segments", this, m -> m.sumTiered(TieredTransactionStore::getSegmentCount))
+                .description("Number of disk segments of the tiered store")
+                .register(registry);
+            Gauge.builder("trans.store.tiered.records", this, m -> m.sumTiered(TieredTransactionStore::coldSize))
+                .description("Number of transaction records kept in disk segments")
+                .register(registry);
+            Gauge.builder("trans.store.tiered.disk", this, m -> m.sumTiered(TieredTransactionStore::diskBytes))
+                .description("Size of the disk segment files")
+                .baseUnit("bytes")
+                .register(registry);
+            FunctionCounter.builder("trans.store.tiered.migrated", this, TransactionStoreMetrics::migratedCount)
+                .description("Transaction records migrated from the heap to disk segments")
+                .register(registry);
+        }
+        if (snapshotStore != null) {
+            Gauge.builder("trans.store.snapshots.open", snapshotStore, SnapshotTransactionStore::getOpenSnapshotCount)
+                .description("Number of open store snapshots")
+                .register(registry);
+            Gauge.builder("trans.store.snapshots.versions", snapshotStore, SnapshotTransactionStore::getVersionCount)
+                .description("Previous record versions kept for the open snapshots")
+                .register(registry);
+        }
+        if (store instanceof PartitionedTransactionStore partitioned) {
+            Gauge.builder("trans.store.partitions", partitioned, PartitionedTransactionStore::getPartitionCount)
+                .description("Number of period partitions of the store")
+                .register(registry);
+            FunctionCounter.builder("trans.store.partitions.dropped", partitioned, PartitionedTransactionStore::getDroppedPartitionCount)
+                .description("Period partitions dropped by retention or deletes of whole periods")
+                .register(registry);
+        }
+
+        FunctionCounter.builder("trans.id.sequence.exhausted", idGenerator, SnowflakeIdGenerator::getSequenceExhaustedCount)
+            .description("Times the ID sequence was exhausted within a millisecond")
+            .register(registry);
+        FunctionCounter.builder("trans.id.wait", idGenerator, g -> g.getWaitNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+            .description("Time spent waiting for the next millisecond after sequence exhaustion")
+            .baseUnit("seconds")
+            .register(registry);
+        FunctionCounter.builder("trans.id.clock.backwards", idGenerator, SnowflakeIdGenerator::getClockBackwardsCount)
+            .description("ID generation requests refused because the clock moved backwards")
+            .register(registry);
+    }
+
+    /**
+     * Get the tiered stores: the store itself or the tiered stores of its partitions
+     *
+     * @return Tiered stores
+     */
+    private List<TieredTransactionStore> tieredStores() {
+        List<TransactionStore> stores = store instanceof PartitionedTransactionStore partitioned
+            ? partitioned.getPartitions() : List.of(store);
+        List<TieredTransactionStore> tiered = new ArrayList<>(stores.size());
+        for (TransactionStore candidate : stores) {
+            if (candidate instanceof TieredTransactionStore tieredStore) {
+                tiered.add(tieredStore);
+            }
+        }
+        return tiered;
+    }
+
+    private double sumTiered(ToDoubleFunction<TieredTransactionStore> value) {
+        return tieredStores().stream().mapToDouble(value).sum();
+    }
+
+    /**
+     * Get the number of migrated records, from the counter the tiered stores share
+     * The counter is read through a live store, so the last value is kept while no partition exists
+     *
+     * @return Number of records
+     */
+    private double migratedCount() {
+        for (TieredTransactionStore tiered : tieredStores()) {
+            lastMigratedCount.accumulateAndGet(tiered.getMigratedCount(), Math::max);
+        }
+        return lastMigratedCount.get();
+    }
+}
@@ -0,0 +1,154 @@
+package com.hsbc.trans.service;
+
+import com.hsbc.common.errorhandler.exception.BusinessException;
+import com.hsbc.trans.metrics.TransactionMetrics;
+import com.hsbc.trans.enums.ErrorCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency Cache
+ * Bounded cache of the results of requests by client-supplied idempotency key, so a retried request replays the
+ * first result instead of being executed again
+ * A request arriving while the first request of its key is still running waits for that result. Failed requests are
+ * not cached, so they can be retried. Reusing a key for a different request is rejected
+ * All entries share one time-to-live, so insertion order is expiry order and the oldest entries are evicted first
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Component
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyCache {
+
+    private final long ttlNanos;
+
+    private final int maxEntries;
+
+    private final TransactionMetrics metrics;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Entries in insertion order, including entries already removed from {@link #entries}
+     */
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger orderSize = new AtomicInteger();
+
+    /**
+     * Constructor
+     *
+     * @param properties Idempotency properties
+     * @param metrics Transaction metrics
+     */
+    @Autowired
+    public IdempotencyCache(IdempotencyProperties properties, TransactionMetrics metrics) {
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.maxEntries = Math.max(1, properties.getMaxEntries());
+        this.metrics = metrics;
+    }
+
+    /**
+     * Execute a request once per idempotency key
+     *
+     * @param key Idempotency key
+     * @param request Request identity, equal for retries of the same request
+     * @param action Request execution
+     * @return Result of the first execution of the key
+     * @param <T> Result type
+     * @throws BusinessException When the key was used for a different request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object request, Supplier<T> action) {
+        long now = System.nanoTime();
+        evict(now);
+        Entry entry = new Entry(key, request, now + ttlNanos);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                break;
+            }
+            if (existing.expiresAt - now <= 0) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.request.equals(request)) {
+                metrics.recordIdempotency("conflict");
+                throw BusinessException.stackless("Idempotency key already used for a different request: " + key,
+                    ErrorCode.IDEMPOTENCY_KEY_CONFLICT.getCode());
+            }
+            metrics.recordIdempotency("replay");
+            try {
+                return (T) existing.result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        metrics.recordIdempotency("miss");
+        order.add(entry);
+        orderSize.incrementAndGet();
+        try {
+            T result = action.get();
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Remove expired entries, and the oldest entries beyond the maximum size
+     */
+    private void evict(long now) {
+        Entry head;
+        while ((head = order.peek()) != null && (head.expiresAt - now <= 0 || orderSize.get() > maxEntries)) {
+            if (order.remove(head)) {
+                orderSize.decrementAndGet();
+                entries.remove(head.key, head);
+            }
+        }
+    }
+
+    /**
+     * Get the number of cached keys
+     *
+     * @return Number of keys
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Cached request with its pending or completed result
+     */
+    private static final class Entry {
+
+        private final String key;
+
+        private final Object request;
+
+        private final long expiresAt;
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Entry(String key, Object request, long expiresAt) {
+            this.key = key;
+            this.request = request;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.hsbc.trans.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Idempotency Properties
+ * Configures the replay of idempotent create requests under {@code trans.idempotency}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Data
+@ConfigurationProperties(prefix = "trans.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Time a result is kept for replay, measured from the first request
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Maximum number of idempotency keys kept, the oldest keys are evicted first
+     */
+    private int maxEntries = 100_000;
+}
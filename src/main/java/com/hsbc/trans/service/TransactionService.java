@@ -2,13 +2,22 @@ package com.hsbc.trans.service;
 
 import com.hsbc.trans.vo.PageRequest;
 import com.hsbc.trans.vo.PageResult;
+import com.hsbc.trans.vo.SnapshotInfo;
+import com.hsbc.trans.vo.TransactionReq;
+import com.hsbc.trans.vo.TransactionStatusChange;
 import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.change.ChangeListener;
+import com.hsbc.trans.dao.change.ChangeSubscription;
+import com.hsbc.trans.dao.watch.TransactionWatch;
 import com.hsbc.trans.enums.TransactionStatus;
 import com.hsbc.trans.enums.TransactionType;
 import jakarta.validation.constraints.Positive;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Transaction Service Interface
@@ -33,6 +42,29 @@ public interface TransactionService {
      */
     Transaction createTransaction(String transId, String userId, BigDecimal amount, String description, TransactionType type);
 
+    /**
+     * Create a new transaction record idempotently
+     * A retry with the same idempotency key and the same request returns the result of the first request
+     * instead of creating the record again; the request is validated only when it is executed, so replays skip validation
+     *
+     * @param idempotencyKey Client-supplied idempotency key, null to create without replay
+     * @param req Transaction creation request
+     * @return Created transaction record, or the record created by the first request of the key
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException if transaction record already exists, or the
+     * idempotency key was used for a different request
+     * @throws com.hsbc.common.errorhandler.exception.ParamValidationException if the executed request is invalid
+     */
+    Transaction createTransaction(String idempotencyKey, TransactionReq req);
+
+    /**
+     * Create transaction records in bulk, written by the DAO as one batch
+     *
+     * @param requests Transaction creation requests
+     * @return Created transaction records, in request order
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException if a transaction record already exists
+     */
+    List<Transaction> createTransactions(List<TransactionReq> requests);
+
     /**
      * Query transaction record by ID
      *
@@ -77,6 +109,90 @@ public interface TransactionService {
      */
     Transaction deleteTransaction(Long id);
 
+    /**
+     * Delete the transaction records created before a time
+     *
+     * @param before Exclusive upper bound of the creation time
+     * @return Number of deleted transaction records
+     */
+    long deleteTransactionsCreatedBefore(Instant before);
+
+    /**
+     * Delete all transaction records
+     *
+     * @return Number of deleted transaction records
+     */
+    long deleteAllTransactions();
+
+    /**
+     * Open a point-in-time snapshot of the transaction records
+     *
+     * @param ttl Lifetime of the snapshot, null for the configured default
+     * @return Snapshot information
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException if snapshots are not available
+     */
+    SnapshotInfo openSnapshot(Duration ttl);
+
+    /**
+     * Query the transaction records of a snapshot with pagination
+     *
+     * @param snapshotId Snapshot ID
+     * @param pageRequest Pagination request parameters
+     * @return Paginated result
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException if the snapshot is not open
+     */
+    PageResult<Transaction> getSnapshotPage(long snapshotId, PageRequest pageRequest);
+
+    /**
+     * Export the transaction records of a snapshot in ascending ID order
+     * The snapshot is checked when called, the records are read in chunks while the stream is consumed
+     *
+     * @param snapshotId Snapshot ID
+     * @return Lazy stream of the transaction records
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException if the snapshot is not open, or expires while streaming
+     */
+    Stream<Transaction> exportSnapshot(long snapshotId);
+
+    /**
+     * Release a snapshot
+     *
+     * @param snapshotId Snapshot ID
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException if the snapshot is not open
+     */
+    void releaseSnapshot(long snapshotId);
+
+    /**
+     * Subscribe to the changes of the transaction records
+     *
+     * @param afterSequence Sequence of the last change already received, null to receive the changes from now
+     * @param listener Receives the changes
+     * @return Subscription
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException if the change stream is disabled
+     */
+    ChangeSubscription subscribeChanges(Long afterSequence, ChangeListener listener);
+
+    /**
+     * Wait for a transaction record to leave a status, without blocking
+     *
+     * @param id Transaction record ID
+     * @param fromStatus Status to leave, null for the current status
+     * @return Watch completed with the record once it leaves the status; already completed if it is not in the status
+     *     or the status is final. Closed by the caller when it stops waiting
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException if the record does not exist or too many
+     *     requests are waiting
+     */
+    TransactionWatch watchTransaction(Long id, TransactionStatus fromStatus);
+
+    /**
+     * Query the status history of a transaction record
+     *
+     * @param id Transaction record ID
+     * @return Status changes in the order they were made, starting with the state the record was created in
+     * @throws com.hsbc.common.errorhandler.exception.BusinessException if the record does not exist or the status
+     *     history is disabled
+     */
+    List<TransactionStatusChange> getTransactionHistory(Long id);
+
     /**
      * Query transaction record by business transaction ID
      *
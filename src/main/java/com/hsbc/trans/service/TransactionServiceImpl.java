@@ -1,20 +1,45 @@
 package com.hsbc.trans.service;
 
 import com.hsbc.common.errorhandler.exception.BusinessException;
+import com.hsbc.common.timing.Stage;
+import com.hsbc.common.timing.StageTimer;
 import com.hsbc.common.util.SnowflakeIdGenerator;
+import com.hsbc.common.validation.ValidationUtils;
 import com.hsbc.trans.bean.Transaction;
 import com.hsbc.trans.dao.TransactionDao;
+import com.hsbc.trans.dao.TransactionSnapshot;
+import com.hsbc.trans.dao.change.ChangeListener;
+import com.hsbc.trans.dao.change.ChangeSubscription;
+import com.hsbc.trans.dao.change.TransactionChangeBus;
+import com.hsbc.trans.dao.watch.TransactionWatch;
+import com.hsbc.trans.dao.watch.TransactionWatchRegistry;
 import com.hsbc.trans.enums.ErrorCode;
 import com.hsbc.trans.enums.TransactionStatus;
 import com.hsbc.trans.enums.TransactionType;
+import com.hsbc.trans.metrics.TransactionMetrics;
 import com.hsbc.trans.vo.PageRequest;
 import com.hsbc.trans.vo.PageResult;
+import com.hsbc.trans.vo.SnapshotInfo;
+import com.hsbc.trans.vo.TransactionReq;
+import com.hsbc.trans.vo.TransactionStatusChange;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Transaction Service Implementation
@@ -28,6 +53,11 @@ import java.util.List;
 @Service
 public class TransactionServiceImpl implements TransactionService {
 
+    /**
+     * Records read from a snapshot at a time while exporting it
+     */
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+
     /**
      * Transaction data access object
      */
@@ -38,16 +68,53 @@ public class TransactionServiceImpl implements TransactionService {
      */
     private final SnowflakeIdGenerator idGenerator;
 
+    /**
+     * Transaction metrics
+     */
+    private final TransactionMetrics metrics;
+
+    /**
+     * Results of idempotent create requests
+     */
+    private final IdempotencyCache idempotencyCache;
+
+    /**
+     * Change bus, absent when the change stream is disabled
+     */
+    private final ObjectProvider<TransactionChangeBus> changeBus;
+
+    /**
+     * Requests waiting for status changes
+     */
+    private final TransactionWatchRegistry watchRegistry;
+
+    /**
+     * Parameter validation utility
+     */
+    private final ValidationUtils validationUtils;
+
     /**
      * Constructor
      *
      * @param transactionDao Transaction data access object
      * @param idGenerator ID generator
+     * @param metrics Transaction metrics
+     * @param idempotencyCache Results of idempotent create requests
+     * @param changeBus Change bus, absent when the change stream is disabled
+     * @param watchRegistry Requests waiting for status changes
+     * @param validationUtils Parameter validation utility
      */
     @Autowired
-    public TransactionServiceImpl(TransactionDao transactionDao, SnowflakeIdGenerator idGenerator) {
+    public TransactionServiceImpl(TransactionDao transactionDao, SnowflakeIdGenerator idGenerator, TransactionMetrics metrics,
+                                  IdempotencyCache idempotencyCache, ObjectProvider<TransactionChangeBus> changeBus,
+                                  TransactionWatchRegistry watchRegistry, ValidationUtils validationUtils) {
         this.transactionDao = transactionDao;
         this.idGenerator = idGenerator;
+        this.metrics = metrics;
+        this.idempotencyCache = idempotencyCache;
+        this.changeBus = changeBus;
+        this.watchRegistry = watchRegistry;
+        this.validationUtils = validationUtils;
     }
 
     /**
@@ -55,8 +122,52 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Transaction createTransaction(String transId, String userId, BigDecimal amount, String description, TransactionType type) {
-        Transaction transaction = new Transaction(idGenerator.nextId(), transId, userId, amount, description, type);
-        return transactionDao.add(transaction);
+        return inServiceStage(() -> {
+            Transaction transaction = new Transaction(idGenerator.nextId(), transId, userId, amount, description, type);
+            return transactionDao.add(transaction);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Transaction createTransaction(String idempotencyKey, TransactionReq req) {
+        if (idempotencyKey == null) {
+            validationUtils.validateParams(req);
+            return createTransaction(req.getTransId(), req.getUserId(), req.getAmount(), req.getDescription(), req.getType());
+        }
+        BigDecimal amount = req.getAmount();
+        // Validated only on a miss: a replay returns the first result without validating again
+        return inServiceStage(() -> idempotencyCache.execute(idempotencyKey,
+            new CreateRequest(req.getTransId(), req.getUserId(), amount == null ? null : amount.stripTrailingZeros(),
+                req.getDescription(), req.getType()),
+            () -> {
+                validationUtils.validateParams(req);
+                return transactionDao.add(new Transaction(idGenerator.nextId(), req.getTransId(), req.getUserId(), amount,
+                    req.getDescription(), req.getType()));
+            }));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Transaction> createTransactions(List<TransactionReq> requests) {
+        return inServiceStage(() -> {
+            List<Transaction> transactions = new ArrayList<>(requests.size());
+            for (TransactionReq req : requests) {
+                transactions.add(new Transaction(idGenerator.nextId(), req.getTransId(), req.getUserId(), req.getAmount(),
+                    req.getDescription(), req.getType()));
+            }
+            return transactionDao.addAll(transactions);
+        });
+    }
+
+    /**
+     * Identity of a create request, retries of the same request are equal
+     */
+    private record CreateRequest(String transId, String userId, BigDecimal amount, String description, TransactionType type) {
     }
 
     /**
@@ -64,8 +175,17 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Transaction getTransaction(Long id) {
-        return transactionDao.queryById(id)
-            .orElseThrow(() -> new BusinessException("Transaction record not found, ID: " + id).code(ErrorCode.TRANSACTION_NOT_FOUND.getCode()));
+        return inServiceStage(() -> transactionDao.queryById(id)
+            .orElseThrow(() -> BusinessException.stackless("Transaction record not found, ID: " + id, ErrorCode.TRANSACTION_NOT_FOUND.getCode())));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<TransactionStatusChange> getTransactionHistory(Long id) {
+        return inServiceStage(() -> transactionDao.queryHistory(id)
+            .orElseThrow(() -> BusinessException.stackless("Transaction record not found, ID: " + id, ErrorCode.TRANSACTION_NOT_FOUND.getCode())));
     }
 
     /**
@@ -73,7 +193,7 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public List<Transaction> getAllTransactions() {
-        return transactionDao.queryList();
+        return inServiceStage(transactionDao::queryList);
     }
 
     /**
@@ -81,7 +201,7 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public PageResult<Transaction> getTransactionPage(PageRequest pageRequest) {
-        return transactionDao.queryPage(pageRequest);
+        return inServiceStage(() -> transactionDao.queryPage(pageRequest));
     }
 
     /**
@@ -89,14 +209,19 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Transaction updateTransactionStatus(Long id, TransactionStatus status, String description) {
-        Transaction transaction = this.getTransaction(id);
-        if (!TransactionStatus.canTransit(transaction.getStatus(), status)) {
-            throw new BusinessException("Invalid transaction status transition: " + transaction.getStatus() + " -> " + status)
-                .code(ErrorCode.TRANSACTION_UPDATE_STATUS_INVALID.getCode());
-        }
-        transaction.setStatus(status);
-        transaction.setDescription(description);
-        return transactionDao.updateById(transaction);
+        return inServiceStage(() -> {
+            Transaction transaction = this.getTransaction(id);
+            TransactionStatus currentStatus = transaction.getStatus();
+            boolean transitAllowed = TransactionStatus.canTransit(currentStatus, status);
+            metrics.recordStatusTransition(currentStatus, status, transitAllowed);
+            if (!transitAllowed) {
+                throw BusinessException.stackless("Invalid transaction status transition: " + currentStatus + " -> " + status, ErrorCode.TRANSACTION_UPDATE_STATUS_INVALID.getCode());
+            }
+            transaction.setStatus(status);
+            transaction.setDescription(description);
+            // The transition was checked against the status read above, so it applies only while that status is unchanged
+            return transactionDao.updateById(transaction, currentStatus);
+        });
     }
 
     /**
@@ -104,7 +229,23 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Transaction deleteTransaction(Long id) {
-        return transactionDao.deleteById(id);
+        return inServiceStage(() -> transactionDao.deleteById(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long deleteTransactionsCreatedBefore(Instant before) {
+        return inServiceStage(() -> transactionDao.deleteCreatedBefore(before.toEpochMilli()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long deleteAllTransactions() {
+        return inServiceStage(transactionDao::truncate);
     }
 
     /**
@@ -112,7 +253,148 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Transaction getTransactionByTransId(String transId) {
-        return transactionDao.queryByTransId(transId)
-            .orElseThrow(() -> new BusinessException("Transaction record not found, business ID: " + transId).code(ErrorCode.TRANSACTION_NOT_FOUND.getCode()));
+        return inServiceStage(() -> transactionDao.queryByTransId(transId)
+            .orElseThrow(() -> BusinessException.stackless("Transaction record not found, business ID: " + transId, ErrorCode.TRANSACTION_NOT_FOUND.getCode())));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SnapshotInfo openSnapshot(Duration ttl) {
+        return inServiceStage(() -> {
+            TransactionSnapshot snapshot = transactionDao.openSnapshot(ttl);
+            SnapshotInfo info = new SnapshotInfo();
+            info.setId(snapshot.getId());
+            info.setEpoch(snapshot.getEpoch());
+            info.setCreateTime(new Timestamp(snapshot.getCreateTime()));
+            info.setExpireTime(new Timestamp(snapshot.getExpireTime()));
+            info.setTotalElements(snapshot.count());
+            return info;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PageResult<Transaction> getSnapshotPage(long snapshotId, PageRequest pageRequest) {
+        return inServiceStage(() -> snapshot(snapshotId).queryPage(pageRequest));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Transaction> exportSnapshot(long snapshotId) {
+        TransactionSnapshot snapshot = inServiceStage(() -> snapshot(snapshotId));
+        Iterator<Transaction> records = new Iterator<>() {
+
+            private List<Transaction> chunk = List.of();
+
+            private int position;
+
+            private long nextId = 0;
+
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (position == chunk.size() && !exhausted) {
+                    chunk = snapshot.queryFrom(nextId, EXPORT_CHUNK_SIZE);
+                    position = 0;
+                    exhausted = chunk.size() < EXPORT_CHUNK_SIZE;
+                    if (!chunk.isEmpty()) {
+                        nextId = chunk.get(chunk.size() - 1).getId() + 1;
+                    }
+                }
+                return position < chunk.size();
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.get(position++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void releaseSnapshot(long snapshotId) {
+        inServiceStage(() -> {
+            if (!transactionDao.releaseSnapshot(snapshotId)) {
+                throw snapshotNotFound(snapshotId);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ChangeSubscription subscribeChanges(Long afterSequence, ChangeListener listener) {
+        TransactionChangeBus bus = changeBus.getIfAvailable();
+        if (bus == null) {
+            throw BusinessException.stackless("Change stream is disabled", ErrorCode.CHANGES_UNAVAILABLE.getCode());
+        }
+        return bus.subscribe(afterSequence, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TransactionWatch watchTransaction(Long id, TransactionStatus fromStatus) {
+        return inServiceStage(() -> {
+            // Registered before reading, so an update after the read completes the watch
+            TransactionWatch watch = watchRegistry.watch(id, fromStatus);
+            try {
+                Transaction current = getTransaction(id);
+                TransactionStatus status = current.getStatus();
+                if (status.isTerminal() || (fromStatus != null && status != fromStatus)) {
+                    watch.getResult().complete(current);
+                } else if (fromStatus == null) {
+                    watch.setFromStatus(status);
+                }
+            } catch (RuntimeException e) {
+                watch.close();
+                throw e;
+            }
+            if (watch.getResult().isDone()) {
+                watch.close();
+            }
+            return watch;
+        });
+    }
+
+    private TransactionSnapshot snapshot(long snapshotId) {
+        return transactionDao.querySnapshot(snapshotId).orElseThrow(() -> snapshotNotFound(snapshotId));
+    }
+
+    private static BusinessException snapshotNotFound(long snapshotId) {
+        return BusinessException.stackless("Snapshot not found or expired, ID: " + snapshotId, ErrorCode.SNAPSHOT_NOT_FOUND.getCode());
+    }
+
+    /**
+     * Run a service operation in the service request stage
+     *
+     * @param action Operation body
+     * @return Operation result
+     * @param <T> Result type
+     */
+    private <T> T inServiceStage(Supplier<T> action) {
+        Stage previousStage = StageTimer.enter(Stage.SERVICE);
+        try {
+            return action.get();
+        } finally {
+            StageTimer.exit(previousStage);
+        }
     }
 } 
\ No newline at end of file
@@ -20,6 +20,12 @@ public class PageRequest {
      */
     private int pageSize = 10;
 
+    /**
+     * ID of the last record of the previous page, to continue after it (keyset paging)
+     * Null to locate the page by its number
+     */
+    private Long afterId;
+
     /**
      * Constructs a page request with default values
      * (page number = 0, page size = 10)
@@ -38,6 +44,18 @@ public class PageRequest {
         this.pageSize = Math.max(1, Math.min(100, pageSize)); // Limit page size between 1-100
     }
 
+    /**
+     * Constructs a page request continuing after a record (keyset paging)
+     *
+     * @param afterId ID of the last record of the previous page
+     * @param pageSize The number of items per page (will be constrained between 1 and 100)
+     */
+    public static PageRequest after(long afterId, int pageSize) {
+        PageRequest pageRequest = new PageRequest(0, pageSize);
+        pageRequest.afterId = afterId;
+        return pageRequest;
+    }
+
     /**
      * Calculates the offset for database queries based on page number and size
      *
@@ -0,0 +1,42 @@
+package com.hsbc.trans.vo;
+
+import lombok.Data;
+
+import java.sql.Timestamp;
+
+/**
+ * Snapshot Information Object
+ * Describes an open point-in-time snapshot of the transaction records
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Data
+public class SnapshotInfo {
+
+    /**
+     * Snapshot ID, passed to the snapshot page, export and release endpoints
+     */
+    private long id;
+
+    /**
+     * Write epoch the snapshot sees the records at
+     */
+    private long epoch;
+
+    /**
+     * Time the snapshot was opened
+     */
+    private Timestamp createTime;
+
+    /**
+     * Time the snapshot expires and is released
+     */
+    private Timestamp expireTime;
+
+    /**
+     * Number of transaction records in the snapshot
+     */
+    private long totalElements;
+}
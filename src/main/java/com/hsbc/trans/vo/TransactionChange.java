@@ -0,0 +1,45 @@
+package com.hsbc.trans.vo;
+
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.ChangeType;
+import lombok.Data;
+
+import java.sql.Timestamp;
+
+/**
+ * Transaction Change Object
+ * One change of the transaction records on the change stream, in sequence order
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Data
+public class TransactionChange {
+
+    /**
+     * Sequence number of the change, increasing by one per change since the start; a subscriber resumes after the
+     * last sequence it received
+     */
+    private long sequence;
+
+    /**
+     * Change type
+     */
+    private ChangeType type;
+
+    /**
+     * Transaction record ID; for a purge the exclusive upper bound of the deleted record IDs
+     */
+    private long id;
+
+    /**
+     * Time the change was applied
+     */
+    private Timestamp time;
+
+    /**
+     * Record after a create or update, before a delete, null for a purge
+     */
+    private Transaction transaction;
+}
@@ -0,0 +1,37 @@
+package com.hsbc.trans.vo;
+
+import com.hsbc.trans.enums.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * Transaction Status Change Object
+ * One entry of the status history of a transaction record: the state it was created in, or a state it was updated to
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionStatusChange {
+
+    /**
+     * Transaction status
+     */
+    private TransactionStatus status;
+
+    /**
+     * Time the record was created or updated
+     */
+    private Timestamp time;
+
+    /**
+     * Description set with the status
+     */
+    private String description;
+}
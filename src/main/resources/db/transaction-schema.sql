@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS trans_transaction (
+    id          BIGINT         NOT NULL PRIMARY KEY,
+    trans_id    VARCHAR(128)   NOT NULL,
+    user_id     VARCHAR(128)   NOT NULL,
+    amount      DECIMAL(38, 18) NOT NULL,
+    type        VARCHAR(32)    NOT NULL,
+    status      VARCHAR(32)    NOT NULL,
+    create_time TIMESTAMP      NOT NULL,
+    update_time TIMESTAMP      NOT NULL,
+    description VARCHAR(1024),
+    CONSTRAINT uk_trans_transaction_trans_id UNIQUE (trans_id)
+);
+
+CREATE TABLE IF NOT EXISTS trans_transaction_history (
+    id          BIGINT         NOT NULL,
+    seq         INT            NOT NULL,
+    status      VARCHAR(32)    NOT NULL,
+    change_time TIMESTAMP      NOT NULL,
+    description VARCHAR(1024),
+    PRIMARY KEY (id, seq)
+);
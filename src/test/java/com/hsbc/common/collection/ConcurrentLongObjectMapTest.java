@@ -0,0 +1,97 @@
+package com.hsbc.common.collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test class for ConcurrentLongObjectMap
+ * Tests basic operations, tombstone reuse, resizing and concurrent writers
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class ConcurrentLongObjectMapTest {
+
+    /**
+     * Test put, get, putIfAbsent and remove
+     */
+    @Test
+    void testBasicOperations() {
+        ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>(16, 4);
+        assertNull(map.put(1L, "a"));
+        assertNull(map.put(0L, "zero"));
+        assertEquals("a", map.put(1L, "b"));
+        assertEquals("b", map.putIfAbsent(1L, "c"));
+        assertEquals("b", map.get(1L));
+        assertEquals("zero", map.get(0L));
+        assertEquals(2, map.size());
+
+        assertEquals("b", map.remove(1L));
+        assertNull(map.remove(1L));
+        assertFalse(map.containsKey(1L));
+        assertNull(map.putIfAbsent(1L, "d"));
+        assertEquals("d", map.get(1L));
+        assertEquals(2, map.size());
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(0L));
+    }
+
+    /**
+     * Test that entries survive resizes, including keys with identical low bits
+     */
+    @Test
+    void testResize() {
+        ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>(16, 2);
+        for (long i = 0; i < 100_000; i++) {
+            map.put(i << 22, i);
+        }
+        for (long i = 0; i < 100_000; i += 2) {
+            map.remove(i << 22);
+        }
+        assertEquals(50_000, map.size());
+        for (long i = 0; i < 100_000; i++) {
+            assertEquals(i % 2 == 0 ? null : i, map.get(i << 22));
+        }
+    }
+
+    /**
+     * Test concurrent writers on disjoint keys while readers are running
+     */
+    @Test
+    void testConcurrentWriters() throws Exception {
+        ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>(16, 8);
+        int threads = 4;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long base = (long) t * perThread;
+                futures.add(executor.submit(() -> {
+                    for (long key = base; key < base + perThread; key++) {
+                        map.put(key, key);
+                        assertEquals(key, map.get(key));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals((long) threads * perThread, map.size());
+        for (long key = 0; key < (long) threads * perThread; key++) {
+            assertEquals(key, map.get(key));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.hsbc.common.collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Test class for MpscRingBuffer
+ * Tests rejection when full, ordered draining and per-producer order under concurrent producers
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class MpscRingBufferTest {
+
+    /**
+     * Test that a full buffer rejects elements and accepts them again after draining
+     */
+    @Test
+    void testFullAndDrain() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(3);
+        assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, ring.drain(drained::add, 2));
+        assertTrue(ring.offer(4));
+        assertEquals(3, ring.drain(drained::add, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4), drained);
+        assertTrue(ring.isEmpty());
+        assertEquals(0, ring.drain(drained::add, 10));
+    }
+
+    /**
+     * Test that every element of concurrent producers is drained once, in each producer's order
+     */
+    @Test
+    void testConcurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        MpscRingBuffer<long[]> ring = new MpscRingBuffer<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!ring.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] next = new long[producers];
+        int received = 0;
+        start.countDown();
+        while (received < producers * perProducer) {
+            int drained = ring.drain(element -> {
+                assertEquals(next[(int) element[0]]++, element[1]);
+            }, 16);
+            if (drained == 0) {
+                Thread.yield();
+            }
+            received += drained;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (long count : next) {
+            assertEquals(perProducer, count);
+        }
+        assertTrue(ring.isEmpty());
+    }
+}
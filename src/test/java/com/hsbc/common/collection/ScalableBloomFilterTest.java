@@ -0,0 +1,51 @@
+package com.hsbc.common.collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for ScalableBloomFilter
+ * Tests the absence of false negatives, growth beyond the expected insertions and the false-positive rate
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class ScalableBloomFilterTest {
+
+    /**
+     * Test that every added key is reported, also after the filter grew
+     */
+    @Test
+    void testNoFalseNegatives() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(LongHashes.hash("T" + i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(LongHashes.hash("T" + i)));
+        }
+        assertTrue(filter.stageCount() > 1);
+    }
+
+    /**
+     * Test that the false-positive rate of absent keys stays near the configured rate after growth
+     */
+    @Test
+    void testFalsePositiveRate() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.add(LongHashes.hash("T" + i));
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(LongHashes.hash("X" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < probes * 0.02, "False positives: " + falsePositives);
+    }
+}
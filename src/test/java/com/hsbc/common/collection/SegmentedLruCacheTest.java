@@ -0,0 +1,127 @@
+package com.hsbc.common.collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for SegmentedLruCache
+ * Tests weight-bounded eviction, scan resistance of protected entries, single loads of concurrent misses and
+ * invalidation of loads in progress
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class SegmentedLruCacheTest {
+
+    /**
+     * Test that the cache stays within its weight and counts hits, misses and evictions
+     */
+    @Test
+    void testWeightBound() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>(100, 1, (key, value) -> value.length());
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, "0123456789");
+        }
+
+        assertEquals(10, cache.size());
+        assertEquals(100, cache.weight());
+        assertEquals(40, cache.evictionCount());
+        assertNotNull(cache.getIfPresent(49));
+        assertNull(cache.getIfPresent(0));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+
+        cache.put(100, "x".repeat(101));
+        assertNull(cache.peek(100));
+    }
+
+    /**
+     * Test that entries read again survive a scan of entries read once
+     */
+    @Test
+    void testScanResistance() {
+        SegmentedLruCache<Integer, Integer> cache = new SegmentedLruCache<>(10, 1, (key, value) -> 1);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, i);
+            cache.getIfPresent(i);
+        }
+        for (int i = 100; i < 200; i++) {
+            cache.put(i, i);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, cache.peek(i));
+        }
+        assertEquals(10, cache.size());
+    }
+
+    /**
+     * Test that concurrent misses of a key run the loader once
+     */
+    @Test
+    void testSingleLoad() throws InterruptedException {
+        SegmentedLruCache<String, String> cache = new SegmentedLruCache<>(10, 2, (key, value) -> 1);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<String> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                String value = cache.get("k", key -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "v";
+                });
+                synchronized (results) {
+                    results.add(value);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        loading.await();
+        Thread.sleep(50);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of("v", "v", "v", "v"), results);
+        assertEquals("v", cache.peek("k"));
+    }
+
+    /**
+     * Test that a value loaded while its key is invalidated is returned but not cached, and that misses are not cached
+     */
+    @Test
+    void testInvalidateDuringLoad() {
+        SegmentedLruCache<String, String> cache = new SegmentedLruCache<>(10, 1, (key, value) -> 1);
+
+        String loaded = cache.get("k", key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+        assertEquals("stale", loaded);
+        assertNull(cache.peek("k"));
+
+        assertNull(cache.get("absent", key -> null));
+        assertEquals(0, cache.size());
+        assertThrows(IllegalStateException.class, () -> cache.get("k", key -> {
+            throw new IllegalStateException("failed");
+        }));
+        assertEquals("fresh", cache.get("k", key -> "fresh"));
+    }
+}
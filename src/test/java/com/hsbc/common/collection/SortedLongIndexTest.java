@@ -0,0 +1,121 @@
+package com.hsbc.common.collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Test class for SortedLongIndex
+ * Tests ordering of out-of-order inserts, positional and keyset ranges, chunked iteration, and block splits and merges
+ * against a reference set
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class SortedLongIndexTest {
+
+    /**
+     * Test that values stay sorted and unique
+     */
+    @Test
+    void testAddAndRemove() {
+        SortedLongIndex index = new SortedLongIndex(4);
+        assertTrue(index.add(10));
+        assertTrue(index.add(30));
+        assertTrue(index.add(20));
+        assertTrue(index.add(5));
+        assertFalse(index.add(20));
+        assertArrayEquals(new long[]{5, 10, 20, 30}, index.range(0, 10));
+
+        assertTrue(index.remove(10));
+        assertFalse(index.remove(10));
+        assertArrayEquals(new long[]{5, 20, 30}, index.range(0, 10));
+        assertEquals(3, index.size());
+    }
+
+    /**
+     * Test positional and keyset ranges, and positions of values
+     */
+    @Test
+    void testRanges() {
+        SortedLongIndex index = new SortedLongIndex(16);
+        for (long value = 1; value <= 100; value++) {
+            index.add(value * 10);
+        }
+        assertArrayEquals(new long[]{210, 220, 230}, index.range(20, 3));
+        assertArrayEquals(new long[]{990, 1000}, index.range(98, 10));
+        assertEquals(0, index.range(100, 10).length);
+        assertArrayEquals(new long[]{220, 230}, index.rangeAfter(215, 2));
+        assertArrayEquals(new long[]{230, 240}, index.rangeAfter(220, 2));
+        assertEquals(0, index.rangeAfter(1000, 2).length);
+        assertEquals(21, index.countBelow(220));
+        assertEquals(22, index.countBelow(221));
+        assertEquals(0, index.countBelow(10));
+        assertEquals(100, index.countBelow(Long.MAX_VALUE));
+        assertTrue(index.contains(220));
+        assertFalse(index.contains(221));
+    }
+
+    /**
+     * Test iteration across several chunks
+     */
+    @Test
+    void testIterator() {
+        SortedLongIndex index = new SortedLongIndex(16);
+        for (long value = 1000; value > 0; value--) {
+            index.add(value);
+        }
+        PrimitiveIterator.OfLong iterator = index.iterator();
+        long expected = 1;
+        while (iterator.hasNext()) {
+            assertEquals(expected++, iterator.nextLong());
+        }
+        assertEquals(1001, expected);
+    }
+
+    /**
+     * Test random inserts and removals across many blocks against a sorted set
+     */
+    @Test
+    void testBlocks() {
+        SortedLongIndex index = new SortedLongIndex(16);
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(42);
+        int range = SortedLongIndex.BLOCK_VALUES * 8;
+        for (int i = 0; i < range * 4; i++) {
+            long value = random.nextInt(range);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), index.remove(value));
+            } else {
+                assertEquals(expected.add(value), index.add(value));
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), index.range(0, range));
+        for (long value = -1; value <= range; value += 97) {
+            assertEquals(expected.headSet(value).size(), index.countBelow(value));
+            assertEquals(expected.contains(value), index.contains(value));
+            assertArrayEquals(expected.tailSet(value, false).stream().limit(300).mapToLong(Long::longValue).toArray(),
+                index.rangeAfter(value, 300));
+        }
+        assertArrayEquals(expected.stream().skip(1500).limit(700).mapToLong(Long::longValue).toArray(), index.range(1500, 700));
+
+        // Removing all but a few values merges the blocks back
+        for (long value = 0; value < range; value++) {
+            if (value % 500 != 0) {
+                index.remove(value);
+                expected.remove(value);
+            }
+        }
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), index.range(0, range));
+        assertTrue(index.capacity() <= SortedLongIndex.BLOCK_VALUES * 4, "blocks merged: " + index.capacity());
+        index.clear();
+        assertEquals(0, index.size());
+        assertFalse(index.contains(500));
+        assertEquals(0, index.rangeAfter(-1, 10).length);
+    }
+}
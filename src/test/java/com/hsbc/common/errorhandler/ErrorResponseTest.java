@@ -0,0 +1,64 @@
+package com.hsbc.common.errorhandler;
+
+import com.hsbc.common.errorhandler.bean.ErrorResponse;
+import com.hsbc.common.errorhandler.enums.ErrorLevel;
+import com.hsbc.common.errorhandler.exception.BusinessException;
+import com.hsbc.common.errorhandler.exception.ParamValidationException;
+import com.hsbc.trans.enums.ErrorCode;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the error path
+ * Tests pre-built error responses, error code lookup and stackless business exceptions
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class ErrorResponseTest {
+
+    /**
+     * Test that known codes share one pre-built error response
+     */
+    @Test
+    void testPrebuiltErrorResponse() {
+        ErrorResponse error = ErrorResponse.of(ErrorCode.TRANSACTION_NOT_FOUND.getCode());
+        assertSame(error, ErrorResponse.of(ErrorCode.TRANSACTION_NOT_FOUND.getCode()));
+        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND.getMsg(), error.getMessage());
+        assertEquals(ErrorLevel.WARN.getCode(), error.getLevel());
+        assertEquals(new ErrorResponse(ErrorCode.TRANSACTION_NOT_FOUND.getCode()), error);
+
+        ErrorResponse detailed = error.withMessage("detail");
+        assertEquals("detail", detailed.getMessage());
+        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND.getMsg(), error.getMessage());
+    }
+
+    /**
+     * Test that unknown codes keep the code but use unknown error details
+     */
+    @Test
+    void testUnknownCode() {
+        assertSame(ErrorCode.UNKNOWN_ERROR, ErrorCode.getByCode("999999"));
+        assertSame(ErrorCode.UNKNOWN_ERROR, ErrorCode.getByCode(null));
+
+        ErrorResponse error = ErrorResponse.of("999999");
+        assertEquals("999999", error.getCode());
+        assertEquals(ErrorCode.UNKNOWN_ERROR.getMsg(), error.getMessage());
+        assertEquals(error, ErrorResponse.of("999999", ErrorCode.UNKNOWN_ERROR));
+        assertSame(ErrorResponse.of(ErrorCode.TRANSACTION_NOT_FOUND.getCode()),
+            ErrorResponse.of(ErrorCode.TRANSACTION_NOT_FOUND.getCode(), ErrorCode.TRANSACTION_NOT_FOUND));
+    }
+
+    /**
+     * Test that expected business exceptions carry no stack trace
+     */
+    @Test
+    void testStacklessException() {
+        BusinessException ex = BusinessException.stackless("not found", ErrorCode.TRANSACTION_NOT_FOUND.getCode());
+        assertEquals(0, ex.getStackTrace().length);
+        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND.getCode(), ex.getCode());
+        assertEquals(0, new ParamValidationException("invalid").getStackTrace().length);
+        assertTrue(new BusinessException("unexpected").getStackTrace().length > 0);
+    }
+}
@@ -0,0 +1,60 @@
+package com.hsbc.common.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+
+import java.util.Map;
+
+/**
+ * Test class for LogSampler
+ * Tests that rate 0 never samples, rate 1 always samples, and that endpoint rates override the default rate
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class LogSamplerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LogSamplerTest.class);
+
+    private static int sampled(LogSampler sampler, String endpoint, int requests) {
+        int sampled = 0;
+        for (int i = 0; i < requests; i++) {
+            if (sampler.sample(endpoint)) {
+                sampled++;
+            }
+        }
+        return sampled;
+    }
+
+    /**
+     * Test that rate 0 disables logging and rate 1 logs every request
+     */
+    @Test
+    void testRateZeroAndOne() {
+        LogSampler sampler = new LogSampler();
+        sampler.setDefaultRate(0);
+        assertEquals(0, sampled(sampler, "get", 1000));
+        assertSame(NOPLoggingEventBuilder.singleton(), sampler.atInfo(log, "get"));
+
+        sampler.setDefaultRate(1.0);
+        assertEquals(1000, sampled(sampler, "get", 1000));
+    }
+
+    /**
+     * Test that endpoint rates override the default rate
+     */
+    @Test
+    void testEndpointOverride() {
+        LogSampler sampler = new LogSampler();
+        sampler.setDefaultRate(0);
+        sampler.setEndpoints(Map.of("delete", 1.0, "get", 0.5));
+        assertEquals(1000, sampled(sampler, "delete", 1000));
+        assertEquals(0, sampled(sampler, "create", 1000));
+        int half = sampled(sampler, "get", 10000);
+        assertTrue(half > 4000 && half < 6000, "about half sampled: " + half);
+    }
+}
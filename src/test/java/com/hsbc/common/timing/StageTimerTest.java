@@ -0,0 +1,57 @@
+package com.hsbc.common.timing;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Test class for StageTimer
+ * Tests exclusive stage accounting and the unbound no-op behaviour
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class StageTimerTest {
+
+    @AfterEach
+    void tearDown() {
+        StageTimer.clear();
+    }
+
+    /**
+     * Test that nested stages pause the enclosing stage and all stages add up to the total
+     */
+    @Test
+    void testNestedStagesAreExclusive() {
+        StageTimer timer = StageTimer.start();
+        Stage outer = StageTimer.enter(Stage.SERVICE);
+        LockSupport.parkNanos(2_000_000);
+        Stage inner = StageTimer.enter(Stage.DAO);
+        LockSupport.parkNanos(5_000_000);
+        StageTimer.exit(inner);
+        StageTimer.exit(outer);
+        long total = timer.stop();
+
+        assertEquals(Stage.WEB, outer);
+        assertEquals(Stage.SERVICE, inner);
+        assertTrue(timer.nanos(Stage.DAO) >= 5_000_000);
+        assertTrue(timer.nanos(Stage.SERVICE) >= 2_000_000);
+        long sum = 0;
+        for (Stage stage : Stage.values()) {
+            sum += timer.nanos(stage);
+        }
+        assertEquals(total, sum);
+    }
+
+    /**
+     * Test that entering a stage without a bound timer is a no-op
+     */
+    @Test
+    void testUnboundTimer() {
+        assertNull(StageTimer.enter(Stage.DAO));
+        assertDoesNotThrow(() -> StageTimer.exit(null));
+    }
+}
@@ -0,0 +1,91 @@
+package com.hsbc.common.validation;
+
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+/**
+ * Test class for enum value validator
+ * Tests validation of enum names, enum instances and custom accessor methods against the precomputed lookup sets
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class EnumValueValidatorTest {
+
+    private static ValidatorFactory factory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        factory.close();
+    }
+
+    /**
+     * Test validating string values against enum names
+     */
+    @Test
+    void testStringValueByName() {
+        assertTrue(validator.validate(new StatusHolder("PENDING", "Deposit")).isEmpty());
+        assertTrue(validator.validate(new StatusHolder("CANCELLED", "Transfer")).isEmpty());
+
+        Set<ConstraintViolation<StatusHolder>> violations = validator.validate(new StatusHolder("UNKNOWN", "Deposit"));
+        assertEquals(1, violations.size());
+        assertEquals("status", violations.iterator().next().getPropertyPath().toString());
+    }
+
+    /**
+     * Test validating string values against a custom accessor method
+     */
+    @Test
+    void testStringValueByMethod() {
+        Set<ConstraintViolation<StatusHolder>> violations = validator.validate(new StatusHolder("PENDING", "DEPOSIT"));
+        assertEquals(1, violations.size());
+        assertEquals("typeDescription", violations.iterator().next().getPropertyPath().toString());
+    }
+
+    /**
+     * Test validating enum instances and null values
+     */
+    @Test
+    void testEnumAndNullValue() {
+        assertTrue(validator.validate(new TypeHolder(TransactionType.WITHDRAWAL)).isEmpty());
+        assertTrue(validator.validate(new TypeHolder(null)).isEmpty());
+        assertTrue(validator.validate(new StatusHolder(null, null)).isEmpty());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class StatusHolder {
+        @EnumValue(enumClass = TransactionStatus.class)
+        private String status;
+
+        @EnumValue(enumClass = TransactionType.class, method = "getDescription")
+        private String typeDescription;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class TypeHolder {
+        @EnumValue(enumClass = TransactionType.class)
+        private TransactionType type;
+    }
+}
@@ -0,0 +1,55 @@
+package com.hsbc.trans.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Benchmark Runner
+ * Runs the JMH benchmarks once per configured thread count and writes machine-readable JSON results,
+ * so that results of different versions can be compared
+ * System properties:
+ * - benchmark.include: regular expression of benchmarks to run
+ * - benchmark.threads: comma separated thread counts, e.g. 1,4,8
+ * - benchmark.output: directory of result files
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Slf4j
+public class BenchmarkRunner {
+
+    /**
+     * Main method
+     *
+     * @param args Command line arguments (unused)
+     * @throws RunnerException if a benchmark fails to run
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = System.getProperty("benchmark.include", BenchmarkRunner.class.getPackageName());
+        String threads = System.getProperty("benchmark.threads", "1");
+        File output = new File(System.getProperty("benchmark.output", "target/jmh"));
+        if (!output.isDirectory() && !output.mkdirs()) {
+            throw new IllegalStateException("Cannot create benchmark output directory: " + output);
+        }
+
+        for (String thread : threads.split(",")) {
+            int threadCount = Integer.parseInt(thread.trim());
+            File result = new File(output, "result-t" + threadCount + ".json");
+            Options options = new OptionsBuilder()
+                .include(include)
+                .threads(threadCount)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.getPath())
+                .build();
+            log.info("Running benchmarks {} with {} thread(s), results: {}", include, threadCount, result);
+            new Runner(options).run();
+        }
+    }
+}
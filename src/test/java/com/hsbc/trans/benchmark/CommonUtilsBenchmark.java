@@ -0,0 +1,78 @@
+package com.hsbc.trans.benchmark;
+
+import com.hsbc.common.util.CopyBeanUtils;
+import com.hsbc.common.util.JsonUtils;
+import com.hsbc.common.validation.ValidationUtils;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.TransactionType;
+import com.hsbc.trans.vo.TransactionReq;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Common Utilities Benchmark
+ * Measures bean copying, JSON serialization and deserialization, and parameter validation of a transaction
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommonUtilsBenchmark {
+
+    private final ValidationUtils validationUtils = new ValidationUtils();
+
+    private Transaction transaction;
+
+    private String transactionJson;
+
+    private TransactionReq req;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transaction = new Transaction(470353758145089536L, "BENCH001", "USER001", new BigDecimal("100.00"), "benchmark", TransactionType.DEPOSIT);
+        transactionJson = JsonUtils.toJson(transaction);
+        req = new TransactionReq();
+        req.setTransId("BENCH001");
+        req.setUserId("USER001");
+        req.setAmount(new BigDecimal("100.00"));
+        req.setDescription("benchmark");
+        req.setType(TransactionType.DEPOSIT);
+    }
+
+    @Benchmark
+    public Transaction copyProperties() {
+        Transaction to = new Transaction();
+        CopyBeanUtils.copyProperties(transaction, to);
+        return to;
+    }
+
+    @Benchmark
+    public String toJson() {
+        return JsonUtils.toJson(transaction);
+    }
+
+    @Benchmark
+    public Transaction fromJson() {
+        return JsonUtils.toBean(transactionJson, Transaction.class);
+    }
+
+    @Benchmark
+    public Transaction validateTransaction() {
+        validationUtils.validate(transaction);
+        return transaction;
+    }
+
+    @Benchmark
+    public TransactionReq validateParams() {
+        validationUtils.validateParams(req);
+        return req;
+    }
+}
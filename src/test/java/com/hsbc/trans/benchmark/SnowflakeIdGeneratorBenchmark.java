@@ -0,0 +1,30 @@
+package com.hsbc.trans.benchmark;
+
+import com.hsbc.common.util.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake ID Generator Benchmark
+ * Measures ID generation throughput, including waits for the next millisecond once the sequence is exhausted
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnowflakeIdGeneratorBenchmark {
+
+    private final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1, 1);
+
+    @Benchmark
+    public long nextId() {
+        return idGenerator.nextId();
+    }
+}
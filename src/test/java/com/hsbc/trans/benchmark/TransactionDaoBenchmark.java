@@ -0,0 +1,108 @@
+package com.hsbc.trans.benchmark;
+
+import com.hsbc.common.validation.ValidationUtils;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.TransactionDaoMemoryImpl;
+import com.hsbc.trans.dao.store.StoreEngine;
+import com.hsbc.trans.dao.store.TransactionStoreConfig;
+import com.hsbc.trans.dao.store.TransactionStoreProperties;
+import com.hsbc.trans.enums.TransactionType;
+import com.hsbc.trans.metrics.TransactionMetrics;
+import com.hsbc.trans.vo.PageRequest;
+import com.hsbc.trans.vo.PageResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transaction DAO Benchmark
+ * Measures add, query by ID, page query and update of the memory DAO on a preloaded store, per storage engine and shard count
+ * Thread count is given by the runner, see {@link BenchmarkRunner}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionDaoBenchmark {
+
+    /**
+     * Number of preloaded records
+     */
+    @Param({"10000", "100000"})
+    private int recordCount;
+
+    /**
+     * Storage engine
+     */
+    @Param({"SKIPLIST", "HASH", "OFFHEAP"})
+    private StoreEngine engine;
+
+    /**
+     * Number of store shards
+     */
+    @Param({"1", "4"})
+    private int shards;
+
+    private TransactionDaoMemoryImpl dao;
+
+    private final AtomicLong nextId = new AtomicLong();
+
+    private final AtomicLong updateCounter = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TransactionStoreProperties properties = new TransactionStoreProperties();
+        properties.setEngine(engine);
+        properties.setInitialCapacity(recordCount);
+        properties.setShards(shards);
+        dao = new TransactionDaoMemoryImpl(TransactionStoreConfig.create(properties), properties,
+            new ValidationUtils(), new TransactionMetrics(new SimpleMeterRegistry()));
+        for (long id = 1; id <= recordCount; id++) {
+            dao.add(newTransaction(id));
+        }
+        nextId.set(recordCount + 1L);
+    }
+
+    private static Transaction newTransaction(long id) {
+        return new Transaction(id, "BENCH" + id, "USER" + (id % 1000), new BigDecimal("100.00"), "benchmark", TransactionType.DEPOSIT);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, recordCount + 1L);
+    }
+
+    @Benchmark
+    public Transaction add() {
+        return dao.add(newTransaction(nextId.getAndIncrement()));
+    }
+
+    @Benchmark
+    public Optional<Transaction> queryById() {
+        return dao.queryById(randomId());
+    }
+
+    @Benchmark
+    public PageResult<Transaction> queryPage() {
+        int pageSize = 20;
+        int page = ThreadLocalRandom.current().nextInt(recordCount / pageSize);
+        return dao.queryPage(new PageRequest(page, pageSize));
+    }
+
+    @Benchmark
+    public Transaction updateById() {
+        Transaction transaction = newTransaction(randomId());
+        transaction.setDescription("update-" + updateCounter.getAndIncrement());
+        return dao.updateById(transaction);
+    }
+}
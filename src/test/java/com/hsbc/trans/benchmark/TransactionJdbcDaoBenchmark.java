@@ -0,0 +1,149 @@
+package com.hsbc.trans.benchmark;
+
+import com.hsbc.common.validation.ValidationUtils;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.CachingTransactionDao;
+import com.hsbc.trans.dao.TransactionDao;
+import com.hsbc.trans.dao.TransactionDaoJdbcImpl;
+import com.hsbc.trans.dao.TransactionDaoProperties;
+import com.hsbc.trans.dao.store.TransactionCodec;
+import com.hsbc.trans.enums.TransactionType;
+import com.hsbc.trans.metrics.TransactionMetrics;
+import com.hsbc.trans.vo.PageRequest;
+import com.hsbc.trans.vo.PageResult;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transaction JDBC DAO Benchmark
+ * Measures single and batched adds, query by ID, page queries by offset and by keyset, and update of the JDBC DAO on
+ * a preloaded in-process H2 database behind a HikariCP pool, with and without the DAO cache
+ * Thread count is given by the runner, see {@link BenchmarkRunner}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionJdbcDaoBenchmark {
+
+    /**
+     * Number of preloaded records
+     */
+    @Param({"100000"})
+    private int recordCount;
+
+    /**
+     * Whether the DAO is decorated with the cache, see {@link CachingTransactionDao}
+     */
+    @Param({"false", "true"})
+    private boolean cache;
+
+    /**
+     * Records per batched add
+     */
+    private static final int BATCH_SIZE = 100;
+
+    private HikariDataSource dataSource;
+
+    private TransactionDao dao;
+
+    private final AtomicLong nextId = new AtomicLong();
+
+    private final AtomicLong updateCounter = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(16);
+        TransactionDaoProperties properties = new TransactionDaoProperties();
+        TransactionCodec codec = new TransactionCodec(2, 0);
+        dao = new TransactionDaoJdbcImpl(dataSource, properties, codec,
+            new ValidationUtils(), new TransactionMetrics(new SimpleMeterRegistry()));
+        if (cache) {
+            dao = new CachingTransactionDao(dao, properties.getCache(), codec);
+        }
+        List<Transaction> batch = new ArrayList<>();
+        for (long id = 1; id <= recordCount; id++) {
+            batch.add(newTransaction(id));
+            if (batch.size() == 1000) {
+                dao.addAll(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            dao.addAll(batch);
+        }
+        nextId.set(recordCount + 1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    private static Transaction newTransaction(long id) {
+        return new Transaction(id, "BENCH" + id, "USER" + (id % 1000), new BigDecimal("100.00"), "benchmark", TransactionType.DEPOSIT);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, recordCount + 1L);
+    }
+
+    @Benchmark
+    public Transaction add() {
+        return dao.add(newTransaction(nextId.getAndIncrement()));
+    }
+
+    /**
+     * Adds {@value #BATCH_SIZE} records per invocation, divide by it for records per millisecond
+     */
+    @Benchmark
+    public List<Transaction> addAll() {
+        List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+        long first = nextId.getAndAdd(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(newTransaction(first + i));
+        }
+        return dao.addAll(batch);
+    }
+
+    @Benchmark
+    public Optional<Transaction> queryById() {
+        return dao.queryById(randomId());
+    }
+
+    @Benchmark
+    public PageResult<Transaction> queryPage() {
+        int pageSize = 20;
+        int page = ThreadLocalRandom.current().nextInt(recordCount / pageSize);
+        return dao.queryPage(new PageRequest(page, pageSize));
+    }
+
+    @Benchmark
+    public PageResult<Transaction> queryPageAfter() {
+        return dao.queryPage(PageRequest.after(randomId(), 20));
+    }
+
+    @Benchmark
+    public Transaction updateById() {
+        Transaction transaction = newTransaction(randomId());
+        transaction.setDescription("update-" + updateCounter.getAndIncrement());
+        return dao.updateById(transaction);
+    }
+}
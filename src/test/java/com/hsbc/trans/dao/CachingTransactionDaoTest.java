@@ -0,0 +1,90 @@
+package com.hsbc.trans.dao;
+
+import com.hsbc.common.errorhandler.exception.BusinessException;
+import com.hsbc.common.validation.ValidationUtils;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.store.TransactionCodec;
+import com.hsbc.trans.dao.store.TransactionStoreConfig;
+import com.hsbc.trans.dao.store.TransactionStoreProperties;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+import com.hsbc.trans.metrics.TransactionMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for CachingTransactionDao
+ * Tests that lookups are served from the cache, that updates and deletes invalidate both lookups, and that cached
+ * records cannot be modified through returned transactions
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class CachingTransactionDaoTest {
+
+    private final AtomicInteger delegateReads = new AtomicInteger();
+
+    private CachingTransactionDao newDao() {
+        TransactionStoreProperties storeProperties = new TransactionStoreProperties();
+        TransactionDao memory = new TransactionDaoMemoryImpl(TransactionStoreConfig.create(storeProperties), storeProperties,
+            new ValidationUtils(), new TransactionMetrics(new SimpleMeterRegistry())) {
+
+            @Override
+            public Optional<Transaction> queryById(Long id) {
+                delegateReads.incrementAndGet();
+                return super.queryById(id);
+            }
+
+            @Override
+            public Optional<Transaction> queryByTransId(String transId) {
+                delegateReads.incrementAndGet();
+                return super.queryByTransId(transId);
+            }
+        };
+        return new CachingTransactionDao(memory, new TransactionDaoProperties.Cache(), new TransactionCodec(2, 0));
+    }
+
+    /**
+     * Test that created records are served from the cache without reading the decorated DAO
+     */
+    @Test
+    void testWriteThroughAndHits() {
+        CachingTransactionDao dao = newDao();
+        dao.add(new Transaction(1L, "T1", "U1", new BigDecimal("5.00"), "desc", TransactionType.DEPOSIT));
+
+        assertEquals("T1", dao.queryById(1L).orElseThrow().getTransId());
+        assertEquals(1L, dao.queryByTransId("T1").orElseThrow().getId());
+        assertEquals(0, delegateReads.get());
+
+        assertTrue(dao.queryById(2L).isEmpty());
+        assertTrue(dao.queryById(2L).isEmpty());
+        assertEquals(2, delegateReads.get());
+    }
+
+    /**
+     * Test that updates and deletes invalidate the lookups by ID and by business transaction ID
+     */
+    @Test
+    void testInvalidation() {
+        CachingTransactionDao dao = newDao();
+        dao.add(new Transaction(1L, "T1", "U1", new BigDecimal("5.00"), "desc", TransactionType.DEPOSIT));
+
+        Transaction update = dao.queryById(1L).orElseThrow();
+        update.setStatus(TransactionStatus.PROCESSING);
+        assertEquals(TransactionStatus.PENDING, dao.queryById(1L).orElseThrow().getStatus());
+        dao.updateById(update, TransactionStatus.PENDING);
+        assertEquals(TransactionStatus.PROCESSING, dao.queryById(1L).orElseThrow().getStatus());
+        assertEquals(TransactionStatus.PROCESSING, dao.queryByTransId("T1").orElseThrow().getStatus());
+
+        assertThrows(BusinessException.class, () -> dao.updateById(update, TransactionStatus.PENDING));
+        dao.deleteById(1L);
+        assertTrue(dao.queryById(1L).isEmpty());
+        assertTrue(dao.queryByTransId("T1").isEmpty());
+    }
+}
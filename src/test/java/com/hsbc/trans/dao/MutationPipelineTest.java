@@ -0,0 +1,122 @@
+package com.hsbc.trans.dao;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Test class for MutationPipeline
+ * Tests results and failures of mutations, serialization of mutations of the same key, batching, exclusive mutations
+ * and rejection of mutations once stopped
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class MutationPipelineTest {
+
+    /**
+     * Test that callers receive the mutation result and the exception thrown by the mutation
+     */
+    @Test
+    void testResultAndFailure() {
+        MutationPipeline pipeline = new MutationPipeline(1, 8, 4, size -> { });
+        try {
+            assertEquals("done", pipeline.execute(1L, () -> "done"));
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> pipeline.execute(1L, () -> {
+                throw new IllegalStateException("failed");
+            }));
+            assertEquals("failed", e.getMessage());
+            assertEquals(2, pipeline.execute(2L, () -> 2));
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    /**
+     * Test that unsynchronized read-modify-write mutations of the same key from many threads lose no update,
+     * and that mutations are applied in batches within the configured size
+     */
+    @Test
+    void testSerializedPerKey() throws InterruptedException {
+        AtomicInteger maxBatch = new AtomicInteger();
+        MutationPipeline pipeline = new MutationPipeline(3, 16, 8, size -> maxBatch.accumulateAndGet(size, Math::max));
+        assertEquals(4, pipeline.getWriterCount());
+        int threads = 8;
+        int perThread = 2_000;
+        long[] counters = new long[4];
+        Map<Thread, Throwable> failures = new ConcurrentHashMap<>();
+        List<Thread> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                Thread worker = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        int key = i & 3;
+                        pipeline.execute(key, () -> counters[key]++);
+                    }
+                });
+                worker.setUncaughtExceptionHandler(failures::put);
+                worker.start();
+                workers.add(worker);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } finally {
+            pipeline.stop();
+        }
+
+        assertTrue(failures.isEmpty(), failures.toString());
+        for (long counter : counters) {
+            assertEquals(threads * perThread / 4, counter);
+        }
+        assertTrue(maxBatch.get() >= 1 && maxBatch.get() <= 8);
+        assertEquals(0, pipeline.queuedMutations());
+    }
+
+    /**
+     * Test that one writer is started for one shard and that mutations executed after stopping are rejected
+     */
+    @Test
+    void testStop() {
+        MutationPipeline pipeline = new MutationPipeline(1, 8, 4, size -> { });
+        assertEquals(1, pipeline.getWriterCount());
+        assertEquals(1, pipeline.execute(1L, () -> 1));
+        pipeline.stop();
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> pipeline.execute(1L, () -> 2));
+        assertEquals("Mutation pipeline is stopped", e.getMessage());
+    }
+
+    /**
+     * Test that no other mutation is applied while an exclusive mutation runs, and that the writers resume afterwards
+     */
+    @Test
+    void testExecuteExclusive() throws InterruptedException {
+        MutationPipeline pipeline = new MutationPipeline(4, 16, 4, size -> { });
+        AtomicInteger applied = new AtomicInteger();
+        Thread producer = new Thread(() -> {
+            for (long key = 0; key < 2000; key++) {
+                pipeline.execute(key, applied::incrementAndGet);
+            }
+        });
+        producer.start();
+        int appliedDuring = pipeline.executeExclusive(() -> {
+            int before = applied.get();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+            return applied.get() - before;
+        });
+        assertEquals(0, appliedDuring);
+        producer.join();
+        assertEquals(2000, applied.get());
+
+        pipeline.stop();
+        assertThrows(IllegalStateException.class, () -> pipeline.executeExclusive(() -> 1));
+    }
+}
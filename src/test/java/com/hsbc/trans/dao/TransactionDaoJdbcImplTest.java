@@ -0,0 +1,274 @@
+package com.hsbc.trans.dao;
+
+import com.hsbc.common.errorhandler.exception.BusinessException;
+import com.hsbc.common.util.SnowflakeIdGenerator;
+import com.hsbc.common.validation.ValidationUtils;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.change.ChangeBusProperties;
+import com.hsbc.trans.dao.change.TransactionChangeBus;
+import com.hsbc.trans.dao.store.TransactionCodec;
+import com.hsbc.trans.enums.ChangeType;
+import com.hsbc.trans.enums.ErrorCode;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+import com.hsbc.trans.metrics.TransactionMetrics;
+import com.hsbc.trans.vo.PageRequest;
+import com.hsbc.trans.vo.PageResult;
+import com.hsbc.trans.vo.TransactionChange;
+import com.hsbc.trans.vo.TransactionStatusChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class for TransactionDaoJdbcImpl
+ * Tests the JDBC DAO against an in-process H2 database: creates, batch creates, paging by offset and by keyset,
+ * conditional status updates, deletes and bulk deletes, the status history and the changes published on commit
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class TransactionDaoJdbcImplTest {
+
+    private EmbeddedDatabase database;
+
+    private TransactionDaoJdbcImpl dao;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        TransactionDaoProperties properties = new TransactionDaoProperties();
+        properties.getJdbc().setBatchSize(7);
+        dao = new TransactionDaoJdbcImpl(database, properties, new TransactionCodec(2, 0), new ValidationUtils(),
+            new TransactionMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private static Transaction newTransaction(long id) {
+        return new Transaction(id, "T" + id, "U1", new BigDecimal("12.5"), "desc", TransactionType.DEPOSIT);
+    }
+
+    private static List<Long> idsOf(PageResult<Transaction> page) {
+        return page.getContent().stream().map(Transaction::getId).toList();
+    }
+
+    /**
+     * Test create and queries by ID and business transaction ID, and rejection of duplicates
+     */
+    @Test
+    void testAddAndQuery() {
+        dao.add(newTransaction(1));
+
+        Transaction stored = dao.queryById(1L).orElseThrow();
+        assertEquals("T1", stored.getTransId());
+        assertEquals(new BigDecimal("12.50"), stored.getAmount());
+        assertEquals(TransactionStatus.PENDING, stored.getStatus());
+        assertEquals(1L, dao.queryByTransId("T1").orElseThrow().getId());
+        assertTrue(dao.queryById(2L).isEmpty());
+
+        Transaction duplicate = new Transaction(2L, "T1", "U2", BigDecimal.ONE, null, TransactionType.WITHDRAWAL);
+        BusinessException e = assertThrows(BusinessException.class, () -> dao.add(duplicate));
+        assertEquals(ErrorCode.TRANSACTION_DUPLICATE.getCode(), e.getCode());
+        assertEquals(1, dao.count());
+    }
+
+    /**
+     * Test that a batch spanning several JDBC batches is created, and that a batch with a duplicate creates nothing
+     */
+    @Test
+    void testAddAll() {
+        List<Transaction> batch = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            batch.add(newTransaction(id));
+        }
+        assertEquals(20, dao.addAll(batch).size());
+        assertEquals(20, dao.count());
+
+        List<Transaction> conflicting = List.of(newTransaction(21), newTransaction(22),
+            new Transaction(23L, "T5", "U1", BigDecimal.ONE, null, TransactionType.DEPOSIT));
+        BusinessException e = assertThrows(BusinessException.class, () -> dao.addAll(conflicting));
+        assertEquals(ErrorCode.TRANSACTION_DUPLICATE.getCode(), e.getCode());
+        assertEquals(20, dao.count());
+        assertTrue(dao.queryById(21L).isEmpty());
+    }
+
+    /**
+     * Test that paging by page number and continuing after the last ID return the same pages
+     */
+    @Test
+    void testPaging() {
+        List<Transaction> batch = new ArrayList<>();
+        for (long id = 25; id >= 1; id--) {
+            batch.add(newTransaction(id * 10));
+        }
+        dao.addAll(batch);
+
+        PageResult<Transaction> first = dao.queryPage(new PageRequest(0, 10));
+        assertEquals(List.of(10L, 20L, 30L, 40L, 50L, 60L, 70L, 80L, 90L, 100L), idsOf(first));
+        assertEquals(25, first.getTotalElements());
+        PageResult<Transaction> second = dao.queryPage(PageRequest.after(100L, 10));
+        assertEquals(idsOf(dao.queryPage(new PageRequest(1, 10))), idsOf(second));
+        assertEquals(List.of(210L, 220L, 230L, 240L, 250L), idsOf(dao.queryPage(PageRequest.after(205L, 10))));
+        assertTrue(dao.queryPage(PageRequest.after(250L, 10)).getContent().isEmpty());
+    }
+
+    /**
+     * Test unconditional and conditional updates: changes, unchanged records, stale expected status and missing records
+     */
+    @Test
+    void testUpdate() {
+        dao.add(newTransaction(1));
+        Transaction update = dao.queryById(1L).orElseThrow();
+        update.setStatus(TransactionStatus.PROCESSING);
+        update.setDescription("processing");
+        dao.updateById(update, TransactionStatus.PENDING);
+        assertEquals(TransactionStatus.PROCESSING, dao.queryById(1L).orElseThrow().getStatus());
+        assertEquals("processing", dao.queryById(1L).orElseThrow().getDescription());
+
+        update.setStatus(TransactionStatus.COMPLETED);
+        BusinessException stale = assertThrows(BusinessException.class, () -> dao.updateById(update, TransactionStatus.PENDING));
+        assertEquals(ErrorCode.TRANSACTION_STATUS_CONFLICT.getCode(), stale.getCode());
+        assertEquals(TransactionStatus.PROCESSING, dao.queryById(1L).orElseThrow().getStatus());
+
+        update.setStatus(TransactionStatus.PROCESSING);
+        BusinessException unchanged = assertThrows(BusinessException.class, () -> dao.updateById(update));
+        assertEquals(ErrorCode.TRANSACTION_NOT_CHANGED.getCode(), unchanged.getCode());
+
+        update.setId(2L);
+        BusinessException missing = assertThrows(BusinessException.class, () -> dao.updateById(update));
+        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND.getCode(), missing.getCode());
+    }
+
+    /**
+     * Test that delete returns the deleted record and fails for missing records
+     */
+    @Test
+    void testDelete() {
+        dao.add(newTransaction(1));
+
+        assertEquals("T1", dao.deleteById(1L).getTransId());
+        assertEquals(0, dao.count());
+        BusinessException e = assertThrows(BusinessException.class, () -> dao.deleteById(1L));
+        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND.getCode(), e.getCode());
+    }
+
+    /**
+     * Test deletes of the records created before a time and truncation
+     */
+    @Test
+    void testDeleteCreatedBeforeAndTruncate() {
+        long now = System.currentTimeMillis();
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(newTransaction(SnowflakeIdGenerator.minIdAt(now - 10 + i)));
+        }
+        batch.add(newTransaction(SnowflakeIdGenerator.minIdAt(now + 1000)));
+        dao.addAll(batch);
+
+        assertEquals(4, dao.deleteCreatedBefore(now - 6));
+        assertEquals(7, dao.count());
+        assertTrue(dao.queryById(batch.get(3).getId()).isEmpty());
+        assertTrue(dao.queryById(batch.get(4).getId()).isPresent());
+
+        assertEquals(0, dao.deleteCreatedBefore(0), "bound before the ID time range");
+        assertEquals(7, dao.deleteCreatedBefore(Long.MAX_VALUE), "bound past the ID time range");
+
+        dao.addAll(batch.subList(0, 3));
+        assertEquals(3, dao.truncate());
+        assertEquals(0, dao.count());
+    }
+
+    /**
+     * Test that changes are published once their database transaction committed, and never for a rolled back batch
+     */
+    @Test
+    void testChangesPublishedAfterCommit() throws InterruptedException {
+        try (TransactionChangeBus bus = new TransactionChangeBus(new ChangeBusProperties(), new TransactionCodec(2, 0))) {
+            dao.setChangeBus(bus);
+            BlockingQueue<TransactionChange> changes = new LinkedBlockingQueue<>();
+            bus.subscribe(null, changes::add);
+
+            dao.add(newTransaction(1));
+            assertThrows(BusinessException.class, () -> dao.addAll(List.of(newTransaction(2), newTransaction(1))));
+            assertEquals(1, bus.getLastSequence(), "rolled back batch not published");
+            Transaction update = dao.queryById(1L).orElseThrow();
+            update.setStatus(TransactionStatus.PROCESSING);
+            dao.updateById(update);
+            dao.deleteById(1L);
+
+            List<ChangeType> types = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                TransactionChange change = changes.poll(5, TimeUnit.SECONDS);
+                assertNotNull(change);
+                assertEquals(1, change.getId());
+                types.add(change.getType());
+            }
+            assertEquals(List.of(ChangeType.CREATE, ChangeType.UPDATE, ChangeType.DELETE), types);
+        }
+    }
+
+    /**
+     * Test that the history holds the creation state then every update, is deleted with the record, and that records
+     * are reset to their latest history row
+     */
+    @Test
+    void testHistory() {
+        dao.add(newTransaction(1));
+        dao.addAll(List.of(newTransaction(2)));
+        Transaction update = dao.queryById(1L).orElseThrow();
+        update.setStatus(TransactionStatus.PROCESSING);
+        update.setDescription("processing");
+        dao.updateById(update);
+        update.setStatus(TransactionStatus.FAILED);
+        update.setDescription(null);
+        dao.updateById(update, TransactionStatus.PROCESSING);
+
+        List<TransactionStatusChange> history = dao.queryHistory(1L).orElseThrow();
+        assertEquals(List.of(TransactionStatus.PENDING, TransactionStatus.PROCESSING, TransactionStatus.FAILED),
+            history.stream().map(TransactionStatusChange::getStatus).toList());
+        assertEquals("desc", history.get(0).getDescription());
+        assertEquals("processing", history.get(2).getDescription());
+        assertEquals(1, dao.queryHistory(2L).orElseThrow().size());
+        assertTrue(dao.queryHistory(3L).isEmpty());
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.update("UPDATE trans_transaction SET status = 'PENDING' WHERE id = 1");
+        assertEquals(1, dao.rebuildFromHistory());
+        assertEquals(TransactionStatus.FAILED, dao.queryById(1L).orElseThrow().getStatus());
+        assertEquals(0, dao.rebuildFromHistory());
+
+        // A row restored from an older backup is reset, a row updated after its history, e.g. with the history off, is kept
+        Timestamp changed = dao.queryById(1L).orElseThrow().getUpdateTime();
+        jdbcTemplate.update("UPDATE trans_transaction SET status = 'PROCESSING', update_time = ? WHERE id = 1",
+            new Timestamp(changed.getTime() - 1000));
+        jdbcTemplate.update("UPDATE trans_transaction SET status = 'COMPLETED', update_time = ? WHERE id = 2",
+            new Timestamp(System.currentTimeMillis() + 1000));
+        assertEquals(1, dao.rebuildFromHistory());
+        assertEquals(TransactionStatus.FAILED, dao.queryById(1L).orElseThrow().getStatus());
+        assertEquals(changed, dao.queryById(1L).orElseThrow().getUpdateTime());
+        assertEquals(TransactionStatus.COMPLETED, dao.queryById(2L).orElseThrow().getStatus());
+
+        dao.deleteById(1L);
+        assertTrue(dao.queryHistory(1L).isEmpty());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trans_transaction_history", Integer.class));
+    }
+}
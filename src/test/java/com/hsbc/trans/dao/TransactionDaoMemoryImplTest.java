@@ -0,0 +1,166 @@
+package com.hsbc.trans.dao;
+
+import com.hsbc.common.errorhandler.exception.BusinessException;
+import com.hsbc.common.util.SnowflakeIdGenerator;
+import com.hsbc.common.validation.ValidationUtils;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.store.TransactionStore;
+import com.hsbc.trans.dao.store.TransactionStoreConfig;
+import com.hsbc.trans.dao.store.TransactionStoreProperties;
+import com.hsbc.trans.dao.store.WriteMode;
+import com.hsbc.trans.enums.ErrorCode;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+import com.hsbc.trans.metrics.TransactionMetrics;
+import com.hsbc.trans.vo.TransactionStatusChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Test class for TransactionDaoMemoryImpl
+ * Tests bulk deletes by creation time and truncation, with and without partitioning or the mutation pipeline, and the
+ * status history
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class TransactionDaoMemoryImplTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    private static final long CURRENT = Math.floorDiv(System.currentTimeMillis(), HOUR) * HOUR;
+
+    private static TransactionDaoMemoryImpl newDao(boolean partitioned) {
+        return newDao(partitioned, WriteMode.DIRECT);
+    }
+
+    private static TransactionDaoMemoryImpl newDao(boolean partitioned, WriteMode writeMode) {
+        TransactionStoreProperties properties = new TransactionStoreProperties();
+        properties.setWriteMode(writeMode);
+        properties.getPartitioning().setEnabled(partitioned);
+        properties.getPartitioning().setPeriod(Duration.ofHours(1));
+        TransactionStore store = TransactionStoreConfig.create(properties);
+        return new TransactionDaoMemoryImpl(store, properties, new ValidationUtils(),
+            new TransactionMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static Transaction newTransaction(long hoursAgo, int sequence) {
+        long id = SnowflakeIdGenerator.minIdAt(CURRENT - hoursAgo * HOUR + sequence);
+        return new Transaction(id, "T" + hoursAgo + "-" + sequence, "U1", new BigDecimal("1.00"), null, TransactionType.DEPOSIT);
+    }
+
+    /**
+     * Test bulk deletes of a store without partitions, record by record, and truncation clearing it at once
+     */
+    @Test
+    void testDeleteCreatedBeforeAndTruncate() {
+        assertDeleteCreatedBeforeAndTruncate(false);
+    }
+
+    /**
+     * Test bulk deletes of a partitioned store, dropping whole periods
+     */
+    @Test
+    void testDeleteCreatedBeforeAndTruncatePartitioned() {
+        assertDeleteCreatedBeforeAndTruncate(true);
+    }
+
+    /**
+     * Test bulk deletes with mutations applied by the pipeline writers, truncation stalling them
+     */
+    @Test
+    void testDeleteCreatedBeforeAndTruncatePipeline() {
+        TransactionDaoMemoryImpl dao = newDao(false, WriteMode.PIPELINE);
+        try {
+            assertDeleteCreatedBeforeAndTruncate(dao);
+        } finally {
+            dao.stopPipeline();
+        }
+    }
+
+    /**
+     * Test bulk deletes of a partitioned store with mutations applied by the pipeline writers, the drop of whole
+     * periods stalling them
+     */
+    @Test
+    void testDeleteCreatedBeforeAndTruncatePartitionedPipeline() {
+        TransactionDaoMemoryImpl dao = newDao(true, WriteMode.PIPELINE);
+        try {
+            assertDeleteCreatedBeforeAndTruncate(dao);
+        } finally {
+            dao.stopPipeline();
+        }
+    }
+
+    private static void assertDeleteCreatedBeforeAndTruncate(boolean partitioned) {
+        assertDeleteCreatedBeforeAndTruncate(newDao(partitioned));
+    }
+
+    /**
+     * Assert that records created before a time are deleted with their business transaction IDs, and truncation
+     */
+    private static void assertDeleteCreatedBeforeAndTruncate(TransactionDaoMemoryImpl dao) {
+        for (int hoursAgo = 3; hoursAgo >= 0; hoursAgo--) {
+            for (int i = 0; i < 10; i++) {
+                dao.add(newTransaction(hoursAgo, i));
+            }
+        }
+
+        // Two whole periods and the first half of the third, the records being created a millisecond apart
+        assertEquals(25, dao.deleteCreatedBefore(SnowflakeIdGenerator.timestampOf(newTransaction(1, 5).getId())));
+        assertEquals(15, dao.count());
+        assertTrue(dao.queryByTransId("T3-0").isEmpty());
+        assertTrue(dao.queryByTransId("T1-4").isEmpty());
+        Transaction dropped = newTransaction(3, 0);
+        dropped.setStatus(TransactionStatus.PROCESSING);
+        BusinessException e = assertThrows(BusinessException.class, () -> dao.updateById(dropped));
+        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND.getCode(), e.getCode());
+        assertTrue(dao.queryByTransId("T1-5").isPresent());
+        dao.add(newTransaction(0, 10));
+        assertEquals(16, dao.count());
+
+        assertEquals(16, dao.truncate());
+        assertEquals(0, dao.count());
+        assertTrue(dao.queryByTransId("T0-0").isEmpty());
+        dao.add(newTransaction(0, 0));
+        assertEquals(1, dao.count());
+    }
+
+    /**
+     * Test that the history holds the creation state then every update, and is dropped with the record
+     */
+    @Test
+    void testHistory() {
+        TransactionDaoMemoryImpl dao = newDao(false);
+        Transaction created = dao.add(newTransaction(0, 0));
+        Long id = created.getId();
+        assertEquals(List.of(new TransactionStatusChange(TransactionStatus.PENDING, created.getUpdateTime(), null)),
+            dao.queryHistory(id).orElseThrow());
+
+        Transaction update = new Transaction(id, created.getTransId(), "U1", new BigDecimal("1.00"), "processing", TransactionType.DEPOSIT);
+        update.setStatus(TransactionStatus.PROCESSING);
+        dao.updateById(update);
+        update.setStatus(TransactionStatus.COMPLETED);
+        update.setDescription(null);
+        dao.updateById(update, TransactionStatus.PROCESSING);
+
+        List<TransactionStatusChange> history = dao.queryHistory(id).orElseThrow();
+        assertEquals(List.of(TransactionStatus.PENDING, TransactionStatus.PROCESSING, TransactionStatus.COMPLETED),
+            history.stream().map(TransactionStatusChange::getStatus).toList());
+        assertEquals(created.getCreateTime(), history.get(0).getTime());
+        assertEquals("processing", history.get(2).getDescription());
+        assertEquals(dao.queryById(id).orElseThrow().getUpdateTime(), history.get(2).getTime());
+
+        dao.deleteById(id);
+        assertTrue(dao.queryHistory(id).isEmpty());
+        dao.add(newTransaction(0, 1));
+        dao.truncate();
+        assertTrue(dao.queryHistory(newTransaction(0, 1).getId()).isEmpty());
+    }
+}
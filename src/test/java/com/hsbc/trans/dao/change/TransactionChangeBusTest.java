@@ -0,0 +1,222 @@
+package com.hsbc.trans.dao.change;
+
+import com.hsbc.common.validation.ValidationUtils;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.TransactionDaoMemoryImpl;
+import com.hsbc.trans.dao.store.TransactionCodec;
+import com.hsbc.trans.dao.store.TransactionStoreConfig;
+import com.hsbc.trans.dao.store.TransactionStoreProperties;
+import com.hsbc.trans.enums.ChangeType;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+import com.hsbc.trans.metrics.TransactionMetrics;
+import com.hsbc.trans.vo.TransactionChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class for TransactionChangeBus
+ * Tests delivery in sequence order, resuming from the journal, the gap once the journal moved on, disconnection of
+ * slow subscribers and the changes published by the memory DAO
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class TransactionChangeBusTest {
+
+    private static final TransactionCodec CODEC = new TransactionCodec(2, 0);
+
+    private static TransactionChangeBus newBus(int journalSize, int bufferSize) {
+        ChangeBusProperties properties = new ChangeBusProperties();
+        properties.setJournalSize(journalSize);
+        properties.setBufferSize(bufferSize);
+        return new TransactionChangeBus(properties, CODEC);
+    }
+
+    private static Transaction transaction(long id) {
+        return new Transaction(id, "T" + id, "U1", new BigDecimal("1.00"), "desc " + id, TransactionType.DEPOSIT);
+    }
+
+    /**
+     * Listener collecting the changes and the close
+     */
+    private static class Collector implements ChangeListener {
+
+        private final BlockingQueue<TransactionChange> changes = new LinkedBlockingQueue<>();
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void onChange(TransactionChange change) {
+            changes.add(change);
+        }
+
+        @Override
+        public void onClose(ChangeSubscription subscription) {
+            closed.countDown();
+        }
+
+        List<Long> take(int count) throws InterruptedException {
+            List<Long> sequences = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                TransactionChange change = changes.poll(5, TimeUnit.SECONDS);
+                assertNotNull(change, "change " + i + " of " + count);
+                sequences.add(change.getSequence());
+            }
+            return sequences;
+        }
+
+        TransactionChange takeChange() throws InterruptedException {
+            TransactionChange change = changes.poll(5, TimeUnit.SECONDS);
+            assertNotNull(change);
+            return change;
+        }
+
+        void awaitClosed() throws InterruptedException {
+            assertTrue(closed.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Test that a subscriber receives the published changes in order, and resumes after a sequence from the journal
+     */
+    @Test
+    void testDeliveryAndResume() throws InterruptedException {
+        try (TransactionChangeBus bus = newBus(16, 16)) {
+            Collector live = new Collector();
+            ChangeSubscription subscription = bus.subscribe(null, live);
+            for (long id = 1; id <= 5; id++) {
+                assertEquals(id, bus.publish(ChangeType.CREATE, id, transaction(id)));
+            }
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), live.take(5));
+
+            Collector resumed = new Collector();
+            bus.subscribe(2L, resumed);
+            bus.publish(ChangeType.DELETE, 1, transaction(1));
+            assertEquals(List.of(3L, 4L, 5L, 6L), resumed.take(4));
+            TransactionChange delete = live.takeChange();
+            assertEquals(ChangeType.DELETE, delete.getType());
+            assertEquals(transaction(1).getTransId(), delete.getTransaction().getTransId());
+
+            subscription.close();
+            live.awaitClosed();
+            assertEquals(ChangeSubscription.CloseReason.CLOSED, subscription.getCloseReason());
+            assertEquals(6, subscription.getLastSequence());
+        }
+    }
+
+    /**
+     * Test that resuming after a sequence no longer in the journal, or never published, closes with a gap
+     */
+    @Test
+    void testGap() throws InterruptedException {
+        try (TransactionChangeBus bus = newBus(4, 16)) {
+            for (long id = 1; id <= 10; id++) {
+                bus.publish(ChangeType.CREATE, id, transaction(id));
+            }
+            Collector lost = new Collector();
+            ChangeSubscription subscription = bus.subscribe(1L, lost);
+            lost.awaitClosed();
+            assertEquals(ChangeSubscription.CloseReason.GAP, subscription.getCloseReason());
+            assertEquals(10, subscription.getLatestSequence());
+
+            Collector future = new Collector();
+            ChangeSubscription ahead = bus.subscribe(11L, future);
+            future.awaitClosed();
+            assertEquals(ChangeSubscription.CloseReason.GAP, ahead.getCloseReason());
+
+            Collector kept = new Collector();
+            bus.subscribe(6L, kept);
+            assertEquals(List.of(7L, 8L, 9L, 10L), kept.take(4));
+        }
+    }
+
+    /**
+     * Test that a blocked subscriber does not block the publisher nor the other subscribers, is disconnected once it
+     * asks for its next change more than the buffer behind, and catches up from the journal
+     */
+    @Test
+    void testSlowSubscriberOverflow() throws InterruptedException {
+        try (TransactionChangeBus bus = newBus(64, 4)) {
+            CountDownLatch release = new CountDownLatch(1);
+            Collector slow = new Collector() {
+                @Override
+                public void onChange(TransactionChange change) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    super.onChange(change);
+                }
+            };
+            Collector fast = new Collector();
+            ChangeSubscription slowSubscription = bus.subscribe(null, slow);
+            bus.subscribe(null, fast);
+            for (long id = 1; id <= 20; id++) {
+                bus.publish(ChangeType.CREATE, id, transaction(id));
+                // The fast subscriber keeps up
+                assertEquals(List.of(id), fast.take(1));
+            }
+            release.countDown();
+            slow.awaitClosed();
+            assertEquals(ChangeSubscription.CloseReason.OVERFLOW, slowSubscription.getCloseReason());
+            assertEquals(1, slowSubscription.getLastSequence());
+            assertEquals(1, bus.getSubscriptionCount());
+
+            Collector caughtUp = new Collector();
+            bus.subscribe(slowSubscription.getLastSequence(), caughtUp);
+            List<Long> rest = caughtUp.take((int) (20 - slowSubscription.getLastSequence()));
+            assertEquals(20L, rest.get(rest.size() - 1));
+        }
+    }
+
+    /**
+     * Test the changes published by the memory DAO for creates, updates, deletes and bulk deletes
+     */
+    @Test
+    void testMemoryDaoChanges() throws InterruptedException {
+        TransactionStoreProperties properties = new TransactionStoreProperties();
+        TransactionDaoMemoryImpl dao = new TransactionDaoMemoryImpl(TransactionStoreConfig.create(properties), properties,
+            new ValidationUtils(), new TransactionMetrics(new SimpleMeterRegistry()));
+        try (TransactionChangeBus bus = newBus(16, 16)) {
+            dao.setChangeBus(bus);
+            Collector collector = new Collector();
+            bus.subscribe(null, collector);
+
+            Transaction created = dao.add(transaction(1));
+            Transaction update = transaction(1);
+            update.setStatus(TransactionStatus.PROCESSING);
+            dao.updateById(update, TransactionStatus.PENDING);
+            dao.add(transaction(2));
+            dao.deleteById(2L);
+            dao.truncate();
+
+            TransactionChange create = collector.takeChange();
+            assertEquals(ChangeType.CREATE, create.getType());
+            assertEquals(created, create.getTransaction());
+            TransactionChange updated = collector.takeChange();
+            assertEquals(ChangeType.UPDATE, updated.getType());
+            assertEquals(TransactionStatus.PROCESSING, updated.getTransaction().getStatus());
+            assertEquals(ChangeType.CREATE, collector.takeChange().getType());
+            TransactionChange deleted = collector.takeChange();
+            assertEquals(ChangeType.DELETE, deleted.getType());
+            assertEquals(2, deleted.getId());
+            TransactionChange purged = collector.takeChange();
+            assertEquals(ChangeType.PURGE, purged.getType());
+            assertEquals(Long.MAX_VALUE, purged.getId());
+            assertNull(purged.getTransaction());
+            assertEquals(5, purged.getSequence());
+        }
+    }
+}
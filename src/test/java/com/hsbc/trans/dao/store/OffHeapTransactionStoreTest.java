@@ -0,0 +1,186 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.common.errorhandler.exception.ParamValidationException;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Test class for OffHeapTransactionStore
+ * Tests the round trip of records through the off-heap columns, row and string slot reuse, clearing and amount
+ * encoding
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class OffHeapTransactionStoreTest {
+
+    private final OffHeapTransactionStore store = new OffHeapTransactionStore(16, 4, new TransactionCodec(2, 0));
+
+    private static Transaction newTransaction(long id) {
+        return new Transaction(id, "T" + id, "U" + id % 10, new BigDecimal("12.34"), "desc " + id, TransactionType.DEPOSIT);
+    }
+
+    /**
+     * Test that a stored record reads back equal to the original
+     */
+    @Test
+    void testRoundTrip() {
+        Transaction transaction = newTransaction(1);
+        store.put(transaction);
+
+        Transaction stored = store.get(1);
+        assertEquals(transaction, stored);
+        assertNotSame(transaction, stored);
+        assertNull(store.get(2));
+        assertTrue(store.offHeapBytes() > 0);
+    }
+
+    /**
+     * Test updates in place, unchanged strings keep their pool slots and the slots of replaced strings are reused
+     */
+    @Test
+    void testUpdate() {
+        store.put(newTransaction(1));
+        Transaction update = store.get(1);
+        update.setStatus(TransactionStatus.PROCESSING);
+        update.setDescription(null);
+        store.put(update);
+
+        Transaction stored = store.get(1);
+        assertEquals(TransactionStatus.PROCESSING, stored.getStatus());
+        assertNull(stored.getDescription());
+        assertEquals("T1", stored.getTransId());
+        assertEquals(16, store.offHeapGarbageBytes(), "slot of the replaced description freed");
+        assertEquals(1, store.size());
+
+        update.setDescription("desc 9");
+        store.put(update);
+        assertEquals("desc 9", store.get(1).getDescription());
+        assertEquals(0, store.offHeapGarbageBytes(), "freed slot reused");
+    }
+
+    /**
+     * Test that repeatedly replaced and deleted strings do not grow the pool
+     */
+    @Test
+    void testStringReuse() {
+        for (long id = 1; id <= 1000; id++) {
+            store.put(newTransaction(id));
+        }
+        long offHeapBytes = store.offHeapBytes();
+        for (int round = 0; round < 100; round++) {
+            for (long id = 1; id <= 1000; id++) {
+                Transaction update = newTransaction(id);
+                update.setDescription("round " + round + " of " + id);
+                store.put(update);
+            }
+            store.delete(round + 1L);
+            store.put(newTransaction(round + 1L));
+        }
+        assertEquals(offHeapBytes, store.offHeapBytes());
+        assertEquals("round 99 of 500", store.get(500).getDescription());
+        assertEquals("desc 100", store.get(100).getDescription());
+    }
+
+    /**
+     * Test delete, row reuse and ordered reads across chunks
+     */
+    @Test
+    void testDeleteAndPaging() {
+        int count = OffHeapTransactionStore.ROWS_PER_CHUNK + 10;
+        for (long id = count; id > 0; id--) {
+            store.put(newTransaction(id));
+        }
+        assertEquals("T5", store.delete(5).getTransId());
+        assertNull(store.delete(5));
+        assertFalse(store.exists(5));
+        store.put(newTransaction(count + 1L));
+
+        assertEquals(count, store.size());
+        List<Transaction> page = store.values(3, 3);
+        assertEquals(List.of(4L, 6L, 7L), page.stream().map(Transaction::getId).toList());
+        assertEquals(count, store.values().size());
+        assertEquals("T" + (count + 1), store.get(count + 1L).getTransId());
+    }
+
+    /**
+     * Test that readers never see a string of another record while the slots of replaced strings are reused
+     */
+    @Test
+    void testReadsDuringStringReuse() throws InterruptedException {
+        for (long id = 1; id <= 64; id++) {
+            store.put(newTransaction(id));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> torn = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                for (long id = 1; id <= 64; id++) {
+                    Transaction transaction = store.get(id);
+                    if (!transaction.getDescription().endsWith(" " + id)) {
+                        torn.set(transaction.getDescription());
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int round = 0; round < 2000; round++) {
+            for (long id = 1; id <= 64; id++) {
+                Transaction update = newTransaction(id);
+                update.setDescription("round " + round + " of " + id);
+                store.put(update);
+            }
+        }
+        running.set(false);
+        reader.join();
+        assertNull(torn.get());
+    }
+
+    /**
+     * Test that a clear removes all records and keeps the row chunks for the next records
+     */
+    @Test
+    void testClear() {
+        int count = OffHeapTransactionStore.ROWS_PER_CHUNK + 10;
+        for (long id = 1; id <= count; id++) {
+            store.put(newTransaction(id));
+        }
+        long offHeapBytes = store.offHeapBytes();
+
+        assertEquals(count, store.clear());
+        assertEquals(0, store.size());
+        assertNull(store.get(1));
+        assertTrue(store.values().isEmpty());
+        assertFalse(store.ids().hasNext());
+        assertTrue(store.offHeapGarbageBytes() > 0);
+
+        store.put(newTransaction(7));
+        assertEquals("T7", store.get(7).getTransId());
+        assertEquals(List.of(7L), store.values().stream().map(Transaction::getId).toList());
+        assertEquals(offHeapBytes, store.offHeapBytes());
+    }
+
+    /**
+     * Test that amounts exceeding the scale are rejected instead of rounded
+     */
+    @Test
+    void testAmountScale() {
+        Transaction transaction = newTransaction(1);
+        transaction.setAmount(new BigDecimal("1.005"));
+        assertThrows(ParamValidationException.class, () -> store.put(transaction));
+        assertFalse(store.exists(1));
+
+        transaction.setAmount(new BigDecimal("10"));
+        store.put(transaction);
+        assertEquals(new BigDecimal("10.00"), store.get(1).getAmount());
+    }
+}
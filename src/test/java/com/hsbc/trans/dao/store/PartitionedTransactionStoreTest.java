@@ -0,0 +1,134 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.common.util.SnowflakeIdGenerator;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.TransactionType;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+/**
+ * Test class for PartitionedTransactionStore
+ * Tests that records are partitioned by the period of their ID, read in ID order across partitions, and that whole
+ * periods are dropped
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class PartitionedTransactionStoreTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    /**
+     * Start of the current hour
+     */
+    private static final long CURRENT = Math.floorDiv(System.currentTimeMillis(), HOUR) * HOUR;
+
+    private static final int PERIODS = 4;
+
+    private static final int RECORDS_PER_PERIOD = 25;
+
+    private PartitionedTransactionStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private PartitionedTransactionStore newStore() {
+        TransactionStoreProperties properties = new TransactionStoreProperties();
+        properties.getSnapshot().setEnabled(false);
+        properties.setShards(2);
+        properties.getPartitioning().setEnabled(true);
+        properties.getPartitioning().setPeriod(Duration.ofHours(1));
+        store = (PartitionedTransactionStore) TransactionStoreConfig.create(properties);
+        return store;
+    }
+
+    /**
+     * Fill the store with records generated in the last hours, the last period being the current hour
+     */
+    private static List<Transaction> fill(TransactionStore store) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int period = PERIODS - 1; period >= 0; period--) {
+            long firstId = SnowflakeIdGenerator.minIdAt(CURRENT - period * HOUR);
+            for (int i = 0; i < RECORDS_PER_PERIOD; i++) {
+                long id = firstId + i * 1000L;
+                Transaction transaction = new Transaction(id, "T" + id, "U1", new BigDecimal("1.00"), null, TransactionType.DEPOSIT);
+                store.put(transaction);
+                transactions.add(transaction);
+            }
+        }
+        return transactions;
+    }
+
+    private static List<Long> idsOf(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+
+    /**
+     * Test that reads across partitions return the records in ID order
+     */
+    @Test
+    void testReadsAcrossPartitions() {
+        PartitionedTransactionStore store = newStore();
+        List<Transaction> transactions = fill(store);
+
+        assertEquals(PERIODS, store.getPartitionCount());
+        assertEquals(PERIODS * RECORDS_PER_PERIOD, store.size());
+        for (Transaction transaction : transactions) {
+            assertEquals(transaction, store.get(transaction.getId()));
+        }
+        assertEquals(idsOf(transactions), idsOf(store.values()));
+        for (int from : new int[]{0, 10, 24, 25, 60, 95}) {
+            assertEquals(idsOf(transactions.subList(from, Math.min(transactions.size(), from + 20))),
+                idsOf(store.values(from, 20)), "from " + from);
+        }
+        long fromId = transactions.get(20).getId() + 1;
+        assertEquals(idsOf(transactions.subList(21, 41)), idsOf(store.valuesFrom(fromId, 20)));
+        assertEquals(21, store.countBelow(fromId));
+
+        List<Long> iterated = new ArrayList<>();
+        PrimitiveIterator.OfLong ids = store.ids();
+        ids.forEachRemaining((long id) -> iterated.add(id));
+        assertEquals(idsOf(transactions), iterated);
+    }
+
+    /**
+     * Test that dropping periods detaches their partitions, and that writes to dropped periods are discarded
+     */
+    @Test
+    void testDropPartitions() {
+        PartitionedTransactionStore store = newStore();
+        List<Transaction> transactions = fill(store);
+
+        // The bound lies inside the second period, which is kept
+        long bound = transactions.get(RECORDS_PER_PERIOD + 5).getId();
+        assertEquals(RECORDS_PER_PERIOD, store.dropPartitionsBelow(bound));
+        assertEquals(PERIODS - 1, store.getPartitionCount());
+        assertEquals(1, store.getDroppedPartitionCount());
+        assertEquals(idsOf(transactions.subList(RECORDS_PER_PERIOD, transactions.size())), idsOf(store.values()));
+        assertNull(store.get(transactions.get(0).getId()));
+
+        store.put(transactions.get(0));
+        assertNull(store.get(transactions.get(0).getId()), "write to a dropped period is discarded");
+        assertEquals(PERIODS - 1, store.getPartitionCount());
+
+        // Dropping everything keeps accepting writes of the current period
+        assertEquals((PERIODS - 1) * RECORDS_PER_PERIOD, store.dropPartitionsBelow(Long.MAX_VALUE));
+        assertEquals(0, store.size());
+        Transaction current = transactions.get(transactions.size() - 1);
+        store.put(current);
+        assertEquals(current, store.get(current.getId()));
+        assertEquals(1, store.getPartitionCount());
+    }
+}
@@ -0,0 +1,111 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.TransactionType;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+/**
+ * Test class for ShardedTransactionStore
+ * Tests routing of point operations and the merged ordered reads over shards of positional and non-positional engines
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class ShardedTransactionStoreTest {
+
+    private static final int RECORDS = 500;
+
+    private static ShardedTransactionStore newStore(StoreEngine engine) {
+        TransactionStoreProperties properties = new TransactionStoreProperties();
+        properties.setEngine(engine);
+        properties.setShards(3);
+        properties.getSnapshot().setEnabled(false);
+        return (ShardedTransactionStore) TransactionStoreConfig.create(properties);
+    }
+
+    /**
+     * Fill a store with IDs in random order, returning the IDs in ascending order
+     */
+    private static List<Long> fill(TransactionStore store) {
+        List<Long> ids = new ArrayList<>();
+        Random random = new Random(42);
+        long id = 1000;
+        for (int i = 0; i < RECORDS; i++) {
+            id += 1 + random.nextInt(1000);
+            ids.add(id);
+        }
+        List<Long> shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, random);
+        for (long each : shuffled) {
+            store.put(new Transaction(each, "T" + each, "U1", new BigDecimal("1.00"), "desc", TransactionType.DEPOSIT));
+        }
+        return ids;
+    }
+
+    private static List<Long> idsOf(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+
+    /**
+     * Test ordered reads and paging with shards locating pages by position
+     */
+    @Test
+    void testPositionalPaging() {
+        assertPaging(newStore(StoreEngine.HASH));
+    }
+
+    /**
+     * Test ordered reads and paging with shards skipping the preceding IDs
+     */
+    @Test
+    void testSkippingPaging() {
+        assertPaging(newStore(StoreEngine.SKIPLIST));
+    }
+
+    private static void assertPaging(ShardedTransactionStore store) {
+        assertEquals(4, store.getShardCount());
+        List<Long> ids = fill(store);
+
+        assertEquals(RECORDS, store.size());
+        assertEquals(ids, idsOf(store.values()));
+        for (int from : new int[]{0, 1, 19, 250, RECORDS - 5}) {
+            assertEquals(ids.subList(from, Math.min(RECORDS, from + 20)), idsOf(store.values(from, 20)), "from " + from);
+        }
+        assertTrue(store.values(RECORDS, 20).isEmpty());
+        assertEquals(ids.subList(10, 15), idsOf(store.valuesFrom(ids.get(10), 5)));
+        assertEquals(10, store.countBelow(ids.get(10)));
+
+        List<Long> iterated = new ArrayList<>();
+        PrimitiveIterator.OfLong iterator = store.ids();
+        iterator.forEachRemaining((long id) -> iterated.add(id));
+        assertEquals(ids, iterated);
+    }
+
+    /**
+     * Test that point operations reach the shard holding the record
+     */
+    @Test
+    void testPointOperations() {
+        ShardedTransactionStore store = newStore(StoreEngine.OFFHEAP);
+        List<Long> ids = fill(store);
+        long id = ids.get(7);
+
+        assertTrue(store.exists(id));
+        assertEquals("T" + id, store.get(id).getTransId());
+        assertEquals(id, store.delete(id).getId());
+        assertFalse(store.exists(id));
+        assertNull(store.get(id));
+        assertEquals(RECORDS - 1, store.size());
+        assertEquals(ids.get(8), store.values(7, 1).get(0).getId());
+        assertTrue(store.offHeapBytes() > 0);
+    }
+}
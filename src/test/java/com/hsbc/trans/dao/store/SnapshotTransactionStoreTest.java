@@ -0,0 +1,206 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Test class for SnapshotTransactionStore
+ * Tests that snapshots see the records as of their opening while the store is written, that versions are pruned
+ * once no snapshot sees them, and that snapshots expire
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class SnapshotTransactionStoreTest {
+
+    private static final int RECORDS = 200;
+
+    private static SnapshotTransactionStore newStore() {
+        TransactionStoreProperties properties = new TransactionStoreProperties();
+        properties.setShards(2);
+        return (SnapshotTransactionStore) TransactionStoreConfig.create(properties);
+    }
+
+    private static Transaction transaction(long id) {
+        return new Transaction(id, "T" + id, "U1", new BigDecimal("1.00"), "desc " + id, TransactionType.DEPOSIT);
+    }
+
+    private static List<Transaction> fill(TransactionStore store) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (long id = 1; id <= RECORDS; id++) {
+            Transaction transaction = transaction(id * 2);
+            store.put(transaction);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    private static List<Long> idsOf(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+
+    private static List<Transaction> readAll(StoreSnapshot snapshot, int pageSize) {
+        List<Transaction> values = new ArrayList<>();
+        long next = 0;
+        while (true) {
+            List<Transaction> page = snapshot.valuesFrom(next, pageSize);
+            values.addAll(page);
+            if (page.size() < pageSize) {
+                return values;
+            }
+            next = page.get(page.size() - 1).getId() + 1;
+        }
+    }
+
+    /**
+     * Test that a snapshot keeps seeing updated, deleted and not yet added records as they were
+     */
+    @Test
+    void testSnapshotIsolation() {
+        SnapshotTransactionStore store = newStore();
+        List<Transaction> transactions = fill(store);
+        assertEquals(0, store.getVersionCount(), "no versions without snapshots");
+
+        StoreSnapshot snapshot = store.openSnapshot(null);
+        Transaction updated = store.get(20);
+        updated.setStatus(TransactionStatus.COMPLETED);
+        store.put(updated);
+        updated.setDescription("changed twice");
+        store.put(updated);
+        store.delete(40);
+        store.put(transaction(41));
+        store.delete(60);
+        store.put(transaction(60));
+
+        assertEquals(transactions.get(9), snapshot.get(20));
+        assertEquals(transactions.get(19), snapshot.get(40));
+        assertNull(snapshot.get(41));
+        assertEquals(updated, store.get(20));
+        assertNull(store.get(40));
+
+        assertEquals(transactions, readAll(snapshot, 7));
+        assertEquals(RECORDS, snapshot.size());
+        for (int from : new int[]{0, 9, 19, 20, 100, RECORDS - 3}) {
+            assertEquals(transactions.subList(from, Math.min(RECORDS, from + 10)), snapshot.values(from, 10), "from " + from);
+        }
+        List<Long> iterated = new ArrayList<>();
+        PrimitiveIterator.OfLong ids = snapshot.ids();
+        ids.forEachRemaining((long id) -> iterated.add(id));
+        assertEquals(idsOf(transactions), iterated);
+
+        StoreSnapshot later = store.openSnapshot(null);
+        assertEquals(updated, later.get(20));
+        assertNull(later.get(40));
+        assertNotNull(later.get(41));
+        assertEquals(RECORDS, later.size());
+    }
+
+    /**
+     * Test that versions are pruned once no open snapshot sees them
+     */
+    @Test
+    void testVersionPruning() {
+        SnapshotTransactionStore store = newStore();
+        fill(store);
+        StoreSnapshot first = store.openSnapshot(null);
+        store.delete(2);
+        StoreSnapshot second = store.openSnapshot(null);
+        store.delete(4);
+        assertEquals(2, store.getVersionCount());
+
+        assertTrue(store.releaseSnapshot(first.getId()));
+        assertTrue(first.isReleased());
+        assertEquals(1, store.getVersionCount(), "the delete before the second snapshot is pruned");
+        assertNotNull(second.get(4));
+
+        assertTrue(store.releaseSnapshot(second.getId()));
+        assertFalse(store.releaseSnapshot(second.getId()));
+        assertEquals(0, store.getVersionCount());
+        store.delete(6);
+        assertEquals(0, store.getVersionCount());
+    }
+
+    /**
+     * Test that snapshots expire and that the number of open snapshots is limited
+     */
+    @Test
+    void testExpiryAndLimit() throws InterruptedException {
+        TransactionStoreProperties properties = new TransactionStoreProperties();
+        properties.getSnapshot().setMaxOpen(2);
+        SnapshotTransactionStore store = (SnapshotTransactionStore) TransactionStoreConfig.create(properties);
+        fill(store);
+
+        StoreSnapshot expiring = store.openSnapshot(Duration.ofMillis(1));
+        StoreSnapshot kept = store.openSnapshot(Duration.ofDays(1));
+        assertNull(store.openSnapshot(null), "maximum number of snapshots open");
+        assertEquals(properties.getSnapshot().getMaxTtl().toMillis(), kept.getExpireTime() - kept.getCreateTime());
+
+        Thread.sleep(5);
+        store.delete(2);
+        store.maintain();
+        assertTrue(expiring.isReleased());
+        assertNull(store.getSnapshot(expiring.getId()));
+        assertSame(kept, store.getSnapshot(kept.getId()));
+        assertEquals(1, store.getOpenSnapshotCount());
+        assertNotNull(store.openSnapshot(null));
+    }
+
+    /**
+     * Test that paging through a snapshot, by ID or by position, while records are moved concurrently neither skips
+     * nor repeats records
+     */
+    @Test
+    void testPagingUnderConcurrentWrites() throws InterruptedException {
+        SnapshotTransactionStore store = newStore();
+        fill(store);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            // Move records to new IDs, keeping their number, as a page-by-page reader without snapshot would notice
+            long nextId = RECORDS * 2 + 1;
+            long oldest = 2;
+            while (running.get()) {
+                store.delete(oldest);
+                store.put(transaction(nextId++));
+                oldest = store.ids().nextLong();
+            }
+        });
+        writer.start();
+        try {
+            for (int round = 0; round < 20; round++) {
+                StoreSnapshot snapshot = store.openSnapshot(null);
+                List<Transaction> values = readAll(snapshot, 16);
+                Set<Long> ids = new HashSet<>(idsOf(values));
+                // A snapshot may fall between the delete and the put of a move
+                assertTrue(values.size() == RECORDS || values.size() == RECORDS - 1, "round " + round + ": " + values.size());
+                assertEquals(values.size(), ids.size(), "round " + round);
+                assertEquals(values.size(), snapshot.size(), "round " + round);
+                for (int from : new int[]{0, 1, RECORDS / 2, values.size() - 5}) {
+                    assertEquals(values.subList(from, Math.min(values.size(), from + 16)), snapshot.values(from, 16),
+                        "round " + round + " from " + from);
+                }
+                List<Long> iterated = new ArrayList<>();
+                snapshot.ids().forEachRemaining((long id) -> iterated.add(id));
+                assertEquals(idsOf(values), iterated, "round " + round);
+                assertTrue(store.releaseSnapshot(snapshot.getId()));
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        store.maintain();
+        assertEquals(0, store.getVersionCount());
+    }
+}
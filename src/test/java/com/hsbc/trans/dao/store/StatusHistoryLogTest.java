@@ -0,0 +1,106 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.vo.TransactionStatusChange;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Test class for StatusHistoryLog
+ * Tests appends and reads of interleaved records, removal of single records and of records below an ID, and that
+ * compaction drops the garbage without losing the entries of the remaining records
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class StatusHistoryLogTest {
+
+    /**
+     * Test that the changes of interleaved records are read back per record in append order
+     */
+    @Test
+    void testAppendAndHistory() {
+        StatusHistoryLog log = new StatusHistoryLog(16, 4);
+        assertFalse(log.contains(1));
+        assertTrue(log.history(1).isEmpty());
+
+        log.append(1, TransactionStatus.PENDING, 1000, "created");
+        log.append(2, TransactionStatus.PENDING, 1001, null);
+        log.append(1, TransactionStatus.PROCESSING, 1002, "created");
+        log.append(1, TransactionStatus.COMPLETED, 1003, "done");
+
+        assertTrue(log.contains(1));
+        assertEquals(List.of(
+            new TransactionStatusChange(TransactionStatus.PENDING, new Timestamp(1000), "created"),
+            new TransactionStatusChange(TransactionStatus.PROCESSING, new Timestamp(1002), "created"),
+            new TransactionStatusChange(TransactionStatus.COMPLETED, new Timestamp(1003), "done")), log.history(1));
+        assertEquals(List.of(new TransactionStatusChange(TransactionStatus.PENDING, new Timestamp(1001), null)), log.history(2));
+        assertEquals(2, log.recordCount());
+        assertEquals(4, log.entryCount());
+        assertTrue(log.offHeapBytes() > 0);
+    }
+
+    /**
+     * Test removal of single records and of the records below an ID
+     */
+    @Test
+    void testRemove() {
+        StatusHistoryLog log = new StatusHistoryLog(16, 4);
+        for (long id = 1; id <= 10; id++) {
+            log.append(id, TransactionStatus.PENDING, id, "d" + id);
+            log.append(id, TransactionStatus.FAILED, id + 1, "d" + id);
+        }
+
+        log.remove(3);
+        assertFalse(log.contains(3));
+        assertTrue(log.history(3).isEmpty());
+        log.removeBelow(6);
+        assertEquals(5, log.recordCount());
+        assertFalse(log.contains(5));
+        assertEquals(TransactionStatus.FAILED, log.history(6).get(1).getStatus());
+
+        log.removeBelow(Long.MAX_VALUE);
+        assertEquals(0, log.recordCount());
+        assertEquals(0, log.entryCount());
+    }
+
+    /**
+     * Test that removals leave garbage, and that compaction once most records are removed rewrites the log with the
+     * entries of the remaining ones
+     */
+    @Test
+    void testCompaction() {
+        StatusHistoryLog log = new StatusHistoryLog(16, 1);
+        int records = StatusHistoryLog.CHUNK_ENTRIES * 2;
+        for (long id = 0; id < records; id++) {
+            log.append(id, TransactionStatus.PENDING, id, "created " + id);
+        }
+        for (long id = 0; id < records; id += 4) {
+            log.append(id, TransactionStatus.COMPLETED, id + 1, "completed " + id);
+        }
+        assertEquals(records + records / 4, log.entryCount());
+
+        for (long id = 0; id < records; id++) {
+            if (id % 4 != 0) {
+                log.remove(id);
+            }
+        }
+        assertEquals(records + records / 4, log.entryCount(), "removals do not compact");
+        assertEquals(records / 4, log.recordCount());
+        assertEquals(records * 3 / 4, log.compact());
+        assertEquals(records / 2, log.entryCount());
+        assertEquals(0, log.compact());
+        assertTrue(log.contains(8));
+        assertEquals(List.of(
+            new TransactionStatusChange(TransactionStatus.PENDING, new Timestamp(8), "created 8"),
+            new TransactionStatusChange(TransactionStatus.COMPLETED, new Timestamp(9), "completed 8")), log.history(8));
+
+        log.append(8, TransactionStatus.CANCELLED, 10, null);
+        assertEquals(3, log.history(8).size());
+        assertNull(log.history(8).get(2).getDescription());
+    }
+}
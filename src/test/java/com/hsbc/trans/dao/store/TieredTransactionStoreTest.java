@@ -0,0 +1,237 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Test class for TieredTransactionStore
+ * Tests migration of cold records to disk segments, fall-through reads, updates and deletes of cold records and the
+ * merge of segments
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class TieredTransactionStoreTest {
+
+    private static final int RECORDS = 300;
+
+    private static final long NOW = System.currentTimeMillis();
+
+    private static final long OLD = NOW - 7_200_000;
+
+    @TempDir
+    Path directory;
+
+    private TieredTransactionStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private TieredTransactionStore newStore() {
+        TransactionStoreProperties properties = new TransactionStoreProperties();
+        properties.getSnapshot().setEnabled(false);
+        properties.getTiering().setEnabled(true);
+        properties.getTiering().setDirectory(directory.toString());
+        properties.getTiering().setBlockRecords(16);
+        store = (TieredTransactionStore) TransactionStoreConfig.create(properties);
+        return store;
+    }
+
+    private static Transaction transaction(long id, TransactionStatus status, long updateTime) {
+        Transaction transaction = new Transaction(id, "T" + id, "U" + id % 7, new BigDecimal("12.34"),
+            id % 3 == 0 ? null : "desc " + id, TransactionType.DEPOSIT);
+        transaction.setStatus(status);
+        transaction.setCreateTime(new Timestamp(OLD - 1000));
+        transaction.setUpdateTime(new Timestamp(updateTime));
+        return transaction;
+    }
+
+    /**
+     * Fill the store: every second record is completed long ago and migrates, the others stay hot
+     */
+    private static List<Transaction> fill(TransactionStore store) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (long id = 1; id <= RECORDS; id++) {
+            Transaction transaction = id % 2 == 0
+                ? transaction(id, id % 4 == 0 ? TransactionStatus.COMPLETED : TransactionStatus.FAILED, OLD)
+                : transaction(id, id % 5 == 0 ? TransactionStatus.COMPLETED : TransactionStatus.PENDING, id % 5 == 0 ? NOW : OLD);
+            store.put(transaction);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    private static List<Long> idsOf(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+
+    /**
+     * Test that migrated records are read back unchanged through every read
+     */
+    @Test
+    void testMigrationAndFallThrough() {
+        TieredTransactionStore store = newStore();
+        List<Transaction> transactions = fill(store);
+
+        assertEquals(RECORDS / 2, store.migrate(NOW));
+        assertEquals(1, store.getSegmentCount());
+        assertEquals(RECORDS / 2, store.coldSize());
+        assertEquals(RECORDS, store.size());
+        assertTrue(store.diskBytes() > 0);
+
+        for (Transaction transaction : transactions) {
+            assertTrue(store.exists(transaction.getId()));
+            assertEquals(transaction, store.get(transaction.getId()));
+        }
+        assertFalse(store.exists(RECORDS + 1));
+        assertNull(store.get(RECORDS + 1));
+
+        assertEquals(transactions, store.values());
+        for (int from : new int[]{0, 1, 17, 150, RECORDS - 5}) {
+            assertEquals(transactions.subList(from, Math.min(RECORDS, from + 20)), store.values(from, 20), "from " + from);
+        }
+        assertTrue(store.values(RECORDS, 20).isEmpty());
+        assertEquals(idsOf(transactions.subList(99, 109)), idsOf(store.valuesFrom(100, 10)));
+        assertEquals(99, store.countBelow(100));
+
+        List<Long> iterated = new ArrayList<>();
+        PrimitiveIterator.OfLong ids = store.ids();
+        ids.forEachRemaining((long id) -> iterated.add(id));
+        assertEquals(idsOf(transactions), iterated);
+
+        assertEquals(0, store.migrate(NOW), "nothing left to migrate");
+    }
+
+    /**
+     * Test that reads running while records migrate count and list each record once
+     */
+    @Test
+    void testReadsDuringMigration() throws Exception {
+        TieredTransactionStore store = newStore();
+        int records = 20_000;
+        for (long id = 1; id <= records; id++) {
+            store.put(transaction(id, TransactionStatus.COMPLETED, OLD));
+        }
+        AtomicBoolean migrating = new AtomicBoolean(true);
+        List<String> failures = new CopyOnWriteArrayList<>();
+        Thread reader = new Thread(() -> {
+            while (migrating.get() && failures.isEmpty()) {
+                if (store.size() != records) {
+                    failures.add("size " + store.size());
+                }
+                if (store.countBelow(records / 2 + 1) != records / 2) {
+                    failures.add("countBelow " + store.countBelow(records / 2 + 1));
+                }
+                List<Long> page = idsOf(store.values(records / 2, 20));
+                if (page.size() != 20 || page.get(0) != records / 2 + 1 || page.stream().distinct().count() != 20) {
+                    failures.add("page " + page);
+                }
+            }
+        });
+        reader.start();
+        try {
+            assertEquals(records, store.migrate(NOW));
+        } finally {
+            migrating.set(false);
+            reader.join();
+        }
+        assertEquals(List.of(), failures);
+        assertEquals(records, store.coldSize());
+        assertEquals(records, store.values().size());
+    }
+
+    /**
+     * Test that an updated cold record moves back to the hot store and a deleted one disappears
+     */
+    @Test
+    void testUpdateAndDeleteOfColdRecords() {
+        TieredTransactionStore store = newStore();
+        fill(store);
+        store.migrate(NOW);
+
+        Transaction updated = store.get(10);
+        updated.setDescription("changed");
+        updated.setUpdateTime(new Timestamp(NOW));
+        store.put(updated);
+        assertEquals(updated, store.get(10));
+        assertEquals(RECORDS / 2 - 1, store.coldSize());
+        assertEquals(RECORDS, store.size());
+
+        Transaction deleted = store.delete(20);
+        assertEquals(20, deleted.getId());
+        assertNull(store.delete(20));
+        assertNull(store.get(20));
+        assertFalse(store.exists(20));
+        assertEquals(RECORDS - 1, store.size());
+        assertEquals(19, store.countBelow(21));
+        assertFalse(idsOf(store.values()).contains(20L));
+
+        // The updated record migrates again into a second segment with the 30 records completed now, its first copy stays removed
+        assertEquals(31, store.migrate(NOW + 7_200_000));
+        assertEquals(2, store.getSegmentCount());
+        assertEquals(updated, store.get(10));
+        assertEquals(RECORDS - 1, store.size());
+        assertEquals(RECORDS - 1, store.values().size());
+    }
+
+    /**
+     * Test that merging the segments keeps the live records and drops the removed ones
+     */
+    @Test
+    void testMerge() {
+        TieredTransactionStore store = newStore();
+        List<Transaction> transactions = fill(store);
+        store.migrate(NOW);
+        Transaction updated = store.get(8);
+        updated.setDescription("changed");
+        store.put(updated);
+        store.migrate(NOW + 7_200_000);
+        store.delete(30);
+        assertEquals(2, store.getSegmentCount());
+
+        store.merge();
+
+        assertEquals(1, store.getSegmentCount());
+        assertEquals(RECORDS / 2 + 30 - 1, store.coldSize());
+        transactions.set(7, updated);
+        transactions.remove(29);
+        assertEquals(transactions, store.values());
+    }
+
+    /**
+     * Test that closing the store deletes its segment files
+     */
+    @Test
+    void testCloseDeletesSegments() throws Exception {
+        TieredTransactionStore store = newStore();
+        fill(store);
+        store.migrate(NOW);
+        store.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+        assertEquals(0, store.getSegmentCount());
+    }
+}
@@ -0,0 +1,96 @@
+package com.hsbc.trans.dao.store;
+
+import com.hsbc.common.errorhandler.exception.ParamValidationException;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.enums.TransactionType;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+/**
+ * Test class for TransactionCodec
+ * Tests the conversion between transactions and compact records, and the string dictionaries
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class TransactionCodecTest {
+
+    private final TransactionCodec codec = new TransactionCodec(2, 2);
+
+    private static Transaction newTransaction(long id, String userId, String description) {
+        return new Transaction(id, "T" + id, userId, new BigDecimal("12.34"), description, TransactionType.DEPOSIT);
+    }
+
+    /**
+     * Test that a transaction survives the round trip through a record
+     */
+    @Test
+    void testRoundTrip() {
+        Transaction transaction = newTransaction(1L, "U1", "desc");
+
+        TransactionRecord record = codec.encode(transaction);
+        assertEquals(1234L, record.amount());
+        assertEquals(transaction.getCreateTime().getTime(), record.createTime());
+        assertEquals(record.createTime(), record.updateTime());
+
+        Transaction restored = codec.decode(record);
+        assertEquals(transaction, restored);
+        assertNotSame(transaction, restored);
+    }
+
+    /**
+     * Test that amounts finer than the configured scale are rejected instead of rounded
+     */
+    @Test
+    void testAmountFinerThanScale() {
+        Transaction transaction = newTransaction(1L, "U1", "desc");
+        transaction.setAmount(new BigDecimal("0.001"));
+
+        assertThrows(ParamValidationException.class, () -> codec.encode(transaction));
+    }
+
+    /**
+     * Test that repeated user IDs share one code and one decoded instance
+     */
+    @Test
+    void testUserIdDictionary() {
+        TransactionRecord first = codec.encode(newTransaction(1L, new String("U1"), "a"));
+        TransactionRecord second = codec.encode(newTransaction(2L, new String("U1"), "b"));
+        TransactionRecord other = codec.encode(newTransaction(3L, "U2", "c"));
+
+        assertEquals(first.userId(), second.userId());
+        assertNotEquals(first.userId(), other.userId());
+        assertSame(codec.decode(first).getUserId(), codec.decode(second).getUserId());
+        assertEquals(2, codec.getUserIds().size());
+        assertNull(codec.decode(codec.encode(newTransaction(4L, null, "d"))).getUserId());
+    }
+
+    /**
+     * Test that descriptions are interned up to the limit and kept as they are beyond it
+     */
+    @Test
+    void testDescriptionInterning() {
+        String first = codec.encode(newTransaction(1L, "U1", new String("salary"))).description();
+        assertSame(first, codec.encode(newTransaction(2L, "U1", new String("salary"))).description());
+        codec.encode(newTransaction(3L, "U1", "rent"));
+
+        String unbounded = new String("groceries");
+        assertSame(unbounded, codec.encode(newTransaction(4L, "U1", unbounded)).description());
+        assertEquals(2, codec.getDescriptions().size());
+    }
+
+    /**
+     * Test that interning is disabled with a limit of 0
+     */
+    @Test
+    void testDescriptionInterningDisabled() {
+        TransactionCodec plain = new TransactionCodec(2, 0);
+        String description = new String("salary");
+
+        assertSame(description, plain.encode(newTransaction(1L, "U1", description)).description());
+        assertEquals(0, plain.getDescriptions().size());
+    }
+}
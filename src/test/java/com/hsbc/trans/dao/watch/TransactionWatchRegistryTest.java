@@ -0,0 +1,146 @@
+package com.hsbc.trans.dao.watch;
+
+import com.hsbc.common.errorhandler.exception.BusinessException;
+import com.hsbc.common.validation.ValidationUtils;
+import com.hsbc.trans.bean.Transaction;
+import com.hsbc.trans.dao.TransactionDaoMemoryImpl;
+import com.hsbc.trans.dao.store.TransactionStoreConfig;
+import com.hsbc.trans.dao.store.TransactionStoreProperties;
+import com.hsbc.trans.enums.ChangeType;
+import com.hsbc.trans.enums.ErrorCode;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+import com.hsbc.trans.metrics.TransactionMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Test class for TransactionWatchRegistry
+ * Tests that watches complete on the update leaving their status and on deletes, that closed watches are removed, the
+ * watch limit, and the signals of the memory DAO
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class TransactionWatchRegistryTest {
+
+    private static TransactionWatchRegistry newRegistry(int maxWatches) {
+        WatchProperties properties = new WatchProperties();
+        properties.setMaxWatches(maxWatches);
+        return new TransactionWatchRegistry(properties);
+    }
+
+    private static Transaction transaction(long id, TransactionStatus status) {
+        Transaction transaction = new Transaction(id, "T" + id, "U1", new BigDecimal("1.00"), "desc " + id, TransactionType.DEPOSIT);
+        transaction.setStatus(status);
+        return transaction;
+    }
+
+    private static String errorCode(TransactionWatch watch) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> watch.getResult().get());
+        return ((BusinessException) e.getCause()).getCode();
+    }
+
+    /**
+     * Test that a watch completes on the first update to another status only
+     */
+    @Test
+    void testUpdateCompletesWatch() throws Exception {
+        TransactionWatchRegistry registry = newRegistry(10);
+        TransactionWatch pending = registry.watch(1, TransactionStatus.PENDING);
+        TransactionWatch processing = registry.watch(1, TransactionStatus.PROCESSING);
+        TransactionWatch other = registry.watch(2, TransactionStatus.PENDING);
+        assertEquals(3, registry.getWatchCount());
+
+        Transaction updated = transaction(1, TransactionStatus.PROCESSING);
+        registry.signal(ChangeType.UPDATE, 1, updated);
+        assertSame(updated, pending.getResult().get());
+        assertFalse(processing.getResult().isDone());
+        assertFalse(other.getResult().isDone());
+        assertEquals(2, registry.getWatchCount());
+
+        registry.signal(ChangeType.UPDATE, 1, transaction(1, TransactionStatus.COMPLETED));
+        assertEquals(TransactionStatus.COMPLETED, processing.getResult().get().getStatus());
+        assertEquals(1, registry.getWatchCount());
+    }
+
+    /**
+     * Test that a watch registered before its status is known completes on any update until it is set
+     */
+    @Test
+    void testStatusSetAfterRegistering() {
+        TransactionWatchRegistry registry = newRegistry(10);
+        TransactionWatch unset = registry.watch(1, null);
+        registry.signal(ChangeType.UPDATE, 1, transaction(1, TransactionStatus.PENDING));
+        assertTrue(unset.getResult().isDone());
+
+        TransactionWatch set = registry.watch(1, null);
+        set.setFromStatus(TransactionStatus.PENDING);
+        registry.signal(ChangeType.UPDATE, 1, transaction(1, TransactionStatus.PENDING));
+        assertFalse(set.getResult().isDone());
+    }
+
+    /**
+     * Test that deletes and purges complete the watches of the deleted records as not found
+     */
+    @Test
+    void testDeleteCompletesWatch() {
+        TransactionWatchRegistry registry = newRegistry(10);
+        TransactionWatch deleted = registry.watch(1, TransactionStatus.PENDING);
+        TransactionWatch purged = registry.watch(5, TransactionStatus.PENDING);
+        TransactionWatch kept = registry.watch(10, TransactionStatus.PENDING);
+
+        registry.signal(ChangeType.DELETE, 1, transaction(1, TransactionStatus.PENDING));
+        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND.getCode(), errorCode(deleted));
+        registry.signal(ChangeType.PURGE, 10, null);
+        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND.getCode(), errorCode(purged));
+        assertFalse(kept.getResult().isDone());
+        assertEquals(1, registry.getWatchCount());
+    }
+
+    /**
+     * Test that closed watches are removed and that the number of watches is limited
+     */
+    @Test
+    void testCloseAndLimit() {
+        TransactionWatchRegistry registry = newRegistry(2);
+        TransactionWatch first = registry.watch(1, TransactionStatus.PENDING);
+        TransactionWatch second = registry.watch(1, TransactionStatus.PENDING);
+        BusinessException e = assertThrows(BusinessException.class, () -> registry.watch(2, TransactionStatus.PENDING));
+        assertEquals(ErrorCode.WATCH_LIMIT_EXCEEDED.getCode(), e.getCode());
+
+        first.close();
+        first.close();
+        assertEquals(1, registry.getWatchCount());
+        registry.signal(ChangeType.UPDATE, 1, transaction(1, TransactionStatus.PROCESSING));
+        assertFalse(first.getResult().isDone());
+        assertTrue(second.getResult().isDone());
+        second.close();
+        assertEquals(0, registry.getWatchCount());
+        assertNotNull(registry.watch(2, TransactionStatus.PENDING));
+    }
+
+    /**
+     * Test that the memory DAO signals its updates
+     */
+    @Test
+    void testMemoryDaoSignalsUpdates() throws Exception {
+        TransactionStoreProperties properties = new TransactionStoreProperties();
+        TransactionDaoMemoryImpl dao = new TransactionDaoMemoryImpl(TransactionStoreConfig.create(properties), properties,
+            new ValidationUtils(), new TransactionMetrics(new SimpleMeterRegistry()));
+        TransactionWatchRegistry registry = newRegistry(10);
+        dao.setWatchRegistry(registry);
+        Transaction created = dao.add(transaction(1, TransactionStatus.PENDING));
+
+        TransactionWatch watch = registry.watch(created.getId(), TransactionStatus.PENDING);
+        Transaction update = transaction(1, TransactionStatus.PROCESSING);
+        dao.updateById(update, TransactionStatus.PENDING);
+        assertEquals(TransactionStatus.PROCESSING, watch.getResult().get().getStatus());
+        assertEquals(0, registry.getWatchCount());
+    }
+}
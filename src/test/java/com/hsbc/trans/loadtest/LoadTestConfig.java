@@ -0,0 +1,57 @@
+package com.hsbc.trans.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Load Test Configuration
+ * Read from {@code loadtest.*} system properties
+ *
+ * @param baseUrl Base URL of the transaction API
+ * @param mode Load mode, see {@link Mode}
+ * @param rate Requests per second in open-loop mode
+ * @param concurrency Number of virtual-thread clients in closed-loop mode, also used for preloading
+ * @param warmup Warmup duration, latencies are not recorded during warmup
+ * @param duration Measured duration
+ * @param preload Number of transactions created before the run starts
+ * @param mix Request mix
+ * @param outputDir Directory of histogram output files
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public record LoadTestConfig(String baseUrl, Mode mode, int rate, int concurrency, Duration warmup, Duration duration,
+                             int preload, RequestMix mix, String outputDir) {
+
+    /**
+     * Load mode
+     */
+    public enum Mode {
+        /**
+         * Each client sends its next request as soon as the previous one completes
+         */
+        CLOSED,
+        /**
+         * Requests are sent at a constant rate regardless of response times,
+         * latency is measured from the intended send time to avoid coordinated omission
+         */
+        OPEN
+    }
+
+    /**
+     * Read configuration from system properties
+     *
+     * @return Load test configuration
+     */
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+            System.getProperty("loadtest.base-url", "http://localhost:8080/api/transactions"),
+            Mode.valueOf(System.getProperty("loadtest.mode", "open").toUpperCase()),
+            Integer.getInteger("loadtest.rate", 1000),
+            Integer.getInteger("loadtest.concurrency", 64),
+            Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10L)),
+            Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 60L)),
+            Integer.getInteger("loadtest.preload", 1000),
+            RequestMix.parse(System.getProperty("loadtest.mix", "create=20,get=50,page=10,update=15,delete=5")),
+            System.getProperty("loadtest.output", "target/loadtest"));
+    }
+}
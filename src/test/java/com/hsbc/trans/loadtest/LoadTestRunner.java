@@ -0,0 +1,222 @@
+package com.hsbc.trans.loadtest;
+
+import com.hsbc.trans.loadtest.RequestMix.Operation;
+import com.hsbc.trans.loadtest.TransactionLoadClient.Outcome;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load Test Runner
+ * Drives a locally started instance with a configurable request mix and reports latency percentiles per operation
+ * Every request runs on its own virtual thread. In open-loop mode requests are issued at a constant rate and latency is
+ * measured from the intended send time, so server stalls show up in the percentiles instead of silently lowering the
+ * request rate (coordinated omission)
+ * See {@link LoadTestConfig} for the supported {@code loadtest.*} system properties
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+@Slf4j
+public class LoadTestRunner {
+
+    /**
+     * Highest trackable latency in microseconds
+     */
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final LoadTestConfig config;
+
+    private final TransactionLoadClient client;
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, Map<Outcome, LongAdder>> outcomes = new EnumMap<>(Operation.class);
+
+    private final Histogram totalHistogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+    /**
+     * Constructor
+     *
+     * @param config Load test configuration
+     * @param client Transaction load client
+     */
+    public LoadTestRunner(LoadTestConfig config, TransactionLoadClient client) {
+        this.config = config;
+        this.client = client;
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            Map<Outcome, LongAdder> counters = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                counters.put(outcome, new LongAdder());
+            }
+            outcomes.put(operation, counters);
+        }
+    }
+
+    /**
+     * Main method
+     *
+     * @param args Command line arguments (unused)
+     * @throws Exception if the load test cannot be run
+     */
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            TransactionLoadClient client = new TransactionLoadClient(config.baseUrl(), TransactionLoadClient.newHttpClient(executor));
+            LoadTestRunner runner = new LoadTestRunner(config, client);
+            runner.preload();
+            long elapsedNanos = runner.run();
+            runner.report(elapsedNanos);
+        }
+    }
+
+    /**
+     * Create the configured number of transactions before the measured run
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private void preload() throws InterruptedException {
+        log.info("Preloading {} transactions against {}", config.preload(), config.baseUrl());
+        runClosedLoop(config.preload(), Long.MAX_VALUE, Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Run the warmup and measured phases, returns after all issued requests completed
+     *
+     * @return Measured duration in nanoseconds
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private long run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureStart = start + config.warmup().toNanos();
+        long end = measureStart + config.duration().toNanos();
+        log.info("Running {} load, mix: {}, warmup: {}, duration: {}", config.mode(), config.mix(), config.warmup(), config.duration());
+        if (config.mode() == LoadTestConfig.Mode.OPEN) {
+            runOpenLoop(start, measureStart, end);
+        } else {
+            runClosedLoop(Long.MAX_VALUE, measureStart, end, false);
+        }
+        return end - measureStart;
+    }
+
+    /**
+     * Issue requests at a constant rate, each on its own virtual thread
+     */
+    private void runOpenLoop(long start, long measureStart, long end) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intendedStart = start + i * intervalNanos;
+                if (intendedStart >= end) {
+                    break;
+                }
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                requests.execute(() -> execute(config.mix().next(), intendedStart, intendedStart >= measureStart));
+            }
+        }
+    }
+
+    /**
+     * Run clients that each send the next request once the previous one completes
+     *
+     * @param requests Total number of requests, or Long.MAX_VALUE to run until {@code end}
+     * @param preloadOnly Whether to only send create requests without recording latencies
+     */
+    private void runClosedLoop(long requests, long measureStart, long end, boolean preloadOnly)
+        throws InterruptedException {
+        LongAdder issued = new LongAdder();
+        Thread[] clients = new Thread[config.concurrency()];
+        for (int c = 0; c < clients.length; c++) {
+            clients[c] = Thread.ofVirtual().start(() -> {
+                while (true) {
+                    long now = System.nanoTime();
+                    issued.increment();
+                    if (now >= end || issued.sum() > requests) {
+                        return;
+                    }
+                    if (preloadOnly) {
+                        client.execute(Operation.CREATE);
+                    } else {
+                        execute(config.mix().next(), now, now >= measureStart);
+                    }
+                }
+            });
+        }
+        for (Thread thread : clients) {
+            thread.join();
+        }
+    }
+
+    private void execute(Operation operation, long intendedStart, boolean record) {
+        Outcome outcome = client.execute(operation);
+        if (!record) {
+            return;
+        }
+        long latencyMicros = Math.min((System.nanoTime() - intendedStart) / 1000, HIGHEST_TRACKABLE_MICROS);
+        histograms.get(operation).recordValue(latencyMicros);
+        totalHistogram.recordValue(latencyMicros);
+        outcomes.get(operation).get(outcome).increment();
+    }
+
+    /**
+     * Print latency percentiles per operation and write full histograms to the output directory
+     *
+     * @param elapsedNanos Measured duration in nanoseconds
+     * @throws FileNotFoundException if a histogram file cannot be written
+     */
+    private void report(long elapsedNanos) throws FileNotFoundException {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder table = new StringBuilder(String.format("%n%-8s %10s %10s %9s %7s %10s %10s %10s %10s %10s%n",
+            "op", "count", "rps", "rejected", "failed", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "mean(ms)"));
+        for (Operation operation : Operation.values()) {
+            appendRow(table, operation.name().toLowerCase(), histograms.get(operation), outcomes.get(operation), seconds);
+        }
+        appendRow(table, "total", totalHistogram, null, seconds);
+        log.info("Load test finished, mode: {}, measured {} s{}", config.mode(), String.format("%.1f", seconds), table);
+
+        File outputDir = new File(config.outputDir());
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IllegalStateException("Cannot create load test output directory: " + outputDir);
+        }
+        for (Operation operation : Operation.values()) {
+            writeHistogram(new File(outputDir, operation.name().toLowerCase() + ".hgrm"), histograms.get(operation));
+        }
+        writeHistogram(new File(outputDir, "total.hgrm"), totalHistogram);
+        log.info("Histograms written to {}", outputDir.getAbsolutePath());
+    }
+
+    private static void appendRow(StringBuilder table, String name, Histogram histogram, Map<Outcome, LongAdder> counters, double seconds) {
+        long count = histogram.getTotalCount();
+        table.append(String.format("%-8s %10d %10.1f %9s %7s %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+            name, count, count / seconds,
+            counters == null ? "-" : counters.get(Outcome.REJECTED).sum(),
+            counters == null ? "-" : counters.get(Outcome.FAILED).sum(),
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0,
+            histogram.getMean() / 1000.0));
+    }
+
+    private static void writeHistogram(File file, Histogram histogram) throws FileNotFoundException {
+        try (PrintStream out = new PrintStream(file)) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.hsbc.trans.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Request Mix
+ * Weighted distribution of operations, parsed from a string such as {@code create=20,get=50,page=10,update=15,delete=5}
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class RequestMix {
+
+    /**
+     * Load test operation
+     */
+    public enum Operation {
+        CREATE, GET, PAGE, UPDATE, DELETE
+    }
+
+    private final Map<Operation, Integer> weights;
+
+    private final Operation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    private final int totalWeight;
+
+    private RequestMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Request mix must contain at least one operation with a positive weight");
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * Parse a request mix
+     *
+     * @param mix Comma separated operation=weight pairs
+     * @return Request mix
+     * @throws IllegalArgumentException if the mix is malformed
+     */
+    public static RequestMix parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid request mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        return new RequestMix(weights);
+    }
+
+    /**
+     * Pick the next operation at random according to the weights
+     *
+     * @return Operation
+     */
+    public Operation next() {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        return weights.toString();
+    }
+}
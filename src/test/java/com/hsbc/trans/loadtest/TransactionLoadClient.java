@@ -0,0 +1,214 @@
+package com.hsbc.trans.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hsbc.common.response.enums.ResponseCode;
+import com.hsbc.common.util.JsonUtils;
+import com.hsbc.trans.enums.TransactionStatus;
+import com.hsbc.trans.enums.TransactionType;
+import com.hsbc.trans.loadtest.RequestMix.Operation;
+import com.hsbc.trans.vo.TransactionReq;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Transaction Load Client
+ * Executes load test operations against the transaction API and keeps track of created transaction IDs
+ * Safe for use by many virtual threads at once
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+public class TransactionLoadClient {
+
+    /**
+     * Outcome of an operation
+     */
+    public enum Outcome {
+        /**
+         * HTTP 200 with success response code
+         */
+        SUCCESS,
+        /**
+         * HTTP 200 with a business error code, e.g. transaction not found
+         */
+        REJECTED,
+        /**
+         * Non-200 HTTP status or I/O failure
+         */
+        FAILED
+    }
+
+    /**
+     * Capacity of the ring of known transaction IDs
+     */
+    private static final int ID_RING_CAPACITY = 1 << 20;
+
+    private static final int PAGE_SIZE = 20;
+
+    private final String baseUrl;
+
+    private final HttpClient httpClient;
+
+    /**
+     * Ring of known transaction IDs, deleted slots are set to 0
+     */
+    private final AtomicLongArray knownIds = new AtomicLongArray(ID_RING_CAPACITY);
+
+    private final AtomicLong knownIdCount = new AtomicLong();
+
+    /**
+     * Transactions still in PENDING status, candidates for status updates
+     */
+    private final Queue<Long> pendingIds = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong transIdSequence = new AtomicLong();
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Constructor
+     *
+     * @param baseUrl Base URL of the transaction API
+     * @param httpClient HTTP client
+     */
+    public TransactionLoadClient(String baseUrl, HttpClient httpClient) {
+        this.baseUrl = baseUrl;
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Execute an operation
+     * Operations that need an existing transaction fall back to create when none is known
+     *
+     * @param operation Operation to execute
+     * @return Outcome of the operation
+     */
+    public Outcome execute(Operation operation) {
+        try {
+            return switch (operation) {
+                case CREATE -> create();
+                case GET -> get();
+                case PAGE -> page();
+                case UPDATE -> update();
+                case DELETE -> delete();
+            };
+        } catch (IOException e) {
+            return Outcome.FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.FAILED;
+        }
+    }
+
+    private Outcome create() throws IOException, InterruptedException {
+        TransactionReq req = new TransactionReq();
+        req.setTransId("LOAD_" + runId + "_" + transIdSequence.incrementAndGet());
+        req.setUserId("LOAD_USER_" + ThreadLocalRandom.current().nextInt(1000));
+        req.setAmount(new BigDecimal("100.00"));
+        req.setDescription("load test");
+        req.setType(TransactionType.DEPOSIT);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/create"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(JsonUtils.toJson(req)))
+            .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            return Outcome.FAILED;
+        }
+        JsonNode body = JsonUtils.parseNode(response.body());
+        if (!ResponseCode.SUCC.getCode().equals(body.path("code").asText())) {
+            return Outcome.REJECTED;
+        }
+        long id = body.path("data").path("id").asLong();
+        knownIds.set((int) (knownIdCount.getAndIncrement() & (ID_RING_CAPACITY - 1)), id);
+        pendingIds.offer(id);
+        return Outcome.SUCCESS;
+    }
+
+    private Outcome get() throws IOException, InterruptedException {
+        long id = randomKnownId();
+        if (id == 0) {
+            return create();
+        }
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET().build());
+    }
+
+    private Outcome page() throws IOException, InterruptedException {
+        long pages = Math.max(1, Math.min(knownIdCount.get(), ID_RING_CAPACITY) / PAGE_SIZE);
+        long page = ThreadLocalRandom.current().nextLong(pages);
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/page?page=" + page + "&size=" + PAGE_SIZE)).GET().build());
+    }
+
+    private Outcome update() throws IOException, InterruptedException {
+        Long id = pendingIds.poll();
+        if (id == null) {
+            return create();
+        }
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id + "/update?status="
+            + TransactionStatus.PROCESSING.name() + "&description=load")).GET().build());
+    }
+
+    private Outcome delete() throws IOException, InterruptedException {
+        long count = Math.min(knownIdCount.get(), ID_RING_CAPACITY);
+        if (count == 0) {
+            return create();
+        }
+        int slot = ThreadLocalRandom.current().nextInt((int) count);
+        long id = knownIds.getAndSet(slot, 0);
+        if (id == 0) {
+            return get();
+        }
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id + "/delete"))
+            .POST(HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    private long randomKnownId() {
+        long count = Math.min(knownIdCount.get(), ID_RING_CAPACITY);
+        for (int attempt = 0; attempt < 4 && count > 0; attempt++) {
+            long id = knownIds.get(ThreadLocalRandom.current().nextInt((int) count));
+            if (id != 0) {
+                return id;
+            }
+        }
+        return 0;
+    }
+
+    private Outcome send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            return Outcome.FAILED;
+        }
+        String body = response.body();
+        if (body == null || body.isEmpty()) {
+            return Outcome.SUCCESS; // 删除接口成功时无响应体
+        }
+        return ResponseCode.SUCC.getCode().equals(JsonUtils.parseNode(body).path("code").asText()) ? Outcome.SUCCESS : Outcome.REJECTED;
+    }
+
+    /**
+     * Create an HTTP client for load testing
+     *
+     * @param executor Executor of the client's asynchronous tasks
+     * @return HTTP client
+     */
+    public static HttpClient newHttpClient(Executor executor) {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.hsbc.trans.service;
+
+import com.hsbc.common.errorhandler.exception.BusinessException;
+import com.hsbc.trans.enums.ErrorCode;
+import com.hsbc.trans.metrics.TransactionMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for IdempotencyCache
+ * Tests replay of results, conflicting reuse of keys, retry after failures, expiry and eviction
+ *
+ * @author rd
+ * @version 1.0
+ * @since 2025/6/12
+ */
+class IdempotencyCacheTest {
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private static IdempotencyCache newCache(Duration ttl, int maxEntries) {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setTtl(ttl);
+        properties.setMaxEntries(maxEntries);
+        return new IdempotencyCache(properties, new TransactionMetrics(new SimpleMeterRegistry()));
+    }
+
+    private String execute(IdempotencyCache cache, String key, String request) {
+        return cache.execute(key, request, () -> request + "-" + executions.incrementAndGet());
+    }
+
+    /**
+     * Test that a retry replays the first result without executing again
+     */
+    @Test
+    void testReplay() {
+        IdempotencyCache cache = newCache(Duration.ofMinutes(1), 10);
+
+        assertEquals("A-1", execute(cache, "k1", "A"));
+        assertEquals("A-1", execute(cache, "k1", "A"));
+        assertEquals("A-2", execute(cache, "k2", "A"));
+        assertEquals(2, executions.get());
+    }
+
+    /**
+     * Test that reusing a key for a different request is rejected
+     */
+    @Test
+    void testConflict() {
+        IdempotencyCache cache = newCache(Duration.ofMinutes(1), 10);
+        execute(cache, "k1", "A");
+
+        BusinessException e = assertThrows(BusinessException.class, () -> execute(cache, "k1", "B"));
+        assertEquals(ErrorCode.IDEMPOTENCY_KEY_CONFLICT.getCode(), e.getCode());
+    }
+
+    /**
+     * Test that failures are not cached
+     */
+    @Test
+    void testFailureNotCached() {
+        IdempotencyCache cache = newCache(Duration.ofMinutes(1), 10);
+
+        assertThrows(IllegalStateException.class, () -> cache.execute("k1", "A", () -> {
+            throw new IllegalStateException("failed");
+        }));
+        assertEquals("A-1", execute(cache, "k1", "A"));
+    }
+
+    /**
+     * Test that expired and evicted keys execute again
+     */
+    @Test
+    void testExpiryAndEviction() {
+        IdempotencyCache expiring = newCache(Duration.ZERO, 10);
+        assertEquals("A-1", execute(expiring, "k1", "A"));
+        assertEquals("A-2", execute(expiring, "k1", "A"));
+
+        IdempotencyCache bounded = newCache(Duration.ofMinutes(1), 2);
+        execute(bounded, "k1", "A");
+        execute(bounded, "k2", "A");
+        execute(bounded, "k3", "A");
+        execute(bounded, "k4", "A");
+        assertTrue(bounded.size() <= 3);
+        assertEquals("A-7", execute(bounded, "k1", "A"));
+    }
+}